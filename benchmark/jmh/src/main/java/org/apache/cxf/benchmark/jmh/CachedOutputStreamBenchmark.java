@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.io.CachedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Writes a payload into a {@link CachedOutputStream} in 4K chunks and reads it
+ * back. Payloads above the 64K default threshold spill to a temp file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CachedOutputStreamBenchmark {
+    
+    @Param({"16384", "1048576" })
+    private int payloadSize;
+    
+    private byte[] chunk;
+    private byte[] readBuffer;
+
+    @Setup
+    public void setUp() {
+        chunk = new byte[4096];
+        new Random(42).nextBytes(chunk);
+        readBuffer = new byte[4096];
+    }
+
+    @Benchmark
+    public long writeAndRead() throws IOException {
+        CachedOutputStream cos = new CachedOutputStream();
+        try {
+            for (int written = 0; written < payloadSize; written += chunk.length) {
+                cos.write(chunk, 0, Math.min(chunk.length, payloadSize - written));
+            }
+            cos.flush();
+            long total = 0;
+            InputStream in = cos.getInputStream();
+            try {
+                for (int n = in.read(readBuffer); n != -1; n = in.read(readBuffer)) {
+                    total += n;
+                }
+            } finally {
+                in.close();
+            }
+            return total;
+        } finally {
+            cos.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Small JAXB bean shared by the SOAP, JAX-RS and databinding benchmarks.
+ */
+@XmlRootElement(name = "customer", namespace = "http://jmh.benchmark.cxf.apache.org/")
+public class Customer {
+    private long id;
+    private String name;
+    private String email;
+    private int orders;
+
+    public Customer() {
+    }
+
+    public Customer(long id, String name, String email, int orders) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.orders = orders;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public void setOrders(int orders) {
+        this.orders = orders;
+    }
+    
+    static Customer create(long id) {
+        return new Customer(id, "Customer " + id, "customer" + id + "@example.org", (int)(id % 17));
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.jaxb.JAXBDataBinding;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the JAXB databinding {@code DataReaderImpl} and {@code DataWriterImpl}
+ * for a single small bean, including the per-call (un)marshaller setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JAXBDataBindingBenchmark {
+    private static final QName CUSTOMER = new QName("http://jmh.benchmark.cxf.apache.org/", "customer");
+    
+    private DataReader<XMLStreamReader> reader;
+    private DataWriter<XMLStreamWriter> writer;
+    private Customer customer;
+    private byte[] customerXml;
+
+    @Setup
+    public void setUp() throws Exception {
+        JAXBDataBinding db = new JAXBDataBinding(Customer.class);
+        reader = db.createReader(XMLStreamReader.class);
+        writer = db.createWriter(XMLStreamWriter.class);
+        customer = Customer.create(42);
+        customerXml = write().toByteArray();
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream write() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        XMLStreamWriter xsw = StaxUtils.createXMLStreamWriter(out);
+        writer.write(customer, xsw);
+        xsw.flush();
+        StaxUtils.close(xsw);
+        return out;
+    }
+
+    @Benchmark
+    public Object read() throws Exception {
+        XMLStreamReader xsr = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(customerXml));
+        xsr.nextTag();
+        Object o = reader.read(CUSTOMER, xsr, Customer.class);
+        StaxUtils.close(xsr);
+        return o;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.client.JAXRSClientFactoryBean;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * In-process JAX-RS round trip over the local transport: resource selection,
+ * JAXB message body reader/writer selection and the client/server chains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JaxrsRoundTripBenchmark {
+    private static final String ADDRESS = "local://jmh/rest";
+    
+    private Bus bus;
+    private Server server;
+    private WebClient getClient;
+    private WebClient postClient;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        
+        JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
+        sf.setBus(bus);
+        sf.setResourceClasses(CustomerResource.class);
+        sf.setResourceProvider(CustomerResource.class, 
+                               new SingletonResourceProvider(new CustomerResource(), true));
+        sf.setAddress(ADDRESS);
+        server = sf.create();
+        
+        getClient = createClient().path("customers/42");
+        postClient = createClient().path("customers").type("application/xml");
+        customer = Customer.create(42);
+    }
+    
+    private WebClient createClient() {
+        JAXRSClientFactoryBean bean = new JAXRSClientFactoryBean();
+        bean.setBus(bus);
+        bean.setAddress(ADDRESS);
+        WebClient wc = bean.createWebClient().accept("application/xml");
+        WebClient.getConfig(wc).getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        return wc;
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+
+    @Benchmark
+    public Customer getCustomer() {
+        return getClient.get(Customer.class);
+    }
+
+    @Benchmark
+    public Customer updateCustomer() {
+        return postClient.post(customer, Customer.class);
+    }
+}
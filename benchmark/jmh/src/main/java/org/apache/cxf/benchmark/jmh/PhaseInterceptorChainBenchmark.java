@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseChainCache;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures obtaining a per-message chain from the {@link PhaseChainCache} and
+ * running {@link PhaseInterceptorChain#doIntercept(Message)} over a set of
+ * no-op interceptors spread across the inbound phases, which is the fixed cost
+ * every message pays before any real work is done.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PhaseInterceptorChainBenchmark {
+    
+    @Param({"10", "40" })
+    private int interceptorCount;
+    
+    private SortedSet<Phase> phases;
+    private PhaseChainCache chainCache;
+    private List<Interceptor<? extends Message>> interceptors;
+
+    @Setup
+    public void setUp() {
+        phases = new PhaseManagerImpl().getInPhases();
+        chainCache = new PhaseChainCache();
+        interceptors = new ArrayList<Interceptor<? extends Message>>();
+        Phase[] phaseArray = phases.toArray(new Phase[phases.size()]);
+        for (int i = 0; i < interceptorCount; i++) {
+            interceptors.add(new NoOpInterceptor(phaseArray[i % phaseArray.length].getName(), i));
+        }
+    }
+
+    @Benchmark
+    public boolean doIntercept() {
+        PhaseInterceptorChain chain = chainCache.get(phases, interceptors);
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        message.setExchange(exchange);
+        exchange.setInMessage(message);
+        message.setInterceptorChain(chain);
+        return chain.doIntercept(message);
+    }
+    
+    static class NoOpInterceptor extends AbstractPhaseInterceptor<Message> {
+        NoOpInterceptor(String phase, int idx) {
+            super(NoOpInterceptor.class.getName() + idx, phase);
+        }
+
+        public void handleMessage(Message message) throws Fault {
+            message.get(Message.CONTENT_TYPE);
+        }
+    }
+}
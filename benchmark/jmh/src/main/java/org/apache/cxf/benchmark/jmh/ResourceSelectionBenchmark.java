@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.URITemplate;
+import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link JAXRSUtils#selectResourceClass(List, String, Message)} against
+ * a configurable number of root resources, half of them with literal and half
+ * with templated paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResourceSelectionBenchmark {
+    
+    @Param({"10", "300" })
+    private int resourceCount;
+    
+    private Bus bus;
+    private Server server;
+    private List<ClassResourceInfo> resources;
+    private Message message;
+    private String literalPath;
+    private String templatePath;
+
+    @Setup
+    public void setUp() {
+        resources = new ArrayList<ClassResourceInfo>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            ClassResourceInfo cri = new ClassResourceInfo(CustomerResource.class, true);
+            String template = i % 2 == 0 ? "/service" + i + "/items" : "/service" + i + "/{id}/items";
+            cri.setURITemplate(new URITemplate(template));
+            resources.add(cri);
+        }
+        // the resource comparator looks up the endpoint from the exchange
+        bus = BusFactory.newInstance().createBus();
+        JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
+        sf.setBus(bus);
+        sf.setResourceClasses(CustomerResource.class);
+        sf.setAddress("local://jmh/select");
+        server = sf.create();
+        
+        message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Endpoint.class, server.getEndpoint());
+        message.setExchange(exchange);
+        
+        int last = resourceCount - 1;
+        literalPath = "/service" + (last - last % 2) + "/items";
+        templatePath = "/service" + (last - (last + 1) % 2) + "/12345/items";
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+
+    @Benchmark
+    public Map<ClassResourceInfo, MultivaluedMap<String, String>> selectLiteral() {
+        return JAXRSUtils.selectResourceClass(resources, literalPath, message);
+    }
+
+    @Benchmark
+    public Map<ClassResourceInfo, MultivaluedMap<String, String>> selectTemplate() {
+        return JAXRSUtils.selectResourceClass(resources, templatePath, message);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * In-process SOAP 1.1 doc/lit wrapped round trip over the local transport, so
+ * the numbers cover the complete client and server interceptor chains, the JAXB
+ * databinding and the StAX layer without any socket I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SoapRoundTripBenchmark {
+    private static final String ADDRESS = "local://jmh/soap";
+    
+    private Bus bus;
+    private Server server;
+    private CustomerService client;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceClass(CustomerServiceImpl.class);
+        sf.setServiceBean(new CustomerServiceImpl());
+        sf.setAddress(ADDRESS);
+        server = sf.create();
+        
+        JaxWsProxyFactoryBean cf = new JaxWsProxyFactoryBean();
+        cf.setBus(bus);
+        cf.setServiceClass(CustomerService.class);
+        cf.setAddress(ADDRESS);
+        client = cf.create(CustomerService.class);
+        ClientProxy.getClient(client).getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        
+        customer = Customer.create(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ClientProxy.getClient(client).destroy();
+        server.destroy();
+        bus.shutdown(true);
+    }
+
+    @Benchmark
+    public Customer getCustomer() {
+        return client.getCustomer(42);
+    }
+
+    @Benchmark
+    public Customer updateCustomer() {
+        return client.updateCustomer(customer);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link StaxUtils#createXMLStreamReader(java.io.InputStream)} on its
+ * own and followed by a full pass over a SOAP envelope of configurable size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StaxUtilsBenchmark {
+    
+    @Param({"1", "100" })
+    private int elementCount;
+    
+    private byte[] envelope;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">")
+            .append("<soap:Body><ns2:getCustomerResponse xmlns:ns2=\"http://jmh.benchmark.cxf.apache.org/\">");
+        for (int i = 0; i < elementCount; i++) {
+            sb.append("<customer><id>").append(i).append("</id><name>Customer ").append(i)
+                .append("</name><email>customer").append(i).append("@example.org</email></customer>");
+        }
+        sb.append("</ns2:getCustomerResponse></soap:Body></soap:Envelope>");
+        envelope = sb.toString().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public XMLStreamReader createReader() throws XMLStreamException {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(envelope));
+        StaxUtils.close(reader);
+        return reader;
+    }
+
+    @Benchmark
+    public void createAndReadAll(Blackhole bh) throws XMLStreamException {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(envelope));
+        while (reader.hasNext()) {
+            bh.consume(reader.next());
+        }
+        StaxUtils.close(reader);
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.message.Message;
 
 public class AttachmentDataSource implements DataSource {
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
 
     private final String ct;    
     private CachedOutputStream cache;
@@ -58,6 +59,30 @@ public class AttachmentDataSource implements DataSource {
             }
         }
     }
+    /**
+     * Streams the attachment to the given sink without caching it first, 
+     * provided it has not been cached yet. The attachment can not be read 
+     * again afterwards, unless it had been cached.
+     * @param out the sink
+     * @return the number of bytes written
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        InputStream in = cache != null ? cache.getInputStream() : delegate != null ? delegate : ins;
+        try {
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            long count = 0;
+            int n = in.read(buffer);
+            while (n != -1) {
+                out.write(buffer, 0, n);
+                count += n;
+                n = in.read(buffer);
+            }
+            return count;
+        } finally {
+            in.close();
+        }
+    }
+    
     public void hold(Message message) throws IOException {
         cache(message);
         cache.holdTempFile();
@@ -49,6 +49,11 @@ public class AttachmentDeserializer {
 
     public static final String ATTACHMENT_MAX_SIZE = "attachment-max-size";
 
+    /**
+     * The size of the buffer the MIME boundaries are searched in, defaults to 8K.
+     */
+    public static final String ATTACHMENT_BUFFER_SIZE = "attachment-buffer-size";
+
     public static final int THRESHOLD = 1024 * 100; //100K (byte unit)
 
     private static final Pattern CONTENT_TYPE_BOUNDARY_PATTERN = Pattern.compile("boundary=\"?([^\";]*)");
@@ -60,7 +65,7 @@ public class AttachmentDeserializer {
 
     private boolean lazyLoading = true;
 
-    private int pbAmount = 2048;
+    private int pbAmount = 8192;
     private PushbackInputStream stream;
     private int createCount; 
     private int closedCount;
@@ -78,6 +83,10 @@ public class AttachmentDeserializer {
     
     private Set<DelegatingInputStream> loaded = new HashSet<DelegatingInputStream>();
     private List<String> supportedTypes;
+    
+    private long partBytes;
+    private long firstReadTime;
+    private long lastReadTime;
 
     public AttachmentDeserializer(Message message) {
         this(message, Collections.singletonList("multipart/related"));
@@ -117,6 +126,11 @@ public class AttachmentDeserializer {
             }
             boundary = boundaryString.getBytes("utf-8");
 
+            Object bufferSize = message.getContextualProperty(ATTACHMENT_BUFFER_SIZE);
+            if (bufferSize != null) {
+                pbAmount = bufferSize instanceof Integer 
+                    ? (Integer)bufferSize : Integer.parseInt(bufferSize.toString());
+            }
             stream = new PushbackInputStream(message.getContent(InputStream.class),
                                              pbAmount);
             if (!readTillFirstBoundary(stream, boundary)) {
@@ -133,7 +147,7 @@ public class AttachmentDeserializer {
                 }
             }
 
-            body = new DelegatingInputStream(new MimeBodyPartInputStream(stream, boundary, pbAmount),
+            body = new DelegatingInputStream(new MimeBodyPartInputStream(stream, boundary, pbAmount, this),
                                              this);
             createCount++;
             message.setContent(InputStream.class, body);
@@ -271,12 +285,38 @@ public class AttachmentDeserializer {
      */
     private Attachment createAttachment(Map<String, List<String>> headers) throws IOException {
         InputStream partStream = 
-            new DelegatingInputStream(new MimeBodyPartInputStream(stream, boundary, pbAmount),
+            new DelegatingInputStream(new MimeBodyPartInputStream(stream, boundary, pbAmount, this),
                                       this);
         createCount++;
         return AttachmentUtil.createAttachment(partStream, headers);
     }
 
+    void partBytesRead(int count) {
+        long now = System.nanoTime();
+        if (partBytes == 0) {
+            firstReadTime = now;
+        }
+        lastReadTime = now;
+        partBytes += count;
+    }
+    
+    /**
+     * @return the number of bytes of the MIME parts read so far with bulk reads, 
+     *         without the headers and boundaries
+     */
+    public long getPartBytesRead() {
+        return partBytes;
+    }
+    
+    /**
+     * @return the rate the MIME parts have been read at so far in bytes per second,
+     *         0 if it can not be determined yet
+     */
+    public double getPartThroughput() {
+        long time = lastReadTime - firstReadTime;
+        return time <= 0 ? 0 : partBytes * 1000000000d / time;
+    }
+
     public boolean isLazyLoading() {
         return lazyLoading;
     }
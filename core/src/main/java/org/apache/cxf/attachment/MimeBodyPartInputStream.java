@@ -22,6 +22,7 @@ package org.apache.cxf.attachment;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
+import java.util.Arrays;
 
 public class MimeBodyPartInputStream extends InputStream {
 
@@ -33,6 +34,8 @@ public class MimeBodyPartInputStream extends InputStream {
     byte[] boundaryBuffer;
 
     private boolean closed;
+    private int[] skipTable;
+    private AttachmentDeserializer deserializer;
 
     public MimeBodyPartInputStream(PushbackInputStream inStreamParam, 
                                    byte[] boundaryParam,
@@ -43,165 +46,164 @@ public class MimeBodyPartInputStream extends InputStream {
         this.pbAmount = pbsize;
     }
 
+    MimeBodyPartInputStream(PushbackInputStream inStreamParam, 
+                            byte[] boundaryParam,
+                            int pbsize,
+                            AttachmentDeserializer deserializer) {
+        this(inStreamParam, boundaryParam, pbsize);
+        this.deserializer = deserializer;
+    }
+
     public int read(byte buf[], int origOff, int origLen) throws IOException {
-        byte b[] = buf;
-        int off = origOff;
-        int len = origLen;
         if (boundaryFound || closed) {
             return -1;
         }
-        if ((off < 0) || (off > b.length) || (len < 0) 
-            || ((off + len) > b.length) || ((off + len) < 0)) {
+        if ((origOff < 0) || (origOff > buf.length) || (origLen < 0) 
+            || ((origOff + origLen) > buf.length) || ((origOff + origLen) < 0)) {
 
             throw new IndexOutOfBoundsException();
         }
-        if (len == 0) {
+        if (origLen == 0) {
             return 0;
         }
-        boolean bufferCreated = false;
-        if (len < boundary.length * 2) {
+        // we need to see the CRLF and the whole boundary plus its trailer to detect it
+        int minLen = boundary.length + 4;
+        byte b[] = buf;
+        int off = origOff;
+        int len = Math.min(origLen, pbAmount);
+        if (len < minLen) {
             //buffer is too short to detect boundaries with it.  We'll need to create a larger buffer   
-            bufferCreated = true;
             if (boundaryBuffer == null) {
-                boundaryBuffer = new byte[boundary.length * 2];
+                boundaryBuffer = new byte[Math.min(Math.max(boundary.length * 2, minLen), pbAmount)];
             }
             b = boundaryBuffer;
             off = 0;
             len = boundaryBuffer.length;
         }
-        if (len > pbAmount) {
-            len = pbAmount;  //can only pushback that much so make sure we can
-        }
+        
         int read = 0;
         int idx = 0;
-        while (read >= 0 && idx < len && idx < (boundary.length * 2)) {
+        while (idx < minLen && idx < len) {
             //make sure we read enough to detect the boundary
             read = inStream.read(b, off + idx, len - idx);
-            if (read != -1) {
-                idx += read;
+            if (read == -1) {
+                break;
             }
+            idx += read;
         }
-        if (read == -1 && idx == 0) {
+        if (idx == 0) {
             return -1;
         }
         len = idx;
         
-        int i = processBuffer(b, off, len);
-        if (bufferCreated && i > 0) {
-            // read more than we need, push it back
-            if (origLen >= i) {
-                System.arraycopy(b, 0, buf, origOff, i);
-            } else {
-                System.arraycopy(b, 0, buf, origOff, origLen);
-                inStream.unread(b, origLen, i - origLen);
-                i = origLen;
+        int pos = indexOfBoundary(b, off, len);
+        int contentLen;
+        if (pos == -1) {
+            contentLen = read == -1 ? len : len - getPartialBoundaryLength(b, off, len);
+        } else {
+            contentLen = pos - off;
+            if (contentLen >= 2 && b[pos - 2] == 13 && b[pos - 1] == 10) {
+                contentLen -= 2;
             }
-        } else if (i == 0 && boundaryFound) {
+        }
+        int count = Math.min(contentLen, origLen);
+        if (pos != -1 && count == contentLen) {
+            int end = pos + boundary.length;
+            inStream.unread(b, end, off + len - end);
+            readBoundaryTrailer();
+        } else {
+            // push back what the caller did not take, it is scanned again on the next read
+            inStream.unread(b, off + count, len - count);
+        }
+        if (count == 0) {
             return -1;
         }
-        
-        return i;
+        if (b != buf) {
+            System.arraycopy(b, off, buf, origOff, count);
+        }
+        if (deserializer != null) {
+            deserializer.partBytesRead(count);
+        }
+        return count;
     }
-
-    //Has Data after encountering CRLF
-    private boolean hasData(byte[] b, int initialPointer, int pointer, int off, int len)
-        throws IOException {
-        if (pointer < (off + len)) {
-            return true;
-        } else if (pointer >= 1000000000) {
-            inStream.unread(b, initialPointer, (off + len) - initialPointer);
-            return false;            
-        } else {
-            int x = inStream.read();
-            if (x != -1) {
-                inStream.unread(x);
-                inStream.unread(b, initialPointer, (off + len) - initialPointer);
-                return false;
+    
+    /**
+     * Searches the boundary with the Boyer-Moore-Horspool algorithm.
+     * 
+     * @return the position of the boundary or -1
+     */
+    private int indexOfBoundary(byte[] b, int off, int len) {
+        if (skipTable == null) {
+            skipTable = new int[256];
+            int last = boundary.length - 1;
+            Arrays.fill(skipTable, boundary.length);
+            for (int k = 0; k < last; k++) {
+                skipTable[boundary[k] & 0xff] = last - k;
             }
-            return true;
         }
-    }
-
-    protected int processBuffer(byte[] buffer, int off, int len) throws IOException {
-        for (int i = off; i < (off + len); i++) {
-            boolean needUnread0d0a = false;
-            int value = buffer[i];
-            int initialI = i;
-            if (value == 13) {
-                if (!hasData(buffer, initialI, initialI + 1, off, len)) {
-                    return initialI - off;
+        int last = boundary.length - 1;
+        int end = off + len - boundary.length;
+        int i = off;
+        while (i <= end) {
+            int j = last;
+            while (b[i + j] == boundary[j]) {
+                if (j == 0) {
+                    return i;
                 }
-                value = buffer[initialI + 1];
-                if (value != 10) {
-                    continue;
-                } else {  //if it comes here then 13, 10 are values and will try to match boundaries
-                    if (!hasData(buffer, initialI, initialI + 2, off, len)) {
-                        return initialI - off;
-                    }
-                    value = buffer[initialI + 2];
-                    if ((byte) value != boundary[0]) {
-                        i++;
-                        continue;
-                    } else { //13, 10, boundaries first value matched
-                        needUnread0d0a = true;
-                        i += 2; //i after this points to boundary[0] element
-                    }
-                }
-            } else if (value != boundary[0]) {
-                continue;
-            }
-
-            int boundaryIndex = 0;
-            while ((boundaryIndex < boundary.length) && (value == boundary[boundaryIndex])) {
-                if (!hasData(buffer, initialI, i + 1, off, len)) {
-                    return initialI - off;
-                }                
-                value = buffer[++i];
-                boundaryIndex++;
+                j--;
             }
-            if (boundaryIndex == boundary.length) {
-                // read the end of line character
-                if (initialI != off) {
-                    i = 1000000000;
-                }
-                if (initialI - off != 0 
-                    && !hasData(buffer, initialI, i + 1, off, len)) {
-                    return initialI - off;
-                }
-                boundaryFound = true;
-                int j = i + 1;
-                if (j < len && buffer[j] == 45 && value == 45) {
-                    // Last mime boundary should have a succeeding "--"
-                    // as we are on it, read the terminating CRLF
-                    i += 2;
-                    //last mime boundary
-                }
-
-                //boundary matched (may or may not be last mime boundary)
-                int processed = initialI - off;
-                if ((len - ((i - off) + 2)) > 0) {
-                    inStream.unread(buffer, i + 2, len - (i + 2) + off);
+            i += skipTable[b[i + last] & 0xff];
+        }
+        return -1;
+    }
+    
+    /**
+     * The end of the buffer may hold the CRLF and the start of the next boundary,
+     * they have to be kept until the next read tells whether the boundary follows.
+     * 
+     * @return the length of the possible partial boundary at the end of the buffer
+     */
+    private int getPartialBoundaryLength(byte[] b, int off, int len) {
+        for (int start = Math.max(off, off + len - (boundary.length + 1)); start < off + len; start++) {
+            if (b[start] == 13 || b[start] == boundary[0]) {
+                int tail = off + len - start;
+                if (matchesDelimiterStart(b, start, tail)) {
+                    return tail;
                 }
-                return processed;
             }
-
-            // Boundary not found. Restoring bytes skipped.
-            // write first skipped byte, push back the rest
-            if (value != -1) { //pushing back first byte of boundary
-                // Stream might have ended
-                i--;
+        }
+        return 0;
+    }
+    
+    private boolean matchesDelimiterStart(byte[] b, int start, int tail) {
+        int i = 0;
+        int j = 0;
+        if (b[start] == 13) {
+            if (tail > 1 && b[start + 1] != 10) {
+                return false;
             }
-            if (needUnread0d0a) { //Pushing all,  returning 13
-                i = i - boundaryIndex;
-                i--; //for 10
-                value = 13;
-            } else {
-                i = i - boundaryIndex;
-                i++;
-                value = boundary[0];
+            i = 2;
+        }
+        while (i < tail && j < boundary.length) {
+            if (b[start + i] != boundary[j]) {
+                return false;
             }
+            i++;
+            j++;
+        }
+        return true;
+    }
+    
+    private void readBoundaryTrailer() throws IOException {
+        boundaryFound = true;
+        int value = inStream.read();
+        int dashNext = inStream.read();
+        if (dashNext == 45 && value == 45) {
+            // Last mime boundary should have a succeeding "--"
+            // as we are on it, read the terminating CRLF
+            inStream.read();
+            inStream.read();
         }
-        return len;
     }
 
     public int read() throws IOException {
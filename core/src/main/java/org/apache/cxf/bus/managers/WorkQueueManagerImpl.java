@@ -22,6 +22,7 @@ package org.apache.cxf.bus.managers;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -193,6 +194,28 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
         }
     }
     
+    /**
+     * Creates and registers a named work queue that hands its work items to the given
+     * ExecutorService or, if that is null, runs each of them on a thread of its own
+     * (a virtual thread where the JVM supports them).  The queue's highWaterMark
+     * limits the number of concurrently running work items, -1 removes the limit.
+     * @param name
+     * @param es the ExecutorService to use, may be null
+     * @param highWaterMark
+     * @return the new work queue
+     */
+    public AutomaticWorkQueue createNamedWorkQueue(String name, ExecutorService es, int highWaterMark) {
+        AutomaticWorkQueueImpl q = new AutomaticWorkQueueImpl(name);
+        if (es == null) {
+            q.setThreadPerTask(true);
+        } else {
+            q.setExecutorService(es);
+        }
+        q.setHighWaterMark(highWaterMark);
+        addNamedWorkQueue(name, q);
+        return q;
+    }
+    
     private AutomaticWorkQueue createAutomaticWorkQueue() {        
         AutomaticWorkQueue q = new AutomaticWorkQueueImpl("default");
         addNamedWorkQueue("default", q);
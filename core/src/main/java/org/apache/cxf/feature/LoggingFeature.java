@@ -21,6 +21,7 @@ package org.apache.cxf.feature;
 import org.apache.cxf.Bus;
 import org.apache.cxf.annotations.Logging;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.interceptor.AsyncLoggingQueue;
 import org.apache.cxf.interceptor.InterceptorProvider;
 import org.apache.cxf.interceptor.LoggingInInterceptor;
 import org.apache.cxf.interceptor.LoggingOutInterceptor;
@@ -53,6 +54,7 @@ public class LoggingFeature extends AbstractFeature {
     boolean showBinary;
     
     int limit = DEFAULT_LIMIT;
+    AsyncLoggingQueue asyncLoggingQueue;
 
     public LoggingFeature() {
         
@@ -93,7 +95,7 @@ public class LoggingFeature extends AbstractFeature {
     @Override
     protected void initializeProvider(InterceptorProvider provider, Bus bus) {
         if (limit == DEFAULT_LIMIT && inLocation == null 
-            && outLocation == null && !prettyLogging) {
+            && outLocation == null && !prettyLogging && asyncLoggingQueue == null) {
             provider.getInInterceptors().add(IN);
             provider.getInFaultInterceptors().add(IN);
             provider.getOutInterceptors().add(OUT);
@@ -103,10 +105,12 @@ public class LoggingFeature extends AbstractFeature {
             in.setOutputLocation(inLocation);
             in.setPrettyLogging(prettyLogging);
             in.setShowBinaryContent(showBinary);
+            in.setAsyncLoggingQueue(asyncLoggingQueue);
             LoggingOutInterceptor out = new LoggingOutInterceptor(limit);
             out.setOutputLocation(outLocation);
             out.setPrettyLogging(prettyLogging);
             out.setShowBinaryContent(showBinary);
+            out.setAsyncLoggingQueue(asyncLoggingQueue);
             
             provider.getInInterceptors().add(in);
             provider.getInFaultInterceptors().add(in);
@@ -142,4 +146,17 @@ public class LoggingFeature extends AbstractFeature {
     public void setPrettyLogging(boolean prettyLogging) {
         this.prettyLogging = prettyLogging;
     }    
+    
+    /**
+     * Format and write the log messages on the consumer thread of the given queue
+     * instead of the request thread.
+     * @param asyncLoggingQueue
+     */
+    public void setAsyncLoggingQueue(AsyncLoggingQueue asyncLoggingQueue) {
+        this.asyncLoggingQueue = asyncLoggingQueue;
+    }
+    
+    public AsyncLoggingQueue getAsyncLoggingQueue() {
+        return asyncLoggingQueue;
+    }
 }
@@ -20,6 +20,7 @@ package org.apache.cxf.interceptor;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringReader;
@@ -66,6 +67,7 @@ public abstract class AbstractLoggingInterceptor extends AbstractPhaseIntercepto
     protected PrintWriter writer;
     protected boolean prettyLogging;
     private boolean showBinaryContent;
+    private AsyncLoggingQueue asyncQueue;
     
     public AbstractLoggingInterceptor(String phase) {
         super(phase);
@@ -141,6 +143,19 @@ public abstract class AbstractLoggingInterceptor extends AbstractPhaseIntercepto
         return prettyLogging;
     }
 
+    /**
+     * Sets the queue the payload formatting and the logging is handed over to. 
+     * If no queue is set, the message is logged on the current thread.
+     * @param queue the queue
+     */
+    public void setAsyncLoggingQueue(AsyncLoggingQueue queue) {
+        asyncQueue = queue;
+    }
+    
+    public AsyncLoggingQueue getAsyncLoggingQueue() {
+        return asyncQueue;
+    }
+    
     public void setInMemThreshold(long t) {
         threshold = t;
     }
@@ -180,6 +195,76 @@ public abstract class AbstractLoggingInterceptor extends AbstractPhaseIntercepto
 
         }
     }
+    /**
+     * Copies the part of the cached payload which is going to be logged.
+     */
+    protected byte[] snapshotPayload(CachedOutputStream cos) throws IOException {
+        long size = cos.size();
+        if (limit != -1 && size > limit) {
+            size = limit;
+        }
+        byte[] bytes = new byte[(int)size];
+        InputStream in = cos.getInputStream();
+        try {
+            int count = 0;
+            while (count < bytes.length) {
+                int n = in.read(bytes, count, bytes.length - count);
+                if (n == -1) {
+                    break;
+                }
+                count += n;
+            }
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+    
+    /**
+     * Formats the payload snapshot into the logging message and logs it, 
+     * on the consumer thread of the asynchronous logging queue if one is set.
+     */
+    protected void logPayload(final Logger logger, final LoggingMessage buffer, final byte[] payload,
+                              final String encoding, final String contentType) {
+        logAsync(new Runnable() {
+            public void run() {
+                try {
+                    CachedOutputStream cos = new CachedOutputStream();
+                    cos.write(payload);
+                    writePayload(buffer.getPayload(), cos, encoding, contentType);
+                    cos.close();
+                } catch (Exception ex) {
+                    //ignore
+                }
+                log(logger, formatLoggingMessage(buffer));
+            }
+        });
+    }
+    
+    /**
+     * Logs the message, on the consumer thread of the asynchronous logging queue 
+     * if one is set.
+     */
+    protected void logAsync(final Logger logger, final LoggingMessage buffer) {
+        logAsync(new Runnable() {
+            public void run() {
+                log(logger, formatLoggingMessage(buffer));
+            }
+        });
+    }
+    
+    private void logAsync(Runnable record) {
+        if (asyncQueue == null) {
+            record.run();
+        } else {
+            asyncQueue.offer(record);
+        }
+    }
+    
+    protected String formatLoggingMessage(LoggingMessage loggingMessage) {
+        return loggingMessage.toString();
+    }
+    
     protected void writePayload(StringBuilder builder, 
                                 StringWriter stringWriter,
                                 String contentType) 
@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * A bounded queue of logging records which are formatted and written by a 
+ * dedicated consumer thread, so that the logging interceptors only need to 
+ * take a snapshot of the message on the request thread.
+ * <p>
+ * Records are kept in a ring buffer; producers claim a slot with a 
+ * compare-and-set and never take a lock. When the ring is full the record 
+ * is either dropped, and counted, or the producer waits for a free slot, 
+ * depending on the {@link OverflowPolicy}.
+ */
+public class AsyncLoggingQueue {
+    
+    public enum OverflowPolicy {
+        /** Drop the record and increment the dropped record count. */
+        DROP,
+        /** Wait until the consumer has freed a slot. */
+        BLOCK
+    }
+    
+    public static final int DEFAULT_CAPACITY = 1024;
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(AsyncLoggingQueue.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    
+    private final AtomicReferenceArray<Runnable> slots;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile long head;
+    private volatile boolean consumerIdle;
+    private volatile boolean running = true;
+    private final Thread consumer;
+    
+    public AsyncLoggingQueue() {
+        this(DEFAULT_CAPACITY, OverflowPolicy.DROP);
+    }
+    
+    /**
+     * @param capacity the number of records the queue holds, rounded up to a power of two
+     * @param overflowPolicy what to do with a record when the queue is full 
+     */
+    public AsyncLoggingQueue(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<Runnable>(size);
+        this.mask = size - 1;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP : overflowPolicy;
+        this.consumer = new Thread(new Runnable() {
+            public void run() {
+                consume();
+            }
+        }, "cxf-async-logging");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+    
+    /**
+     * Hands a record over to the consumer thread.
+     * @param record the record formatting and writing the log message
+     * @return false if the record was dropped
+     */
+    public boolean offer(Runnable record) {
+        if (!running) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        while (true) {
+            long t = tail.get();
+            if (t - head > mask) {
+                if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                    droppedCount.incrementAndGet();
+                    return false;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            } else if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int)(t & mask), record);
+                if (consumerIdle) {
+                    LockSupport.unpark(consumer);
+                }
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * @return the number of records dropped because the queue was full or shut down
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    /**
+     * @return the number of records waiting to be written
+     */
+    public int size() {
+        return (int)(tail.get() - head);
+    }
+    
+    public int getCapacity() {
+        return mask + 1;
+    }
+    
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+    
+    /**
+     * Stops accepting records and waits for the queued records to be written.
+     * @param timeout the maximum time in milliseconds to wait
+     */
+    public void shutdown(long timeout) {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(timeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void consume() {
+        long h = head;
+        while (running || h != tail.get()) {
+            int index = (int)(h & mask);
+            Runnable record = slots.get(index);
+            if (record == null) {
+                if (h == tail.get()) {
+                    consumerIdle = true;
+                    if (h == tail.get() && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    consumerIdle = false;
+                } else {
+                    // a producer has claimed the slot but not published the record yet
+                    Thread.yield();
+                }
+                continue;
+            }
+            slots.set(index, null);
+            h++;
+            head = h;
+            try {
+                record.run();
+            } catch (Throwable t) {
+                LOG.log(Level.WARNING, "Writing the log record failed", t);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.cxf.interceptor;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
@@ -148,6 +149,10 @@ public class LoggingInInterceptor extends AbstractLoggingInterceptor {
         
         InputStream is = message.getContent(InputStream.class);
         if (is != null) {
+            if (getAsyncLoggingQueue() != null) {
+                logInputStreamAsync(logger, message, is, buffer, encoding, ct);
+                return;
+            }
             logInputStream(message, is, buffer, encoding, ct);
         } else {
             Reader reader = message.getContent(Reader.class);
@@ -179,37 +184,8 @@ public class LoggingInInterceptor extends AbstractLoggingInterceptor {
     }
     protected void logInputStream(Message message, InputStream is, LoggingMessage buffer,
                                   String encoding, String ct) {
-        CachedOutputStream bos = new CachedOutputStream();
-        if (threshold > 0) {
-            bos.setThreshold(threshold);
-        }
         try {
-            // use the appropriate input stream and restore it later
-            InputStream bis = is instanceof DelegatingInputStream 
-                ? ((DelegatingInputStream)is).getInputStream() : is;
-            
-
-            //only copy up to the limit since that's all we need to log
-            //we can stream the rest
-            IOUtils.copyAtLeast(bis, bos, limit);
-            bos.flush();
-            bis = new SequenceInputStream(bos.getInputStream(), bis);
-            
-            // restore the delegating input stream or the input stream
-            if (is instanceof DelegatingInputStream) {
-                ((DelegatingInputStream)is).setInputStream(bis);
-            } else {
-                message.setContent(InputStream.class, bis);
-            }
-
-            if (bos.getTempFile() != null) {
-                //large thing on disk...
-                buffer.getMessage().append("\nMessage (saved to tmp file):\n");
-                buffer.getMessage().append("Filename: " + bos.getTempFile().getAbsolutePath() + "\n");
-            }
-            if (bos.size() > limit) {
-                buffer.getMessage().append("(message truncated to " + limit + " bytes)\n");
-            }
+            CachedOutputStream bos = cacheInputStream(message, is, buffer);
             writePayload(buffer.getPayload(), bos, encoding, ct); 
                 
             bos.close();
@@ -217,6 +193,58 @@ public class LoggingInInterceptor extends AbstractLoggingInterceptor {
             throw new Fault(e);
         }
     }
+    
+    /**
+     * Only copies the bytes to be logged on the current thread, the payload is 
+     * formatted and logged by the asynchronous logging queue.
+     */
+    protected void logInputStreamAsync(Logger logger, Message message, InputStream is, 
+                                       LoggingMessage buffer, String encoding, String ct) {
+        byte[] payload = null;
+        try {
+            CachedOutputStream bos = cacheInputStream(message, is, buffer);
+            payload = snapshotPayload(bos);
+            bos.close();
+        } catch (Exception e) {
+            throw new Fault(e);
+        }
+        logPayload(logger, buffer, payload, encoding, ct);
+    }
+    
+    private CachedOutputStream cacheInputStream(Message message, InputStream is, LoggingMessage buffer) 
+        throws IOException {
+        CachedOutputStream bos = new CachedOutputStream();
+        if (threshold > 0) {
+            bos.setThreshold(threshold);
+        }
+        // use the appropriate input stream and restore it later
+        InputStream bis = is instanceof DelegatingInputStream 
+            ? ((DelegatingInputStream)is).getInputStream() : is;
+        
+
+        //only copy up to the limit since that's all we need to log
+        //we can stream the rest
+        IOUtils.copyAtLeast(bis, bos, limit);
+        bos.flush();
+        bis = new SequenceInputStream(bos.getInputStream(), bis);
+        
+        // restore the delegating input stream or the input stream
+        if (is instanceof DelegatingInputStream) {
+            ((DelegatingInputStream)is).setInputStream(bis);
+        } else {
+            message.setContent(InputStream.class, bis);
+        }
+
+        if (bos.getTempFile() != null) {
+            //large thing on disk...
+            buffer.getMessage().append("\nMessage (saved to tmp file):\n");
+            buffer.getMessage().append("Filename: " + bos.getTempFile().getAbsolutePath() + "\n");
+        }
+        if (bos.size() > limit) {
+            buffer.getMessage().append("(message truncated to " + limit + " bytes)\n");
+        }
+        return bos;
+    }
 
     protected String formatLoggingMessage(LoggingMessage loggingMessage) {
 
@@ -235,14 +235,23 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
                     buffer.getMessage().append("(message truncated to " + limit + " bytes)\n");
                 }
             }
-            try {
-                String encoding = (String)message.get(Message.ENCODING);
-                writePayload(buffer.getPayload(), cos, encoding, ct); 
-            } catch (Exception ex) {
-                //ignore
-            }
+            String encoding = (String)message.get(Message.ENCODING);
+            if (getAsyncLoggingQueue() != null) {
+                // only copy the bytes to be logged, the queue formats and logs them 
+                try {
+                    logPayload(logger, buffer, snapshotPayload(cos), encoding, ct);
+                } catch (Exception ex) {
+                    //ignore
+                }
+            } else {
+                try {
+                    writePayload(buffer.getPayload(), cos, encoding, ct); 
+                } catch (Exception ex) {
+                    //ignore
+                }
 
-            log(logger, formatLoggingMessage(buffer));
+                log(logger, formatLoggingMessage(buffer));
+            }
             try {
                 //empty out the cache
                 cos.lockOutputStream();
@@ -31,6 +31,10 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -302,6 +306,13 @@ public class CachedOutputStream extends OutputStream {
             } else {
                 throw new IOException("Unknown format of currentStream");
             }
+        } else if (cipherTransformation == null 
+            && (out instanceof FileOutputStream || out instanceof WritableByteChannel)) {
+            // let the file channel move the data without copying it through the heap
+            out.flush();
+            WritableByteChannel channel = out instanceof FileOutputStream 
+                ? ((FileOutputStream)out).getChannel() : (WritableByteChannel)out;
+            transferFile(channel);
         } else {
             // read the file
             InputStream fin = createInputStream(tempFile);
@@ -309,6 +320,61 @@ public class CachedOutputStream extends OutputStream {
         }
     }
     
+    /**
+     * Writes the cached content to the channel. If the content has been
+     * written to a temporary file this uses {@link FileChannel#transferTo}, 
+     * which lets the operating system copy the data to the target channel
+     * directly, without reading it into the heap first.
+     * 
+     * @param channel the target channel, it is not closed
+     * @throws IOException
+     */
+    public void writeCacheTo(WritableByteChannel channel) throws IOException {
+        flush();
+        if (inmem) {
+            if (currentStream instanceof LoadingByteArrayOutputStream) {
+                LoadingByteArrayOutputStream lout = (LoadingByteArrayOutputStream)currentStream;
+                writeFully(channel, ByteBuffer.wrap(lout.getRawBytes(), 0, lout.size()));
+            } else if (currentStream instanceof ByteArrayOutputStream) {
+                writeFully(channel, ByteBuffer.wrap(((ByteArrayOutputStream)currentStream).toByteArray()));
+            } else {
+                throw new IOException("Unknown format of currentStream");
+            }
+        } else if (cipherTransformation == null) {
+            transferFile(channel);
+        } else {
+            InputStream fin = createInputStream(tempFile);
+            IOUtils.copyAndCloseInput(fin, Channels.newOutputStream(channel));
+        }
+    }
+    
+    private void transferFile(WritableByteChannel channel) throws IOException {
+        FileInputStream fin = new FileInputStream(tempFile);
+        try {
+            transferFully(fin.getChannel(), channel);
+        } finally {
+            fin.close();
+        }
+    }
+    
+    private static void transferFully(FileChannel source, WritableByteChannel target) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+            long count = source.transferTo(position, size - position, target);
+            if (count <= 0) {
+                break;
+            }
+            position += count;
+        }
+    }
+    
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
     public void writeCacheTo(StringBuilder out, long limit) throws IOException {
         writeCacheTo(out, "UTF-8", limit);
     }
@@ -669,9 +735,13 @@ public class CachedOutputStream extends OutputStream {
             //We've cached the file so try renaming.
             boolean transfered = sourceFile.renameTo(destinationFile);
             if (!transfered) {
-                // Data is in memory, or we failed to rename the file, try copying
-                // the stream instead.
-                IOUtils.transferTo(getInputStream(), destinationFile);
+                // we failed to rename the file, copy it over channel to channel instead
+                FileOutputStream fout = new FileOutputStream(destinationFile);
+                try {
+                    transferFully(getChannel(), fout.getChannel());
+                } finally {
+                    fout.close();
+                }
             }
         }
     }
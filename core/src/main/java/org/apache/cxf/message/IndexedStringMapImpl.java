@@ -0,0 +1,535 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.message;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.binding.Binding;
+import org.apache.cxf.configuration.security.AuthorizationPolicy;
+import org.apache.cxf.endpoint.ConduitSelector;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.security.SecurityContext;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingMessageInfo;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.service.model.MessageInfo;
+import org.apache.cxf.service.model.OperationInfo;
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.Destination;
+import org.apache.cxf.transport.Session;
+
+/**
+ * A {@link StringMap} that stores the values of well known keys, such as
+ * {@link Message#PROTOCOL_HEADERS}, {@link Message#CONTENT_TYPE} or the name of 
+ * {@link Destination}, in an array slot that is assigned to the key once per JVM.
+ * Only keys that have not been registered with {@link #registerKey(String)} go 
+ * into a HashMap, which is not created until the first such key is stored.
+ * <p>
+ * This avoids allocating a hash table and an entry object per property for
+ * the properties that are set on nearly every Message and Exchange.
+ */
+public class IndexedStringMapImpl extends AbstractMap<String, Object> 
+    implements StringMap, Serializable {
+    
+    private static final long serialVersionUID = 4296374536312458393L;
+    
+    /** Stored in a slot for a null value, a null slot means no mapping */
+    private static final Object NULL_VALUE = new Object();
+    
+    private static volatile KeyTable keyTable = new KeyTable(new String[0]);
+    
+    static {
+        registerKeys(Message.PROTOCOL_HEADERS,
+                     Message.CONTENT_TYPE,
+                     Message.ACCEPT_CONTENT_TYPE,
+                     Message.ENCODING,
+                     Message.RESPONSE_CODE,
+                     Message.REQUESTOR_ROLE,
+                     Message.INBOUND_MESSAGE,
+                     Message.HTTP_REQUEST_METHOD,
+                     Message.REQUEST_URI,
+                     Message.REQUEST_URL,
+                     Message.PATH_INFO,
+                     Message.QUERY_STRING,
+                     Message.BASE_PATH,
+                     Message.ENDPOINT_ADDRESS,
+                     Message.ATTACHMENTS,
+                     Message.MTOM_ENABLED,
+                     Message.SCHEMA_VALIDATION_ENABLED,
+                     Message.FAULT_STACKTRACE_ENABLED,
+                     Message.ROBUST_ONEWAY,
+                     Message.ONE_WAY_REQUEST,
+                     Message.PARTIAL_RESPONSE_MESSAGE,
+                     Message.EMPTY_PARTIAL_RESPONSE_MESSAGE,
+                     Message.DECOUPLED_CHANNEL_MESSAGE,
+                     Message.THREAD_CONTEXT_SWITCHED,
+                     Message.PROCESS_ONEWAY_RESPONSE,
+                     Message.REST_MESSAGE,
+                     Message.WSDL_DESCRIPTION,
+                     Message.WSDL_SERVICE,
+                     Message.WSDL_PORT,
+                     Message.WSDL_INTERFACE,
+                     Message.WSDL_OPERATION);
+        registerKeys(Bus.class,
+                     Service.class,
+                     Endpoint.class,
+                     EndpointInfo.class,
+                     Binding.class,
+                     BindingOperationInfo.class,
+                     BindingMessageInfo.class,
+                     OperationInfo.class,
+                     MessageInfo.class,
+                     Destination.class,
+                     Conduit.class,
+                     ConduitSelector.class,
+                     Session.class,
+                     Executor.class,
+                     FaultMode.class,
+                     Exception.class,
+                     SecurityContext.class,
+                     AuthorizationPolicy.class);
+    }
+    
+    private transient KeyTable table;
+    private transient Object[] slots;
+    private transient int slotCount;
+    private transient Map<String, Object> others;
+    private transient int modCount;
+    private transient Set<Map.Entry<String, Object>> entrySet;
+
+    public IndexedStringMapImpl() {
+    }
+    public IndexedStringMapImpl(Map<String, Object> i) {
+        for (Map.Entry<String, Object> e : i.entrySet()) {
+            doPut(e.getKey(), e.getValue());
+        }
+    }
+    
+    /**
+     * Registers a key that should be stored in an array slot instead of the 
+     * overflow map. Keys should be registered before the maps that use them
+     * are created, typically from a static initializer. Values that existing
+     * maps hold in the overflow map for the key stay there until the next
+     * put on those maps moves them into the new slot.
+     * @param key the key
+     * @return the slot index of the key
+     */
+    public static int registerKey(String key) {
+        synchronized (IndexedStringMapImpl.class) {
+            int slot = keyTable.slotOf(key);
+            if (slot < 0) {
+                KeyTable old = keyTable;
+                String[] keys = new String[old.keys.length + 1];
+                System.arraycopy(old.keys, 0, keys, 0, old.keys.length);
+                slot = old.keys.length;
+                keys[slot] = key;
+                keyTable = new KeyTable(keys);
+            }
+            return slot;
+        }
+    }
+    
+    static void registerKeys(String... keys) {
+        for (String key : keys) {
+            registerKey(key);
+        }
+    }
+    static void registerKeys(Class<?>... keys) {
+        for (Class<?> key : keys) {
+            registerKey(key.getName());
+        }
+    }
+    
+    static int getSlot(String key) {
+        return keyTable.slotOf(key);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <T> T get(Class<T> key) {
+        return (T)get(key.getName());
+    }
+
+    public <T> void put(Class<T> key, T value) {
+        put(key.getName(), value);
+    }
+    
+    @Override
+    public Object get(Object key) {
+        if (key instanceof String) {
+            int slot = storedKeys().slotOf((String)key);
+            if (slot >= 0) {
+                return slots == null || slot >= slots.length ? null : unmask(slots[slot]);
+            }
+        }
+        return others == null ? null : others.get(key);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof String) {
+            int slot = storedKeys().slotOf((String)key);
+            if (slot >= 0) {
+                return slots != null && slot < slots.length && slots[slot] != null;
+            }
+        }
+        return others != null && others.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return doPut(key, value);
+    }
+    
+    private Object doPut(String key, Object value) {
+        int slot = key == null ? -1 : currentKeys().slotOf(key);
+        if (slot >= 0) {
+            if (slots == null || slot >= slots.length) {
+                growSlots(slot);
+            }
+            Object old = slots[slot];
+            slots[slot] = value == null ? NULL_VALUE : value;
+            if (old == null) {
+                slotCount++;
+                modCount++;
+            }
+            return unmask(old);
+        }
+        if (others == null) {
+            others = new HashMap<String, Object>();
+        }
+        modCount++;
+        return others.put(key, value);
+    }
+    
+    /**
+     * Returns the key table the stored values are laid out by. Lookups use it 
+     * rather than the global table so that they never modify the map, a value
+     * stored under a key registered later is still found in the overflow map.
+     */
+    private KeyTable storedKeys() {
+        KeyTable t = table;
+        return t == null ? keyTable : t;
+    }
+    
+    /**
+     * Returns the current key table, first moving any values stored in the overflow
+     * map under keys that were registered after this map last looked at the table.
+     * Only called when storing a value.
+     */
+    private KeyTable currentKeys() {
+        KeyTable current = keyTable;
+        if (current != table) {
+            int from = table == null ? 0 : table.keys.length;
+            table = current;
+            if (others != null) {
+                for (int slot = from; slot < current.keys.length && !others.isEmpty(); slot++) {
+                    String key = current.keys[slot];
+                    if (others.containsKey(key)) {
+                        Object value = others.remove(key);
+                        if (slots == null || slot >= slots.length) {
+                            growSlots(slot);
+                        }
+                        slots[slot] = value == null ? NULL_VALUE : value;
+                        slotCount++;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+    
+    private void growSlots(int slot) {
+        Object[] tmp = new Object[Math.max(slot + 1, table.keys.length)];
+        if (slots != null) {
+            System.arraycopy(slots, 0, tmp, 0, slots.length);
+        }
+        slots = tmp;
+    }
+    
+    @Override
+    public Object remove(Object key) {
+        if (key instanceof String) {
+            int slot = storedKeys().slotOf((String)key);
+            if (slot >= 0) {
+                return removeSlot(slot);
+            }
+        }
+        if (others == null) {
+            return null;
+        }
+        modCount++;
+        return others.remove(key);
+    }
+    
+    private Object removeSlot(int slot) {
+        if (slots == null || slot >= slots.length) {
+            return null;
+        }
+        Object old = slots[slot];
+        if (old != null) {
+            slots[slot] = null;
+            slotCount--;
+            modCount++;
+        }
+        return unmask(old);
+    }
+
+    @Override
+    public int size() {
+        return others == null ? slotCount : slotCount + others.size();
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        if (slots != null) {
+            for (int x = 0; x < slots.length; x++) {
+                slots[x] = null;
+            }
+        }
+        slotCount = 0;
+        others = null;
+        modCount++;
+    }
+    
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+    
+    private static Object unmask(Object o) {
+        return o == NULL_VALUE ? null : o;
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (Map.Entry<String, Object> e : entrySet()) {
+            out.writeObject(e.getKey());
+            out.writeObject(e.getValue());
+        }
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = in.readInt();
+        for (int x = 0; x < size; x++) {
+            doPut((String)in.readObject(), in.readObject());
+        }
+    }
+    
+    /**
+     * Immutable open addressing table from key to slot index. The index is
+     * resolved with the hash code that String caches, an identity check against
+     * the registered constant and only then equals().
+     */
+    private static final class KeyTable {
+        final String[] keys;
+        final String[] table;
+        final int[] tableSlots;
+        final int mask;
+        
+        KeyTable(String[] keys) {
+            this.keys = keys;
+            int size = 16;
+            while (size < keys.length * 4) {
+                size <<= 1;
+            }
+            table = new String[size];
+            tableSlots = new int[size];
+            mask = size - 1;
+            for (int slot = 0; slot < keys.length; slot++) {
+                int i = index(keys[slot]);
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = keys[slot];
+                tableSlots[i] = slot;
+            }
+        }
+        
+        private int index(String key) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) & mask;
+        }
+        
+        int slotOf(String key) {
+            int i = index(key);
+            String k = table[i];
+            while (k != null) {
+                if (k == key || k.equals(key)) {
+                    return tableSlots[i];
+                }
+                i = (i + 1) & mask;
+                k = table[i];
+            }
+            return -1;
+        }
+    }
+    
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+        @Override
+        public int size() {
+            return IndexedStringMapImpl.this.size();
+        }
+        @Override
+        public void clear() {
+            IndexedStringMapImpl.this.clear();
+        }
+    }
+    
+    private final class SlotEntry implements Map.Entry<String, Object> {
+        private final int slot;
+        private final String key;
+        private Object value;
+        
+        SlotEntry(int slot, String key, Object value) {
+            this.slot = slot;
+            this.key = key;
+            this.value = value;
+        }
+        public String getKey() {
+            return key;
+        }
+        public Object getValue() {
+            return value;
+        }
+        public Object setValue(Object v) {
+            Object old = value;
+            value = v;
+            if (slots[slot] != null) {
+                slots[slot] = v == null ? NULL_VALUE : v;
+            }
+            return old;
+        }
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>)o;
+            return key.equals(e.getKey()) 
+                && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+    
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private final String[] keys = storedKeys().keys;
+        private int expectedModCount = modCount;
+        private int nextSlot;
+        private int lastSlot = -1;
+        private Iterator<Map.Entry<String, Object>> othersIterator;
+        private boolean lastFromOthers;
+        
+        EntryIterator() {
+            advance();
+        }
+        
+        private void advance() {
+            int length = slots == null ? 0 : Math.min(slots.length, keys.length);
+            while (nextSlot < length && slots[nextSlot] == null) {
+                nextSlot++;
+            }
+            if (nextSlot >= length) {
+                nextSlot = Integer.MAX_VALUE;
+            }
+        }
+        
+        public boolean hasNext() {
+            if (nextSlot != Integer.MAX_VALUE) {
+                return true;
+            }
+            if (othersIterator == null && others != null) {
+                othersIterator = others.entrySet().iterator();
+            }
+            return othersIterator != null && othersIterator.hasNext();
+        }
+        
+        public Map.Entry<String, Object> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextSlot != Integer.MAX_VALUE) {
+                lastSlot = nextSlot;
+                lastFromOthers = false;
+                Map.Entry<String, Object> e 
+                    = new SlotEntry(lastSlot, keys[lastSlot], unmask(slots[lastSlot]));
+                nextSlot++;
+                advance();
+                return e;
+            }
+            lastFromOthers = true;
+            return othersIterator.next();
+        }
+        
+        public void remove() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (lastFromOthers) {
+                othersIterator.remove();
+                lastFromOthers = false;
+            } else if (lastSlot >= 0) {
+                removeSlot(lastSlot);
+                lastSlot = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+            modCount++;
+            expectedModCount = modCount;
+        }
+    }
+}
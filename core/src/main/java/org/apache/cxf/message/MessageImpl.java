@@ -33,8 +33,8 @@ import org.apache.cxf.service.Service;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.Destination;
 
-public class MessageImpl extends StringMapImpl implements Message {
-    private static final long serialVersionUID = -3020763696429459865L;
+public class MessageImpl extends IndexedStringMapImpl implements Message {
+    private static final long serialVersionUID = -3020763696429459866L;
     
     
     private Exchange exchange;
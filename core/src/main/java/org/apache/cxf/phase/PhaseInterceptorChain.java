@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +43,7 @@ import org.apache.cxf.logging.FaultListener;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.FaultMode;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.Service;
 import org.apache.cxf.service.model.OperationInfo;
@@ -59,7 +61,14 @@ import org.apache.cxf.transport.MessageObserver;
  * has an ID. PhaseInterceptors can supply a Collection of IDs which they 
  * should run before or after, supplying fine grained ordering.
  * <p>
- *  
+ * A cloned chain initially shares the ordered interceptor holders of the chain
+ * it was cloned from, so getting a chain for a message from the
+ * {@link PhaseChainCache} only allocates the chain itself and its iterator.
+ * The holders are copied the first time either chain is modified.
+ * <p>
+ * State transitions that do not need to own the chain (pausing, suspending,
+ * aborting and querying the state) are done with atomic updates rather than 
+ * by acquiring the chain monitor.
  */
 public class PhaseInterceptorChain implements InterceptorChain {
     public static final String PREVIOUS_MESSAGE = PhaseInterceptorChain.class.getName() + ".PREVIOUS_MESSAGE";
@@ -68,6 +77,12 @@ public class PhaseInterceptorChain implements InterceptorChain {
 
     private static final ThreadLocal<Message> CURRENT_MESSAGE = new ThreadLocal<Message>();
     
+    // returned by leavePausedState() if the chain has not been resumed by the caller
+    private static final Message NOT_PAUSED = new MessageImpl();
+    
+    private static final AtomicReferenceFieldUpdater<PhaseInterceptorChain, State> STATE_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(PhaseInterceptorChain.class, State.class, "state");
+    
     private final Map<String, Integer> nameMap;
     private final Phase phases[];
 
@@ -82,10 +97,13 @@ public class PhaseInterceptorChain implements InterceptorChain {
     // Note no hasBefores[] is needed because implementation adds subsequent
     // interceptors to the end of the list by default.
     private boolean hasAfters[];
+    // true if heads/tails/hasAfters may be shared with another chain and
+    // have to be copied before this chain can be modified
+    private volatile boolean shared;
 
     
-    private State state;
-    private Message pausedMessage;
+    private volatile State state;
+    private volatile Message pausedMessage;
     private MessageObserver faultObserver;
     private PhaseInterceptorIterator iterator;
     private final boolean isFineLogging;
@@ -107,30 +125,13 @@ public class PhaseInterceptorChain implements InterceptorChain {
         nameMap = src.nameMap;
         phases = src.phases;
         
-        int length = phases.length;
-        hasAfters = new boolean[length];
-        System.arraycopy(src.hasAfters, 0, hasAfters, 0, length);
-        
-        heads = new InterceptorHolder[length];
-        tails = new InterceptorHolder[length];
-        
-        InterceptorHolder last = null;
-        for (int x = 0; x < length; x++) {
-            InterceptorHolder ih = src.heads[x];
-            while (ih != null
-                && ih.phaseIdx == x) {
-                InterceptorHolder ih2 = new InterceptorHolder(ih);
-                ih2.prev = last;
-                if (last != null) {
-                    last.next = ih2;
-                }
-                if (heads[x] == null) {
-                    heads[x] = ih2;
-                }
-                tails[x] = ih2;
-                last = ih2;
-                ih = ih.next;
-            }
+        //shared until either chain gets modified, see copyOnWrite()
+        heads = src.heads;
+        tails = src.tails;
+        hasAfters = src.hasAfters;
+        shared = true;
+        if (!src.shared) {
+            src.shared = true;
         }
     }
     
@@ -177,7 +178,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
         
     }
     
-    public synchronized State getState() {
+    public State getState() {
         return state;
     }
     
@@ -201,6 +202,62 @@ public class PhaseInterceptorChain implements InterceptorChain {
         return new PhaseInterceptorChain(this);
     }
     
+    /**
+     * Copies the interceptor holders if they are currently shared with
+     * another chain. An iterator that is already walking this chain is
+     * moved over to the copied holders.
+     */
+    private void copyOnWrite() {
+        if (!shared) {
+            return;
+        }
+        shared = false;
+        
+        int length = phases.length;
+        InterceptorHolder srcHeads[] = heads;
+        boolean newHasAfters[] = new boolean[length];
+        System.arraycopy(hasAfters, 0, newHasAfters, 0, length);
+        InterceptorHolder newHeads[] = new InterceptorHolder[length];
+        InterceptorHolder newTails[] = new InterceptorHolder[length];
+        
+        InterceptorHolder iterPrev = null;
+        InterceptorHolder iterFirst = null;
+        InterceptorHolder last = null;
+        for (int x = 0; x < length; x++) {
+            InterceptorHolder ih = srcHeads[x];
+            while (ih != null
+                && ih.phaseIdx == x) {
+                InterceptorHolder ih2 = new InterceptorHolder(ih);
+                ih2.prev = last;
+                if (last != null) {
+                    last.next = ih2;
+                }
+                if (newHeads[x] == null) {
+                    newHeads[x] = ih2;
+                }
+                newTails[x] = ih2;
+                if (iterator != null) {
+                    if (iterator.prev == ih) {
+                        iterPrev = ih2;
+                    }
+                    if (iterator.first == ih) {
+                        iterFirst = ih2;
+                    }
+                }
+                last = ih2;
+                ih = ih.next;
+            }
+        }
+        heads = newHeads;
+        tails = newTails;
+        hasAfters = newHasAfters;
+        if (iterator != null) {
+            iterator.heads = newHeads;
+            iterator.prev = iterPrev;
+            iterator.first = iterFirst;
+        }
+    }
+    
     private void updateIterator() {
         if (iterator == null) {
             iterator = new PhaseInterceptorIterator(heads);
@@ -253,30 +310,45 @@ public class PhaseInterceptorChain implements InterceptorChain {
         }
     }
 
-    public synchronized void pause() {
-        state = State.PAUSED;
+    public void pause() {
         pausedMessage = CURRENT_MESSAGE.get();
+        state = State.PAUSED;
     }
-    public synchronized void unpause() {
-        if (state == State.PAUSED || state == State.SUSPENDED) {
-            state = State.EXECUTING;
-            pausedMessage = null;
-        }
+    public void unpause() {
+        leavePausedState();
     }
     
-    public synchronized void suspend() {
-        state = State.SUSPENDED;
+    public void suspend() {
         pausedMessage = CURRENT_MESSAGE.get();
+        state = State.SUSPENDED;
     }
 
     public synchronized void resume() {
-        if (state == State.PAUSED || state == State.SUSPENDED) {
-            state = State.EXECUTING;
-            Message m = pausedMessage;
-            pausedMessage = null;
+        Message m = leavePausedState();
+        if (m != NOT_PAUSED) {
             doIntercept(m);
         }
     }
+    
+    /**
+     * Moves a paused or suspended chain back to EXECUTING and releases the message
+     * it was paused with.
+     * @return the paused message, or NOT_PAUSED if the chain was not paused or 
+     * another caller did the transition 
+     */
+    private Message leavePausedState() {
+        State s = state;
+        while (s == State.PAUSED || s == State.SUSPENDED) {
+            if (STATE_UPDATER.compareAndSet(this, s, State.EXECUTING)) {
+                // pause() sets the message before the state, so it is visible here
+                Message m = pausedMessage;
+                pausedMessage = null;
+                return m;
+            }
+            s = state;
+        }
+        return NOT_PAUSED;
+    }
 
     /**
      * Intercept a message, invoking each phase's handlers in turn.
@@ -374,9 +446,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
                     state = State.ABORTED;
                 } 
             }
-            if (state == State.EXECUTING) {
-                state = State.COMPLETE;
-            }
+            STATE_UPDATER.compareAndSet(this, State.EXECUTING, State.COMPLETE);
             return state == State.COMPLETE;
         } finally {
             CURRENT_MESSAGE.set(oldMessage);
@@ -461,12 +531,8 @@ public class PhaseInterceptorChain implements InterceptorChain {
 
     public synchronized void reset() {
         updateIterator();
-        if (state == State.COMPLETE) {
-            state = State.EXECUTING;
-            iterator.reset();
-        } else {
-            iterator.reset();
-        }
+        STATE_UPDATER.compareAndSet(this, State.COMPLETE, State.EXECUTING);
+        iterator.reset();
     }
     
     @SuppressWarnings("unchecked")
@@ -489,6 +555,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
     }
 
     public void remove(Interceptor<? extends Message> i) {
+        copyOnWrite();
         PhaseInterceptorIterator it = new PhaseInterceptorIterator(heads);
         while (it.hasNext()) {
             InterceptorHolder holder = it.nextInterceptorHolder();
@@ -499,7 +566,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
         }
     }
 
-    public synchronized void abort() {
+    public void abort() {
         this.state = InterceptorChain.State.ABORTED;
     }
 
@@ -538,7 +605,25 @@ public class PhaseInterceptorChain implements InterceptorChain {
         }
     }
     
+    private boolean isInPhase(int phase, String id) {
+        InterceptorHolder ih = heads[phase];
+        while (ih != null && ih.phaseIdx == phase) {
+            if (ih.interceptor.getId().equals(id)) {
+                return true;
+            }
+            ih = ih.next;
+        }
+        return false;
+    }
+    
     private void insertInterceptor(int phase, PhaseInterceptor<? extends Message> interc, boolean force) {
+        if (shared) {
+            if (!force && isInPhase(phase, interc.getId())) {
+                // already in chain, no need to copy the shared holders
+                return;
+            }
+            copyOnWrite();
+        }
         InterceptorHolder ih = new InterceptorHolder(interc, phase);
         if (heads[phase] == null) {
             // no interceptors yet in this phase
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.staxutils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * A bounded pool of the XMLInputFactory instances of parsers whose factories are not thread safe.
+ * If a factory supports the "reuse-instance" property (like the one of the JDK), it stays with 
+ * the reader created by it and is only returned to the pool once that reader is closed, the
+ * next reader created by the factory then reuses the closed reader and its buffers. Other 
+ * factories are returned to the pool as soon as the reader has been created.
+ */
+class InputFactoryPool {
+    static final String REUSE_INSTANCE = "reuse-instance";
+    
+    private final BlockingQueue<XMLInputFactory> pool;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    InputFactoryPool(int size) {
+        pool = new ArrayBlockingQueue<XMLInputFactory>(Math.max(size, 1));
+    }
+    
+    protected XMLInputFactory createFactory() {
+        return StaxUtils.createXMLInputFactory(true);
+    }
+    
+    XMLInputFactory borrow() {
+        XMLInputFactory factory = pool.poll();
+        if (factory != null) {
+            hits.incrementAndGet();
+            return factory;
+        }
+        misses.incrementAndGet();
+        factory = createFactory();
+        if (factory.isPropertySupported(REUSE_INSTANCE)) {
+            try {
+                factory.setProperty(REUSE_INSTANCE, Boolean.TRUE);
+            } catch (IllegalArgumentException ex) {
+                //the readers of this factory can not be reused
+            }
+        }
+        return factory;
+    }
+    
+    /**
+     * Returns the factory to the pool, or keeps it with the reader until the reader is closed
+     * if the factory can reuse the reader.
+     * @param factory the factory borrowed from this pool
+     * @param reader the reader created by the factory, null if none has been created
+     * @return the reader to be used by the caller
+     */
+    XMLStreamReader release(XMLInputFactory factory, XMLStreamReader reader) {
+        if (reader == null || !isReusingReaders(factory)) {
+            pool.offer(factory);
+            return reader;
+        }
+        return new PooledStreamReader(reader, factory);
+    }
+    
+    long getHits() {
+        return hits.get();
+    }
+    
+    long getMisses() {
+        return misses.get();
+    }
+    
+    private static boolean isReusingReaders(XMLInputFactory factory) {
+        try {
+            return factory.isPropertySupported(REUSE_INSTANCE)
+                && Boolean.TRUE.equals(factory.getProperty(REUSE_INSTANCE));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+    
+    private class PooledStreamReader extends StreamReaderDelegate {
+        private XMLInputFactory factory;
+        
+        PooledStreamReader(XMLStreamReader reader, XMLInputFactory factory) {
+            super(reader);
+            this.factory = factory;
+        }
+        
+        @Override
+        public void close() throws XMLStreamException {
+            super.close();
+            if (factory != null) {
+                //the factory may now hand the closed reader out again
+                pool.offer(factory);
+                factory = null;
+            }
+        }
+    }
+}
@@ -119,7 +119,7 @@ public final class StaxUtils {
     
     private static final Logger LOG = LogUtils.getL7dLogger(StaxUtils.class);
     
-    private static final BlockingQueue<XMLInputFactory> NS_AWARE_INPUT_FACTORY_POOL;
+    private static final InputFactoryPool NS_AWARE_INPUT_FACTORY_POOL;
     private static final XMLInputFactory SAFE_INPUT_FACTORY;
     private static final BlockingQueue<XMLOutputFactory> OUTPUT_FACTORY_POOL;
     private static final XMLOutputFactory SAFE_OUTPUT_FACTORY;
@@ -144,7 +144,7 @@ public final class StaxUtils {
     static {
         int i = getInteger("org.apache.cxf.staxutils.pool-size", 20);
     
-        NS_AWARE_INPUT_FACTORY_POOL = new ArrayBlockingQueue<XMLInputFactory>(i);
+        NS_AWARE_INPUT_FACTORY_POOL = new InputFactoryPool(i);
         OUTPUT_FACTORY_POOL = new ArrayBlockingQueue<XMLOutputFactory>(i);
         
         //old names
@@ -259,17 +259,38 @@ public final class StaxUtils {
         if (SAFE_INPUT_FACTORY != null) {
             return SAFE_INPUT_FACTORY;
         }
-        XMLInputFactory f = NS_AWARE_INPUT_FACTORY_POOL.poll();
-        if (f == null) {
-            f = createXMLInputFactory(true);
-        }
-        return f;
+        return NS_AWARE_INPUT_FACTORY_POOL.borrow();
     }
     
     private static void returnXMLInputFactory(XMLInputFactory factory) {
-        if (SAFE_INPUT_FACTORY != factory) {
-            NS_AWARE_INPUT_FACTORY_POOL.offer(factory);
+        returnXMLInputFactory(factory, null);
+    }
+    
+    /**
+     * Returns the factory to the pool, a factory which reuses its readers is only returned 
+     * once the reader created by it has been closed.
+     * @return the reader to be used by the caller
+     */
+    private static XMLStreamReader returnXMLInputFactory(XMLInputFactory factory, XMLStreamReader reader) {
+        if (SAFE_INPUT_FACTORY == factory) {
+            return reader;
         }
+        return NS_AWARE_INPUT_FACTORY_POOL.release(factory, reader);
+    }
+    
+    /**
+     * The number of times a pooled XMLInputFactory was available when a reader was created.
+     * The factories are only pooled if the parser does not provide a thread safe factory.
+     */
+    public static long getInputFactoryPoolHits() {
+        return NS_AWARE_INPUT_FACTORY_POOL.getHits();
+    }
+    
+    /**
+     * The number of XMLInputFactory instances created because the pool was empty.
+     */
+    public static long getInputFactoryPoolMisses() {
+        return NS_AWARE_INPUT_FACTORY_POOL.getMisses();
     }
     
     private static XMLOutputFactory getXMLOutputFactory() {
@@ -1441,13 +1462,15 @@ public final class StaxUtils {
         }
 
         XMLInputFactory factory = getXMLInputFactory();
+        XMLStreamReader xsr = null;
         try {
-            return factory.createXMLStreamReader(in, encoding);
+            xsr = factory.createXMLStreamReader(in, encoding);
         } catch (XMLStreamException e) {
             throw new RuntimeException("Couldn't parse stream.", e);
         } finally {
-            returnXMLInputFactory(factory);
+            xsr = returnXMLInputFactory(factory, xsr);
         }
+        return xsr;
     }
 
     /**
@@ -1455,23 +1478,27 @@ public final class StaxUtils {
      */
     public static XMLStreamReader createXMLStreamReader(InputStream in) {
         XMLInputFactory factory = getXMLInputFactory();
+        XMLStreamReader xsr = null;
         try {
-            return factory.createXMLStreamReader(in);
+            xsr = factory.createXMLStreamReader(in);
         } catch (XMLStreamException e) {
             throw new RuntimeException("Couldn't parse stream.", e);
         } finally {
-            returnXMLInputFactory(factory);
+            xsr = returnXMLInputFactory(factory, xsr);
         }
+        return xsr;
     }
     public static XMLStreamReader createXMLStreamReader(String systemId, InputStream in) {
         XMLInputFactory factory = getXMLInputFactory();
+        XMLStreamReader xsr = null;
         try {
-            return factory.createXMLStreamReader(systemId, in);
+            xsr = factory.createXMLStreamReader(systemId, in);
         } catch (XMLStreamException e) {
             throw new RuntimeException("Couldn't parse stream.", e);
         } finally {
-            returnXMLInputFactory(factory);
+            xsr = returnXMLInputFactory(factory, xsr);
         }
+        return xsr;
     }
     
     public static XMLStreamReader createXMLStreamReader(Element el) {
@@ -1514,9 +1541,8 @@ public final class StaxUtils {
             }
             
             XMLInputFactory factory = getXMLInputFactory();
+            XMLStreamReader reader = null;
             try {
-                XMLStreamReader reader = null;
-            
                 try {
                     reader = factory.createXMLStreamReader(source);
                 } catch (UnsupportedOperationException e) {
@@ -1533,10 +1559,10 @@ public final class StaxUtils {
                                                                ss.getReader());
                     }
                 }
-                return reader;
             } finally {
-                returnXMLInputFactory(factory);
+                reader = returnXMLInputFactory(factory, reader);
             }
+            return reader;
         } catch (XMLStreamException e) {
             throw new RuntimeException("Couldn't parse stream.", e);
         }
@@ -1547,13 +1573,15 @@ public final class StaxUtils {
      */
     public static XMLStreamReader createXMLStreamReader(Reader reader) {
         XMLInputFactory factory = getXMLInputFactory();
+        XMLStreamReader xsr = null;
         try {
-            return factory.createXMLStreamReader(reader);
+            xsr = factory.createXMLStreamReader(reader);
         } catch (XMLStreamException e) {
             throw new RuntimeException("Couldn't parse stream.", e);
         } finally {
-            returnXMLInputFactory(factory);
+            xsr = returnXMLInputFactory(factory, xsr);
         }
+        return xsr;
     }
 
     /**
@@ -30,10 +30,14 @@ import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -79,6 +83,17 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
     boolean shared;
     int sharedCount;
     
+    // set when the tasks are handed to an ExecutorService instead of our own pool
+    boolean threadPerTask;
+    volatile ExecutorService executorService;
+    boolean ownsExecutorService;
+    volatile ResizableSemaphore permits;
+    final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<Runnable>();
+    final AtomicInteger pendingCount = new AtomicInteger();
+    final AtomicInteger activeCount = new AtomicInteger();
+    volatile int largestActiveCount;
+    volatile boolean delegateShutdown;
+    
     private List<PropertyChangeListener> changeListenerList;
     
     public AutomaticWorkQueueImpl() {
@@ -150,6 +165,66 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
         return sharedCount;
     }
     
+    /**
+     * Runs every work item on a thread of its own rather than on the pooled threads.
+     * Virtual threads are used when the JVM provides them, otherwise the threads come
+     * from an unbounded cached pool.  The highWaterMark still limits how many work items
+     * run at the same time (-1 for no limit) and the queueSize how many may wait for a
+     * free slot, so blocking work items no longer tie up a small fixed pool.
+     */
+    public void setThreadPerTask(boolean b) {
+        threadPerTask = b;
+    }
+    public boolean isThreadPerTask() {
+        return threadPerTask;
+    }
+    
+    /**
+     * Runs the work items on the given ExecutorService rather than on the pooled
+     * threads.  The highWaterMark and queueSize limits still apply.  The 
+     * ExecutorService is not shut down when this work queue is shut down.
+     */
+    public void setExecutorService(ExecutorService es) {
+        executorService = es;
+        ownsExecutorService = false;
+    }
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+    
+    boolean isDelegating() {
+        return threadPerTask || executorService != null;
+    }
+    
+    protected ExecutorService getDelegateExecutor() {
+        if (permits == null) {
+            synchronized (this) {
+                if (executorService == null) {
+                    executorService = createThreadPerTaskExecutor();
+                    ownsExecutorService = true;
+                }
+                if (permits == null) {
+                    permits = new ResizableSemaphore(highWaterMark);
+                }
+            }
+        }
+        return executorService;
+    }
+    
+    private ExecutorService createThreadPerTaskExecutor() {
+        try {
+            //java 21+
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)m.invoke(null);
+        } catch (Throwable t) {
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine("Virtual threads not available, using a cached thread pool for " + name);
+            }
+        }
+        threadFactory = createThreadFactory(name);
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+    
     protected synchronized ThreadPoolExecutor getExecutor() {
         if (executor == null) {
             threadFactory = createThreadFactory(name);
@@ -260,6 +335,26 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
         return new AWQThreadFactory(group, nm);
     }
     
+    static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+        private int limit;
+        
+        ResizableSemaphore(int limit) {
+            super(limit);
+            this.limit = limit;
+        }
+        
+        synchronized void setLimit(int newLimit) {
+            int delta = newLimit - limit;
+            limit = newLimit;
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+    }
+    
     static class DelayedTaskWrapper implements Delayed, Runnable {
         long trigger;
         Runnable work;
@@ -416,12 +511,12 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
         return buf.toString();
     }
     
-    public void execute(final Runnable command) {
+    private static Runnable wrapWithContextClassLoader(final Runnable command) {
         //Grab the context classloader of this thread.   We'll make sure we use that 
         //on the thread the runnable actually runs on.
         
         final ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        Runnable r = new Runnable() {
+        return new Runnable() {
             public void run() {
                 ClassLoaderHolder orig = ClassLoaderUtils.setThreadContextClassloader(loader);
                 try {
@@ -433,6 +528,14 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
                 }
             }
         };
+    }
+    
+    public void execute(final Runnable command) {
+        Runnable r = wrapWithContextClassLoader(command);
+        if (isDelegating()) {
+            executeDelegated(r, 0);
+            return;
+        }
         //The ThreadPoolExecutor in the JDK doesn't expand the number
         //of threads until the queue is full.   However, we would 
         //prefer the number of threads to expand immediately and 
@@ -465,8 +568,81 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
         }
     }
     
+    private void executeDelegated(Runnable r, long timeout) {
+        ExecutorService es = getDelegateExecutor();
+        if (delegateShutdown) {
+            throw new RejectedExecutionException("Work queue " + name + " has been shut down");
+        }
+        if (permits.tryAcquire()) {
+            submitDelegated(es, r);
+            return;
+        }
+        if (pendingCount.incrementAndGet() <= maxQueueSize) {
+            pending.offer(r);
+            // a running item may have finished before we queued ours
+            drainPending();
+            return;
+        }
+        pendingCount.decrementAndGet();
+        try {
+            if (timeout > 0 && permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                submitDelegated(es, r);
+                return;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        throw new RejectedExecutionException("Work queue " + name + " is full");
+    }
+    
+    private void submitDelegated(ExecutorService es, final Runnable r) {
+        try {
+            es.execute(new Runnable() {
+                public void run() {
+                    int active = activeCount.incrementAndGet();
+                    if (active > largestActiveCount) {
+                        largestActiveCount = active;
+                    }
+                    try {
+                        r.run();
+                    } finally {
+                        activeCount.decrementAndGet();
+                        permits.release();
+                        drainPending();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            permits.release();
+            throw ree;
+        }
+    }
+    
+    private void drainPending() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            Runnable r = pending.poll();
+            if (r == null) {
+                permits.release();
+            } else {
+                pendingCount.decrementAndGet();
+                try {
+                    submitDelegated(executorService, r);
+                } catch (RejectedExecutionException ree) {
+                    LOG.warning("Executing the queued task with exception: " + ree);
+                }
+            }
+        }
+        if (delegateShutdown && ownsExecutorService && pendingCount.get() == 0) {
+            executorService.shutdown();
+        }
+    }
+    
     // WorkQueue interface
     public void execute(Runnable work, long timeout) {
+        if (isDelegating()) {
+            executeDelegated(wrapWithContextClassLoader(work), timeout);
+            return;
+        }
         try {
             execute(work);
         } catch (RejectedExecutionException ree) {
@@ -493,6 +669,22 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
     // AutomaticWorkQueue interface
     
     public void shutdown(boolean processRemainingWorkItems) {
+        if (isDelegating()) {
+            delegateShutdown = true;
+            if (!processRemainingWorkItems) {
+                pending.clear();
+                pendingCount.set(0);
+            }
+            synchronized (this) {
+                if (watchDog != null) {
+                    watchDog.shutdown();
+                }
+            }
+            if (permits != null) {
+                drainPending();
+            }
+            return;
+        }
         if (executor != null) {
             if (!processRemainingWorkItems) {
                 executor.getQueue().clear();
@@ -515,15 +707,24 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
      * @return the current size of the backing queue.
      */
     public long getSize() {
+        if (isDelegating()) {
+            return pendingCount.get();
+        }
         return executor == null ? 0 : executor.getQueue().size();
     }
 
 
     public boolean isEmpty() {
+        if (isDelegating()) {
+            return pendingCount.get() == 0;
+        }
         return executor == null ? true : executor.getQueue().size() == 0;
     }
 
     public boolean isFull() {
+        if (isDelegating()) {
+            return pendingCount.get() >= maxQueueSize;
+        }
         return executor == null ? false : executor.getQueue().remainingCapacity() == 0;
     }
 
@@ -543,6 +744,12 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
 
     public void setHighWaterMark(int hwm) {
         highWaterMark = hwm < 0 ? Integer.MAX_VALUE : hwm;
+        if (permits != null) {
+            notifyChangeListeners(new PropertyChangeEvent(this, "highWaterMark", 
+                                                          permits.limit, hwm));
+            permits.setLimit(highWaterMark);
+            drainPending();
+        }
         if (executor != null) {
             notifyChangeListeners(new PropertyChangeEvent(this, "highWaterMark", 
                                                           this.executor.getMaximumPoolSize(), hwm));
@@ -575,24 +782,36 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
     }
     
     public boolean isShutdown() {
+        if (isDelegating()) {
+            return delegateShutdown;
+        }
         if (executor == null) {
             return false;
         }
         return executor.isShutdown();
     }
     public int getLargestPoolSize() {
+        if (isDelegating()) {
+            return largestActiveCount;
+        }
         if (executor == null) {
             return 0;
         }
         return executor.getLargestPoolSize();
     }
     public int getPoolSize() {
+        if (isDelegating()) {
+            return activeCount.get();
+        }
         if (executor == null) {
             return 0;
         }
         return executor.getPoolSize();
     }
     public int getActiveCount() {
+        if (isDelegating()) {
+            return activeCount.get();
+        }
         if (executor == null) {
             return 0;
         }
@@ -619,6 +838,10 @@ public class AutomaticWorkQueueImpl implements AutomaticWorkQueue {
         if (s != null) {
             this.maxQueueSize = Integer.parseInt(s);
         } 
+        s = config.get("threadPerTask");
+        if (s != null) {
+            this.threadPerTask = Boolean.parseBoolean(s);
+        }
     }
     public Dictionary<String, String> getProperties() {
         Dictionary<String, String> properties = new Hashtable<String, String>();
@@ -649,5 +649,62 @@ public class AttachmentDeserializerTest extends Assert {
         assertEquals(1249, count);
         assertEquals(-1, ins.read(new byte[1000], 100, 600));
     }
+
+    @Test
+    public void testBoundaryScanWithVariousReadSizes() throws Exception {
+        String boundary = "--uuid:0f6e6c3b-1f49-4a57-8c8e-4ab3b5b2a1f3";
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            // near misses of the boundary which must be kept as content
+            content.append("line ").append(i).append("\r\n--uuid:0f6e\r").append(boundary.substring(0, i % 40));
+        }
+        String part = content.toString();
+        byte[] bytes = (boundary + "\r\n\r\n" + part + "\r\n" + boundary + "--\r\n").getBytes("ISO-8859-1");
+        
+        for (int size : new int[] {1, 7, 50, 100, 4096, 65536}) {
+            PushbackInputStream in = new PushbackInputStream(new ByteArrayInputStream(bytes), 2048);
+            in.read(new byte[boundary.length() + 4]);
+            MimeBodyPartInputStream m = new MimeBodyPartInputStream(in, boundary.getBytes(), 2048);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[size];
+            int n = m.read(buf, 0, size);
+            while (n != -1) {
+                assertTrue(n > 0);
+                out.write(buf, 0, n);
+                n = m.read(buf, 0, size);
+            }
+            assertEquals("read size " + size, part, out.toString("ISO-8859-1"));
+            assertEquals(-1, in.read());
+        }
+    }
+    
+    @Test
+    public void testTransferAttachmentToSink() throws Exception {
+        String contentType = "multipart/related; type=\"application/xop+xml\"; "
+            + "boundary=\"uuid:906fa67b-85f9-4ef5-8e3d-52416022d463\"; "
+            + "start=\"<root.message@cxf.apache.org>\"; start-info=\"text/xml\"";
+        Message message = new MessageImpl();
+        message.put(Message.CONTENT_TYPE, contentType);
+        message.setContent(InputStream.class, getClass().getResourceAsStream("cxf3582.data"));
+
+        AttachmentDeserializer ad 
+            = new AttachmentDeserializer(message, Collections.singletonList("multipart/related"));
+        ad.initializeAttachments();
+        IOUtils.consume(message.getContent(InputStream.class));
+        
+        Iterator<Attachment> it = message.getAttachments().iterator();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(it.hasNext());
+        AttachmentDataSource ds = (AttachmentDataSource)it.next().getDataHandler().getDataSource();
+        assertEquals(500, ds.transferTo(out));
+        assertEquals(500, out.size());
+        
+        out = new ByteArrayOutputStream();
+        assertTrue(it.hasNext());
+        ds = (AttachmentDataSource)it.next().getDataHandler().getDataSource();
+        assertEquals(1249, ds.transferTo(out));
+        assertFalse(it.hasNext());
+        assertTrue(ad.getPartBytesRead() >= 1749);
+    }
 }
 
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.interceptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncLoggingQueueTest extends Assert {
+
+    @Test
+    public void testRecordsAreWritten() throws Exception {
+        AsyncLoggingQueue queue = new AsyncLoggingQueue(4, AsyncLoggingQueue.OverflowPolicy.BLOCK);
+        final AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.offer(new Runnable() {
+                public void run() {
+                    count.incrementAndGet();
+                }
+            }));
+        }
+        queue.shutdown(5000);
+        assertEquals(100, count.get());
+        assertEquals(0, queue.getDroppedCount());
+    }
+    
+    @Test
+    public void testRecordsAreDroppedWhenFull() throws Exception {
+        AsyncLoggingQueue queue = new AsyncLoggingQueue(3, AsyncLoggingQueue.OverflowPolicy.DROP);
+        assertEquals(4, queue.getCapacity());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        queue.offer(new Runnable() {
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    // ignore
+                }
+            }
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        Runnable noop = new Runnable() {
+            public void run() {
+            }
+        };
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(noop));
+        }
+        assertFalse(queue.offer(noop));
+        assertEquals(1, queue.getDroppedCount());
+        release.countDown();
+        queue.shutdown(5000);
+        assertEquals(0, queue.size());
+        assertFalse(queue.offer(noop));
+        assertEquals(2, queue.getDroppedCount());
+    }
+}
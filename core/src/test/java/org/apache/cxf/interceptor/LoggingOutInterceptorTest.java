@@ -77,6 +77,33 @@ public class LoggingOutInterceptorTest extends Assert {
 
     }
 
+    @Test
+    public void testAsyncLogging() throws Exception {
+        control.replay();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintWriter pw = new PrintWriter(baos);
+        
+        AsyncLoggingQueue queue = new AsyncLoggingQueue();
+        LoggingOutInterceptor p = new LoggingOutInterceptor(pw);
+        p.setLimit(10);
+        p.setAsyncLoggingQueue(queue);
+        CachedOutputStream cos = new CachedOutputStream();
+        cos.write("<today><is/></today>".getBytes());
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        message.put(Message.CONTENT_TYPE, "application/xml");
+        Logger logger = LogUtils.getL7dLogger(this.getClass());
+        LoggingOutInterceptor.LoggingCallback l = p.new LoggingCallback(logger, message, cos);
+        l.onClose(cos);
+        queue.shutdown(5000);
+        
+        String str = baos.toString();
+        assertTrue(str.contains("Payload: <today><is"));
+        assertFalse(str.contains("<is/>"));
+        assertTrue(str.contains("(message truncated to 10 bytes)"));
+        assertEquals(0, queue.getDroppedCount());
+    }
+
     @Test
     public void testCachedOutputStreamThreshold() throws Exception {
         byte[] mex = "<test><threshold/></test>".getBytes();
@@ -20,8 +20,16 @@ package org.apache.cxf.io;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import org.apache.cxf.helpers.FileUtils;
+import org.apache.cxf.helpers.IOUtils;
+
+import org.junit.Test;
 
 public class CachedOutputStreamTest extends CachedStreamTestBase {
     
@@ -81,6 +89,39 @@ public class CachedOutputStreamTest extends CachedStreamTestBase {
     protected String readPartiallyFromStreamObject(Object cache, int len) throws IOException {
         return readPartiallyFromStream((InputStream)cache, len);
     }
-}
+
+    @Test
+    public void testWriteCacheToChannel() throws IOException {
+        String result = initTestData(16);
+        for (long threshold : new long[] {64 * 1024, 4}) {
+            CachedOutputStream cos = (CachedOutputStream)createCache(threshold);
+            cos.write(result.getBytes("utf-8"));
+            assertEquals(threshold == 4, cos.getTempFile() != null);
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            cos.writeCacheTo(Channels.newChannel(out));
+            assertEquals(result, out.toString("utf-8"));
+            cos.close();
+        }
+    }
     
-   
+    @Test
+    public void testWriteSpilledCacheToFileOutputStream() throws IOException {
+        String result = initTestData(16);
+        CachedOutputStream cos = (CachedOutputStream)createCache(4);
+        cos.write(result.getBytes("utf-8"));
+        assertNotNull(cos.getTempFile());
+        
+        File target = FileUtils.createTempFile("cos", "test");
+        try {
+            FileOutputStream fout = new FileOutputStream(target);
+            fout.write("prefix:".getBytes("utf-8"));
+            cos.writeCacheTo(fout);
+            fout.close();
+            cos.close();
+            assertEquals("prefix:" + result, IOUtils.toString(new FileInputStream(target), "utf-8"));
+        } finally {
+            FileUtils.delete(target);
+        }
+    }
+}
@@ -305,7 +305,7 @@ public abstract class CachedStreamTestBase extends Assert {
         return buf.toString();
     }
     
-    private static String initTestData(int packetSize) {
+    protected static String initTestData(int packetSize) {
         String temp = "abcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+?><[]/0123456789";
         String result = new String();
         for (int i = 0; i <  1024 * packetSize / temp.length(); i++) {
@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.cxf.transport.Destination;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexedStringMapImplTest extends Assert {
+    
+    @Test
+    public void testWellKnownAndAdHocKeys() {
+        IndexedStringMapImpl map = new IndexedStringMapImpl();
+        assertTrue(IndexedStringMapImpl.getSlot(Message.CONTENT_TYPE) >= 0);
+        assertTrue(IndexedStringMapImpl.getSlot(Destination.class.getName()) >= 0);
+        assertEquals(-1, IndexedStringMapImpl.getSlot("some.custom.property"));
+        
+        assertNull(map.put(Message.CONTENT_TYPE, "text/xml"));
+        assertNull(map.put("some.custom.property", "value"));
+        assertEquals("text/xml", map.put(Message.CONTENT_TYPE, "application/json"));
+        assertEquals(2, map.size());
+        
+        // an equal but not identical key must resolve to the same slot
+        assertEquals("application/json", map.get(new String("Content-Type")));
+        assertEquals("value", map.get("some.custom.property"));
+        assertTrue(map.containsKey(Message.CONTENT_TYPE));
+        assertFalse(map.containsKey(Message.ENCODING));
+        
+        map.put(Message.ENCODING, null);
+        assertTrue(map.containsKey(Message.ENCODING));
+        assertNull(map.get(Message.ENCODING));
+        assertEquals(3, map.size());
+        
+        assertEquals("application/json", map.remove(Message.CONTENT_TYPE));
+        assertNull(map.remove(Message.CONTENT_TYPE));
+        assertEquals(2, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+    
+    @Test
+    public void testClassKeys() {
+        IndexedStringMapImpl map = new IndexedStringMapImpl();
+        map.put(Integer.class, 1);
+        map.put(Exception.class, new RuntimeException());
+        assertEquals(Integer.valueOf(1), map.get(Integer.class));
+        assertEquals(Integer.valueOf(1), map.get(Integer.class.getName()));
+        assertTrue(map.get(Exception.class) instanceof RuntimeException);
+    }
+    
+    @Test
+    public void testIterationAndEquality() {
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put(Message.PROTOCOL_HEADERS, new HashMap<String, Object>());
+        expected.put(Message.RESPONSE_CODE, 200);
+        expected.put("a", "b");
+        expected.put("c", null);
+        
+        IndexedStringMapImpl map = new IndexedStringMapImpl(expected);
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected, new HashMap<String, Object>(map));
+        
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            if (Message.RESPONSE_CODE.equals(e.getKey())) {
+                e.setValue(500);
+            }
+        }
+        assertEquals(500, map.get(Message.RESPONSE_CODE));
+        
+        Iterator<String> it = map.keySet().iterator();
+        while (it.hasNext()) {
+            String key = it.next();
+            if (Message.PROTOCOL_HEADERS.equals(key) || "a".equals(key)) {
+                it.remove();
+            }
+        }
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey(Message.PROTOCOL_HEADERS));
+        assertFalse(map.containsKey("a"));
+        assertTrue(map.containsKey("c"));
+    }
+    
+    @Test
+    public void testLateRegisteredKey() {
+        IndexedStringMapImpl map = new IndexedStringMapImpl();
+        map.put(Message.CONTENT_TYPE, "text/xml");
+        String key = IndexedStringMapImplTest.class.getName() + ".late";
+        int slot = IndexedStringMapImpl.registerKey(key);
+        assertEquals(slot, IndexedStringMapImpl.getSlot(key));
+        assertNull(map.get(key));
+        map.put(key, "v");
+        assertEquals("v", map.get(key));
+        assertEquals(2, map.size());
+    }
+    
+    @Test
+    public void testKeyRegisteredAfterValueStored() {
+        IndexedStringMapImpl map = new IndexedStringMapImpl();
+        String key = IndexedStringMapImplTest.class.getName() + ".existing";
+        map.put(Message.CONTENT_TYPE, "text/xml");
+        map.put(key, "v");
+        IndexedStringMapImpl.registerKey(key);
+        assertEquals("v", map.get(key));
+        assertTrue(map.containsKey(key));
+        assertEquals(2, map.size());
+        assertEquals("v", map.put(key, "w"));
+        assertEquals(2, map.size());
+        assertEquals("w", map.remove(key));
+        assertEquals(1, map.size());
+    }
+    
+    @Test
+    public void testSerialization() throws Exception {
+        IndexedStringMapImpl map = new IndexedStringMapImpl();
+        map.put(Message.CONTENT_TYPE, "text/xml");
+        map.put("custom", "value");
+        
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bout);
+        out.writeObject(map);
+        out.close();
+        Object o = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray())).readObject();
+        assertEquals(map, o);
+    }
+}
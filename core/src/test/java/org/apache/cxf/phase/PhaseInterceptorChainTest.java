@@ -348,6 +348,61 @@ public class PhaseInterceptorChainTest extends Assert {
         assertEquals(0, p1.faultInvoked);
     }
 
+    @Test
+    public void testClonedChainIsCopiedOnWrite() throws Exception {
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1");
+        CountingPhaseInterceptor p2 = new CountingPhaseInterceptor("phase2", "p2");
+        CountingPhaseInterceptor p3 = new CountingPhaseInterceptor("phase3", "p3");
+        control.replay();
+        chain.add(p1);
+        chain.add(p2);
+        
+        PhaseInterceptorChain clone = chain.cloneChain();
+        clone.add(p2);
+        assertEquals(2, count(clone.iterator()));
+        clone.add(p3);
+        assertEquals(3, count(clone.iterator()));
+        assertEquals(2, count(chain.iterator()));
+        
+        PhaseInterceptorChain clone2 = chain.cloneChain();
+        chain.remove(p1);
+        assertEquals(1, count(chain.iterator()));
+        assertEquals(2, count(clone2.iterator()));
+        assertEquals(3, count(clone.iterator()));
+    }
+
+    @Test
+    public void testInsertionInClonedChainPass() throws Exception {
+        final AbstractPhaseInterceptor<Message> p2 = setUpPhaseInterceptor("phase2", "p2");
+        setUpPhaseInterceptorInvocations(p2, false, false);
+        AbstractPhaseInterceptor<Message> p3 = setUpPhaseInterceptor("phase3", "p3");
+        setUpPhaseInterceptorInvocations(p3, false, false);
+        final PhaseInterceptorChain[] running = new PhaseInterceptorChain[1];
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1") {
+            public void handleMessage(Message m) {
+                super.handleMessage(m);
+                running[0].add(p2);
+            }
+        };
+        control.replay();
+        chain.add(p1);
+        chain.add(p3);
+        running[0] = chain.cloneChain();
+        assertTrue(running[0].doIntercept(message));
+        assertEquals(1, p1.invoked);
+        assertEquals(2, count(chain.iterator()));
+        assertEquals(3, count(running[0].iterator()));
+    }
+    
+    private static int count(Iterator<?> it) {
+        int i = 0;
+        while (it.hasNext()) {
+            it.next();
+            i++;
+        }
+        return i;
+    }
+
     @Test
     public void testWrappedInvocation() throws Exception {
         CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1",
@@ -29,9 +29,11 @@ import java.io.Writer;
 
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.StreamReaderDelegate;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -473,4 +475,42 @@ public class StaxUtilsTest extends Assert {
         //System.out.println(sw.toString());
         assertEquals(innerXml, sw.toString());
     }    
+
+    @Test
+    public void testInputFactoryPoolReusesClosedReader() throws Exception {
+        InputFactoryPool pool = new InputFactoryPool(2) {
+            @Override
+            protected XMLInputFactory createFactory() {
+                // the JDK parser, whose factories are pooled and support reuse-instance
+                try {
+                    return (XMLInputFactory)Class.forName("com.sun.xml.internal.stream.XMLInputFactoryImpl")
+                        .newInstance();
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        XMLInputFactory factory = pool.borrow();
+        XMLStreamReader first = 
+            pool.release(factory, factory.createXMLStreamReader(new StringReader("<a/>")));
+        assertTrue(first instanceof StreamReaderDelegate);
+        
+        // the factory stays with the open reader
+        assertNotSame(factory, pool.borrow());
+        assertEquals(2, pool.getMisses());
+        
+        first.nextTag();
+        assertEquals("a", first.getLocalName());
+        first.close();
+        
+        // the closed reader is reset for the next document
+        XMLInputFactory reused = pool.borrow();
+        XMLStreamReader second = 
+            pool.release(reused, reused.createXMLStreamReader(new StringReader("<b/>")));
+        assertEquals(1, pool.getHits());
+        assertSame(((StreamReaderDelegate)first).getParent(), ((StreamReaderDelegate)second).getParent());
+        second.nextTag();
+        assertEquals("b", second.getLocalName());
+        second.close();
+    }
 }
@@ -19,7 +19,12 @@
 
 package org.apache.cxf.workqueue;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -305,6 +310,107 @@ public class AutomaticWorkQueueTest extends Assert {
                    System.currentTimeMillis() - start >= 4950);
     }
 
+    @Test
+    public void testThreadPerTask() throws Exception {
+        workqueue = new AutomaticWorkQueueImpl(2, 0, 2, 1, DEFAULT_DEQUEUE_TIMEOUT);
+        workqueue.setThreadPerTask(true);
+
+        final CountDownLatch done = new CountDownLatch(4);
+        BlockingWorkItem[] items = new BlockingWorkItem[4];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BlockingWorkItem();
+            final BlockingWorkItem item = items[i];
+            workqueue.execute(new Runnable() {
+                public void run() {
+                    item.run();
+                    done.countDown();
+                }
+            });
+        }
+        // two running, two waiting for a free slot
+        assertEquals(2, workqueue.getSize());
+        assertTrue(workqueue.isFull());
+        try {
+            workqueue.execute(new TestWorkItem());
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // ignore
+        }
+        try {
+            workqueue.execute(new TestWorkItem(), TIMEOUT);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // ignore
+        }
+
+        for (BlockingWorkItem item : items) {
+            item.unblock();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, workqueue.getLargestPoolSize());
+
+        // raising the high water mark lets more items run at the same time
+        workqueue.setHighWaterMark(4);
+        final CountDownLatch started = new CountDownLatch(4);
+        final BlockingWorkItem blocker = new BlockingWorkItem();
+        for (int i = 0; i < 4; i++) {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                    started.countDown();
+                    blocker.run();
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        blocker.unblock();
+
+        workqueue.shutdown(true);
+        assertTrue(workqueue.isShutdown());
+        try {
+            workqueue.execute(new TestWorkItem());
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // ignore
+        }
+    }
+
+    @Test
+    public void testExecutorService() throws Exception {
+        final AtomicInteger submitted = new AtomicInteger();
+        ExecutorService es = Executors.newFixedThreadPool(4);
+        try {
+            workqueue = new AutomaticWorkQueueImpl(DEFAULT_MAX_QUEUE_SIZE, 0, 
+                                                   UNBOUNDED_HIGH_WATER_MARK,
+                                                   DEFAULT_LOW_WATER_MARK,
+                                                   DEFAULT_DEQUEUE_TIMEOUT);
+            workqueue.setExecutorService(es);
+            final CountDownLatch done = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                workqueue.execute(new Runnable() {
+                    public void run() {
+                        submitted.incrementAndGet();
+                        done.countDown();
+                    }
+                }, TIMEOUT);
+            }
+            final CountDownLatch scheduled = new CountDownLatch(1);
+            workqueue.schedule(new Runnable() {
+                public void run() {
+                    scheduled.countDown();
+                }
+            }, 10);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(scheduled.await(5, TimeUnit.SECONDS));
+            assertEquals(10, submitted.get());
+
+            workqueue.shutdown(true);
+            // the executor belongs to the caller
+            assertFalse(es.isShutdown());
+        } finally {
+            es.shutdownNow();
+        }
+    }
+
     @Test
     public void testThreadPoolShrink() {
         workqueue = new AutomaticWorkQueueImpl(UNBOUNDED_MAX_QUEUE_SIZE, 20, 20, 10, 100L);
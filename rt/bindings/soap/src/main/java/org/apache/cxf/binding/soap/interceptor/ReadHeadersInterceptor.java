@@ -20,9 +20,14 @@
 package org.apache.cxf.binding.soap.interceptor;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
@@ -53,7 +58,10 @@ import org.apache.cxf.headers.HeaderProcessor;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.helpers.ServiceUtils;
 import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.staxutils.DepthXMLStreamReader;
 import org.apache.cxf.staxutils.PartialXMLStreamReader;
 import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.staxutils.W3CDOMStreamWriter;
@@ -87,6 +95,16 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
 
     }
 
+    /**
+     * Contextual property that enables streaming header mode.  Instead of reading the
+     * Envelope and Header into a DOM Document, the headers are taken from the
+     * XMLStreamReader one at a time: headers some {@link StreamingHeaderConsumer} on the
+     * chain asks for are read by that consumer, all others are read into a DOM Element
+     * of their own.  No Node content is set on the message in this mode, it is 
+     * therefore only used if nothing (such as SAAJ) has asked for the DOM already.
+     */
+    public static final String STREAM_HEADERS = "org.apache.cxf.binding.soap.streamHeaders";
+    
     private static final Logger LOG = LogUtils.getL7dLogger(ReadHeadersInterceptor.class);
 
     private Bus bus;
@@ -160,88 +178,75 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                                         version.getVersionMismatch());                    
                 }
 
-                XMLStreamReader filteredReader = new PartialXMLStreamReader(xmlReader, message.getVersion()
-                    .getBody());
-
                 Node nd = message.getContent(Node.class);
                 W3CDOMStreamWriter writer = message.get(W3CDOMStreamWriter.class);
-                Document doc = null;
-                if (writer != null) {
-                    StaxUtils.copy(filteredReader, writer);
-                    doc = writer.getDocument();
-                } else if (nd instanceof Document) {
-                    doc = (Document)nd;
-                    StaxUtils.readDocElements(doc, doc, filteredReader, false, false);
+                if (writer == null && !(nd instanceof Document)
+                    && MessageUtils.getContextualBoolean(message, STREAM_HEADERS, false)) {
+                    readStreamedHeaders(xmlReader, message, soapVersion);
                 } else {
-                    doc = StaxUtils.read(filteredReader);
-                    message.setContent(Node.class, doc);
-                }
+                    XMLStreamReader filteredReader = new PartialXMLStreamReader(xmlReader,
+                        message.getVersion().getBody());
+
+                    Document doc = null;
+                    if (writer != null) {
+                        StaxUtils.copy(filteredReader, writer);
+                        doc = writer.getDocument();
+                    } else if (nd instanceof Document) {
+                        doc = (Document)nd;
+                        StaxUtils.readDocElements(doc, doc, filteredReader, false, false);
+                    } else {
+                        doc = StaxUtils.read(filteredReader);
+                        message.setContent(Node.class, doc);
+                    }
 
-                // Find header
-                // TODO - we could stream read the "known" headers and just DOM read the 
-                // unknown ones
-                Element element = doc.getDocumentElement();
-                QName header = soapVersion.getHeader();                
-                List<Element> elemList = 
-                    DOMUtils.findAllElementsByTagNameNS(element, 
-                                                        header.getNamespaceURI(), 
-                                                        header.getLocalPart());
-                for (Element elem : elemList) {
-                    Element hel = DOMUtils.getFirstElement(elem);
-                    while (hel != null) {
-                        // Need to add any attributes that are present on the parent element
-                        // which otherwise would be lost.
-                        if (elem.hasAttributes()) {
-                            NamedNodeMap nnp = elem.getAttributes();
-                            for (int ct = 0; ct < nnp.getLength(); ct++) {
-                                Node attr = nnp.item(ct);
-                                Node headerAttrNode = hel.hasAttributes() 
-                                        ?  hel.getAttributes().getNamedItemNS(
-                                                        attr.getNamespaceURI(), attr.getLocalName()) 
-                                        : null;
+                    // Find header
+                    Element element = doc.getDocumentElement();
+                    QName header = soapVersion.getHeader();                
+                    List<Element> elemList = 
+                        DOMUtils.findAllElementsByTagNameNS(element, 
+                                                            header.getNamespaceURI(), 
+                                                            header.getLocalPart());
+                    for (Element elem : elemList) {
+                        Element hel = DOMUtils.getFirstElement(elem);
+                        while (hel != null) {
+                            // Need to add any attributes that are present on the parent element
+                            // which otherwise would be lost.
+                            if (elem.hasAttributes()) {
+                                NamedNodeMap nnp = elem.getAttributes();
+                                for (int ct = 0; ct < nnp.getLength(); ct++) {
+                                    Node attr = nnp.item(ct);
+                                    Node headerAttrNode = hel.hasAttributes() 
+                                            ?  hel.getAttributes().getNamedItemNS(
+                                                            attr.getNamespaceURI(), attr.getLocalName()) 
+                                            : null;
                                 
-                                if (headerAttrNode == null) {
-                                    Attr attribute = hel.getOwnerDocument().createAttributeNS(
-                                            attr.getNamespaceURI(), 
-                                            attr.getNodeName());
-                                    attribute.setNodeValue(attr.getNodeValue());
-                                    hel.setAttributeNodeNS(attribute);
+                                    if (headerAttrNode == null) {
+                                        Attr attribute = hel.getOwnerDocument().createAttributeNS(
+                                                attr.getNamespaceURI(), 
+                                                attr.getNodeName());
+                                        attribute.setNodeValue(attr.getNodeValue());
+                                        hel.setAttributeNodeNS(attribute);
+                                    }
                                 }
                             }
-                        }
                         
-                        HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
-                            .getHeaderProcessor(hel.getNamespaceURI());
+                            SoapHeader shead = createSoapHeader(hel);
+                            String mu = hel.getAttributeNS(soapVersion.getNamespace(),
+                                                          soapVersion.getAttrNameMustUnderstand());
+                            String act = hel.getAttributeNS(soapVersion.getNamespace(),
+                                                            soapVersion.getAttrNameRole());
 
-                        Object obj;
-                        DataBinding dataBinding = null;
-                        if (p == null || p.getDataBinding() == null) {
-                            obj = hel;
-                        } else {
-                            dataBinding = p.getDataBinding();
-                            obj = dataBinding.createReader(Node.class).read(hel);
-                        }
-                        //TODO - add the interceptors
+                            if (!StringUtils.isEmpty(act)) {
+                                shead.setActor(act);
+                            }
+                            shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
+                            //mark header as inbound header.(for distinguishing between the  direction to 
+                            //avoid piggybacking of headers from request->server->response.
+                            shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
+                            message.getHeaders().add(shead);
                         
-                        SoapHeader shead = new SoapHeader(new QName(hel.getNamespaceURI(),
-                                                                    hel.getLocalName()),
-                                                           obj,
-                                                           dataBinding);
-                        String mu = hel.getAttributeNS(soapVersion.getNamespace(),
-                                                      soapVersion.getAttrNameMustUnderstand());
-                        String act = hel.getAttributeNS(soapVersion.getNamespace(),
-                                                        soapVersion.getAttrNameRole());
-
-                        if (!StringUtils.isEmpty(act)) {
-                            shead.setActor(act);
+                            hel = DOMUtils.getNextElement(hel);
                         }
-                        shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
-                        //mark header as inbound header.(for distinguishing between the  direction to 
-                        //avoid piggybacking of headers from request->server->response.
-                        shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
-                        message.getHeaders().add(shead);
-                        
-                        hel = DOMUtils.getNextElement(hel);
                     }
                 }
 
@@ -263,4 +268,147 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
             }
         }
     }
+
+    private SoapHeader createSoapHeader(Element hel) {
+        HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
+            .getHeaderProcessor(hel.getNamespaceURI());
+
+        Object obj;
+        DataBinding dataBinding = null;
+        if (p == null || p.getDataBinding() == null) {
+            obj = hel;
+        } else {
+            dataBinding = p.getDataBinding();
+            obj = dataBinding.createReader(Node.class).read(hel);
+        }
+        //TODO - add the interceptors
+        
+        return new SoapHeader(new QName(hel.getNamespaceURI(),
+                                        hel.getLocalName()),
+                               obj,
+                               dataBinding);
+    }
+    
+    private void readStreamedHeaders(XMLStreamReader xmlReader,
+                                     SoapMessage message,
+                                     SoapVersion soapVersion) throws XMLStreamException {
+        Map<String, String> namespaces = new HashMap<String, String>();
+        addNamespaces(xmlReader, namespaces);
+        Map<QName, StreamingHeaderConsumer> consumers = null;
+        
+        int event = xmlReader.nextTag();
+        while (event == XMLStreamConstants.START_ELEMENT
+            && soapVersion.getHeader().equals(xmlReader.getName())) {
+            if (consumers == null) {
+                consumers = getStreamingHeaderConsumers(message);
+            }
+            Map<String, String> headerNamespaces = new HashMap<String, String>(namespaces);
+            addNamespaces(xmlReader, headerNamespaces);
+            // attributes on the Header element apply to all the headers
+            List<QName> headerAttrNames = new ArrayList<QName>();
+            List<String> headerAttrValues = new ArrayList<String>();
+            for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+                headerAttrNames.add(xmlReader.getAttributeName(i));
+                headerAttrValues.add(xmlReader.getAttributeValue(i));
+            }
+            
+            // depth is 1 on a header, 0 after it and -1 after the end of the Header element
+            DepthXMLStreamReader reader = new DepthXMLStreamReader(xmlReader);
+            event = reader.nextTag();
+            while (event == XMLStreamConstants.START_ELEMENT) {
+                QName name = reader.getName();
+                String mu = getHeaderAttribute(reader, soapVersion.getNamespace(),
+                                               soapVersion.getAttrNameMustUnderstand(),
+                                               headerAttrNames, headerAttrValues);
+                String act = getHeaderAttribute(reader, soapVersion.getNamespace(),
+                                                soapVersion.getAttrNameRole(),
+                                                headerAttrNames, headerAttrValues);
+                
+                StreamingHeaderConsumer consumer = consumers.get(name);
+                SoapHeader shead;
+                if (consumer != null) {
+                    shead = consumer.readHeader(message, reader);
+                } else {
+                    Document doc = DOMUtils.createDocument();
+                    StaxUtils.readDocElements(doc, doc, reader, false, false);
+                    Element hel = doc.getDocumentElement();
+                    declareNamespaces(hel, headerNamespaces);
+                    for (int i = 0; i < headerAttrNames.size(); i++) {
+                        QName an = headerAttrNames.get(i);
+                        if (!hel.hasAttributeNS(an.getNamespaceURI(), an.getLocalPart())) {
+                            String qn = StringUtils.isEmpty(an.getPrefix()) 
+                                ? an.getLocalPart() : an.getPrefix() + ":" + an.getLocalPart();
+                            hel.setAttributeNS(an.getNamespaceURI(), qn, headerAttrValues.get(i));
+                        }
+                    }
+                    shead = createSoapHeader(hel);
+                }
+                if (!StringUtils.isEmpty(act)) {
+                    shead.setActor(act);
+                }
+                shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
+                shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
+                message.getHeaders().add(shead);
+                
+                event = reader.getEventType();
+                if (event != XMLStreamConstants.START_ELEMENT
+                    && !(event == XMLStreamConstants.END_ELEMENT && reader.getDepth() < 0)) {
+                    event = reader.nextTag();
+                }
+            }
+            event = xmlReader.nextTag();
+        }
+    }
+    
+    private static Map<QName, StreamingHeaderConsumer> getStreamingHeaderConsumers(SoapMessage message) {
+        Map<QName, StreamingHeaderConsumer> consumers = new HashMap<QName, StreamingHeaderConsumer>();
+        if (message.getInterceptorChain() != null) {
+            for (Interceptor<? extends org.apache.cxf.message.Message> i : message.getInterceptorChain()) {
+                if (i instanceof StreamingHeaderConsumer) {
+                    StreamingHeaderConsumer c = (StreamingHeaderConsumer)i;
+                    Set<QName> names = c.getStreamedHeaders(message);
+                    if (names != null) {
+                        for (QName name : names) {
+                            consumers.put(name, c);
+                        }
+                    }
+                }
+            }
+        }
+        return consumers;
+    }
+    
+    private static String getHeaderAttribute(XMLStreamReader reader, String ns, String name,
+                                             List<QName> headerAttrNames, List<String> headerAttrValues) {
+        String value = reader.getAttributeValue(ns, name);
+        if (value == null) {
+            int idx = headerAttrNames.indexOf(new QName(ns, name));
+            if (idx != -1) {
+                value = headerAttrValues.get(idx);
+            }
+        }
+        return value;
+    }
+    
+    private static void addNamespaces(XMLStreamReader reader, Map<String, String> namespaces) {
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            namespaces.put(prefix == null ? "" : prefix, reader.getNamespaceURI(i));
+        }
+    }
+    
+    /**
+     * The header Element has no Envelope parent in streaming mode, so the namespaces
+     * declared on the Envelope and Header elements need to be declared on it.
+     */
+    private static void declareNamespaces(Element el, Map<String, String> namespaces) {
+        for (Map.Entry<String, String> ns : namespaces.entrySet()) {
+            String prefix = ns.getKey();
+            String attr = prefix.length() == 0 ? "xmlns" : "xmlns:" + prefix;
+            if (!el.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, 
+                                   prefix.length() == 0 ? "xmlns" : prefix)) {
+                el.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attr, ns.getValue());
+            }
+        }
+    }
 }
@@ -20,9 +20,15 @@
 package org.apache.cxf.binding.soap.interceptor;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
@@ -37,10 +43,12 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
 import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.binding.soap.SoapHeader;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.SoapVersion;
 import org.apache.cxf.binding.soap.model.SoapHeaderInfo;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.ServiceUtils;
 import org.apache.cxf.interceptor.AbstractInDatabindingInterceptor;
@@ -50,6 +58,7 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageContentsList;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingInfo;
 import org.apache.cxf.service.model.BindingMessageInfo;
 import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.service.model.MessagePartInfo;
@@ -62,9 +71,12 @@ import org.apache.cxf.wsdl.interceptors.DocLiteralInInterceptor;
 /**
  * Perform databinding of the SOAP headers.
  */
-public class SoapHeaderInterceptor extends AbstractInDatabindingInterceptor {
+public class SoapHeaderInterceptor extends AbstractInDatabindingInterceptor 
+    implements StreamingHeaderConsumer {
 
     private static final Logger LOG = LogUtils.getL7dLogger(SoapHeaderInterceptor.class);
+    private static final String STREAMED_HEADER_PARTS 
+        = SoapHeaderInterceptor.class.getName() + ".STREAMED_HEADER_PARTS";
     
     public SoapHeaderInterceptor() {
         super(Phase.UNMARSHAL);
@@ -207,6 +219,61 @@ public class SoapHeaderInterceptor extends AbstractInDatabindingInterceptor {
         }
     }
 
+    public Set<QName> getStreamedHeaders(SoapMessage message) {
+        return getStreamedHeaderParts(message).keySet();
+    }
+
+    public SoapHeader readHeader(SoapMessage message, XMLStreamReader reader) throws XMLStreamException {
+        QName name = reader.getName();
+        MessagePartInfo mpi = getStreamedHeaderParts(message).get(name);
+        Service service = ServiceModelUtil.getService(message.getExchange());
+        Object object = getDataReader(message, XMLStreamReader.class).read(mpi, reader);
+        return new SoapHeader(name, object, service.getDataBinding());
+    }
+
+    /**
+     * The header parts of all the operations of the binding, keyed by element name.  Headers
+     * that are validated or whose element is used with different types are left out, they
+     * are read into a DOM Element as usual.
+     */
+    private Map<QName, MessagePartInfo> getStreamedHeaderParts(SoapMessage message) {
+        Endpoint ep = message.getExchange().getEndpoint();
+        if (ep == null || ep.getEndpointInfo().getBinding() == null
+            || ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.IN, message)
+            || !supportsDataReader(message, XMLStreamReader.class)) {
+            return Collections.emptyMap();
+        }
+        boolean client = isRequestor(message);
+        BindingInfo binding = ep.getEndpointInfo().getBinding();
+        String key = STREAMED_HEADER_PARTS + (client ? ".client" : ".server");
+        @SuppressWarnings("unchecked")
+        Map<QName, MessagePartInfo> parts = (Map<QName, MessagePartInfo>)binding.getProperty(key);
+        if (parts == null) {
+            parts = new HashMap<QName, MessagePartInfo>();
+            Set<QName> ambiguous = new HashSet<QName>();
+            for (BindingOperationInfo bop : binding.getOperations()) {
+                BindingMessageInfo bmi = client ? bop.getOutput() : bop.getInput();
+                List<SoapHeaderInfo> headers = bmi == null ? null : bmi.getExtensors(SoapHeaderInfo.class);
+                if (headers == null) {
+                    continue;
+                }
+                for (SoapHeaderInfo header : headers) {
+                    MessagePartInfo mpi = header.getPart();
+                    if (mpi.getTypeClass() == null) {
+                        continue;
+                    }
+                    MessagePartInfo old = parts.put(mpi.getConcreteName(), mpi);
+                    if (old != null && old.getTypeClass() != mpi.getTypeClass()) {
+                        ambiguous.add(mpi.getConcreteName());
+                    }
+                }
+            }
+            parts.keySet().removeAll(ambiguous);
+            binding.setProperty(key, parts);
+        }
+        return parts;
+    }
+
     private Header findHeader(SoapMessage message, MessagePartInfo mpi) {
         return message.getHeader(mpi.getConcreteName());
     }
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.binding.soap.interceptor;
+
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.cxf.binding.soap.SoapHeader;
+import org.apache.cxf.binding.soap.SoapMessage;
+
+/**
+ * Implemented by interceptors that consume inbound SOAP headers and can read them
+ * straight from the XMLStreamReader.  When the {@link ReadHeadersInterceptor} runs in
+ * streaming mode it asks the consumers on the chain for the headers they read and
+ * hands those headers to them instead of building a DOM Element for them.
+ */
+public interface StreamingHeaderConsumer {
+
+    /**
+     * Returns the names of the headers this interceptor reads from the stream.
+     */
+    Set<QName> getStreamedHeaders(SoapMessage message);
+
+    /**
+     * Reads the header the reader is positioned on.  The reader is on the START_ELEMENT
+     * of the header and must be left on its END_ELEMENT or on the event following it.
+     * The returned header should carry the DataBinding its object belongs to.
+     */
+    SoapHeader readHeader(SoapMessage message, XMLStreamReader reader) throws XMLStreamException;
+}
@@ -22,22 +22,29 @@ package org.apache.cxf.binding.soap;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import javax.activation.DataHandler;
 import javax.mail.util.ByteArrayDataSource;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 import org.apache.cxf.BusFactory;
 import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
 import org.apache.cxf.attachment.AttachmentImpl;
 import org.apache.cxf.attachment.AttachmentUtil;
+import org.apache.cxf.binding.soap.interceptor.AbstractSoapInterceptor;
 import org.apache.cxf.binding.soap.interceptor.CheckFaultInterceptor;
 import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
 import org.apache.cxf.binding.soap.interceptor.StartBodyInterceptor;
+import org.apache.cxf.binding.soap.interceptor.StreamingHeaderConsumer;
 import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.interceptor.Fault;
@@ -195,6 +202,58 @@ public class ReadHeaderInterceptorTest extends TestBase {
         }
     }
 
+    @Test
+    public void testHandleStreamedHeader() throws Exception {
+        prepareSoapMessage("test-soap-header.xml");
+        soapMessage.put(ReadHeadersInterceptor.STREAM_HEADERS, Boolean.TRUE);
+        chain.add(new PassengerConsumer());
+
+        staxIntc.handleMessage(soapMessage);
+        soapMessage.getInterceptorChain().doIntercept(soapMessage);
+        XMLStreamReader xmlReader = soapMessage.getContent(XMLStreamReader.class);
+        assertEquals("check the first entry of body", "itinerary", xmlReader.getLocalName());
+        // no DOM for the Envelope
+        assertNull(soapMessage.getContent(Node.class));
+
+        SoapHeader reservation = (SoapHeader)soapMessage.getHeader(
+            new QName("http://travelcompany.example.org/reservation", "reservation"));
+        assertTrue(reservation.isMustUnderstand());
+        assertEquals("http://schemas.xmlsoap.org/soap/actor/next", reservation.getActor());
+        Element el = (Element)reservation.getObject();
+        Element ref = DOMUtils.getFirstElement(el);
+        assertEquals("reference", ref.getLocalName());
+        assertEquals("uuid:093a2da1-q345-739r-ba5d-pqff98fe8j7d", ref.getTextContent());
+        assertEquals("http://schemas.xmlsoap.org/soap/envelope/", el.lookupNamespaceURI("env"));
+
+        SoapHeader passenger = (SoapHeader)soapMessage.getHeader(
+            new QName("http://mycompany.example.com/employees", "passenger"));
+        assertEquals("Bob", passenger.getObject());
+        assertTrue(passenger.isMustUnderstand());
+        assertEquals(Header.Direction.DIRECTION_IN, passenger.getDirection());
+    }
+
+    static class PassengerConsumer extends AbstractSoapInterceptor implements StreamingHeaderConsumer {
+        static final QName PASSENGER = new QName("http://mycompany.example.com/employees", "passenger");
+
+        PassengerConsumer() {
+            super("phase2");
+        }
+
+        public void handleMessage(SoapMessage message) {
+        }
+
+        public Set<QName> getStreamedHeaders(SoapMessage message) {
+            return Collections.singleton(PASSENGER);
+        }
+
+        public SoapHeader readHeader(SoapMessage message, XMLStreamReader reader) throws XMLStreamException {
+            reader.nextTag();
+            String name = reader.getElementText();
+            reader.nextTag();
+            return new SoapHeader(PASSENGER, name);
+        }
+    }
+
     private void prepareSoapMessage(String message) throws IOException {
 
         soapMessage = TestUtil.createEmptySoapMessage(Soap12.getInstance(), chain);
@@ -197,6 +197,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
     private Unmarshaller.Listener unmarshallerListener;
     private Marshaller.Listener marshallerListener;
     private ValidationEventHandler validationEventHandler;
+    private final JAXBMarshallerPool marshallerPool = new JAXBMarshallerPool();
 
     private boolean unwrapJAXBElement = true;
     private boolean scanPackages = true;
@@ -242,6 +243,27 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
 
     public final void setContext(JAXBContext ctx) {
         context = ctx;
+        marshallerPool.clear();
+    }
+
+    /**
+     * Returns the pool of preconfigured Marshallers and Unmarshallers used by the
+     * readers and writers of this data binding.
+     */
+    public JAXBMarshallerPool getMarshallerPool() {
+        return marshallerPool;
+    }
+
+    /**
+     * Sets the maximum number of idle Marshallers and Unmarshallers kept per
+     * configuration (schema validation, MTOM).  Use 0 to disable pooling.
+     */
+    public void setMarshallerPoolSize(int size) {
+        marshallerPool.setMaxSize(size);
+    }
+
+    public int getMarshallerPoolSize() {
+        return marshallerPool.getMaxSize();
     }
 
     @SuppressWarnings("unchecked")
@@ -534,6 +556,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setMarshallerProperties(Map<String, Object> marshallerProperties) {
         this.marshallerProperties = marshallerProperties;
+        marshallerPool.clear();
     }
 
 
@@ -557,6 +580,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setUnmarshallerProperties(Map<String, Object> unmarshallerProperties) {
         this.unmarshallerProperties = unmarshallerProperties;
+        marshallerPool.clear();
     }
 
     /**
@@ -573,6 +597,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setUnmarshallerListener(Unmarshaller.Listener unmarshallerListener) {
         this.unmarshallerListener = unmarshallerListener;
+        marshallerPool.clear();
     }
     /**
      * Returns the Marshaller.Listener that will be registered on the Marshallers
@@ -588,9 +613,22 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setMarshallerListener(Marshaller.Listener marshallerListener) {
         this.marshallerListener = marshallerListener;
+        marshallerPool.clear();
     }
 
 
+    @Override
+    public void setNamespaceMap(Map<String, String> namespaceMap) {
+        super.setNamespaceMap(namespaceMap);
+        marshallerPool.clear();
+    }
+
+    @Override
+    public void setContextualNamespaceMap(Map<String, String> contextualNamespaceMap) {
+        super.setContextualNamespaceMap(contextualNamespaceMap);
+        marshallerPool.clear();
+    }
+
     public ValidationEventHandler getValidationEventHandler() {
         return validationEventHandler;
     }
@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxb;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.validation.Schema;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * A bounded pool of preconfigured JAXB Marshallers and Unmarshallers owned by a
+ * single {@link JAXBDataBinding}.  Instances are kept per configuration, that is per
+ * validation Schema (or none) and per MTOM (attachments present or not), so a pooled
+ * instance only needs its per-message state (event handler and attachment
+ * (un)marshaller) set when it is borrowed.  That state is cleared again when the
+ * instance is returned.
+ */
+public class JAXBMarshallerPool {
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private static final Logger LOG = LogUtils.getLogger(JAXBMarshallerPool.class);
+
+    private final ConcurrentMap<Key, Queue<Marshaller>> marshallers
+        = new ConcurrentHashMap<Key, Queue<Marshaller>>();
+    private final ConcurrentMap<Key, Queue<Unmarshaller>> unmarshallers
+        = new ConcurrentHashMap<Key, Queue<Unmarshaller>>();
+    private volatile int maxSize;
+
+    private final AtomicLong marshallerHits = new AtomicLong();
+    private final AtomicLong marshallerMisses = new AtomicLong();
+    private final AtomicLong unmarshallerHits = new AtomicLong();
+    private final AtomicLong unmarshallerMisses = new AtomicLong();
+
+    public JAXBMarshallerPool() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    public JAXBMarshallerPool(int size) {
+        maxSize = size;
+    }
+
+    /**
+     * Sets the maximum number of idle instances kept per configuration.  A value
+     * of 0 or less disables pooling.  Changing the size drops all pooled instances.
+     */
+    public void setMaxSize(int size) {
+        maxSize = size;
+        clear();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns a pooled Marshaller for the given configuration, or null if none is
+     * available and the caller needs to create and configure a new one.
+     */
+    public Marshaller pollMarshaller(Schema schema, boolean mtom) {
+        Queue<Marshaller> q = maxSize > 0 ? marshallers.get(new Key(schema, mtom)) : null;
+        Marshaller m = q == null ? null : q.poll();
+        if (m == null) {
+            marshallerMisses.incrementAndGet();
+        } else {
+            marshallerHits.incrementAndGet();
+        }
+        return m;
+    }
+
+    /**
+     * Resets the per-message state of the Marshaller and keeps it for reuse if
+     * there is still room in the pool for its configuration.
+     */
+    public void releaseMarshaller(Schema schema, boolean mtom, Marshaller m) {
+        if (maxSize <= 0 || m == null) {
+            return;
+        }
+        try {
+            m.setEventHandler(null);
+            m.setAttachmentMarshaller(null);
+        } catch (JAXBException ex) {
+            LOG.log(Level.FINE, "Could not reset Marshaller, discarding it", ex);
+            return;
+        }
+        getQueue(marshallers, new Key(schema, mtom)).offer(m);
+    }
+
+    /**
+     * Returns a pooled Unmarshaller for the given configuration, or null if none is
+     * available and the caller needs to create and configure a new one.
+     */
+    public Unmarshaller pollUnmarshaller(Schema schema, boolean mtom) {
+        Queue<Unmarshaller> q = maxSize > 0 ? unmarshallers.get(new Key(schema, mtom)) : null;
+        Unmarshaller um = q == null ? null : q.poll();
+        if (um == null) {
+            unmarshallerMisses.incrementAndGet();
+        } else {
+            unmarshallerHits.incrementAndGet();
+        }
+        return um;
+    }
+
+    /**
+     * Resets the per-message state of the Unmarshaller and keeps it for reuse if
+     * there is still room in the pool for its configuration.
+     */
+    public void releaseUnmarshaller(Schema schema, boolean mtom, Unmarshaller um) {
+        if (maxSize <= 0 || um == null) {
+            return;
+        }
+        try {
+            um.setEventHandler(null);
+            um.setAttachmentUnmarshaller(null);
+        } catch (JAXBException ex) {
+            LOG.log(Level.FINE, "Could not reset Unmarshaller, discarding it", ex);
+            return;
+        }
+        getQueue(unmarshallers, new Key(schema, mtom)).offer(um);
+    }
+
+    /**
+     * Drops all pooled instances.  Called whenever the configuration the pooled
+     * instances were created with (context, properties, listeners, namespace
+     * mappings) changes.
+     */
+    public void clear() {
+        marshallers.clear();
+        unmarshallers.clear();
+    }
+
+    public long getMarshallerHits() {
+        return marshallerHits.get();
+    }
+
+    public long getMarshallerMisses() {
+        return marshallerMisses.get();
+    }
+
+    public long getUnmarshallerHits() {
+        return unmarshallerHits.get();
+    }
+
+    public long getUnmarshallerMisses() {
+        return unmarshallerMisses.get();
+    }
+
+    private <T> Queue<T> getQueue(ConcurrentMap<Key, Queue<T>> pools, Key key) {
+        Queue<T> q = pools.get(key);
+        if (q == null) {
+            q = new ArrayBlockingQueue<T>(maxSize);
+            Queue<T> existing = pools.putIfAbsent(key, q);
+            if (existing != null) {
+                q = existing;
+            }
+        }
+        return q;
+    }
+
+    private static final class Key {
+        private final Schema schema;
+        private final boolean mtom;
+
+        Key(Schema schema, boolean mtom) {
+            this.schema = schema;
+            this.mtom = mtom;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(schema) * 31 + (mtom ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key)o;
+            return schema == k.schema && mtom == k.mtom;
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.jaxb.JAXBMarshallerPool;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.model.MessagePartInfo;
 
@@ -105,25 +106,14 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
     }
     private Unmarshaller createUnmarshaller() {
         try {
-            Unmarshaller um = null;
-            um = context.createUnmarshaller();
-            if (databinding.getUnmarshallerListener() != null) {
-                um.setListener(databinding.getUnmarshallerListener());
+            JAXBMarshallerPool pool = getMarshallerPool();
+            Unmarshaller um = pool == null ? null : pool.pollUnmarshaller(schema, attachments != null);
+            if (um == null) {
+                um = newUnmarshaller();
             }
             if (setEventHandler) {
                 um.setEventHandler(new WSUIDValidationHandler(veventHandler));
             }
-            if (databinding.getUnmarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry 
-                    : databinding.getUnmarshallerProperties().entrySet()) {
-                    try {
-                        um.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
-            um.setSchema(schema);
             um.setAttachmentUnmarshaller(getAttachmentUnmarshaller());
             return um;
         } catch (JAXBException ex) {
@@ -137,6 +127,45 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
         }
     }
 
+    /**
+     * Creates an Unmarshaller with the configuration that is shared by all messages
+     * read with this data binding, i.e. everything but the event handler and
+     * the attachment unmarshaller.
+     */
+    private Unmarshaller newUnmarshaller() throws JAXBException {
+        Unmarshaller um = context.createUnmarshaller();
+        if (databinding.getUnmarshallerListener() != null) {
+            um.setListener(databinding.getUnmarshallerListener());
+        }
+        if (databinding.getUnmarshallerProperties() != null) {
+            for (Map.Entry<String, Object> propEntry 
+                : databinding.getUnmarshallerProperties().entrySet()) {
+                try {
+                    um.setProperty(propEntry.getKey(), propEntry.getValue());
+                } catch (PropertyException pe) {
+                    LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                }
+            }
+        }
+        um.setSchema(schema);
+        return um;
+    }
+    
+    /**
+     * The pool can only be used while this reader still uses the context the
+     * data binding (and therefore the pool) was configured with.
+     */
+    private JAXBMarshallerPool getMarshallerPool() {
+        return context == databinding.getContext() ? databinding.getMarshallerPool() : null;
+    }
+    
+    private void releaseUnmarshaller(Unmarshaller um) {
+        JAXBMarshallerPool pool = getMarshallerPool();
+        if (pool != null) {
+            pool.releaseUnmarshaller(schema, attachments != null, um);
+        }
+    }
+
     public Object read(MessagePartInfo part, T reader) {
         boolean honorJaxbAnnotation = honorJAXBAnnotations(part);
         Annotation[] anns = null;
@@ -157,14 +186,20 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
             }
         }
         
-        return JAXBEncoderDecoder.unmarshall(createUnmarshaller(), reader, part, 
-                                             unwrapJAXBElement);
+        Unmarshaller um = createUnmarshaller();
+        Object o = JAXBEncoderDecoder.unmarshall(um, reader, part, 
+                                                 unwrapJAXBElement);
+        releaseUnmarshaller(um);
+        return o;
     }
 
     public Object read(QName name, T input, Class<?> type) {
-        return JAXBEncoderDecoder.unmarshall(createUnmarshaller(), input,
-                                             name, type, 
-                                             unwrapJAXBElement);
+        Unmarshaller um = createUnmarshaller();
+        Object o = JAXBEncoderDecoder.unmarshall(um, input,
+                                                 name, type, 
+                                                 unwrapJAXBElement);
+        releaseUnmarshaller(um);
+        return o;
     }
 
 }
@@ -45,6 +45,7 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.jaxb.JAXBMarshallerPool;
 import org.apache.cxf.jaxb.attachment.JAXBAttachmentMarshaller;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.model.MessagePartInfo;
@@ -120,12 +121,11 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
         }
         Marshaller marshaller;
         try {
-            
-            marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
-            marshaller.setListener(databinding.getMarshallerListener());
+            JAXBMarshallerPool pool = getMarshallerPool();
+            marshaller = pool == null ? null : pool.pollMarshaller(schema, attachments != null);
+            if (marshaller == null) {
+                marshaller = newMarshaller();
+            }
             if (setEventHandler) {
                 ValidationEventHandler h = veventHandler;
                 if (veventHandler == null) {
@@ -139,27 +139,6 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 marshaller.setEventHandler(h);
             }
             
-            final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
-            final Map<String, String> nsctxt = databinding.getContextualNamespaceMap();
-            // set the prefix mapper if either of the prefix map is configured
-            if (nspref != null || nsctxt != null) {
-                Object mapper = JAXBUtils.setNamespaceMapper(nspref != null ? nspref : nsctxt, marshaller);
-                if (nsctxt != null) {
-                    setContextualNamespaceDecls(mapper, nsctxt);
-                }
-            }
-            if (databinding.getMarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry 
-                    : databinding.getMarshallerProperties().entrySet()) {
-                    try {
-                        marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
-            
-            marshaller.setSchema(schema);
             AttachmentMarshaller atmarsh = getAttachmentMarshaller();
             marshaller.setAttachmentMarshaller(atmarsh);
             
@@ -182,6 +161,57 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
         return marshaller;
     }
     
+    /**
+     * Creates a Marshaller with the configuration that is shared by all messages
+     * written with this data binding, i.e. everything but the event handler and
+     * the attachment marshaller.
+     */
+    private Marshaller newMarshaller() throws JAXBException {
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+        marshaller.setListener(databinding.getMarshallerListener());
+        
+        final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
+        final Map<String, String> nsctxt = databinding.getContextualNamespaceMap();
+        // set the prefix mapper if either of the prefix map is configured
+        if (nspref != null || nsctxt != null) {
+            Object mapper = JAXBUtils.setNamespaceMapper(nspref != null ? nspref : nsctxt, marshaller);
+            if (nsctxt != null) {
+                setContextualNamespaceDecls(mapper, nsctxt);
+            }
+        }
+        if (databinding.getMarshallerProperties() != null) {
+            for (Map.Entry<String, Object> propEntry 
+                : databinding.getMarshallerProperties().entrySet()) {
+                try {
+                    marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
+                } catch (PropertyException pe) {
+                    LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                }
+            }
+        }
+        
+        marshaller.setSchema(schema);
+        return marshaller;
+    }
+    
+    /**
+     * The pool can only be used while this writer still uses the context the
+     * data binding (and therefore the pool) was configured with.
+     */
+    private JAXBMarshallerPool getMarshallerPool() {
+        return context == databinding.getContext() ? databinding.getMarshallerPool() : null;
+    }
+    
+    private void releaseMarshaller(Marshaller marshaller) {
+        JAXBMarshallerPool pool = getMarshallerPool();
+        if (pool != null) {
+            pool.releaseMarshaller(schema, attachments != null, marshaller);
+        }
+    }
+    
     //REVISIT should this go into JAXBUtils?
     private static void setContextualNamespaceDecls(Object mapper, Map<String, String> nsctxt) {
         try {
@@ -215,14 +245,18 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 && part != null
                 && Boolean.TRUE.equals(part.getProperty(JAXBDataBinding.class.getName() 
                                                         + ".CUSTOM_EXCEPTION"))) {
-                JAXBEncoderDecoder.marshallException(createMarshaller(obj, part),
+                Marshaller marshaller = createMarshaller(obj, part);
+                JAXBEncoderDecoder.marshallException(marshaller,
                                                      (Exception)obj,
                                                      part, 
                                                      output);                
+                releaseMarshaller(marshaller);
             } else {
                 Annotation[] anns = getJAXBAnnotation(part);
                 if (!honorJaxbAnnotation || anns.length == 0) {
-                    JAXBEncoderDecoder.marshall(createMarshaller(obj, part), obj, part, output);
+                    Marshaller marshaller = createMarshaller(obj, part);
+                    JAXBEncoderDecoder.marshall(marshaller, obj, part, output);
+                    releaseMarshaller(marshaller);
                 } else if (honorJaxbAnnotation && anns.length > 0) {
                     //RpcLit will use the JAXB Bridge to marshall part message when it is 
                     //annotated with @XmlList,@XmlAttachmentRef,@XmlJavaTypeAdapter
@@ -238,8 +272,9 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 }
             }
         } else if (needToRender(part)) {
-            JAXBEncoderDecoder.marshallNullElement(createMarshaller(null, part),
-                                                   output, part);
+            Marshaller marshaller = createMarshaller(null, part);
+            JAXBEncoderDecoder.marshallNullElement(marshaller, output, part);
+            releaseMarshaller(marshaller);
         }
     }
 
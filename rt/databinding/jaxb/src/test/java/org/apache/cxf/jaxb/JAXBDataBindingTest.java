@@ -21,6 +21,7 @@ package org.apache.cxf.jaxb;
 
 
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,6 +55,7 @@ import org.apache.cxf.jaxb.fortest.QualifiedBean;
 import org.apache.cxf.jaxb.fortest.unqualified.UnqualifiedBean;
 import org.apache.cxf.jaxb.io.DataReaderImpl;
 import org.apache.cxf.jaxb.io.DataWriterImpl;
+import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.transport.DestinationFactoryManager;
 import org.apache.cxf.wsdl11.WSDLServiceBuilder;
 import org.apache.hello_world_soap_http.types.GreetMe;
@@ -223,6 +225,53 @@ public class JAXBDataBindingTest extends Assert {
     }
     
     
+    @Test
+    public void testPooledMarshallers() throws Exception {
+        JAXBDataBinding db = new JAXBDataBinding(GreetMe.class);
+        JAXBMarshallerPool pool = db.getMarshallerPool();
+        DataWriter<XMLStreamWriter> writer = db.createWriter(XMLStreamWriter.class);
+        DataReader<XMLStreamReader> reader = db.createReader(XMLStreamReader.class);
+        GreetMe bean = new GreetMe();
+        bean.setRequestType("spider");
+
+        for (int i = 0; i < 3; i++) {
+            StringWriter stringWriter = new StringWriter();
+            XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(stringWriter);
+            writer.write(bean, xmlWriter);
+            xmlWriter.flush();
+            String xml = stringWriter.toString();
+            assertTrue(xml, xml.contains("spider"));
+
+            XMLStreamReader xmlReader = StaxUtils.createXMLStreamReader(new StringReader(xml));
+            xmlReader.nextTag();
+            Object o = reader.read(null, xmlReader, GreetMe.class);
+            assertEquals("spider", ((GreetMe)o).getRequestType());
+        }
+        assertEquals(1, pool.getMarshallerMisses());
+        assertEquals(2, pool.getMarshallerHits());
+        assertEquals(1, pool.getUnmarshallerMisses());
+        assertEquals(2, pool.getUnmarshallerHits());
+
+        // changing the configuration drops the pooled instances
+        Map<String, String> nsMap = new HashMap<String, String>();
+        nsMap.put("http://apache.org/hello_world_soap_http/types", "greenland");
+        db.setNamespaceMap(nsMap);
+        StringWriter stringWriter = new StringWriter();
+        XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(stringWriter);
+        writer.write(bean, xmlWriter);
+        xmlWriter.flush();
+        assertEquals(2, pool.getMarshallerMisses());
+        assertTrue(stringWriter.toString(), stringWriter.toString().contains("greenland:greetMe"));
+
+        // a pool size of 0 disables pooling
+        db.setMarshallerPoolSize(0);
+        for (int i = 0; i < 2; i++) {
+            writer.write(bean, XMLOutputFactory.newInstance().createXMLStreamWriter(new StringWriter()));
+        }
+        assertEquals(4, pool.getMarshallerMisses());
+        assertEquals(2, pool.getMarshallerHits());
+    }
+
     @Test
     public void testResursiveType() throws Exception {
         Set<Class<?>> classes = new HashSet<Class<?>>();
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.apache.cxf.endpoint.Endpoint;
+
+/**
+ * Strategy selecting the less loaded of two randomly chosen alternates, 
+ * where the load of an address is its number of outstanding requests 
+ * weighted by its exponentially weighted moving average response time.
+ * <p>
+ * An address failing several requests in a row is ejected for a while; 
+ * once that time has elapsed, a single request is let through to probe it.
+ * An ejected address is never selected otherwise, if all the alternates are
+ * ejected no alternate is selected.
+ * <p>
+ * The statistics are only updated when the strategy is used with a 
+ * LoadDistributorTargetSelector, which reports the start and the end 
+ * of every request.
+ */
+public class LatencyAwareStrategy extends AbstractStaticFailoverStrategy {
+    
+    private final ConcurrentMap<String, AddressStats> stats = 
+        new ConcurrentHashMap<String, AddressStats>();
+    private final Random random = new Random();
+    private double weight = 0.3;
+    private int failureThreshold = 3;
+    private long ejectionTime = TimeUnit.SECONDS.toMillis(30);
+    
+    /**
+     * Sets the weight of the latest response time in the moving average.
+     * @param weight a value between 0 (exclusive) and 1 (inclusive)
+     */
+    public void setWeight(double weight) {
+        if (weight <= 0 || weight > 1) {
+            throw new IllegalArgumentException("Weight must be in (0, 1]");
+        }
+        this.weight = weight;
+    }
+    
+    public double getWeight() {
+        return weight;
+    }
+    
+    /**
+     * Sets the number of consecutive failures after which an address is ejected.
+     * @param failureThreshold the number of failures, 0 disables the ejection
+     */
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+    
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+    
+    /**
+     * Sets the time in milliseconds an ejected address is not selected for.
+     * @param ejectionTime the time in milliseconds
+     */
+    public void setEjectionTime(long ejectionTime) {
+        this.ejectionTime = ejectionTime;
+    }
+    
+    public long getEjectionTime() {
+        return ejectionTime;
+    }
+    
+    /**
+     * Records the start of a request to the given address.
+     * @param address the address
+     */
+    public void requestStarted(String address) {
+        getStats(address).outstanding.incrementAndGet();
+    }
+    
+    /**
+     * Records the end of a request to the given address.
+     * @param address the address
+     * @param nanos the response time in nanoseconds
+     * @param failed whether the request failed at the transport level
+     */
+    public void requestCompleted(String address, long nanos, boolean failed) {
+        AddressStats s = getStats(address);
+        s.outstanding.decrementAndGet();
+        if (failed) {
+            int failures = s.failures.incrementAndGet();
+            if (failureThreshold > 0 && failures >= failureThreshold) {
+                s.ejectedUntil.set(System.currentTimeMillis() + ejectionTime);
+            }
+        } else {
+            s.failures.set(0);
+            s.ejectedUntil.set(0);
+            s.updateLatency(nanos, weight);
+        }
+    }
+    
+    /**
+     * @return the number of outstanding requests to the given address
+     */
+    public int getOutstandingRequests(String address) {
+        AddressStats s = stats.get(address);
+        return s == null ? 0 : s.outstanding.get();
+    }
+    
+    /**
+     * @return the average response time of the given address in nanoseconds, 
+     *         0 if not known yet
+     */
+    public double getAverageLatency(String address) {
+        AddressStats s = stats.get(address);
+        return s == null ? 0 : s.getLatency();
+    }
+    
+    /**
+     * @return whether the given address is currently ejected or being probed
+     */
+    public boolean isEjected(String address) {
+        AddressStats s = stats.get(address);
+        return s != null && !s.isAvailable();
+    }
+    
+    /**
+     * Get next alternate endpoint.
+     * 
+     * @param alternates non-empty List of alternate endpoints 
+     * @return the selected alternate, null if all of them are ejected
+     */
+    protected <T> T getNextAlternate(List<T> alternates) {
+        int size = alternates.size();
+        long now = System.currentTimeMillis();
+        if (size == 1) {
+            AddressStats s = getStats(getAddress(alternates.get(0)));
+            return s.isAvailable() || s.tryProbe(now, ejectionTime) ? alternates.remove(0) : null;
+        }
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        AddressStats s1 = getStats(getAddress(alternates.get(first)));
+        AddressStats s2 = getStats(getAddress(alternates.get(second)));
+        boolean available1 = s1.isAvailable();
+        boolean available2 = s2.isAvailable();
+        
+        int selected;
+        if (!available1 && s1.tryProbe(now, ejectionTime)) {
+            selected = first;
+        } else if (!available2 && s2.tryProbe(now, ejectionTime)) {
+            selected = second;
+        } else if (available1 && available2) {
+            selected = s1.getLoad() <= s2.getLoad() ? first : second;
+        } else if (available1 || available2) {
+            selected = available1 ? first : second;
+        } else {
+            selected = selectAvailable(alternates, now);
+        }
+        return selected == -1 ? null : alternates.remove(selected);
+    }
+    
+    @Override
+    protected Level getLogLevel() {
+        return Level.FINE;
+    }
+    
+    private <T> int selectAvailable(List<T> alternates, long now) {
+        for (int i = 0; i < alternates.size(); i++) {
+            AddressStats s = getStats(getAddress(alternates.get(i)));
+            if (s.isAvailable() || s.tryProbe(now, ejectionTime)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private AddressStats getStats(String address) {
+        AddressStats s = stats.get(address);
+        if (s == null) {
+            s = new AddressStats();
+            AddressStats old = stats.putIfAbsent(address, s);
+            if (old != null) {
+                s = old;
+            }
+        }
+        return s;
+    }
+    
+    private static String getAddress(Object alternate) {
+        if (alternate instanceof Endpoint) {
+            return ((Endpoint)alternate).getEndpointInfo().getAddress();
+        }
+        return String.valueOf(alternate);
+    }
+    
+    private static final class AddressStats {
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicLong ejectedUntil = new AtomicLong();
+        final AtomicLong latencyBits = new AtomicLong(Double.doubleToLongBits(0));
+        
+        boolean isAvailable() {
+            return ejectedUntil.get() == 0;
+        }
+        
+        /**
+         * Lets a single request through once the ejection time has elapsed,
+         * the address stays ejected until that request succeeds.
+         */
+        boolean tryProbe(long now, long ejectionTime) {
+            long until = ejectedUntil.get();
+            return until != 0 && until <= now && ejectedUntil.compareAndSet(until, now + ejectionTime);
+        }
+        
+        double getLatency() {
+            return Double.longBitsToDouble(latencyBits.get());
+        }
+        
+        double getLoad() {
+            // an unknown latency counts as 1ns so that new addresses get probed first
+            return (outstanding.get() + 1) * Math.max(1d, getLatency());
+        }
+        
+        void updateLatency(long nanos, double weight) {
+            while (true) {
+                long bits = latencyBits.get();
+                double current = Double.longBitsToDouble(bits);
+                double next = current == 0 ? nanos : current + weight * (nanos - current);
+                if (latencyBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                    return;
+                }
+            }
+        }
+    }
+}
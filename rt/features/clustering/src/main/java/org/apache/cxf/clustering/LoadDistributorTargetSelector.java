@@ -18,6 +18,7 @@
  */
 package org.apache.cxf.clustering;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import org.apache.cxf.common.logging.LogUtils;
@@ -55,6 +56,8 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
                         LoadDistributorTargetSelector.class);
     private static final String IS_DISTRIBUTED = 
             "org.apache.cxf.clustering.LoadDistributorTargetSelector.IS_DISTRIBUTED";
+    private static final String REQUEST_START = 
+            "org.apache.cxf.clustering.LoadDistributorTargetSelector.REQUEST_START";
 
     private List<String> addressList;
 
@@ -113,9 +116,45 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
                 invocation.getContext().put(IS_DISTRIBUTED, null);
             }
         }
+        FailoverStrategy strategy = getStrategy();
+        if (strategy instanceof LatencyAwareStrategy && !exchange.containsKey(REQUEST_START)) {
+            String address = getEndpoint().getEndpointInfo().getAddress();
+            ((LatencyAwareStrategy)strategy).requestStarted(address);
+            exchange.put(REQUEST_START, new RequestStart(address, System.nanoTime()));
+        }
         return getSelectedConduit(message);
     }
 
+    /**
+     * Called on completion of the MEP for which the Conduit was required.
+     * 
+     * @param exchange represents the completed MEP
+     */
+    @Override
+    public void complete(Exchange exchange) {
+        RequestStart start = (RequestStart)exchange.remove(REQUEST_START);
+        FailoverStrategy strategy = getStrategy();
+        if (start != null && strategy instanceof LatencyAwareStrategy) {
+            ((LatencyAwareStrategy)strategy).requestCompleted(start.address,
+                                                              System.nanoTime() - start.time,
+                                                              hasTransportFailure(exchange));
+        }
+        super.complete(exchange);
+    }
+    
+    private static boolean hasTransportFailure(Exchange exchange) {
+        Message outMessage = exchange.getOutMessage();
+        Throwable curr = outMessage != null && outMessage.get(Exception.class) != null
+            ? outMessage.get(Exception.class) : exchange.get(Exception.class);
+        while (curr != null) {
+            if (curr instanceof java.io.IOException) {
+                return true;
+            }
+            curr = curr.getCause();
+        }
+        return false;
+    }
+
     /**
      * Get the failover target endpoint, if a suitable one is available.
      *
@@ -172,8 +211,8 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
      * @param invocation the current InvocationContext
      * @return a distribution endpoint if one is available
      */
-    private Endpoint getDistributionTarget(Exchange exchange,
-                                           InvocationContext invocation) {
+    protected Endpoint getDistributionTarget(Exchange exchange,
+                                             InvocationContext invocation) {
         List<String> alternateAddresses = null;
         if ((addressList == null) || (addressList.isEmpty())) {
             try {
@@ -184,6 +223,11 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
             }
         }
         alternateAddresses = addressList;
+        if (alternateAddresses != null && getStrategy() instanceof LatencyAwareStrategy) {
+            // the strategy weighs all the addresses on every request instead of cycling 
+            // through them, so it must not consume the cached list
+            alternateAddresses = new ArrayList<String>(alternateAddresses);
+        }
 
         if ((alternateAddresses == null) || (alternateAddresses.isEmpty())) {
             alternateAddresses = getStrategy().getAlternateAddresses(exchange);
@@ -216,4 +260,14 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
         return failover && super.requiresFailover(exchange);
     }
 
+    private static final class RequestStart {
+        private final String address;
+        private final long time;
+        
+        RequestStart(String address, long time) {
+            this.address = address;
+            this.time = time;
+        }
+    }
+
 }
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyAwareStrategyTest extends Assert {
+    
+    private static final String FAST = "http://localhost:9001/fast";
+    private static final String SLOW = "http://localhost:9002/slow";
+
+    @Test
+    public void testSelectsLowerLatency() {
+        LatencyAwareStrategy strategy = new LatencyAwareStrategy();
+        complete(strategy, FAST, 1000000L, false);
+        complete(strategy, SLOW, 50000000L, false);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FAST, strategy.selectAlternateAddress(addresses()));
+        }
+    }
+    
+    @Test
+    public void testSelectsFewerOutstandingRequests() {
+        LatencyAwareStrategy strategy = new LatencyAwareStrategy();
+        complete(strategy, FAST, 1000000L, false);
+        complete(strategy, SLOW, 1000000L, false);
+        strategy.requestStarted(FAST);
+        strategy.requestStarted(FAST);
+        assertEquals(2, strategy.getOutstandingRequests(FAST));
+        assertEquals(SLOW, strategy.selectAlternateAddress(addresses()));
+    }
+    
+    @Test
+    public void testEjectionAndProbe() throws Exception {
+        LatencyAwareStrategy strategy = new LatencyAwareStrategy();
+        strategy.setFailureThreshold(2);
+        strategy.setEjectionTime(100);
+        complete(strategy, SLOW, 50000000L, false);
+        complete(strategy, FAST, 1000000L, true);
+        assertFalse(strategy.isEjected(FAST));
+        complete(strategy, FAST, 1000000L, true);
+        assertTrue(strategy.isEjected(FAST));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(SLOW, strategy.selectAlternateAddress(addresses()));
+        }
+        
+        Thread.sleep(150);
+        // a single probe request goes to the ejected address
+        assertEquals(FAST, strategy.selectAlternateAddress(addresses()));
+        assertEquals(SLOW, strategy.selectAlternateAddress(addresses()));
+        complete(strategy, FAST, 1000000L, false);
+        assertFalse(strategy.isEjected(FAST));
+        assertEquals(FAST, strategy.selectAlternateAddress(addresses()));
+    }
+    
+    private static List<String> addresses() {
+        return new ArrayList<String>(Arrays.asList(FAST, SLOW));
+    }
+    
+    private static void complete(LatencyAwareStrategy strategy, String address, long nanos, boolean failed) {
+        strategy.requestStarted(address);
+        strategy.requestCompleted(address, nanos, failed);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.easymock.EasyMock;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadDistributorTargetSelectorTest extends Assert {
+    
+    private static final String FAST = "http://localhost:9001/fast";
+    private static final String SLOW = "http://localhost:9002/slow";
+
+    @Test
+    public void testLatencyAwareSelectsFasterAddressRepeatedly() {
+        LatencyAwareStrategy strategy = new LatencyAwareStrategy();
+        strategy.setAlternateAddresses(Arrays.asList(FAST, SLOW));
+        complete(strategy, FAST, 1000000L, false);
+        complete(strategy, SLOW, 50000000L, false);
+        
+        LoadDistributorTargetSelector selector = createSelector(strategy);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FAST, selectAddress(selector));
+        }
+    }
+    
+    @Test
+    public void testLatencyAwareNeverSelectsEjectedAddress() {
+        LatencyAwareStrategy strategy = new LatencyAwareStrategy();
+        strategy.setAlternateAddresses(Arrays.asList(FAST, SLOW));
+        strategy.setFailureThreshold(1);
+        strategy.setEjectionTime(60000);
+        complete(strategy, FAST, 1000000L, true);
+        complete(strategy, SLOW, 50000000L, false);
+        
+        LoadDistributorTargetSelector selector = createSelector(strategy);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(SLOW, selectAddress(selector));
+        }
+        
+        complete(strategy, SLOW, 50000000L, true);
+        assertNull(strategy.selectAlternateAddress(Arrays.asList(SLOW)));
+        assertNull(strategy.selectAlternateAddress(Arrays.asList(FAST, SLOW)));
+    }
+    
+    private static LoadDistributorTargetSelector createSelector(FailoverStrategy strategy) {
+        EndpointInfo ei = new EndpointInfo();
+        ei.setAddress("http://localhost:9000/default");
+        Endpoint endpoint = EasyMock.createNiceMock(Endpoint.class);
+        EasyMock.expect(endpoint.getEndpointInfo()).andReturn(ei).anyTimes();
+        EasyMock.replay(endpoint);
+        
+        LoadDistributorTargetSelector selector = new LoadDistributorTargetSelector();
+        selector.setEndpoint(endpoint);
+        selector.setStrategy(strategy);
+        return selector;
+    }
+    
+    private static String selectAddress(LoadDistributorTargetSelector selector) {
+        Exchange exchange = new ExchangeImpl();
+        FailoverTargetSelector.InvocationContext invocation = 
+            selector.new InvocationContext(selector.getEndpoint(), null, new Object[0], 
+                                           new HashMap<String, Object>());
+        Endpoint target = selector.getDistributionTarget(exchange, invocation);
+        return target.getEndpointInfo().getAddress();
+    }
+    
+    private static void complete(LatencyAwareStrategy strategy, String address, long nanos, boolean failed) {
+        strategy.requestStarted(address);
+        strategy.requestCompleted(address, nanos, failed);
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tree of the literal path segments the root resource templates start with.
+ * Only the resources whose leading literal segments match the request path
+ * are candidates for {@link URITemplate#match}, the variable segments and
+ * everything past them are still matched by the template regular expressions.
+ * The resources selected for the most recently requested paths are cached.
+ */
+public class ClassResourceInfoIndex {
+    private static final String REGEX_CHARS = "?[]{}|^\\";
+    private static final int MAX_CACHED_PATHS = 1000;
+    
+    private final List<ClassResourceInfo> resources;
+    private final int size;
+    private final Node root = new Node();
+    private final Map<String, List<ClassResourceInfo>> selected = 
+        new ConcurrentHashMap<String, List<ClassResourceInfo>>();
+    
+    public ClassResourceInfoIndex(List<ClassResourceInfo> resources) {
+        this.resources = resources;
+        this.size = resources.size();
+        for (int i = 0; i < size; i++) {
+            Node node = root;
+            for (String segment : getLiteralSegments(resources.get(i).getURITemplate())) {
+                Node child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(segment, child);
+                }
+                node = child;
+            }
+            node.resources.add(i);
+        }
+    }
+    
+    /**
+     * @return true if this index was built for the given resources
+     */
+    public boolean isIndexOf(List<ClassResourceInfo> list) {
+        return list == resources && list.size() == size;
+    }
+    
+    /**
+     * Returns the resources which may match the path, in their original order.
+     * 
+     * @param path the path to match
+     * @return the candidate resources
+     */
+    public List<ClassResourceInfo> getCandidates(String path) {
+        if (!path.startsWith("/") || path.indexOf(';') != -1) {
+            // matrix parameters may be dropped from the path segments while matching
+            return resources;
+        }
+        List<Integer> indexes = new ArrayList<Integer>(root.resources);
+        Node node = root;
+        int start = 1;
+        while (start <= path.length() && !node.children.isEmpty()) {
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            indexes.addAll(node.resources);
+            start = end + 1;
+        }
+        if (indexes.size() == size) {
+            return resources;
+        }
+        Collections.sort(indexes);
+        List<ClassResourceInfo> candidates = new ArrayList<ClassResourceInfo>(indexes.size());
+        for (Integer i : indexes) {
+            candidates.add(resources.get(i));
+        }
+        return candidates;
+    }
+    
+    /**
+     * @return the resources previously selected for the path, null if not known 
+     */
+    public List<ClassResourceInfo> getSelected(String path) {
+        return selected.get(path);
+    }
+    
+    public void setSelected(String path, List<ClassResourceInfo> cris) {
+        if (selected.size() >= MAX_CACHED_PATHS) {
+            selected.clear();
+        }
+        selected.put(path, cris);
+    }
+    
+    private static List<String> getLiteralSegments(URITemplate template) {
+        String prefix = template.getLiteralPrefix();
+        if (!prefix.startsWith("/")) {
+            return Collections.emptyList();
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (REGEX_CHARS.indexOf(prefix.charAt(i)) != -1) {
+                // not matched literally by the template pattern
+                return Collections.emptyList();
+            }
+        }
+        List<String> segments = new ArrayList<String>();
+        int start = 1;
+        while (start < prefix.length()) {
+            int end = prefix.indexOf('/', start);
+            if (end == -1) {
+                if (template.getVariables().isEmpty()) {
+                    // the last segment is only complete if no variable follows it 
+                    segments.add(prefix.substring(start));
+                }
+                break;
+            }
+            segments.add(prefix.substring(start, end));
+            start = end + 1;
+        }
+        return segments;
+    }
+    
+    private static class Node {
+        final List<Integer> resources = new ArrayList<Integer>(1);
+        final Map<String, Node> children = new HashMap<String, Node>();
+    }
+}
@@ -50,6 +50,7 @@ public final class URITemplate {
     private final List<String> customVariables = new ArrayList<String>();
     private final Pattern templateRegexPattern;
     private final String literals;
+    private final String literalPrefix;
     private final List<UriChunk> uriChunks;
 
     public URITemplate(String theTemplate) {
@@ -58,6 +59,7 @@ public final class URITemplate {
         StringBuilder patternBuilder = new StringBuilder();
         CurlyBraceTokenizer tok = new CurlyBraceTokenizer(template);
         uriChunks = new ArrayList<UriChunk>();
+        String prefix = "";
         while (tok.hasNext()) {
             String templatePart = tok.next();
             UriChunk chunk = UriChunk.createUriChunk(templatePart);
@@ -65,6 +67,9 @@ public final class URITemplate {
             if (chunk instanceof Literal) {
                 String encodedValue = HttpUtils.encodePartiallyEncoded(chunk.getValue(), false);
                 String substr = escapeCharacters(encodedValue);
+                if (uriChunks.size() == 1) {
+                    prefix = encodedValue;
+                }
                 literalChars.append(substr);
                 patternBuilder.append(substr);
             } else if (chunk instanceof Variable) {
@@ -81,6 +86,7 @@ public final class URITemplate {
             }
         }
         literals = literalChars.toString();
+        literalPrefix = prefix;
 
         int endPos = patternBuilder.length() - 1;
         boolean endsWithSlash = (endPos >= 0) ? patternBuilder.charAt(endPos) == '/' : false;
@@ -96,6 +102,14 @@ public final class URITemplate {
         return literals;
     }
 
+    /**
+     * @return the encoded literal characters preceding the first variable, 
+     *         e.g. "/foo/bar" for "/foo/bar{id}"
+     */
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
     public String getValue() {
         return template;
     }
@@ -35,10 +35,12 @@ import javax.ws.rs.ext.Provider;
 
 import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.jaxrs.ext.StableProvider;
 import org.apache.cxf.jaxrs.ext.multipart.InputStreamDataSource;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
 
 @Provider
+@StableProvider
 public class DataSourceProvider<T> implements MessageBodyReader<T>, MessageBodyWriter<T> {
     
     private boolean useDataSourceContentType;
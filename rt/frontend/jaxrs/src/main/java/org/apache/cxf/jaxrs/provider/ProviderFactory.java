@@ -26,6 +26,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -37,6 +38,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import javax.ws.rs.Produces;
@@ -61,6 +64,7 @@ import org.apache.cxf.common.util.ClassHelper;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.jaxrs.ext.ContextProvider;
+import org.apache.cxf.jaxrs.ext.StableProvider;
 import org.apache.cxf.jaxrs.impl.HttpHeadersImpl;
 import org.apache.cxf.jaxrs.impl.MetadataMap;
 import org.apache.cxf.jaxrs.impl.ReaderInterceptorMBR;
@@ -86,6 +90,8 @@ public abstract class ProviderFactory {
     protected static final String IGNORE_TYPE_VARIABLES = "org.apache.cxf.jaxrs.providers.ignore.typevars";
     
     private static final String ACTIVE_JAXRS_PROVIDER_KEY = "active.jaxrs.provider";
+    private static final Object NO_PROVIDER = new Object();
+    private static final int MAX_CACHED_SELECTIONS = 1000;
     private static final Logger LOG = LogUtils.getL7dLogger(ProviderFactory.class);
     
     private static final String JAXB_PROVIDER_NAME = "org.apache.cxf.jaxrs.provider.JAXBElementProvider";
@@ -110,6 +116,12 @@ public abstract class ProviderFactory {
     
     private Set<ParamConverterProvider> newParamConverters;
     
+    // selected ProviderInfo or NO_PROVIDER, only kept if all the inspected providers are stable
+    private final Map<SelectionKey, Object> readerSelections = new ConcurrentHashMap<SelectionKey, Object>();
+    private final Map<SelectionKey, Object> writerSelections = new ConcurrentHashMap<SelectionKey, Object>();
+    private final AtomicLong selectionCacheHits = new AtomicLong();
+    private final AtomicLong selectionCacheMisses = new AtomicLong();
+    
     // List of injected providers
     private Collection<ProviderInfo<?>> injectedProviders = 
         new LinkedList<ProviderInfo<?>>();
@@ -550,6 +562,7 @@ public abstract class ProviderFactory {
         sortReaders();
         sortWriters();
         sortContextResolvers();
+        clearSelectionCache();
         
         mapInterceptorFilters(readerInterceptors, readInts, ReaderInterceptor.class, true);
         mapInterceptorFilters(writerInterceptors, writeInts, WriterInterceptor.class, true);
@@ -632,26 +645,51 @@ public abstract class ProviderFactory {
                                                          Annotation[] annotations,
                                                          MediaType mediaType,
                                                          Message m) {
+        SelectionKey key = new SelectionKey(type, genericType, annotations, mediaType, m);
+        Object selected = readerSelections.get(key);
+        if (selected != null) {
+            selectionCacheHits.incrementAndGet();
+            return selected == NO_PROVIDER ? null : (MessageBodyReader<T>)getSelectedProvider(selected, m);
+        }
+        selectionCacheMisses.incrementAndGet();
+        
+        boolean stable = true;
         List<MessageBodyReader<?>> candidates = new LinkedList<MessageBodyReader<?>>();
         for (ProviderInfo<MessageBodyReader<?>> ep : readers) {
+            if (!matchesReaderMediaTypes(ep, mediaType)) {
+                continue;
+            }
+            stable &= isStableProvider(ep);
             if (matchesReaderCriterias(ep, type, genericType, annotations, mediaType, m)) {
                 if (isBaseFactory()) {
+                    cacheSelection(readerSelections, key, ep, stable);
                     return (MessageBodyReader<T>) ep.getProvider();
                 }
                 handleMapper(candidates, ep, type, m, MessageBodyReader.class, false);
                 if (!candidates.isEmpty()) {
+                    cacheSelection(readerSelections, key, ep, stable);
                     break;
                 }
             }
         }     
         
         if (candidates.isEmpty()) {
+            cacheSelection(readerSelections, key, NO_PROVIDER, stable);
             return null;
         }
         return (MessageBodyReader<T>) candidates.get(0);
         
     }
     
+    private boolean matchesReaderMediaTypes(ProviderInfo<MessageBodyReader<?>> pi, MediaType mediaType) {
+        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderConsumeTypes(pi.getProvider());
+        
+        List<MediaType> availableMimeTypes = 
+            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType), supportedMediaTypes, false);
+
+        return availableMimeTypes.size() != 0;
+    }
+    
     private <T> boolean matchesReaderCriterias(ProviderInfo<MessageBodyReader<?>> pi,
                                                Class<T> type,
                                                Type genericType,
@@ -659,14 +697,6 @@ public abstract class ProviderFactory {
                                                MediaType mediaType,
                                                Message m) {
         MessageBodyReader<?> ep = pi.getProvider();
-        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderConsumeTypes(ep);
-        
-        List<MediaType> availableMimeTypes = 
-            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType), supportedMediaTypes, false);
-
-        if (availableMimeTypes.size() == 0) {
-            return false;
-        }
         boolean injected = false;
         if (m.get(ACTIVE_JAXRS_PROVIDER_KEY) != ep) {
             injectContextValues(pi, m);
@@ -696,24 +726,50 @@ public abstract class ProviderFactory {
                                                          Annotation[] annotations,
                                                          MediaType mediaType,
                                                          Message m) {
+        SelectionKey key = new SelectionKey(type, genericType, annotations, mediaType, m);
+        Object selected = writerSelections.get(key);
+        if (selected != null) {
+            selectionCacheHits.incrementAndGet();
+            return selected == NO_PROVIDER ? null : (MessageBodyWriter<T>)getSelectedProvider(selected, m);
+        }
+        selectionCacheMisses.incrementAndGet();
+        
+        boolean stable = true;
         List<MessageBodyWriter<?>> candidates = new LinkedList<MessageBodyWriter<?>>();
         for (ProviderInfo<MessageBodyWriter<?>> ep : writers) {
+            if (!matchesWriterMediaTypes(ep, mediaType)) {
+                continue;
+            }
+            stable &= isStableProvider(ep);
             if (matchesWriterCriterias(ep, type, genericType, annotations, mediaType, m)) {
                 if (isBaseFactory()) {
+                    cacheSelection(writerSelections, key, ep, stable);
                     return (MessageBodyWriter<T>) ep.getProvider();
                 }
                 handleMapper(candidates, ep, type, m, MessageBodyWriter.class, false);
                 if (!candidates.isEmpty()) {
+                    cacheSelection(writerSelections, key, ep, stable);
                     break;
                 }
             }
         }     
         if (candidates.isEmpty()) {
+            cacheSelection(writerSelections, key, NO_PROVIDER, stable);
             return null;
         }
         return (MessageBodyWriter<T>) candidates.get(0);
     }
     
+    private boolean matchesWriterMediaTypes(ProviderInfo<MessageBodyWriter<?>> pi, MediaType mediaType) {
+        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderProduceTypes(pi.getProvider());
+        
+        List<MediaType> availableMimeTypes = 
+            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType),
+                                          supportedMediaTypes, false);
+
+        return availableMimeTypes.size() != 0;
+    }
+    
     private <T> boolean matchesWriterCriterias(ProviderInfo<MessageBodyWriter<?>> pi,
                                                Class<T> type,
                                                Type genericType,
@@ -721,15 +777,6 @@ public abstract class ProviderFactory {
                                                MediaType mediaType,
                                                Message m) {
         MessageBodyWriter<?> ep = pi.getProvider();
-        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderProduceTypes(ep);
-        
-        List<MediaType> availableMimeTypes = 
-            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType),
-                                          supportedMediaTypes, false);
-
-        if (availableMimeTypes.size() == 0) {
-            return false;
-        }
         boolean injected = false;
         if (m.get(ACTIVE_JAXRS_PROVIDER_KEY) != ep) {
             injectContextValues(pi, m);
@@ -742,6 +789,48 @@ public abstract class ProviderFactory {
         return matches;
     }
     
+    private static boolean isStableProvider(ProviderInfo<?> pi) {
+        return ClassHelper.getRealClass(pi.getProvider()).getAnnotation(StableProvider.class) != null;
+    }
+    
+    private static void cacheSelection(Map<SelectionKey, Object> selections, SelectionKey key, 
+                                       Object selected, boolean stable) {
+        if (stable) {
+            if (selections.size() >= MAX_CACHED_SELECTIONS) {
+                selections.clear();
+            }
+            selections.put(key, selected);
+        }
+    }
+    
+    private Object getSelectedProvider(Object selected, Message m) {
+        ProviderInfo<?> pi = (ProviderInfo<?>)selected;
+        if (m.get(ACTIVE_JAXRS_PROVIDER_KEY) != pi.getProvider()) {
+            injectContextValues(pi, m);
+        }
+        return pi.getProvider();
+    }
+    
+    /**
+     * @return the number of message body reader and writer selections served from the cache
+     */
+    public long getSelectionCacheHits() {
+        return selectionCacheHits.get();
+    }
+    
+    /**
+     * @return the number of message body reader and writer selections which went through 
+     *         the registered providers
+     */
+    public long getSelectionCacheMisses() {
+        return selectionCacheMisses.get();
+    }
+    
+    private void clearSelectionCache() {
+        readerSelections.clear();
+        writerSelections.clear();
+    }
+    
     List<ProviderInfo<MessageBodyReader<?>>> getMessageReaders() {
         return Collections.unmodifiableList(messageReaders);
     }
@@ -766,6 +855,48 @@ public abstract class ProviderFactory {
         setProviders(userProviders.toArray());
     }
 
+    private static final class SelectionKey {
+        private final Class<?> type;
+        private final Type genericType;
+        private final List<Annotation> annotations;
+        private final MediaType mediaType;
+        private final boolean ignoreTypeVariables;
+        private final int hashCode;
+        
+        SelectionKey(Class<?> type, Type genericType, Annotation[] anns, MediaType mediaType, Message m) {
+            this.type = type;
+            this.genericType = genericType;
+            this.annotations = anns == null ? Collections.<Annotation>emptyList() : Arrays.asList(anns);
+            this.mediaType = mediaType;
+            this.ignoreTypeVariables = 
+                m != null && MessageUtils.isTrue(m.getContextualProperty(IGNORE_TYPE_VARIABLES));
+            int h = type == null ? 0 : type.hashCode();
+            h = 31 * h + (genericType == null ? 0 : genericType.hashCode());
+            h = 31 * h + annotations.hashCode();
+            h = 31 * h + (mediaType == null ? 0 : mediaType.hashCode());
+            this.hashCode = 31 * h + (ignoreTypeVariables ? 1 : 0);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SelectionKey)) {
+                return false;
+            }
+            SelectionKey other = (SelectionKey)o;
+            return hashCode == other.hashCode
+                && type == other.type
+                && ignoreTypeVariables == other.ignoreTypeVariables
+                && (genericType == null ? other.genericType == null : genericType.equals(other.genericType))
+                && (mediaType == null ? other.mediaType == null : mediaType.equals(other.mediaType))
+                && annotations.equals(other.annotations);
+        }
+    }
+    
     private static class MessageBodyReaderComparator 
         implements Comparator<ProviderInfo<MessageBodyReader<?>>> {
         
@@ -847,6 +978,7 @@ public abstract class ProviderFactory {
     public void clearProviders() {
         messageReaders.clear();
         messageWriters.clear();
+        clearSelectionCache();
         contextResolvers.clear();
         contextProviders.clear();
         readerInterceptors.clear();
@@ -45,6 +45,7 @@ import org.w3c.dom.Document;
 
 import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.jaxrs.ext.MessageContext;
+import org.apache.cxf.jaxrs.ext.StableProvider;
 import org.apache.cxf.jaxrs.ext.xml.XMLSource;
 import org.apache.cxf.jaxrs.utils.ExceptionUtils;
 import org.apache.cxf.jaxrs.utils.HttpUtils;
@@ -58,6 +59,7 @@ import org.apache.cxf.staxutils.StaxUtils;
 @Provider
 @Produces({"application/xml", "application/*+xml", "text/xml" })
 @Consumes({"application/xml", "application/*+xml", "text/xml", "text/html" })
+@StableProvider
 public class SourceProvider<T> extends AbstractConfigurableProvider implements 
     MessageBodyReader<T>, MessageBodyWriter<T> {
 
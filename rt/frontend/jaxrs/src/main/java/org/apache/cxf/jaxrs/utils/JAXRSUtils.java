@@ -88,6 +88,7 @@ import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.PackageUtils;
 import org.apache.cxf.common.util.ReflectionUtil;
 import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxrs.JAXRSServiceImpl;
@@ -121,6 +122,7 @@ import org.apache.cxf.jaxrs.model.BeanParamInfo;
 import org.apache.cxf.jaxrs.model.BeanResourceInfo;
 import org.apache.cxf.jaxrs.model.ClassResourceInfo;
 import org.apache.cxf.jaxrs.model.ClassResourceInfoComparator;
+import org.apache.cxf.jaxrs.model.ClassResourceInfoIndex;
 import org.apache.cxf.jaxrs.model.MethodInvocationInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfoComparator;
@@ -303,11 +305,31 @@ public final class JAXRSUtils {
                    ? Collections.singletonMap(resources.get(0), values) : null;
         }
         
+        ClassResourceInfoIndex index = getResourceIndex(resources, message);
+        List<ClassResourceInfo> candidates = resources;
+        if (index != null) {
+            List<ClassResourceInfo> selected = index.getSelected(path);
+            if (selected != null) {
+                Map<ClassResourceInfo, MultivaluedMap<String, String>> cris = 
+                    new LinkedHashMap<ClassResourceInfo, MultivaluedMap<String, String>>(selected.size());
+                for (ClassResourceInfo cri : selected) {
+                    MultivaluedMap<String, String> map = new MetadataMap<String, String>();
+                    if (cri.getURITemplate().match(path, map)) {
+                        cris.put(cri, map);
+                    }
+                }
+                if (cris.size() == selected.size()) {
+                    return cris;
+                }
+            }
+            candidates = index.getCandidates(path);
+        }
+        
         SortedMap<ClassResourceInfo, MultivaluedMap<String, String>> candidateList = 
             new TreeMap<ClassResourceInfo, MultivaluedMap<String, String>>(
                 new ClassResourceInfoComparator(message));
         
-        for (ClassResourceInfo cri : resources) {
+        for (ClassResourceInfo cri : candidates) {
             MultivaluedMap<String, String> map = new MetadataMap<String, String>();
             if (cri.getURITemplate().match(path, map)) {
                 candidateList.put(cri, map);
@@ -347,11 +369,32 @@ public final class JAXRSUtils {
                                                              path, cri.getURITemplate().getValue()).toString());
                 }
             }
+            if (index != null && message.getExchange().get(Endpoint.class)
+                .get("org.apache.cxf.jaxrs.comparator") == null) {
+                // the selection only depends on the path unless a custom comparator is used
+                index.setSelected(path, new ArrayList<ClassResourceInfo>(cris.keySet()));
+            }
             return cris;
         }
         
         return null;
     }
+    
+    private static ClassResourceInfoIndex getResourceIndex(List<ClassResourceInfo> resources, 
+                                                           Message message) {
+        Exchange exchange = message == null ? null : message.getExchange();
+        Service service = exchange == null ? null : exchange.get(Service.class);
+        if (service == null || exchange.get(Endpoint.class) == null) {
+            return null;
+        }
+        Object o = service.get(ClassResourceInfoIndex.class.getName());
+        if (o instanceof ClassResourceInfoIndex && ((ClassResourceInfoIndex)o).isIndexOf(resources)) {
+            return (ClassResourceInfoIndex)o;
+        }
+        ClassResourceInfoIndex index = new ClassResourceInfoIndex(resources);
+        service.put(ClassResourceInfoIndex.class.getName(), index);
+        return index;
+    }
     public static OperationResourceInfo findTargetMethod(
         Map<ClassResourceInfo, MultivaluedMap<String, String>> matchedResources,
         Message message,
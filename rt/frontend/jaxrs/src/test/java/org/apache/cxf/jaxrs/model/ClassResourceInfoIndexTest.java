@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassResourceInfoIndexTest extends Assert {
+    
+    private static final String[] TEMPLATES = {
+        "/", "/books", "/books/{id}", "/books/{id}/chapters", "/bookstore/sub/", 
+        "/{a}/x", "/books{suffix}", "/a|b", "/catalog/{id:\\d+}/items"
+    };
+    
+    @Test
+    public void testCandidatesContainAllMatches() {
+        List<ClassResourceInfo> resources = new ArrayList<ClassResourceInfo>();
+        for (String t : TEMPLATES) {
+            ClassResourceInfo cri = new ClassResourceInfo(Object.class);
+            cri.setURITemplate(URITemplate.createTemplate(t));
+            resources.add(cri);
+        }
+        ClassResourceInfoIndex index = new ClassResourceInfoIndex(resources);
+        assertTrue(index.isIndexOf(resources));
+        
+        List<String> paths = Arrays.asList("/", "/books", "/books/1", "/books/1/chapters", "/booksx", 
+                                           "/bookstore/sub/1", "/bookstore", "/y/x", "/a|b", "/a", 
+                                           "/catalog/12/items", "/catalog/ab/items", "/books;a=b/1");
+        for (String path : paths) {
+            List<ClassResourceInfo> candidates = index.getCandidates(path);
+            for (ClassResourceInfo cri : resources) {
+                if (cri.getURITemplate().match(path, new MetadataMap<String, String>())) {
+                    assertTrue(cri.getURITemplate().getValue() + " should be a candidate for " + path, 
+                               candidates.contains(cri));
+                }
+            }
+            // candidates keep their original order
+            int last = -1;
+            for (ClassResourceInfo cri : candidates) {
+                assertTrue(resources.indexOf(cri) > last);
+                last = resources.indexOf(cri);
+            }
+        }
+        assertEquals(Arrays.asList(resources.get(0), resources.get(5), resources.get(6)), 
+                     index.getCandidates("/bookstore"));
+        assertEquals(3, index.getCandidates("/y/x").size());
+        assertEquals(6, index.getCandidates("/books/1/chapters").size());
+    }
+    
+    @Test
+    public void testSelected() {
+        List<ClassResourceInfo> resources = new ArrayList<ClassResourceInfo>();
+        ClassResourceInfo cri = new ClassResourceInfo(Object.class);
+        cri.setURITemplate(URITemplate.createTemplate("/books"));
+        resources.add(cri);
+        ClassResourceInfoIndex index = new ClassResourceInfoIndex(resources);
+        assertNull(index.getSelected("/books/1"));
+        index.setSelected("/books/1", resources);
+        assertSame(resources, index.getSelected("/books/1"));
+        
+        resources.add(cri);
+        assertFalse(index.isIndexOf(resources));
+    }
+}
@@ -290,7 +290,47 @@ public class ProviderFactoryTest extends Assert {
                                      new MessageImpl());
         assertTrue(BinaryDataProvider.class == writer.getClass());
     }
-    
+
+    @Test
+    public void testStableProviderSelectionIsCached() throws Exception {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        BinaryDataProvider<Object> provider = new BinaryDataProvider<Object>();
+        pf.registerUserProvider(provider);
+        MessageBodyReader<byte[]> reader = pf.createMessageBodyReader(byte[].class, null, null,
+                                     MediaType.APPLICATION_OCTET_STREAM_TYPE, new MessageImpl());
+        assertSame(provider, reader);
+        assertEquals(0, pf.getSelectionCacheHits());
+        assertEquals(1, pf.getSelectionCacheMisses());
+
+        reader = pf.createMessageBodyReader(byte[].class, null, null,
+                                            MediaType.APPLICATION_OCTET_STREAM_TYPE, new MessageImpl());
+        assertSame(provider, reader);
+        assertEquals(1, pf.getSelectionCacheHits());
+        assertEquals(1, pf.getSelectionCacheMisses());
+
+        // registering a new provider invalidates the selections
+        pf.registerUserProvider(new DataSourceProvider<Object>());
+        reader = pf.createMessageBodyReader(byte[].class, null, null,
+                                            MediaType.APPLICATION_OCTET_STREAM_TYPE, new MessageImpl());
+        assertSame(provider, reader);
+        assertEquals(1, pf.getSelectionCacheHits());
+        assertEquals(2, pf.getSelectionCacheMisses());
+    }
+
+    @Test
+    public void testUnstableProviderSelectionIsNotCached() throws Exception {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        JAXBElementProvider<Book> provider = new JAXBElementProvider<Book>();
+        pf.registerUserProvider(provider);
+        for (int i = 0; i < 2; i++) {
+            MessageBodyWriter<Book> writer = pf.createMessageBodyWriter(Book.class, null, null,
+                                         MediaType.APPLICATION_XML_TYPE, new MessageImpl());
+            assertSame(provider, writer);
+        }
+        assertEquals(0, pf.getSelectionCacheHits());
+        assertEquals(2, pf.getSelectionCacheMisses());
+    }
+
     @Test
     public void testGetComplexProvider() throws Exception {
         ServerProviderFactory pf = ServerProviderFactory.getInstance();
@@ -0,0 +1,493 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.provider.jsrjsonp;
+
+import java.beans.Introspector;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.XmlValue;
+
+import org.apache.cxf.common.util.ReflectionUtil;
+
+/**
+ * Precomputed view of a JAXB-annotated class: its JSON root name, 
+ * default constructor and the ordered list of property accessors.
+ * Models are built once per class and kept in the {@link Cache} of the
+ * provider that uses them.
+ */
+final class JaxbBeanModel {
+    private static final String DEFAULT_NAME = "##default";
+    
+    private final Class<?> beanClass;
+    private final String rootName;
+    private final Constructor<?> constructor;
+    private final List<Property> properties;
+    private final Map<String, Property> propertiesByName;
+    
+    private JaxbBeanModel(Class<?> cls) {
+        beanClass = cls;
+        rootName = getRootName(cls);
+        Constructor<?> ctor = null;
+        try {
+            ctor = ReflectionUtil.setAccessible(ReflectionUtil.getDeclaredConstructor(cls));
+        } catch (Exception ex) {
+            // write-only model
+        }
+        constructor = ctor;
+        properties = Collections.unmodifiableList(createProperties(cls));
+        Map<String, Property> byName = new HashMap<String, Property>();
+        for (Property p : properties) {
+            byName.put(p.getJsonName(), p);
+            byName.put(p.getName(), p);
+        }
+        propertiesByName = byName;
+    }
+    
+    public static boolean isJaxbBean(Class<?> cls) {
+        return cls.getAnnotation(XmlRootElement.class) != null 
+            || cls.getAnnotation(XmlType.class) != null;
+    }
+    
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+    
+    public String getRootName() {
+        return rootName;
+    }
+    
+    public List<Property> getProperties() {
+        return properties;
+    }
+    
+    public Property getProperty(String name) {
+        return propertiesByName.get(name);
+    }
+    
+    public Object newInstance() throws Exception {
+        if (constructor == null) {
+            throw new InstantiationException(beanClass.getName() + " has no default constructor");
+        }
+        return constructor.newInstance();
+    }
+    
+    private static String getRootName(Class<?> cls) {
+        XmlRootElement root = cls.getAnnotation(XmlRootElement.class);
+        if (root != null && !DEFAULT_NAME.equals(root.name())) {
+            return root.name();
+        }
+        XmlType type = cls.getAnnotation(XmlType.class);
+        if (root == null && type != null && !DEFAULT_NAME.equals(type.name()) && type.name().length() > 0) {
+            return type.name();
+        }
+        return Introspector.decapitalize(cls.getSimpleName());
+    }
+    
+    private static XmlAccessType getAccessType(Class<?> cls) {
+        XmlAccessorType accessorType = cls.getAnnotation(XmlAccessorType.class);
+        if (accessorType == null && cls.getPackage() != null) {
+            accessorType = cls.getPackage().getAnnotation(XmlAccessorType.class);
+        }
+        return accessorType == null ? XmlAccessType.PUBLIC_MEMBER : accessorType.value();
+    }
+    
+    private static List<Property> createProperties(Class<?> cls) {
+        List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+        for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        Map<String, Property> props = new LinkedHashMap<String, Property>();
+        for (Class<?> c : hierarchy) {
+            if (c != cls && c.getAnnotation(XmlTransient.class) != null) {
+                continue;
+            }
+            List<Property> declared = new ArrayList<Property>();
+            XmlAccessType accessType = getAccessType(c);
+            addFieldProperties(c, accessType, props, declared);
+            addMethodProperties(c, accessType, props, declared);
+            XmlType xmlType = c.getAnnotation(XmlType.class);
+            if (xmlType != null && xmlType.propOrder().length > 0 && xmlType.propOrder()[0].length() > 0) {
+                final List<String> order = Arrays.asList(xmlType.propOrder());
+                Collections.sort(declared, new Comparator<Property>() {
+                    public int compare(Property p1, Property p2) {
+                        return position(p1) - position(p2);
+                    }
+                    private int position(Property p) {
+                        int index = order.indexOf(p.getName());
+                        return index == -1 ? order.size() : index;
+                    }
+                });
+            }
+            for (Property p : declared) {
+                props.put(p.getName(), p);
+            }
+        }
+        // attributes go first, the same way they are written before child elements in XML
+        List<Property> result = new ArrayList<Property>(props.size());
+        for (Property p : props.values()) {
+            if (p.isAttribute()) {
+                result.add(p);
+            }
+        }
+        for (Property p : props.values()) {
+            if (!p.isAttribute()) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+    
+    private static void addFieldProperties(Class<?> c, XmlAccessType accessType, 
+                                           Map<String, Property> props, List<Property> declared) {
+        for (Field f : ReflectionUtil.getDeclaredFields(c)) {
+            int mod = f.getModifiers();
+            if (Modifier.isStatic(mod) || Modifier.isTransient(mod) 
+                || f.getAnnotation(XmlTransient.class) != null || f.isSynthetic()) {
+                continue;
+            }
+            boolean annotated = hasJaxbAnnotation(f);
+            if (annotated 
+                || accessType == XmlAccessType.FIELD 
+                || accessType == XmlAccessType.PUBLIC_MEMBER && Modifier.isPublic(mod)) {
+                Property p = new Property(f.getName(), f, ReflectionUtil.setAccessible(f), null, null,
+                                          f.getType(), f.getGenericType());
+                addProperty(p, props, declared);
+            }
+        }
+    }
+    
+    private static void addMethodProperties(Class<?> c, XmlAccessType accessType, 
+                                            Map<String, Property> props, List<Property> declared) {
+        // getDeclaredMethods() returns the methods in no particular order
+        Method[] methods = c.getDeclaredMethods();
+        Arrays.sort(methods, new Comparator<Method>() {
+            public int compare(Method m1, Method m2) {
+                return m1.getName().compareTo(m2.getName());
+            }
+        });
+        if (accessType == XmlAccessType.FIELD || accessType == XmlAccessType.NONE) {
+            // only explicitly annotated accessors
+            for (Method m : methods) {
+                if (hasJaxbAnnotation(m)) {
+                    addMethodProperty(c, m, props, declared);
+                }
+            }
+            return;
+        }
+        for (Method m : methods) {
+            if (Modifier.isPublic(m.getModifiers()) || hasJaxbAnnotation(m)) {
+                addMethodProperty(c, m, props, declared);
+            }
+        }
+    }
+    
+    private static void addMethodProperty(Class<?> c, Method m, 
+                                          Map<String, Property> props, List<Property> declared) {
+        if (Modifier.isStatic(m.getModifiers()) || m.isBridge() || m.isSynthetic()) {
+            return;
+        }
+        String name = getPropertyName(m);
+        if (name == null) {
+            return;
+        }
+        Method getter = findGetter(c, name);
+        if (getter == null) {
+            return;
+        }
+        Method setter = findSetter(c, name, getter.getReturnType());
+        if (getter.getAnnotation(XmlTransient.class) != null 
+            || setter != null && setter.getAnnotation(XmlTransient.class) != null) {
+            return;
+        }
+        boolean collection = Collection.class.isAssignableFrom(getter.getReturnType());
+        if (setter == null && !collection) {
+            return;
+        }
+        AccessibleObject annotated = hasJaxbAnnotation(getter) || setter == null ? getter : setter;
+        Property p = new Property(name, annotated, null, ReflectionUtil.setAccessible(getter), 
+                                  setter == null ? null : ReflectionUtil.setAccessible(setter),
+                                  getter.getReturnType(), getter.getGenericReturnType());
+        addProperty(p, props, declared);
+    }
+    
+    private static void addProperty(Property p, Map<String, Property> props, List<Property> declared) {
+        if (props.containsKey(p.getName())) {
+            return;
+        }
+        for (Property existing : declared) {
+            if (existing.getName().equals(p.getName())) {
+                return;
+            }
+        }
+        declared.add(p);
+    }
+    
+    private static String getPropertyName(Method m) {
+        String name = m.getName();
+        int params = m.getParameterTypes().length;
+        if (params == 0 && name.startsWith("get") && name.length() > 3 
+            && m.getReturnType() != Void.TYPE && !"getClass".equals(name)) {
+            return Introspector.decapitalize(name.substring(3));
+        } else if (params == 0 && name.startsWith("is") && name.length() > 2 
+            && (m.getReturnType() == Boolean.TYPE || m.getReturnType() == Boolean.class)) {
+            return Introspector.decapitalize(name.substring(2));
+        } else if (params == 1 && name.startsWith("set") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        }
+        return null;
+    }
+    
+    private static Method findGetter(Class<?> c, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method m : c.getDeclaredMethods()) {
+            if (m.getParameterTypes().length == 0 && !m.isBridge()
+                && (m.getName().equals("get" + suffix) 
+                    || m.getName().equals("is" + suffix) 
+                    && (m.getReturnType() == Boolean.TYPE || m.getReturnType() == Boolean.class))) {
+                return m;
+            }
+        }
+        return null;
+    }
+    
+    private static Method findSetter(Class<?> c, String name, Class<?> type) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method m : c.getDeclaredMethods()) {
+            if (m.getName().equals(setterName) && m.getParameterTypes().length == 1
+                && m.getParameterTypes()[0].isAssignableFrom(type)) {
+                return m;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean hasJaxbAnnotation(AccessibleObject ao) {
+        return ao.getAnnotation(XmlElement.class) != null
+            || ao.getAnnotation(XmlAttribute.class) != null
+            || ao.getAnnotation(XmlValue.class) != null
+            || ao.getAnnotation(XmlElementWrapper.class) != null;
+    }
+    
+    /**
+     * The models and enum constant names of the classes a provider has seen. 
+     * Each provider holds its own cache, so the classes of an application are
+     * not kept reachable once its providers are gone.
+     */
+    static final class Cache {
+        private final Map<Class<?>, JaxbBeanModel> models = 
+            new ConcurrentHashMap<Class<?>, JaxbBeanModel>();
+        private final Map<Class<?>, EnumConstants> enums = 
+            new ConcurrentHashMap<Class<?>, EnumConstants>();
+        
+        public JaxbBeanModel getModel(Class<?> cls) {
+            JaxbBeanModel model = models.get(cls);
+            if (model == null) {
+                model = new JaxbBeanModel(cls);
+                models.put(cls, model);
+            }
+            return model;
+        }
+        
+        public String getEnumName(Enum<?> value) {
+            return getEnumConstants(value.getDeclaringClass()).names.get(value);
+        }
+        
+        public Object getEnumValue(Class<?> enumClass, String name) {
+            Object value = getEnumConstants(enumClass).values.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("No " + enumClass.getName() + " constant for " + name);
+            }
+            return value;
+        }
+        
+        private EnumConstants getEnumConstants(Class<?> enumClass) {
+            EnumConstants constants = enums.get(enumClass);
+            if (constants == null) {
+                constants = new EnumConstants(enumClass);
+                enums.put(enumClass, constants);
+            }
+            return constants;
+        }
+    }
+    
+    /**
+     * The JSON names of the constants of an enum, XmlEnumValue if present and 
+     * the constant name otherwise.
+     */
+    private static final class EnumConstants {
+        final Map<Object, String> names = new HashMap<Object, String>();
+        final Map<String, Object> values = new HashMap<String, Object>();
+        
+        EnumConstants(Class<?> enumClass) {
+            Map<String, String> xmlValues = new HashMap<String, String>();
+            for (Field f : enumClass.getDeclaredFields()) {
+                XmlEnumValue ev = f.getAnnotation(XmlEnumValue.class);
+                if (f.isEnumConstant() && ev != null) {
+                    xmlValues.put(f.getName(), ev.value());
+                }
+            }
+            for (Object constant : enumClass.getEnumConstants()) {
+                String name = ((Enum<?>)constant).name();
+                if (xmlValues.containsKey(name)) {
+                    name = xmlValues.get(name);
+                }
+                names.put(constant, name);
+                values.put(name, constant);
+            }
+        }
+    }
+    
+    /**
+     * A single bean property together with its resolved JSON name 
+     * and the field or accessor methods used to get and set it.
+     */
+    static final class Property {
+        private final String name;
+        private final String jsonName;
+        private final boolean attribute;
+        private final Field field;
+        private final Method getter;
+        private final Method setter;
+        private final Class<?> type;
+        private final Type genericType;
+        private final Class<?> itemType;
+        private final Type itemGenericType;
+        
+        Property(String name, AccessibleObject annotated, Field field, Method getter, Method setter,
+                 Class<?> type, Type genericType) {
+            this.name = name;
+            this.field = field;
+            this.getter = getter;
+            this.setter = setter;
+            this.type = type;
+            this.genericType = genericType;
+            XmlAttribute xmlAttribute = annotated.getAnnotation(XmlAttribute.class);
+            XmlElement xmlElement = annotated.getAnnotation(XmlElement.class);
+            String n = name;
+            if (xmlAttribute != null && !DEFAULT_NAME.equals(xmlAttribute.name())) {
+                n = xmlAttribute.name();
+            } else if (xmlElement != null && !DEFAULT_NAME.equals(xmlElement.name())) {
+                n = xmlElement.name();
+            }
+            attribute = xmlAttribute != null;
+            jsonName = attribute ? "@" + n : annotated.getAnnotation(XmlValue.class) != null ? "$" : n;
+            if (type.isArray() && type != byte[].class) {
+                itemType = type.getComponentType();
+                itemGenericType = genericType instanceof GenericArrayType 
+                    ? ((GenericArrayType)genericType).getGenericComponentType() : itemType;
+            } else if (Collection.class.isAssignableFrom(type)) {
+                Type arg = genericType instanceof ParameterizedType 
+                    ? ((ParameterizedType)genericType).getActualTypeArguments()[0] : Object.class;
+                itemGenericType = arg;
+                itemType = toClass(arg);
+            } else {
+                itemType = null;
+                itemGenericType = null;
+            }
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getJsonName() {
+            return jsonName;
+        }
+        
+        public boolean isAttribute() {
+            return attribute;
+        }
+        
+        public Class<?> getType() {
+            return type;
+        }
+        
+        public Type getGenericType() {
+            return genericType;
+        }
+        
+        /**
+         * @return the item type of a collection or array property, null otherwise
+         */
+        public Class<?> getItemType() {
+            return itemType;
+        }
+        
+        public Type getItemGenericType() {
+            return itemGenericType;
+        }
+        
+        public Object get(Object bean) throws Exception {
+            return field != null ? field.get(bean) : getter.invoke(bean);
+        }
+        
+        public void set(Object bean, Object value) throws Exception {
+            if (value == null && type.isPrimitive()) {
+                return;
+            }
+            if (field != null) {
+                field.set(bean, value);
+            } else if (setter != null) {
+                setter.invoke(bean, value);
+            } else if (value != null) {
+                // live collection returned by a getter, as generated by xjc
+                @SuppressWarnings("unchecked")
+                Collection<Object> existing = (Collection<Object>)getter.invoke(bean);
+                if (existing != null) {
+                    existing.addAll((Collection<?>)value);
+                }
+            }
+        }
+        
+        private static Class<?> toClass(Type t) {
+            if (t instanceof Class) {
+                return (Class<?>)t;
+            } else if (t instanceof ParameterizedType) {
+                return toClass(((ParameterizedType)t).getRawType());
+            }
+            return Object.class;
+        }
+    }
+}
@@ -0,0 +1,583 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.provider.jsrjsonp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonStructure;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.jaxrs.provider.jsrjsonp.JaxbBeanModel.Property;
+import org.apache.cxf.jaxrs.utils.ExceptionUtils;
+import org.apache.cxf.jaxrs.utils.HttpUtils;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+
+/**
+ * Reads and writes JAXB-annotated beans directly with the JSR-353 streaming 
+ * parser and generator. Unlike JSONProvider no XMLStreamReader/XMLStreamWriter 
+ * and no JAXB marshaller are involved: the JAXB annotations are only used to 
+ * build a per-class model of the property accessors which each provider caches.
+ * 
+ * The output follows the JSONProvider 'mapped' convention: the root element name 
+ * wraps the bean unless dropRootElement is set, attributes are prefixed with '@' 
+ * and an XmlValue property is written as '$'. Unlike Jettison, numbers and booleans 
+ * are written as JSON primitives. XmlJavaTypeAdapter and XmlElementRef 
+ * mappings are not supported, JSONProvider should be used for such beans.
+ */
+@Produces({"application/json", "application/*+json" })
+@Consumes({"application/json", "application/*+json" })
+@Provider
+public class JsrJsonpJaxbProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = 
+        Json.createGeneratorFactory(Collections.<String, Object>emptyMap());
+    private static final JsonParserFactory PARSER_FACTORY = 
+        Json.createParserFactory(Collections.<String, Object>emptyMap());
+    private static DatatypeFactory datatypeFactory;
+    
+    private final JaxbBeanModel.Cache models = new JaxbBeanModel.Cache();
+    private boolean dropRootElement;
+    private boolean serializeAsArray;
+    private Set<String> arrayKeys = Collections.emptySet();
+    
+    public void setDropRootElement(boolean drop) {
+        this.dropRootElement = drop;
+    }
+    
+    public void setSerializeAsArray(boolean asArray) {
+        this.serializeAsArray = asArray;
+    }
+    
+    /**
+     * @param keys names of the properties which have to be written as JSON arrays
+     *        even when they hold a single value
+     */
+    public void setArrayKeys(List<String> keys) {
+        this.arrayKeys = new LinkedHashSet<String>(keys);
+    }
+    
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isSupported(type, genericType);
+    }
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isSupported(type, genericType);
+    }
+    
+    protected boolean isSupported(Class<?> type, Type genericType) {
+        if (JsonStructure.class.isAssignableFrom(type)) {
+            return false;
+        }
+        if (InjectionUtils.isSupportedCollectionOrArray(type)) {
+            Class<?> itemType = getItemType(type, genericType);
+            return itemType != null && JaxbBeanModel.isJaxbBean(itemType);
+        }
+        return JaxbBeanModel.isJaxbBean(type);
+    }
+
+    @Override
+    public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, 
+        MediaType mediaType) {
+        return -1;
+    }
+    
+    @Override
+    public void writeTo(Object obj, Class<?> type, Type genericType, Annotation[] annotations, 
+        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) 
+        throws IOException, WebApplicationException {
+        
+        if (entityStream == null) {
+            throw new IOException("Initialized OutputStream should be provided");
+        }
+        String enc = HttpUtils.getSetEncoding(mediaType, httpHeaders, "UTF-8");
+        JsonGenerator gen = GENERATOR_FACTORY.createGenerator(entityStream, Charset.forName(enc));
+        try {
+            if (InjectionUtils.isSupportedCollectionOrArray(type)) {
+                Class<?> itemType = getItemType(type, genericType);
+                if (dropRootElement) {
+                    gen.writeStartArray();
+                } else {
+                    gen.writeStartObject();
+                    gen.writeStartArray(models.getModel(itemType).getRootName());
+                }
+                for (Object item : toCollection(obj)) {
+                    writeValue(gen, null, item);
+                }
+                gen.writeEnd();
+                if (!dropRootElement) {
+                    gen.writeEnd();
+                }
+            } else {
+                String rootName = dropRootElement 
+                    ? null : models.getModel(obj.getClass()).getRootName();
+                if (rootName != null) {
+                    gen.writeStartObject();
+                }
+                if (serializeAsArray) {
+                    startArray(gen, rootName);
+                    writeBean(gen, null, obj);
+                    gen.writeEnd();
+                } else {
+                    writeBean(gen, rootName, obj);
+                }
+                if (rootName != null) {
+                    gen.writeEnd();
+                }
+            }
+            gen.flush();
+        } catch (JsonException ex) {
+            throw ExceptionUtils.toInternalServerErrorException(ex, null);
+        } catch (IOException ex) {
+            throw ex;
+        } catch (WebApplicationException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw ExceptionUtils.toInternalServerErrorException(ex, null);
+        }
+    }
+    
+    protected void writeBean(JsonGenerator gen, String name, Object bean) throws Exception {
+        if (name == null) {
+            gen.writeStartObject();
+        } else {
+            gen.writeStartObject(name);
+        }
+        for (Property p : models.getModel(bean.getClass()).getProperties()) {
+            Object value = p.get(bean);
+            if (value == null) {
+                continue;
+            }
+            String key = p.getJsonName();
+            if (p.getItemType() == null && arrayKeys.contains(key)) {
+                gen.writeStartArray(key);
+                writeValue(gen, null, value);
+                gen.writeEnd();
+            } else {
+                writeValue(gen, key, value);
+            }
+        }
+        gen.writeEnd();
+    }
+    
+    protected void writeValue(JsonGenerator gen, String name, Object value) throws Exception {
+        if (value == null) {
+            if (name == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNull(name);
+            }
+        } else if (value instanceof String) {
+            writeString(gen, name, (String)value);
+        } else if (value instanceof Boolean) {
+            if (name == null) {
+                gen.write((Boolean)value);
+            } else {
+                gen.write(name, (Boolean)value);
+            }
+        } else if (value instanceof Integer || value instanceof Long 
+            || value instanceof Short || value instanceof Byte) {
+            if (name == null) {
+                gen.write(((Number)value).longValue());
+            } else {
+                gen.write(name, ((Number)value).longValue());
+            }
+        } else if (value instanceof BigDecimal) {
+            if (name == null) {
+                gen.write((BigDecimal)value);
+            } else {
+                gen.write(name, (BigDecimal)value);
+            }
+        } else if (value instanceof BigInteger) {
+            if (name == null) {
+                gen.write((BigInteger)value);
+            } else {
+                gen.write(name, (BigInteger)value);
+            }
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number)value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                writeString(gen, name, value.toString());
+            } else if (name == null) {
+                gen.write(d);
+            } else {
+                gen.write(name, d);
+            }
+        } else if (value instanceof Enum) {
+            writeString(gen, name, models.getEnumName((Enum<?>)value));
+        } else if (value instanceof XMLGregorianCalendar) {
+            writeString(gen, name, ((XMLGregorianCalendar)value).toXMLFormat());
+        } else if (value instanceof Calendar) {
+            writeString(gen, name, DatatypeConverter.printDateTime((Calendar)value));
+        } else if (value instanceof Date) {
+            Calendar cal = Calendar.getInstance();
+            cal.setTime((Date)value);
+            writeString(gen, name, DatatypeConverter.printDateTime(cal));
+        } else if (value instanceof byte[]) {
+            writeString(gen, name, DatatypeConverter.printBase64Binary((byte[])value));
+        } else if (value instanceof Collection || value.getClass().isArray()) {
+            startArray(gen, name);
+            for (Object item : toCollection(value)) {
+                writeValue(gen, null, item);
+            }
+            gen.writeEnd();
+        } else if (value instanceof Map) {
+            if (name == null) {
+                gen.writeStartObject();
+            } else {
+                gen.writeStartObject(name);
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                writeValue(gen, String.valueOf(entry.getKey()), entry.getValue());
+            }
+            gen.writeEnd();
+        } else if (value instanceof Character || value instanceof Number 
+            || value instanceof QName || value instanceof URI) {
+            writeString(gen, name, value.toString());
+        } else {
+            writeBean(gen, name, value);
+        }
+    }
+    
+    private static void writeString(JsonGenerator gen, String name, String value) {
+        if (name == null) {
+            gen.write(value);
+        } else {
+            gen.write(name, value);
+        }
+    }
+    
+    private static void startArray(JsonGenerator gen, String name) {
+        if (name == null) {
+            gen.writeStartArray();
+        } else {
+            gen.writeStartArray(name);
+        }
+    }
+    
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, 
+        MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream)
+        throws IOException, WebApplicationException {
+        
+        if (entityStream == null) {
+            throw new IOException("Initialized InputStream should be provided");
+        }
+        String enc = mediaType == null ? null : mediaType.getParameters().get("charset");
+        JsonParser parser = enc == null ? PARSER_FACTORY.createParser(entityStream)
+            : PARSER_FACTORY.createParser(entityStream, Charset.forName(enc));
+        try {
+            Event event = parser.next();
+            if (!dropRootElement) {
+                if (event != Event.START_OBJECT || parser.next() != Event.KEY_NAME) {
+                    throw new IllegalArgumentException("JSON object with a root element is expected");
+                }
+                event = parser.next();
+            }
+            if (serializeAsArray && event == Event.START_ARRAY 
+                && !InjectionUtils.isSupportedCollectionOrArray(type)) {
+                event = parser.next();
+            }
+            return readValue(parser, event, type, genericType == null ? type : genericType);
+        } catch (JsonException ex) {
+            throw ExceptionUtils.toBadRequestException(ex, null);
+        } catch (IllegalArgumentException ex) {
+            throw ExceptionUtils.toBadRequestException(ex, null);
+        } catch (WebApplicationException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw ExceptionUtils.toInternalServerErrorException(ex, null);
+        } finally {
+            parser.close();
+        }
+    }
+    
+    protected Object readBean(JsonParser parser, Class<?> cls) throws Exception {
+        JaxbBeanModel model = models.getModel(cls);
+        Object bean = model.newInstance();
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            if (event == Event.END_OBJECT) {
+                break;
+            }
+            Property p = model.getProperty(parser.getString());
+            event = parser.next();
+            if (p == null) {
+                skipValue(parser, event);
+            } else {
+                p.set(bean, readValue(parser, event, p.getType(), p.getGenericType()));
+            }
+        }
+        return bean;
+    }
+    
+    protected Object readValue(JsonParser parser, Event event, Class<?> cls, Type genericType) 
+        throws Exception {
+        boolean collection = InjectionUtils.isSupportedCollectionOrArray(cls) && cls != byte[].class;
+        if (collection) {
+            Class<?> itemType = getItemType(cls, genericType);
+            List<Object> items = new ArrayList<Object>();
+            if (event == Event.START_ARRAY) {
+                for (Event e = parser.next(); e != Event.END_ARRAY; e = parser.next()) {
+                    items.add(readValue(parser, e, itemType, itemType));
+                }
+            } else if (event != Event.VALUE_NULL) {
+                items.add(readValue(parser, event, itemType, itemType));
+            }
+            return toCollectionOrArray(items, cls, itemType);
+        }
+        Object result = null;
+        switch (event) {
+        case START_OBJECT:
+            if (cls == Object.class || Map.class.isAssignableFrom(cls)) {
+                result = readMap(parser);
+            } else {
+                result = readBean(parser, cls);
+            }
+            break;
+        case START_ARRAY:
+            // a single value serialized as an array
+            Event e = parser.next();
+            if (e != Event.END_ARRAY) {
+                result = readValue(parser, e, cls, genericType);
+                for (e = parser.next(); e != Event.END_ARRAY; e = parser.next()) {
+                    skipValue(parser, e);
+                }
+            }
+            break;
+        case VALUE_STRING:
+            result = convertString(parser.getString(), cls);
+            break;
+        case VALUE_NUMBER:
+            result = convertNumber(parser, cls);
+            break;
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+            if (cls == Boolean.class || cls == Boolean.TYPE || cls == Object.class) {
+                result = event == Event.VALUE_TRUE;
+            } else {
+                result = convertString(String.valueOf(event == Event.VALUE_TRUE), cls);
+            }
+            break;
+        case VALUE_NULL:
+            break;
+        default:
+            throw new IllegalArgumentException("Unexpected JSON event " + event);
+        }
+        return result;
+    }
+    
+    private Map<String, Object> readMap(JsonParser parser) throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (Event e = parser.next(); e != Event.END_OBJECT; e = parser.next()) {
+            String key = parser.getString();
+            map.put(key, readValue(parser, parser.next(), Object.class, Object.class));
+        }
+        return map;
+    }
+    
+    private static void skipValue(JsonParser parser, Event event) {
+        if (event != Event.START_OBJECT && event != Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event e = parser.next();
+            if (e == Event.START_OBJECT || e == Event.START_ARRAY) {
+                depth++;
+            } else if (e == Event.END_OBJECT || e == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+    
+    private Object convertNumber(JsonParser parser, Class<?> cls) {
+        Object result = null;
+        if (cls == Integer.class || cls == Integer.TYPE) {
+            result = parser.getInt();
+        } else if (cls == Long.class || cls == Long.TYPE) {
+            result = parser.getLong();
+        } else if (cls == Object.class) {
+            result = parser.isIntegralNumber() ? (Object)parser.getLong() : parser.getBigDecimal();
+        } else if (cls == BigDecimal.class) {
+            result = parser.getBigDecimal();
+        } else if (cls == BigInteger.class) {
+            result = parser.getBigDecimal().toBigInteger();
+        } else if (cls == Double.class || cls == Double.TYPE) {
+            result = parser.getBigDecimal().doubleValue();
+        } else if (cls == Float.class || cls == Float.TYPE) {
+            result = parser.getBigDecimal().floatValue();
+        } else if (cls == Short.class || cls == Short.TYPE) {
+            result = parser.getBigDecimal().shortValue();
+        } else if (cls == Byte.class || cls == Byte.TYPE) {
+            result = parser.getBigDecimal().byteValue();
+        } else {
+            result = convertString(parser.getString(), cls);
+        }
+        return result;
+    }
+    
+    private Object convertString(String value, Class<?> cls) {
+        Object result = null;
+        if (cls == String.class || cls == Object.class) {
+            result = value;
+        } else if (cls == Integer.class || cls == Integer.TYPE) {
+            result = Integer.valueOf(value);
+        } else if (cls == Long.class || cls == Long.TYPE) {
+            result = Long.valueOf(value);
+        } else if (cls == Boolean.class || cls == Boolean.TYPE) {
+            result = Boolean.valueOf(value);
+        } else if (cls == Double.class || cls == Double.TYPE) {
+            result = Double.valueOf(value);
+        } else if (cls == Float.class || cls == Float.TYPE) {
+            result = Float.valueOf(value);
+        } else if (cls == Short.class || cls == Short.TYPE) {
+            result = Short.valueOf(value);
+        } else if (cls == Byte.class || cls == Byte.TYPE) {
+            result = Byte.valueOf(value);
+        } else if (cls == Character.class || cls == Character.TYPE) {
+            if (value.length() != 1) {
+                throw new IllegalArgumentException("Single character is expected: " + value);
+            }
+            result = value.charAt(0);
+        } else if (cls == BigDecimal.class) {
+            result = new BigDecimal(value);
+        } else if (cls == BigInteger.class) {
+            result = new BigInteger(value);
+        } else if (cls.isEnum()) {
+            result = models.getEnumValue(cls, value);
+        } else if (cls == XMLGregorianCalendar.class) {
+            result = getDatatypeFactory().newXMLGregorianCalendar(value);
+        } else if (Calendar.class.isAssignableFrom(cls)) {
+            result = DatatypeConverter.parseDateTime(value);
+        } else if (cls == Date.class) {
+            result = DatatypeConverter.parseDateTime(value).getTime();
+        } else if (cls == byte[].class) {
+            result = DatatypeConverter.parseBase64Binary(value);
+        } else if (cls == QName.class) {
+            result = QName.valueOf(value);
+        } else if (cls == URI.class) {
+            result = URI.create(value);
+        } else {
+            throw new IllegalArgumentException("JSON string can not be converted to " + cls.getName());
+        }
+        return result;
+    }
+    
+    private static synchronized DatatypeFactory getDatatypeFactory() {
+        if (datatypeFactory == null) {
+            try {
+                datatypeFactory = DatatypeFactory.newInstance();
+            } catch (DatatypeConfigurationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return datatypeFactory;
+    }
+    
+    private static Class<?> getItemType(Class<?> type, Type genericType) {
+        if (type.isArray()) {
+            return type.getComponentType();
+        }
+        return InjectionUtils.getActualType(genericType);
+    }
+    
+    private static Collection<?> toCollection(Object value) {
+        if (value instanceof Collection) {
+            return (Collection<?>)value;
+        }
+        if (value instanceof Object[]) {
+            return Arrays.asList((Object[])value);
+        }
+        int length = Array.getLength(value);
+        List<Object> list = new ArrayList<Object>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(Array.get(value, i));
+        }
+        return list;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Object toCollectionOrArray(List<Object> items, Class<?> cls, Class<?> itemType) 
+        throws Exception {
+        if (cls.isArray()) {
+            Object array = Array.newInstance(itemType, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Array.set(array, i, items.get(i));
+            }
+            return array;
+        }
+        Collection<Object> c = null;
+        if (cls.isInterface() || Modifier.isAbstract(cls.getModifiers())) {
+            if (SortedSet.class.isAssignableFrom(cls)) {
+                c = new TreeSet<Object>();
+            } else if (Set.class.isAssignableFrom(cls)) {
+                c = new LinkedHashSet<Object>();
+            } else {
+                c = new ArrayList<Object>();
+            }
+        } else {
+            c = (Collection<Object>)cls.newInstance();
+        }
+        c.addAll(items);
+        return c;
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.provider.jsrjsonp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.json.JsonObject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.resources.Book;
+import org.apache.cxf.jaxrs.resources.TagVO;
+import org.apache.cxf.jaxrs.resources.Tags;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsrJsonpJaxbProviderTest extends Assert {
+    private JsrJsonpJaxbProvider provider;
+    
+    @Before
+    public void setUp() {
+        provider = new JsrJsonpJaxbProvider();
+    }
+    
+    @Test
+    public void testSupportedTypes() throws Exception {
+        assertTrue(provider.isWriteable(Book.class, Book.class, null, MediaType.APPLICATION_JSON_TYPE));
+        assertTrue(provider.isReadable(Tags.class, Tags.class, null, MediaType.APPLICATION_JSON_TYPE));
+        Method m = getClass().getMethod("getBooks");
+        assertTrue(provider.isWriteable(List.class, m.getGenericReturnType(), null, 
+                                        MediaType.APPLICATION_JSON_TYPE));
+        assertTrue(provider.isWriteable(Book[].class, Book[].class, null, MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(provider.isWriteable(String.class, String.class, null, MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(provider.isReadable(JsonObject.class, JsonObject.class, null, 
+                                        MediaType.APPLICATION_JSON_TYPE));
+    }
+    
+    @Test
+    public void testWriteBean() throws Exception {
+        String json = write(new Book("CXF", 123L), Book.class);
+        assertEquals("{\"Book\":{\"id\":123,\"name\":\"CXF\",\"state\":\"\"}}", json);
+    }
+    
+    @Test
+    public void testWriteBeanDropRootElement() throws Exception {
+        provider.setDropRootElement(true);
+        String json = write(new Book("CXF", 123L), Book.class);
+        assertEquals("{\"id\":123,\"name\":\"CXF\",\"state\":\"\"}", json);
+    }
+    
+    @Test
+    public void testWriteBeanSerializeAsArray() throws Exception {
+        provider.setSerializeAsArray(true);
+        String json = write(new TagVO("a", "b"), TagVO.class);
+        assertEquals("{\"tagVO\":[{\"group\":\"b\",\"name\":\"a\"}]}", json);
+    }
+    
+    @Test
+    public void testWriteArrayKeys() throws Exception {
+        provider.setArrayKeys(Collections.singletonList("name"));
+        String json = write(new TagVO("a", "b"), TagVO.class);
+        assertEquals("{\"tagVO\":{\"group\":\"b\",\"name\":[\"a\"]}}", json);
+    }
+    
+    @Test
+    public void testWriteCollection() throws Exception {
+        Method m = getClass().getMethod("getBooks");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        provider.writeTo(getBooks(), List.class, m.getGenericReturnType(), new Annotation[]{}, 
+                         MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, Object>(), bos);
+        assertEquals("{\"Book\":[{\"id\":1,\"name\":\"a\",\"state\":\"\"},"
+                     + "{\"id\":2,\"name\":\"b\",\"state\":\"\"}]}", bos.toString("UTF-8"));
+    }
+    
+    @Test
+    public void testWriteAnnotatedBean() throws Exception {
+        Order order = new Order();
+        order.setId("o1");
+        order.setStatus(Status.SHIPPED);
+        order.setSecret("s");
+        order.getItems().add(new Item("i1", 2));
+        String json = write(order, Order.class);
+        assertEquals("{\"order\":{\"@orderId\":\"o1\",\"state\":\"shipped\","
+                     + "\"item\":[{\"sku\":\"i1\",\"quantity\":2}]}}", json);
+    }
+    
+    @Test
+    public void testRoundTripAnnotatedBean() throws Exception {
+        Order order = new Order();
+        order.setId("o1");
+        order.setStatus(Status.NEW);
+        order.getItems().add(new Item("i1", 2));
+        order.getItems().add(new Item("i2", 3));
+        
+        Order read = (Order)read(write(order, Order.class), Order.class);
+        assertEquals("o1", read.getId());
+        assertEquals(Status.NEW, read.getStatus());
+        assertEquals(2, read.getItems().size());
+        assertEquals("i2", read.getItems().get(1).getSku());
+        assertEquals(3, read.getItems().get(1).getQuantity());
+    }
+    
+    @Test
+    public void testRoundTripEnumConstantWithBody() throws Exception {
+        Order order = new Order();
+        order.setId("o2");
+        order.setStatus(Status.CANCELLED);
+        String json = write(order, Order.class);
+        assertEquals("{\"order\":{\"@orderId\":\"o2\",\"state\":\"cancelled\",\"item\":[]}}", json);
+        assertSame(Status.CANCELLED, ((Order)read(json, Order.class)).getStatus());
+    }
+    
+    @Test
+    public void testReadGetterOnlyCollection() throws Exception {
+        String json = "{\"Tags\":{\"list\":[{\"name\":\"a\",\"group\":\"b\"},{\"name\":\"c\"}]}}";
+        Tags tags = (Tags)read(json, Tags.class);
+        assertEquals(2, tags.getTags().size());
+        assertEquals("b", tags.getTags().get(0).getGroup());
+        assertEquals("c", tags.getTags().get(1).getName());
+    }
+    
+    @Test
+    public void testReadSingleValueAsCollectionAndSkipUnknown() throws Exception {
+        provider.setDropRootElement(true);
+        String json = "{\"unknown\":{\"a\":[1,2,{}]},\"item\":{\"sku\":\"i1\",\"quantity\":\"4\"}}";
+        Order read = (Order)read(json, Order.class);
+        assertEquals(1, read.getItems().size());
+        assertEquals(4, read.getItems().get(0).getQuantity());
+    }
+    
+    @Test
+    public void testReadSerializedAsArray() throws Exception {
+        provider.setSerializeAsArray(true);
+        Book book = (Book)read("{\"Book\":[{\"id\":5,\"name\":\"CXF\"}]}", Book.class);
+        assertEquals(5L, book.getId());
+        assertEquals("CXF", book.getName());
+    }
+    
+    @Test(expected = WebApplicationException.class)
+    public void testReadInvalidJson() throws Exception {
+        read("{\"Book\":{\"id\":", Book.class);
+    }
+    
+    public List<Book> getBooks() {
+        return Arrays.asList(new Book("a", 1L), new Book("b", 2L));
+    }
+    
+    private String write(Object o, Class<?> cls) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        provider.writeTo(o, cls, cls, new Annotation[]{}, 
+                         MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, Object>(), bos);
+        return bos.toString("UTF-8");
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes" })
+    private Object read(String json, Class<?> cls) throws Exception {
+        return provider.readFrom((Class)cls, cls, new Annotation[]{}, 
+                                 MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, String>(),
+                                 new ByteArrayInputStream(json.getBytes("UTF-8")));
+    }
+    
+    public enum Status {
+        @XmlEnumValue("new") NEW,
+        @XmlEnumValue("shipped") SHIPPED,
+        @XmlEnumValue("cancelled") CANCELLED {
+            @Override
+            public String toString() {
+                return "Cancelled";
+            }
+        }
+    }
+    
+    @XmlRootElement
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Order {
+        @XmlAttribute(name = "orderId")
+        private String id;
+        @XmlElement(name = "state")
+        private Status status;
+        @XmlTransient
+        private String secret;
+        @XmlElement(name = "item")
+        private List<Item> items = new ArrayList<Item>();
+        
+        public String getId() {
+            return id;
+        }
+        public void setId(String id) {
+            this.id = id;
+        }
+        public Status getStatus() {
+            return status;
+        }
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+        public String getSecret() {
+            return secret;
+        }
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+        public List<Item> getItems() {
+            return items;
+        }
+    }
+    
+    @XmlType(propOrder = {"sku", "quantity" })
+    public static class Item {
+        private String sku;
+        private int quantity;
+        
+        public Item() {
+        }
+        public Item(String sku, int quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+        public int getQuantity() {
+            return quantity;
+        }
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+        public String getSku() {
+            return sku;
+        }
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+    }
+}
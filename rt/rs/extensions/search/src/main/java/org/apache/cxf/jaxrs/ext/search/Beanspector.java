@@ -19,6 +19,7 @@
 package org.apache.cxf.jaxrs.ext.search;
 
 import java.beans.IntrospectionException;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -28,6 +29,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.cxf.jaxrs.ext.search.collections.CollectionCheckInfo;
 
@@ -35,12 +37,16 @@ import org.apache.cxf.jaxrs.ext.search.collections.CollectionCheckInfo;
  * Bean introspection utility.
  */
 public class Beanspector<T> {
-    private final Map< Class< ? >, Class< ? > > primitiveWrappers = getPrimitiveWrappers();        
+    private static final Map< Class< ? >, Class< ? > > PRIMITIVE_WRAPPERS = getPrimitiveWrappers();
+    // introspection results are shared by all Beanspector instances created for the same class;
+    // the classes are weakly and their methods softly referenced so that they can be unloaded
+    private static final Map<Class<?>, SoftReference<Map<String, Method>[]>> ACCESSORS = 
+        Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<Map<String, Method>[]>>());
 
     private Class<T> tclass;
     private T tobj;
-    private Map<String, Method> getters = new LinkedHashMap<String, Method>();
-    private Map<String, Method> setters = new LinkedHashMap<String, Method>();
+    private Map<String, Method> getters;
+    private Map<String, Method> setters;
 
     public Beanspector(Class<T> tclass) {
         if (tclass == null) {
@@ -63,6 +69,20 @@ public class Beanspector<T> {
         if (tclass == null) {
             tclass = (Class<T>)tobj.getClass();
         }
+        SoftReference<Map<String, Method>[]> ref = ACCESSORS.get(tclass);
+        Map<String, Method>[] accessors = ref == null ? null : ref.get();
+        if (accessors == null) {
+            accessors = introspect(tclass);
+            ACCESSORS.put(tclass, new SoftReference<Map<String, Method>[]>(accessors));
+        }
+        getters = accessors[0];
+        setters = accessors[1];
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Method>[] introspect(Class<?> tclass) {
+        Map<String, Method> getters = new LinkedHashMap<String, Method>();
+        Map<String, Method> setters = new LinkedHashMap<String, Method>();
         for (Method m : tclass.getMethods()) {
             if (isGetter(m)) {
                 getters.put(getPropertyName(m), m);
@@ -82,6 +102,7 @@ public class Beanspector<T> {
                             accessor, getterClass.getName(), setterClass.getName()));
             }
         }
+        return new Map[] {Collections.unmodifiableMap(getters), Collections.unmodifiableMap(setters)};
     }
 
     public T getBean() {
@@ -111,6 +132,16 @@ public class Beanspector<T> {
             primitiveToWrapper(m.getReturnType()));
     }
 
+    /**
+     * Returns the getter for the given property name, the returned method can be invoked 
+     * directly on any instance of the bean class without swapping the bean.
+     * @param getterName the property name
+     * @return the getter or null if the property has no getter
+     */
+    public Method getGetter(String getterName) {
+        return getters.get(getterName.toLowerCase());
+    }
+
     public Beanspector<T> swap(T newobject) throws Exception {
         if (newobject == null) {
             throw new IllegalArgumentException("newobject is null");
@@ -172,7 +203,7 @@ public class Beanspector<T> {
         }
     }
 
-    private Map< Class< ? >, Class< ? > > getPrimitiveWrappers() {
+    private static Map< Class< ? >, Class< ? > > getPrimitiveWrappers() {
         final Map< Class< ? >, Class< ? > > wrappers = new HashMap< Class< ? >, Class< ? > >();
         
         wrappers.put(boolean.class, Boolean.class);
@@ -188,15 +219,15 @@ public class Beanspector<T> {
     }
     
     private Class< ? > primitiveToWrapper(final Class< ? > cls) {
-        return cls.isPrimitive() ?  primitiveWrappers.get(cls) : cls;
+        return cls.isPrimitive() ?  PRIMITIVE_WRAPPERS.get(cls) : cls;
     }
     
-    private boolean isGetter(Method m) {
+    private static boolean isGetter(Method m) {
         return m.getParameterTypes().length == 0
                && (m.getName().startsWith("get") || m.getName().startsWith("is"));
     }
 
-    private String getPropertyName(Method m) {
+    private static String getPropertyName(Method m) {
         // at this point the method is either getter or setter
         String result = m.getName().toLowerCase();
 
@@ -209,7 +240,7 @@ public class Beanspector<T> {
 
     }
 
-    private boolean isSetter(Method m) {
+    private static boolean isSetter(Method m) {
         return m.getReturnType().equals(void.class) && m.getParameterTypes().length == 1
                && (m.getName().startsWith("set") || m.getName().startsWith("is"));
     }
@@ -33,7 +33,7 @@ public class PrimitiveSearchCondition<T> implements SearchCondition<T> {
     private Type propertyType;
     private T condition;
     private ConditionType cType;
-    private Beanspector<T> beanspector;
+    private Method getter;
     
     public PrimitiveSearchCondition(String propertyName, 
                                     Object propertyValue,
@@ -52,9 +52,12 @@ public class PrimitiveSearchCondition<T> implements SearchCondition<T> {
         this.propertyType = propertyType;
         this.condition = condition;
         this.cType = ct;
-        if (propertyName != null) {
-            this.beanspector = SearchBean.class.isAssignableFrom(condition.getClass()) 
-                ? null : new Beanspector<T>(condition);
+        if (propertyName != null && !SearchBean.class.isAssignableFrom(condition.getClass())) {
+            // resolve the getter once, isMet() invokes it directly which keeps 
+            // the condition free of per-evaluation state and safe to share
+            int index = propertyName.indexOf(".");
+            String thePropertyName = index != -1 ? propertyName.substring(0, index) : propertyName;
+            this.getter = new Beanspector<T>(condition).getGetter(thePropertyName);
         }
     }
     
@@ -106,23 +109,15 @@ public class PrimitiveSearchCondition<T> implements SearchCondition<T> {
         }
     }
 
-    private Object getValue(String getter, T pojo) {
-        String thePropertyName;
-        int index = getter.indexOf(".");
-        if (index != -1) {
-            thePropertyName = getter.substring(0, index);
-        } else {
-            thePropertyName = getter;
-        }
-        
+    private Object getValue(String name, T pojo) {
         Object value;
         try {
-            if (beanspector != null) {
-                value = beanspector.swap(pojo).getValue(thePropertyName.toLowerCase());
+            if (pojo instanceof SearchBean) {
+                value = ((SearchBean)pojo).get(name);
             } else {
-                value = ((SearchBean)pojo).get(getter);
+                value = getter.invoke(pojo);
             }
-            return getPrimitiveValue(getter, value);
+            return getPrimitiveValue(name, value);
         } catch (Throwable e) {
             return null;
         }
@@ -219,13 +214,7 @@ public class PrimitiveSearchCondition<T> implements SearchCondition<T> {
             name = name.substring(index + 1);
             if (value != null && !InjectionUtils.isPrimitive(value.getClass())) {
                 try {
-                    String nextPart = names[1];
-                    if (nextPart.length() == 1) {
-                        nextPart = nextPart.toUpperCase();
-                    } else {
-                        nextPart = Character.toUpperCase(nextPart.charAt(0)) + nextPart.substring(1);
-                    }
-                    Method m = value.getClass().getMethod("get" + nextPart, new Class[]{});
+                    Method m = new Beanspector<Object>(value).getGetter(names[1]);
                     value = m.invoke(value, new Object[]{});
                 } catch (Throwable ex) {
                     throw new RuntimeException();
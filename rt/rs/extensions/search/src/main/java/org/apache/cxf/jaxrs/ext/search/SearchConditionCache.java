@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of parsed search conditions keyed by the search expression, 
+ * the condition class, the parser and the properties the parser was configured with.
+ * Cached conditions are shared between requests and must not be modified.
+ */
+public class SearchConditionCache {
+    public static final int DEFAULT_MAX_SIZE = 256;
+    
+    private final Map<List<Object>, SearchCondition<?>> conditions;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public SearchConditionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    
+    public SearchConditionCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        conditions = new LinkedHashMap<List<Object>, SearchCondition<?>>(16, 0.75f, true) {
+            private static final long serialVersionUID = -3459112532071839276L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, SearchCondition<?>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+    
+    /**
+     * Returns the cached condition for the given expression or parses 
+     * and caches it if no condition has been cached yet.
+     * @param parser the parser
+     * @param parserKey the object identifying the parser type and its configuration
+     * @param expression the search expression
+     * @return the condition
+     * @throws SearchParseException if the expression can not be parsed, failures are not cached
+     */
+    public <T> SearchCondition<T> getCondition(SearchConditionParser<T> parser, 
+                                               Object parserKey,
+                                               String expression) throws SearchParseException {
+        List<Object> key = Arrays.asList(parserKey, expression);
+        SearchCondition<T> sc = null;
+        synchronized (conditions) {
+            sc = cast(conditions.get(key));
+        }
+        if (sc != null) {
+            hits.incrementAndGet();
+            return sc;
+        }
+        misses.incrementAndGet();
+        sc = parser.parse(expression);
+        if (sc != null) {
+            synchronized (conditions) {
+                conditions.put(key, sc);
+            }
+        }
+        return sc;
+    }
+    
+    public int size() {
+        synchronized (conditions) {
+            return conditions.size();
+        }
+    }
+    
+    public void clear() {
+        synchronized (conditions) {
+            conditions.clear();
+        }
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> SearchCondition<T> cast(SearchCondition<?> sc) {
+        return (SearchCondition<T>)sc;
+    }
+}
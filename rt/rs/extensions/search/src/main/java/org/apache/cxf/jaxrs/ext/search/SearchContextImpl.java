@@ -20,6 +20,8 @@
 package org.apache.cxf.jaxrs.ext.search;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,7 @@ import javax.ws.rs.core.MultivaluedMap;
 
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.PropertyUtils;
+import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.jaxrs.ext.search.client.CompleteCondition;
 import org.apache.cxf.jaxrs.ext.search.client.SearchConditionBuilder;
@@ -44,6 +47,11 @@ public class SearchContextImpl implements SearchContext {
     public static final String SHORT_SEARCH_QUERY = "_s";
     public static final String CUSTOM_SEARCH_PARSER_PROPERTY = "search.parser";
     public static final String CUSTOM_SEARCH_QUERY_PARAM_NAME = "search.query.parameter.name";
+    /**
+     * Either a SearchConditionCache instance or a boolean value; if set to true 
+     * then parsed conditions are cached per endpoint 
+     */
+    public static final String CONDITION_CACHE_PROPERTY = "search.condition.cache";
     private static final String USE_PLAIN_QUERY_PARAMETERS = "search.use.plain.queries";
     private static final String USE_ALL_QUERY_COMPONENT = "search.use.all.query.component";
     private static final String BLOCK_SEARCH_EXCEPTION = "search.block.search.exception";
@@ -88,13 +96,26 @@ public class SearchContextImpl implements SearchContext {
             throw new IllegalArgumentException(errorMessage);
         }
         
-        SearchConditionParser<T> parser = getParser(cls, beanProperties, parserProperties);
+        Map<String, String> props = getParserProperties(parserProperties);
+        Map<String, String> beanProps = getBeanProperties(beanProperties);
+        SearchConditionParser<T> parser = getParser(cls, beanProps, props);
         
         String theExpression = expression == null 
             ? getSearchExpression() : expression;
         if (theExpression != null) {
             try {
-                return parser.parse(theExpression);
+                SearchConditionCache cache = getConditionCache();
+                if (cache == null) {
+                    return parser.parse(theExpression);
+                }
+                Object parserProp = message.getContextualProperty(CUSTOM_SEARCH_PARSER_PROPERTY);
+                // the key holds the properties the parser is actually configured with, 
+                // whether they were passed in or read from the contextual properties
+                Object parserKey = Arrays.asList(parserProp != null ? parserProp : FiqlParser.class, 
+                                                 cls, 
+                                                 beanProps == null ? null : new HashMap<String, String>(beanProps), 
+                                                 new HashMap<String, String>(props));
+                return cache.getCondition(parser, parserKey, theExpression);
             } catch (SearchParseException ex) {
                 if (PropertyUtils.isTrue(message.getContextualProperty(BLOCK_SEARCH_EXCEPTION))) {
                     return null;
@@ -168,15 +189,37 @@ public class SearchContextImpl implements SearchContext {
     
     
     
+    private SearchConditionCache getConditionCache() {
+        Object cacheProp = message.getContextualProperty(CONDITION_CACHE_PROPERTY);
+        if (cacheProp instanceof SearchConditionCache) {
+            return (SearchConditionCache)cacheProp;
+        }
+        Endpoint ep = message.getExchange() == null ? null : message.getExchange().getEndpoint();
+        if (ep == null || !PropertyUtils.isTrue(cacheProp)) {
+            return null;
+        }
+        synchronized (ep) {
+            SearchConditionCache cache = (SearchConditionCache)ep.get(SearchConditionCache.class.getName());
+            if (cache == null) {
+                cache = new SearchConditionCache();
+                ep.put(SearchConditionCache.class.getName(), cache);
+            }
+            return cache;
+        }
+    }
+    
     private <T> SearchConditionParser<T> getParser(Class<T> cls, 
-                                                   Map<String, String> beanProperties,
-                                                   Map<String, String> parserProperties) {
+                                                   Map<String, String> beanProps,
+                                                   Map<String, String> props) {
         
         Object parserProp = message.getContextualProperty(CUSTOM_SEARCH_PARSER_PROPERTY);
         if (parserProp != null) {
             return getCustomParser(parserProp);
         }
-        
+        return new FiqlParser<T>(cls, props, beanProps); 
+    }
+    
+    private Map<String, String> getParserProperties(Map<String, String> parserProperties) {
         Map<String, String> props = null;
         if (parserProperties == null) {
             props = new LinkedHashMap<String, String>(4);
@@ -192,7 +235,10 @@ public class SearchContextImpl implements SearchContext {
         } else {
             props = parserProperties;
         }
-        
+        return props;
+    }
+    
+    private Map<String, String> getBeanProperties(Map<String, String> beanProperties) {
         Map<String, String> beanProps = null;
             
         if (beanProperties == null) {    
@@ -200,8 +246,7 @@ public class SearchContextImpl implements SearchContext {
         } else {
             beanProps = beanProperties;
         }
-        
-        return new FiqlParser<T>(cls, props, beanProps); 
+        return beanProps;
     }
     
     @SuppressWarnings("unchecked")
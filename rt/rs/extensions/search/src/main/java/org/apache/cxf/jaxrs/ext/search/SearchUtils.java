@@ -19,8 +19,13 @@
 package org.apache.cxf.jaxrs.ext.search;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.cxf.jaxrs.ext.search.sql.SQLPrinterVisitor;
 
@@ -46,6 +51,56 @@ public final class SearchUtils {
         return tzProperty == null ? defaultValue : Boolean.valueOf(tzProperty);    
     }
     
+    /**
+     * Evaluates the condition against the given list in chunks submitted to the executor,
+     * the order of the matching objects is preserved. The condition must be safe to be 
+     * evaluated concurrently which is the case for the conditions created by the 
+     * default parsers.
+     * @param sc the search condition
+     * @param pojos the list to be filtered
+     * @param executor the executor
+     * @param chunkSize the number of list elements evaluated by a single task
+     * @return the matching objects
+     */
+    public static <T> List<T> findAll(final SearchCondition<T> sc, List<T> pojos, 
+                                      ExecutorService executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (pojos.size() <= chunkSize) {
+            return sc.findAll(pojos);
+        }
+        List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>(pojos.size() / chunkSize + 1);
+        for (int i = 0; i < pojos.size(); i += chunkSize) {
+            final List<T> chunk = pojos.subList(i, Math.min(i + chunkSize, pojos.size()));
+            futures.add(executor.submit(new Callable<List<T>>() {
+                public List<T> call() {
+                    return sc.findAll(chunk);
+                }
+            }));
+        }
+        List<T> result = new ArrayList<T>();
+        try {
+            for (Future<List<T>> f : futures) {
+                result.addAll(f.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<List<T>> f : futures) {
+                f.cancel(true);
+            }
+        }
+        return result;
+    }
+    
     public static <T> String toSQL(SearchCondition<T> sc, String table, String... columns) {
         SQLPrinterVisitor<T> visitor = new SQLPrinterVisitor<T>(table, columns);
         sc.accept(visitor);
@@ -33,6 +33,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.ParameterExpression;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
@@ -57,6 +58,9 @@ public abstract class AbstractJPATypedQueryVisitor<T, T1, E>
     private Stack<List<Predicate>> predStack = new Stack<List<Predicate>>();
     private boolean criteriaFinalized;
     private Set<String> joinProperties;
+    private boolean useQueryParameters;
+    private List<Object> parameterValues;
+    private List<ParameterExpression<?>> parameters;
     
     protected AbstractJPATypedQueryVisitor(EntityManager em, Class<T> tClass) {
         this(em, tClass, null, null, null);
@@ -113,12 +117,28 @@ public abstract class AbstractJPATypedQueryVisitor<T, T1, E>
         return em;
     }
     
+    /**
+     * Makes the visitor compare the properties with query parameters rather than literal
+     * values. The values are bound to the parameters of the typed query returned by
+     * {@link #getTypedQuery()}. Conditions which only differ in their values then produce 
+     * the same criteria query, so the JPA provider can reuse the compiled query it keeps
+     * for it, across entity managers.
+     * @param useParameters true to bind the values as parameters
+     */
+    protected void setUseQueryParameters(boolean useParameters) {
+        this.useQueryParameters = useParameters;
+    }
+    
     public void visit(SearchCondition<T> sc) {
         if (builder == null) {
             builder = em.getCriteriaBuilder();
             cq = builder.createQuery(queryClass);
             root = cq.from(tClass);
             predStack.push(new ArrayList<Predicate>());
+            if (useQueryParameters) {
+                parameters = new ArrayList<ParameterExpression<?>>();
+                parameterValues = new ArrayList<Object>();
+            }
         }
         if (sc.getStatement() != null) {
             predStack.peek().add(buildPredicate(sc.getStatement()));
@@ -152,7 +172,15 @@ public abstract class AbstractJPATypedQueryVisitor<T, T1, E>
     }
     
     public TypedQuery<T1> getTypedQuery() {
-        return em.createQuery(getCriteriaQuery());
+        TypedQuery<T1> query = em.createQuery(getCriteriaQuery());
+        if (parameters != null) {
+            for (int i = 0; i < parameters.size(); i++) {
+                @SuppressWarnings("unchecked")
+                ParameterExpression<Object> param = (ParameterExpression<Object>)parameters.get(i);
+                query.setParameter(param, parameterValues.get(i));
+            }
+        }
+        return query;
     }
     
     public CriteriaQuery<T1> getCriteriaQuery() {
@@ -164,6 +192,11 @@ public abstract class AbstractJPATypedQueryVisitor<T, T1, E>
         return cq;
     }
     
+    private boolean isLikeMatch(ConditionType ct, Class<?> cls, Object value) {
+        return (ct == ConditionType.EQUALS || ct == ConditionType.NOT_EQUALS) 
+            && cls.equals(String.class) && SearchUtils.containsWildcard(value.toString());
+    }
+    
     private Predicate buildPredicate(PrimitiveStatement ps) {
         String name = ps.getProperty();
         Object propertyValue = ps.getValue();
@@ -178,12 +211,75 @@ public abstract class AbstractJPATypedQueryVisitor<T, T1, E>
         CollectionCheckInfo collInfo = cv.getCollectionCheckInfo();
         Path<?> path = getPath(root, name, cv, collInfo);
         
+        if (parameters != null) {
+            return doBuildParameterizedPredicate(ps.getCondition(), path, cv.getCls(), cv.getValue(), 
+                                                 collInfo);
+        }
         Predicate pred = collInfo == null 
             ? doBuildPredicate(ps.getCondition(), path, cv.getCls(), cv.getValue()) 
             : doBuildCollectionPredicate(ps.getCondition(), path, collInfo);
         
         return pred;
     }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate doBuildParameterizedPredicate(ConditionType ct, Path<?> path, Class<?> valueClazz, 
+                                                    Object value, CollectionCheckInfo collInfo) {
+        if (collInfo != null) {
+            Integer size = Integer.valueOf(collInfo.getCollectionCheckValue().toString());
+            ParameterExpression<Integer> param = addParameter(Integer.class, size);
+            return compare(ct, builder.size((Expression<? extends Collection>)path), param);
+        }
+        Class<? extends Comparable> clazz = (Class<? extends Comparable>)valueClazz;
+        Expression<? extends Comparable> exp = path.as(clazz);
+        if (isLikeMatch(ct, clazz, value)) {
+            Expression<String> strExp = (Expression<String>)exp;
+            String theValue = SearchUtils.toSqlWildcardString(value.toString(), isWildcardStringMatch());
+            ParameterExpression<String> param = addParameter(String.class, theValue);
+            boolean escaped = SearchUtils.containsEscapedChar(theValue);
+            if (ct == ConditionType.EQUALS) {
+                return escaped ? builder.like(strExp, param, '\\') : builder.like(strExp, param);
+            } else {
+                return escaped ? builder.notLike(strExp, param, '\\') : builder.notLike(strExp, param);
+            }
+        }
+        return compare(ct, exp, addParameter(clazz, value));
+    }
+    
+    private <P> ParameterExpression<P> addParameter(Class<P> cls, Object value) {
+        ParameterExpression<P> param = builder.parameter(cls);
+        parameters.add(param);
+        parameterValues.add(value);
+        return param;
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate compare(ConditionType ct, Expression exp, Expression value) {
+        Predicate pred = null;
+        switch (ct) {
+        case GREATER_THAN:
+            pred = builder.greaterThan(exp, value);
+            break;
+        case EQUALS:
+            pred = builder.equal(exp, value);
+            break;
+        case NOT_EQUALS:
+            pred = builder.notEqual(exp, value);
+            break;
+        case LESS_THAN:
+            pred = builder.lessThan(exp, value);
+            break;
+        case LESS_OR_EQUALS:
+            pred = builder.lessThanOrEqualTo(exp, value);
+            break;
+        case GREATER_OR_EQUALS:
+            pred = builder.greaterThanOrEqualTo(exp, value);
+            break;
+        default: 
+            break;
+        }
+        return pred;
+    }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private Predicate doBuildPredicate(ConditionType ct, Path<?> path, Class<?> valueClazz, Object value) {
@@ -54,6 +54,16 @@ public class JPATypedQueryVisitor<T> extends AbstractJPATypedQueryVisitor<T, T,
         super(em, tClass, fieldMap, joinProps);
     }
     
+    /**
+     * Binds the condition values as query parameters, so that the conditions 
+     * with the same structure but different values produce the same query
+     * @param useParameters true to bind the values as parameters
+     */
+    @Override
+    public void setUseQueryParameters(boolean useParameters) {
+        super.setUseQueryParameters(useParameters);
+    }
+    
     public TypedQuery<T> getQuery() {
         return getTypedQuery();
     }
@@ -55,6 +55,59 @@ public class SearchContextImplTest extends Assert {
         new SearchContextImpl(m).getCondition(Book.class);
     }
     
+    @Test
+    public void testConditionCache() {
+        SearchConditionCache cache = new SearchConditionCache();
+        Message m = new MessageImpl();
+        m.put(SearchContextImpl.CONDITION_CACHE_PROPERTY, cache);
+        m.put(Message.QUERY_STRING, "_s=name==CXF");
+        SearchCondition<Book> sc1 = new SearchContextImpl(m).getCondition(Book.class);
+        SearchCondition<Book> sc2 = new SearchContextImpl(m).getCondition(Book.class);
+        assertSame(sc1, sc2);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertTrue(sc2.isMet(new Book("CXF", 1L)));
+        assertFalse(sc2.isMet(new Book("JAX-RS", 1L)));
+        
+        m.put(Message.QUERY_STRING, "_s=name==JAX-RS");
+        SearchCondition<Book> sc3 = new SearchContextImpl(m).getCondition(Book.class);
+        assertNotSame(sc1, sc3);
+        assertEquals(2, cache.size());
+    }
+    
+    @Test
+    public void testConditionCacheKeyedByContextualProperties() {
+        SearchConditionCache cache = new SearchConditionCache();
+        Message m = new MessageImpl();
+        m.put(SearchContextImpl.CONDITION_CACHE_PROPERTY, cache);
+        m.put(FiqlParser.SUPPORT_SINGLE_EQUALS, "true");
+        SearchCondition<Book> sc = new SearchContextImpl(m).getCondition("name=CXF", Book.class);
+        assertTrue(sc.isMet(new Book("CXF", 1L)));
+        
+        Message m2 = new MessageImpl();
+        m2.put(SearchContextImpl.CONDITION_CACHE_PROPERTY, cache);
+        try {
+            new SearchContextImpl(m2).getCondition("name=CXF", Book.class);
+            fail("Single equals is not supported by default");
+        } catch (SearchParseException ex) {
+            // expected
+        }
+        assertEquals(0, cache.getHits());
+    }
+    
+    @Test
+    public void testConditionCacheLimit() {
+        SearchConditionCache cache = new SearchConditionCache(1);
+        Message m = new MessageImpl();
+        m.put(SearchContextImpl.CONDITION_CACHE_PROPERTY, cache);
+        SearchContextImpl context = new SearchContextImpl(m);
+        context.getCondition("name==a", Book.class);
+        context.getCondition("name==b", Book.class);
+        assertEquals(1, cache.size());
+        context.getCondition("name==b", Book.class);
+        assertEquals(1, cache.getHits());
+    }
+    
     @Test
     public void testPlainQuery2() {
         Message m = new MessageImpl();
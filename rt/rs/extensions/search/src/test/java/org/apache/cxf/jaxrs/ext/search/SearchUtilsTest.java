@@ -18,11 +18,37 @@
  */
 package org.apache.cxf.jaxrs.ext.search;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.cxf.jaxrs.ext.search.fiql.FiqlParser;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 public class SearchUtilsTest extends Assert {
 
+    @Test
+    public void testParallelFindAll() throws Exception {
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 10000; i++) {
+            books.add(new Book("CXF" + i, i));
+        }
+        SearchCondition<Book> sc = new FiqlParser<Book>(Book.class).parse("name==CXF1*;id=gt=100");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Book> found = SearchUtils.findAll(sc, books, executor, 100);
+            assertEquals(sc.findAll(books), found);
+            assertEquals(1099, found.size());
+            assertEquals("CXF101", found.get(0).getName());
+            assertEquals("CXF1999", found.get(found.size() - 1).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
     @Test
     public void testSqlWildcardString() {
         assertEquals("abc", SearchUtils.toSqlWildcardString("abc", false));
@@ -200,6 +200,23 @@ public abstract class AbstractJPATypedQueryVisitorTest extends Assert {
         return query.getResultList();
     }
     
+    protected EntityManagerFactory getEntityManagerFactory() {
+        return emFactory;
+    }
+    
+    protected TypedQuery<Book> createParameterizedQuery(String expression) throws Exception {
+        return createParameterizedQuery(expression, em);
+    }
+    
+    protected TypedQuery<Book> createParameterizedQuery(String expression, 
+                                                        EntityManager entityManager) throws Exception {
+        SearchCondition<Book> filter = getParser().parse(expression);
+        JPATypedQueryVisitor<Book> jpa = new JPATypedQueryVisitor<Book>(entityManager, Book.class);
+        jpa.setUseQueryParameters(true);
+        filter.accept(jpa);
+        return jpa.getQuery();
+    }
+    
     protected List<Tuple> criteriaQueryBooksTuple(String expression) throws Exception {
         SearchCondition<Book> filter = getParser().parse(expression);
         JPACriteriaQueryVisitor<Book, Tuple> jpa = 
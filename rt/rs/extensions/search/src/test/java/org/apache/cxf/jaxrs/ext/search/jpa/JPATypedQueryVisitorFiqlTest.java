@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 
 import org.apache.cxf.jaxrs.ext.search.SearchConditionParser;
@@ -40,6 +41,33 @@ public class JPATypedQueryVisitorFiqlTest extends AbstractJPATypedQueryVisitorTe
             || 11 == books.get(0).getId() && 9 == books.get(1).getId());
     }
     
+    @Test
+    public void testQueryParameters() throws Exception {
+        String[] expressions = {"id=lt=10,id=gt=10", "id=lt=11,id=gt=11", 
+                                "bookTitle==num1*", "bookTitle==num9", "bookTitle!=num1*",
+                                "reviews=gt=0", "reviews=gt=2", 
+                                "reviews.authors==Ted", "id==10;bookTitle==num10"};
+        for (String exp : expressions) {
+            List<Book> expected = queryBooks(exp);
+            List<Book> actual = createParameterizedQuery(exp).getResultList();
+            assertEquals(exp, expected.size(), actual.size());
+            assertTrue(exp, actual.containsAll(expected));
+        }
+        assertEquals(2, createParameterizedQuery("id=lt=10,id=gt=10").getParameters().size());
+        assertEquals(1, createParameterizedQuery("reviews=gt=0").getParameters().size());
+    }
+    
+    @Test
+    public void testQueryParametersOtherEntityManager() throws Exception {
+        int expected = queryBooks("id=lt=10,id=gt=10").size();
+        EntityManager em2 = getEntityManagerFactory().createEntityManager();
+        try {
+            assertEquals(expected, createParameterizedQuery("id=lt=10,id=gt=10", em2).getResultList().size());
+        } finally {
+            em2.close();
+        }
+    }
+    
     @Test
     public void testOrQueryNoMatch() throws Exception {
         List<Book> books = queryBooks("id==7,id==5");
@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.rs.security.oauth2.filters;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.WebApplicationException;
+
+import org.apache.cxf.jaxrs.ext.MessageContext;
+import org.apache.cxf.rs.security.oauth2.common.AccessTokenValidation;
+import org.apache.cxf.rs.security.oauth2.provider.AccessTokenValidator;
+import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
+import org.apache.cxf.rs.security.oauth2.utils.OAuthConstants;
+
+/**
+ * AccessTokenValidator which caches the validation results of another validator,
+ * typically the remote {@link AccessTokenValidatorClient}. 
+ * 
+ * Valid tokens are cached until they expire but not longer than maxCacheTime seconds, 
+ * failed validations, reported as {@link OAuthServiceException} or as a WebApplicationException
+ * with a 4xx status such as the 401 returned by {@link AccessTokenValidatorClient},
+ * are cached for negativeCacheTime seconds. Concurrent validations 
+ * of the same token which is not cached yet share a single call to the delegate validator. 
+ * 
+ * Only the authorization schemes whose data does not depend on the current request
+ * (Bearer by default) are cached, other schemes are always passed to the delegate validator. 
+ */
+public class CachingAccessTokenValidator implements AccessTokenValidator {
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    
+    private AccessTokenValidator tokenValidator;
+    private List<String> cachedSchemes = 
+        Collections.singletonList(OAuthConstants.BEARER_AUTHORIZATION_SCHEME);
+    private long maxCacheTime = 300;
+    private long negativeCacheTime = 10;
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+    
+    private final Map<String, CacheEntry> cache = 
+        new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2854290375384616437L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    private final ConcurrentMap<String, FutureTask<CacheEntry>> inFlight = 
+        new ConcurrentHashMap<String, FutureTask<CacheEntry>>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    
+    public CachingAccessTokenValidator() {
+        
+    }
+    
+    public CachingAccessTokenValidator(AccessTokenValidator tokenValidator) {
+        this.tokenValidator = tokenValidator;
+    }
+    
+    public List<String> getSupportedAuthorizationSchemes() {
+        return tokenValidator.getSupportedAuthorizationSchemes();
+    }
+
+    public AccessTokenValidation validateAccessToken(final MessageContext mc,
+                                                     final String authScheme, 
+                                                     final String authSchemeData) 
+        throws OAuthServiceException {
+        if (!cachedSchemes.contains(authScheme)) {
+            return tokenValidator.validateAccessToken(mc, authScheme, authSchemeData);
+        }
+        String key = authScheme + " " + authSchemeData;
+        CacheEntry entry = getCachedEntry(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.getValidation();
+        }
+        
+        FutureTask<CacheEntry> task = new FutureTask<CacheEntry>(new Callable<CacheEntry>() {
+            public CacheEntry call() {
+                return validate(mc, authScheme, authSchemeData);
+            }
+        });
+        FutureTask<CacheEntry> existing = inFlight.putIfAbsent(key, task);
+        if (existing == null) {
+            misses.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        } else {
+            coalesced.incrementAndGet();
+            task = existing;
+        }
+        return getResult(task).getValidation();
+    }
+    
+    private CacheEntry validate(MessageContext mc, String authScheme, String authSchemeData) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = null;
+        try {
+            AccessTokenValidation validation = 
+                tokenValidator.validateAccessToken(mc, authScheme, authSchemeData);
+            long expiresAt = now + maxCacheTime * 1000;
+            if (validation != null && validation.getTokenLifetime() != -1) {
+                expiresAt = Math.min(expiresAt, 
+                    (validation.getTokenIssuedAt() + validation.getTokenLifetime()) * 1000);
+            }
+            entry = new CacheEntry(validation, null, validation != null ? expiresAt : now);
+        } catch (OAuthServiceException ex) {
+            entry = new CacheEntry(null, ex, now + negativeCacheTime * 1000);
+        } catch (WebApplicationException ex) {
+            if (!isClientError(ex)) {
+                // server errors are not about the token, the next request may succeed
+                throw ex;
+            }
+            entry = new CacheEntry(null, ex, now + negativeCacheTime * 1000);
+        }
+        if (entry.expiresAt > now) {
+            synchronized (cache) {
+                cache.put(authScheme + " " + authSchemeData, entry);
+            }
+        }
+        return entry;
+    }
+    
+    private static boolean isClientError(WebApplicationException ex) {
+        int status = ex.getResponse() != null ? ex.getResponse().getStatus() : 500;
+        return status >= 400 && status < 500;
+    }
+    
+    private CacheEntry getCachedEntry(String key) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+                cache.remove(key);
+                entry = null;
+            }
+            return entry;
+        }
+    }
+    
+    private static CacheEntry getResult(FutureTask<CacheEntry> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new OAuthServiceException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public void setTokenValidator(AccessTokenValidator tokenValidator) {
+        this.tokenValidator = tokenValidator;
+    }
+    
+    /**
+     * Sets the authorization schemes whose validation results are cached
+     * @param schemes the schemes, Bearer by default
+     */
+    public void setCachedAuthorizationSchemes(List<String> schemes) {
+        this.cachedSchemes = schemes;
+    }
+    
+    /**
+     * Sets the maximum time a valid token is cached for
+     * @param maxCacheTime the time in seconds, 300 by default
+     */
+    public void setMaxCacheTime(long maxCacheTime) {
+        this.maxCacheTime = maxCacheTime;
+    }
+    
+    /**
+     * Sets the time a failed validation is cached for
+     * @param negativeCacheTime the time in seconds, 10 by default, 0 disables the caching of failures
+     */
+    public void setNegativeCacheTime(long negativeCacheTime) {
+        this.negativeCacheTime = negativeCacheTime;
+    }
+    
+    /**
+     * Sets the maximum number of cached validation results, 
+     * the least recently used results are removed first 
+     * @param maxSize the maximum number of results
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+    
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+    
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    /**
+     * Returns the number of validations which waited for the result 
+     * of a concurrent validation of the same token 
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+    
+    private static class CacheEntry {
+        private final AccessTokenValidation validation;
+        private final RuntimeException failure;
+        private final long expiresAt;
+        
+        CacheEntry(AccessTokenValidation validation, RuntimeException failure, long expiresAt) {
+            this.validation = validation;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+        }
+        
+        AccessTokenValidation getValidation() {
+            if (failure != null) {
+                throw failure;
+            }
+            return validation;
+        }
+    }
+}
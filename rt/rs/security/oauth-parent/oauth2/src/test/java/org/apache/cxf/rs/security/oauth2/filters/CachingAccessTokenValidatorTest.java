@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.rs.security.oauth2.filters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.NotAuthorizedException;
+
+import org.apache.cxf.jaxrs.ext.MessageContext;
+import org.apache.cxf.rs.security.oauth2.common.AccessTokenValidation;
+import org.apache.cxf.rs.security.oauth2.provider.AccessTokenValidator;
+import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
+import org.apache.cxf.rs.security.oauth2.utils.OAuthConstants;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachingAccessTokenValidatorTest extends Assert {
+    
+    private static final String BEARER = OAuthConstants.BEARER_AUTHORIZATION_SCHEME;
+    
+    @Test
+    public void testValidTokenIsCached() {
+        CountingValidator delegate = new CountingValidator(3600);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        
+        AccessTokenValidation v1 = validator.validateAccessToken(null, BEARER, "valid1");
+        AccessTokenValidation v2 = validator.validateAccessToken(null, BEARER, "valid1");
+        assertSame(v1, v2);
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, validator.getMisses());
+        assertEquals(1, validator.getHits());
+        
+        validator.validateAccessToken(null, BEARER, "valid2");
+        assertEquals(2, delegate.calls.get());
+        assertEquals(2, validator.size());
+    }
+    
+    @Test
+    public void testExpiredTokenIsNotCached() {
+        CountingValidator delegate = new CountingValidator(0);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        
+        validator.validateAccessToken(null, BEARER, "valid");
+        validator.validateAccessToken(null, BEARER, "valid");
+        assertEquals(2, delegate.calls.get());
+        assertEquals(0, validator.size());
+    }
+    
+    @Test
+    public void testInvalidTokenIsCached() {
+        CountingValidator delegate = new CountingValidator(3600);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        for (int i = 0; i < 2; i++) {
+            try {
+                validator.validateAccessToken(null, BEARER, "invalid");
+                fail("OAuthServiceException expected");
+            } catch (OAuthServiceException ex) {
+                // expected
+            }
+        }
+        assertEquals(1, delegate.calls.get());
+        
+        validator.setNegativeCacheTime(0);
+        validator.clear();
+        for (int i = 0; i < 2; i++) {
+            try {
+                validator.validateAccessToken(null, BEARER, "invalid");
+                fail("OAuthServiceException expected");
+            } catch (OAuthServiceException ex) {
+                // expected
+            }
+        }
+        assertEquals(3, delegate.calls.get());
+    }
+    
+    @Test
+    public void testNotAuthorizedIsCached() {
+        CountingValidator delegate = new CountingValidator(3600);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        for (int i = 0; i < 2; i++) {
+            try {
+                validator.validateAccessToken(null, BEARER, "unauthorized");
+                fail("NotAuthorizedException expected");
+            } catch (NotAuthorizedException ex) {
+                // expected
+            }
+        }
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, validator.size());
+    }
+    
+    @Test
+    public void testServerErrorIsNotCached() {
+        CountingValidator delegate = new CountingValidator(3600);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        for (int i = 0; i < 2; i++) {
+            try {
+                validator.validateAccessToken(null, BEARER, "error");
+                fail("InternalServerErrorException expected");
+            } catch (InternalServerErrorException ex) {
+                // expected
+            }
+        }
+        assertEquals(2, delegate.calls.get());
+        assertEquals(0, validator.size());
+    }
+    
+    @Test
+    public void testUncachedScheme() {
+        CountingValidator delegate = new CountingValidator(3600);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        
+        validator.validateAccessToken(null, OAuthConstants.HAWK_AUTHORIZATION_SCHEME, "valid");
+        validator.validateAccessToken(null, OAuthConstants.HAWK_AUTHORIZATION_SCHEME, "valid");
+        assertEquals(2, delegate.calls.get());
+        assertEquals(0, validator.size());
+    }
+    
+    @Test
+    public void testMaxSize() {
+        CountingValidator delegate = new CountingValidator(3600);
+        CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        validator.setMaxSize(2);
+        
+        validator.validateAccessToken(null, BEARER, "valid1");
+        validator.validateAccessToken(null, BEARER, "valid2");
+        validator.validateAccessToken(null, BEARER, "valid1");
+        validator.validateAccessToken(null, BEARER, "valid3");
+        assertEquals(2, validator.size());
+        
+        // valid2 is the least recently used entry
+        validator.validateAccessToken(null, BEARER, "valid1");
+        assertEquals(3, delegate.calls.get());
+        validator.validateAccessToken(null, BEARER, "valid2");
+        assertEquals(4, delegate.calls.get());
+    }
+    
+    @Test
+    public void testConcurrentValidationsAreCoalesced() throws Exception {
+        final CountingValidator delegate = new CountingValidator(3600);
+        delegate.latch = new CountDownLatch(1);
+        final CachingAccessTokenValidator validator = new CachingAccessTokenValidator(delegate);
+        
+        final List<AccessTokenValidation> results = 
+            Collections.synchronizedList(new ArrayList<AccessTokenValidation>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 5; i++) {
+            Thread t = new Thread() {
+                public void run() {
+                    results.add(validator.validateAccessToken(null, BEARER, "valid"));
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+        while (validator.getMisses() + validator.getCoalesced() < 5) {
+            Thread.sleep(10);
+        }
+        delegate.latch.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        
+        assertEquals(5, results.size());
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, validator.getMisses());
+        assertEquals(4, validator.getCoalesced());
+        for (AccessTokenValidation v : results) {
+            assertSame(results.get(0), v);
+        }
+    }
+    
+    private static class CountingValidator implements AccessTokenValidator {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final long lifetime;
+        private volatile CountDownLatch latch;
+        
+        CountingValidator(long lifetime) {
+            this.lifetime = lifetime;
+        }
+        
+        public List<String> getSupportedAuthorizationSchemes() {
+            return Collections.singletonList(OAuthConstants.ALL_AUTH_SCHEMES);
+        }
+
+        public AccessTokenValidation validateAccessToken(MessageContext mc, String authScheme,
+                                                         String authSchemeData) {
+            calls.incrementAndGet();
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException ex) {
+                    throw new OAuthServiceException(ex);
+                }
+            }
+            if (authSchemeData.startsWith("invalid")) {
+                throw new OAuthServiceException("invalid token");
+            }
+            if (authSchemeData.startsWith("unauthorized")) {
+                // as reported by AccessTokenValidatorClient for an unknown token
+                throw new NotAuthorizedException("Bearer");
+            }
+            if (authSchemeData.startsWith("error")) {
+                throw new InternalServerErrorException();
+            }
+            AccessTokenValidation v = new AccessTokenValidation();
+            v.setTokenKey(authSchemeData);
+            v.setTokenIssuedAt(System.currentTimeMillis() / 1000 - 1);
+            v.setTokenLifetime(lifetime);
+            return v;
+        }
+    }
+}
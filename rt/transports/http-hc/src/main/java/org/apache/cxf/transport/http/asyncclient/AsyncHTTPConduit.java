@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import javax.net.ssl.HostnameVerifier;
@@ -213,6 +214,9 @@ public class AsyncHTTPConduit extends URLConnectionHTTPConduit {
         RequestConfig.Builder b = RequestConfig.custom()
             .setSocketTimeout((int) csPolicy.getReceiveTimeout())
             .setConnectTimeout((int) csPolicy.getConnectionTimeout());
+        if (factory.getConnectionRequestTimeout() > 0) {
+            b.setConnectionRequestTimeout(factory.getConnectionRequestTimeout());
+        }
         Proxy p = proxyFactory.createProxy(csPolicy , uri);
         if (p != null) {
             InetSocketAddress isa = (InetSocketAddress)p.address();
@@ -447,21 +451,31 @@ public class AsyncHTTPConduit extends URLConnectionHTTPConduit {
                 
             };
             
+            final HostStats stats = factory.getHostStats(url);
+            final AtomicBoolean exchangeFinished = new AtomicBoolean();
             FutureCallback<Boolean> callback = new FutureCallback<Boolean>() {
 
                 public void completed(Boolean result) {
+                    finishExchange(true);
                 }
                 
                 public void failed(Exception ex) {
+                    finishExchange(false);
                     setException(ex);
                     inbuf.shutdown();
                     outbuf.shutdown();
                 }
                 public void cancelled() {
+                    finishExchange(false);
                     inbuf.shutdown();
                     outbuf.shutdown();
                 }
                 
+                private void finishExchange(boolean success) {
+                    if (exchangeFinished.compareAndSet(false, true)) {
+                        stats.exchangeFinished(success);
+                    }
+                }
             };
             
             if (!output) {
@@ -548,10 +562,19 @@ public class AsyncHTTPConduit extends URLConnectionHTTPConduit {
                 ctx.setUserToken(creds.getUserPrincipal());
             }
 
-            c.execute(new CXFHttpAsyncRequestProducer(entity, outbuf),
-                      new CXFHttpAsyncResponseConsumer(this, inbuf, responseCallback),
-                      ctx,
-                      callback);
+            stats.exchangeStarted();
+            try {
+                c.execute(new CXFHttpAsyncRequestProducer(entity, outbuf),
+                          new CXFHttpAsyncResponseConsumer(this, inbuf, responseCallback),
+                          ctx,
+                          callback);
+            } catch (RuntimeException ex) {
+                //the exchange never started, don't leave it counted as active
+                if (exchangeFinished.compareAndSet(false, true)) {
+                    stats.exchangeFinished(false);
+                }
+                throw ex;
+            }
         }
         
         protected void retrySetHttpResponse(HttpResponse r) {
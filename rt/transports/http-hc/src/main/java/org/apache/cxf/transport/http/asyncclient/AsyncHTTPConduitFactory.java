@@ -20,7 +20,12 @@
 package org.apache.cxf.transport.http.asyncclient;
 
 import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.cxf.Bus;
@@ -34,6 +39,7 @@ import org.apache.cxf.transport.http.HTTPConduitFactory;
 import org.apache.cxf.transport.http.HTTPTransportFactory;
 import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolException;
@@ -42,6 +48,7 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.conn.DefaultSchemePortResolver;
@@ -58,6 +65,7 @@ import org.apache.http.nio.conn.SchemeIOSessionStrategy;
 import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 
 /**
@@ -77,6 +85,8 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
     public static final String MAX_PER_HOST_CONNECTIONS 
         = "org.apache.cxf.transport.http.async.MAX_PER_HOST_CONNECTIONS";
     public static final String CONNECTION_TTL = "org.apache.cxf.transport.http.async.CONNECTION_TTL";
+    public static final String CONNECTION_REQUEST_TIMEOUT 
+        = "org.apache.cxf.transport.http.async.CONNECTION_REQUEST_TIMEOUT";
     
     //AsycClient specific props
     public static final String THREAD_COUNT = "org.apache.cxf.transport.http.async.ioThreadCount";
@@ -99,6 +109,10 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
     int maxConnections = 5000;
     int maxPerRoute = 1000;
     int connectionTTL = 60000;
+    int connectionRequestTimeout = -1;
+    
+    final ConcurrentMap<String, HostStats> hostStats = new ConcurrentHashMap<String, HostStats>();
+    volatile long lastHostStatsPurge = System.currentTimeMillis();
 
     int ioThreadCount = IOReactorConfig.DEFAULT.getIoThreadCount();
     long selectInterval = IOReactorConfig.DEFAULT.getSelectInterval();
@@ -162,6 +176,7 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
         maxConnections = getInt(s.get(MAX_CONNECTIONS), maxConnections);
         connectionTTL = getInt(s.get(CONNECTION_TTL), connectionTTL);
         maxPerRoute = getInt(s.get(MAX_PER_HOST_CONNECTIONS), maxPerRoute);
+        connectionRequestTimeout = getInt(s.get(CONNECTION_REQUEST_TIMEOUT), connectionRequestTimeout);
 
         if (connectionManager != null) {
             connectionManager.setMaxTotal(maxConnections);
@@ -227,6 +242,61 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
         return isShutdown;
     }
     
+    /**
+     * @return the time in milliseconds an exchange waits for a pooled connection 
+     * once MAX_PER_HOST_CONNECTIONS connections to the host are in use, -1 for no limit
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+    
+    /**
+     * @return the exchange and connection statistics keyed by host URI (scheme://host:port).
+     * The statistics of a host are dropped once it has no exchanges and no pooled 
+     * connections left, at most CONNECTION_TTL after its last connection expired.
+     */
+    public Map<String, HostStats> getHostStats() {
+        return Collections.unmodifiableMap(hostStats);
+    }
+    
+    HostStats getHostStats(URI uri) {
+        boolean secure = "https".equals(uri.getScheme());
+        int port = uri.getPort();
+        if (port <= 0) {
+            port = secure ? 443 : 80;
+        }
+        HttpHost host = new HttpHost(uri.getHost(), port, uri.getScheme());
+        String key = host.toURI();
+        HostStats stats = hostStats.get(key);
+        if (stats == null) {
+            purgeIdleHostStats();
+            stats = new HostStats(this, new HttpRoute(host, null, secure));
+            HostStats existing = hostStats.putIfAbsent(key, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+    
+    private void purgeIdleHostStats() {
+        long now = System.currentTimeMillis();
+        if (now - lastHostStatsPurge < connectionTTL) {
+            return;
+        }
+        lastHostStatsPurge = now;
+        for (Iterator<HostStats> it = hostStats.values().iterator(); it.hasNext();) {
+            if (it.next().isIdle()) {
+                it.remove();
+            }
+        }
+    }
+    
+    PoolStats getPoolStats(HttpRoute route) {
+        PoolingNHttpClientConnectionManager cm = connectionManager;
+        return cm == null ? null : cm.getStats(route);
+    }
+    
     @Override
     public HTTPConduit createConduit(HTTPTransportFactory f,
                                      Bus bus,
@@ -251,6 +321,7 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
             connectionManager = null;
             client = null;
         }
+        hostStats.clear();
         isShutdown = true;
     }
 
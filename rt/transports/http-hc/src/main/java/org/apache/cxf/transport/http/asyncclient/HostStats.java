@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http.asyncclient;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Exchange and connection statistics for the direct route to a single host.
+ * Together with a small MAX_PER_HOST_CONNECTIONS this shows how many exchanges
+ * share the connections to the host and how many are waiting for one.
+ */
+public class HostStats {
+    private final AsyncHTTPConduitFactory factory;
+    private final HttpRoute route;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    HostStats(AsyncHTTPConduitFactory factory, HttpRoute route) {
+        this.factory = factory;
+        this.route = route;
+    }
+    
+    void exchangeStarted() {
+        int a = active.incrementAndGet();
+        int peak = peakActive.get();
+        while (a > peak && !peakActive.compareAndSet(peak, a)) {
+            peak = peakActive.get();
+        }
+    }
+    
+    void exchangeFinished(boolean success) {
+        active.decrementAndGet();
+        if (success) {
+            completed.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+    
+    /**
+     * @return the exchanges that have been sent and are waiting for a connection or a response
+     */
+    public int getActiveExchanges() {
+        return active.get();
+    }
+    
+    public int getPeakActiveExchanges() {
+        return peakActive.get();
+    }
+    
+    public long getCompletedExchanges() {
+        return completed.get();
+    }
+    
+    public long getFailedExchanges() {
+        return failed.get();
+    }
+    
+    /**
+     * @return the connections to the host currently carrying an exchange
+     */
+    public int getLeasedConnections() {
+        PoolStats stats = getPoolStats();
+        return stats == null ? 0 : stats.getLeased();
+    }
+    
+    /**
+     * @return the idle keep-alive connections to the host
+     */
+    public int getAvailableConnections() {
+        PoolStats stats = getPoolStats();
+        return stats == null ? 0 : stats.getAvailable();
+    }
+    
+    /**
+     * @return the exchanges waiting for a connection to the host to become available
+     */
+    public int getPendingExchanges() {
+        PoolStats stats = getPoolStats();
+        return stats == null ? 0 : stats.getPending();
+    }
+    
+    /**
+     * @return true if no exchange is in progress and the pool for the route holds 
+     * no connections
+     */
+    boolean isIdle() {
+        if (active.get() > 0) {
+            return false;
+        }
+        PoolStats stats = getPoolStats();
+        return stats == null 
+            || stats.getLeased() + stats.getAvailable() + stats.getPending() == 0;
+    }
+    
+    private PoolStats getPoolStats() {
+        return factory.getPoolStats(route);
+    }
+    
+    public String toString() {
+        return route.getTargetHost().toURI() 
+            + " [active: " + getActiveExchanges()
+            + "; peak: " + getPeakActiveExchanges()
+            + "; completed: " + getCompletedExchanges()
+            + "; failed: " + getFailedExchanges()
+            + "; leased: " + getLeasedConnections()
+            + "; available: " + getAvailableConnections()
+            + "; pending: " + getPendingExchanges() + "]";
+    }
+}
@@ -19,7 +19,9 @@
 
 package org.apache.cxf.transport.http.asyncclient;
 
+import java.net.URI;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -174,6 +176,41 @@ public class AsyncHTTPConduitTest extends AbstractBusClientServerTestBase {
         c.setClient(cp);
         assertEquals("Hello " + request, g.greetMe(request));
     }
+    @Test
+    public void testHostStats() throws Exception {
+        updateAddressPort(g, PORT);
+        AsyncHTTPConduitFactory hcf = (AsyncHTTPConduitFactory)getStaticBus()
+            .getExtension(HTTPConduitFactory.class);
+        for (int x = 0; x < 3; x++) {
+            assertEquals("Hello " + request, g.greetMe(request));
+        }
+        HostStats stats = hcf.getHostStats().get("http://localhost:" + PORT);
+        assertNotNull(stats);
+        for (int x = 0; x < 50 && stats.getActiveExchanges() > 0; x++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, stats.getActiveExchanges());
+        assertTrue(stats.getCompletedExchanges() >= 3);
+        assertTrue(stats.getPeakActiveExchanges() >= 1);
+        assertEquals(0, stats.getLeasedConnections());
+        assertTrue(stats.getAvailableConnections() >= 1);
+    }
+    
+    @Test
+    public void testIdleHostStatsDropped() throws Exception {
+        AsyncHTTPConduitFactory hcf = new AsyncHTTPConduitFactory(new HashMap<String, Object>());
+        hcf.connectionTTL = 0;
+        HostStats busy = hcf.getHostStats(new URI("http://busy.example.com/"));
+        busy.exchangeStarted();
+        hcf.getHostStats(new URI("http://idle.example.com/"));
+        assertEquals(2, hcf.getHostStats().size());
+        
+        hcf.getHostStats(new URI("http://other.example.com/"));
+        assertEquals(2, hcf.getHostStats().size());
+        assertSame(busy, hcf.getHostStats().get("http://busy.example.com:80"));
+        assertNull(hcf.getHostStats().get("http://idle.example.com:80"));
+    }
+    
     @Test
     public void testCallAsync() throws Exception {
         updateAddressPort(g, PORT);
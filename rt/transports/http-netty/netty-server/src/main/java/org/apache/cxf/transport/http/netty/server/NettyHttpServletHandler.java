@@ -28,6 +28,7 @@ import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.transport.http.netty.server.interceptor.NettyInterceptor;
+import org.apache.cxf.transport.http.netty.server.servlet.ChannelThreadLocal;
 import org.apache.cxf.transport.http.netty.server.servlet.NettyHttpServletRequest;
 import org.apache.cxf.transport.http.netty.server.servlet.NettyServletResponse;
 
@@ -50,11 +51,16 @@ import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.timeout.IdleState;
+import io.netty.util.AttributeKey;
 import io.netty.util.CharsetUtil;
 
 public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
     private static final Logger LOG =
             LogUtils.getL7dLogger(NettyHttpServletHandler.class);
+    
+    // the response of the request in progress on the channel
+    private static final AttributeKey<NettyServletResponse> RESPONSE_KEY 
+        = AttributeKey.valueOf(NettyHttpServletHandler.class.getName() + ".response");
    
     private final ChannelGroup allChannels;
 
@@ -120,37 +126,56 @@ public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
         ctx.flush();
     }
    
-    protected void handleHttpServletRequest(ChannelHandlerContext ctx,
+    protected void handleHttpServletRequest(final ChannelHandlerContext ctx,
                                             HttpRequest request, NettyHttpContextHandler nettyHttpContextHandler)
         throws Exception {
 
         interceptOnRequestReceived(ctx, request);
         
-        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        final FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        final boolean keepAlive = HttpHeaders.isKeepAlive(request);
 
         NettyServletResponse nettyServletResponse = buildHttpServletResponse(response);
+        nettyServletResponse.setChannelContext(ctx, new Runnable() {
+            public void run() {
+                interceptOnRequestSuccessed(ctx, response);
+                // the invocation is still running and may ask for the channel addresses
+                ChannelThreadLocal.set(ctx.channel());
+                if (keepAlive) {
+                    response.headers().set(Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+                }
+            }
+        });
+        ctx.channel().attr(RESPONSE_KEY).set(nettyServletResponse);
         NettyHttpServletRequest nettyServletRequest = 
             buildHttpServletRequest(request, nettyHttpContextHandler.getContextPath(), ctx);
 
         nettyHttpContextHandler.handle(nettyServletRequest.getRequestURI(), nettyServletRequest, nettyServletResponse);
-        interceptOnRequestSuccessed(ctx, response);
-
-        nettyServletResponse.getWriter().flush();
-
-        boolean keepAlive = HttpHeaders.isKeepAlive(request);
-
-        if (keepAlive) {
-            // Add 'Content-Length' header only for a keep-alive connection.
-            response.headers().set(Names.CONTENT_LENGTH, response.content().readableBytes());
-            // Add keep alive header as per:
-            // -
-            // http://www.w3.org/Protocols/HTTP/1.1/draft-ietf-http-v11-spec-01.html#Connection
-            response.headers().set(Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+        ctx.channel().attr(RESPONSE_KEY).remove();
+        
+        ChannelFuture future;
+        if (nettyServletResponse.isChunked()) {
+            // the status and the headers went out with the first chunk
+            ChannelThreadLocal.unset();
+            future = nettyServletResponse.writeLastChunk();
+        } else {
+            interceptOnRequestSuccessed(ctx, response);
+    
+            nettyServletResponse.getWriter().flush();
+    
+            if (keepAlive) {
+                // Add 'Content-Length' header only for a keep-alive connection.
+                response.headers().set(Names.CONTENT_LENGTH, response.content().readableBytes());
+                // Add keep alive header as per:
+                // -
+                // http://www.w3.org/Protocols/HTTP/1.1/draft-ietf-http-v11-spec-01.html#Connection
+                response.headers().set(Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+            }
+    
+            // write response...
+            future = ctx.write(response);
         }
 
-        // write response...
-        ChannelFuture future = ctx.write(response);
-
         if (!keepAlive) {
             future.addListener(ChannelFutureListener.CLOSE);
         }
@@ -166,8 +191,11 @@ public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
         interceptOnRequestFailed(ctx, cause);
 
         Channel ch = ctx.channel();
-        if (cause instanceof IllegalArgumentException) {
-
+        NettyServletResponse nettyServletResponse = ch.attr(RESPONSE_KEY).getAndRemove();
+        if (cause instanceof IllegalArgumentException
+            || nettyServletResponse != null && nettyServletResponse.isChunked()) {
+            // the status and part of the body have already gone out, closing the channel
+            // without the last chunk tells the client that the response is incomplete
             ch.close();
 
         } else {
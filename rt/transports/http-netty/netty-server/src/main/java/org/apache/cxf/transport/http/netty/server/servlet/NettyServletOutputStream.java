@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import javax.servlet.ServletOutputStream;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufOutputStream;
 import io.netty.handler.codec.http.HttpContent;
 
@@ -31,25 +32,55 @@ public class NettyServletOutputStream extends ServletOutputStream {
     private ByteBufOutputStream out;
 
     private boolean flushed;
+    
+    private final NettyServletResponse response;
 
     public NettyServletOutputStream(HttpContent httpContent) {
+        this(httpContent, null);
+    }
+    
+    NettyServletOutputStream(HttpContent httpContent, NettyServletResponse response) {
         this.out = new ByteBufOutputStream(httpContent.content());
+        this.response = response;
     }
 
     @Override
     public void write(int b) throws IOException {
+        checkBuffer();
         this.out.write(b);
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-        this.out.write(b);
+        write(b, 0, b.length);
     }
 
     @Override
     public void write(byte[] b, int offset, int len) throws IOException {
+        if (len > 0) {
+            checkBuffer();
+        }
         this.out.write(b, offset, len);
     }
+    
+    private void checkBuffer() throws IOException {
+        // more content follows a full buffer, so hand the buffer to the channel as a 
+        // chunk and carry on in a new one. A body that ends with the buffer is still 
+        // written as a whole with its Content-Length.
+        if (response != null && response.isStreaming() 
+            && out.buffer().readableBytes() >= response.getBufferSize()) {
+            ByteBuf chunk = out.buffer();
+            out = new ByteBufOutputStream(chunk.alloc().buffer(response.getBufferSize()));
+            response.writeChunk(chunk);
+        }
+    }
+    
+    /**
+     * @return the buffered content not yet written as a chunk
+     */
+    ByteBuf getBuffer() {
+        return out.buffer();
+    }
 
     @Override
     public void flush() throws IOException {
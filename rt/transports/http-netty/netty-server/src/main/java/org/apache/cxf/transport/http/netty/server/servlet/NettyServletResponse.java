@@ -20,6 +20,7 @@
 package org.apache.cxf.transport.http.netty.server.servlet;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
@@ -28,8 +29,15 @@ import java.util.Locale;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.ClientCookieEncoder;
 import io.netty.handler.codec.http.Cookie;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponse;
@@ -40,6 +48,8 @@ import static io.netty.handler.codec.http.HttpHeaders.Names.SET_COOKIE;
 
 
 public class NettyServletResponse implements HttpServletResponse {
+    
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
 
     private HttpResponse originalResponse;
 
@@ -48,12 +58,105 @@ public class NettyServletResponse implements HttpServletResponse {
     private PrintWriter writer;
 
     private boolean responseCommited;
+    
+    private ChannelHandlerContext ctx;
+    
+    private Runnable commitListener;
+    
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    
+    private boolean chunked;
 
     public NettyServletResponse(HttpResponse response) {
+        this(response, null);
+    }
+    
+    /**
+     * Creates a response that writes its content to the channel as chunks once 
+     * it outgrows the buffer size, rather than holding the whole content in memory.
+     * 
+     * @param response the response holding the status, the headers and the buffered content 
+     * @param ctx the context used to write the chunks, null to always buffer the whole content
+     */
+    public NettyServletResponse(HttpResponse response, ChannelHandlerContext ctx) {
         this.originalResponse = response;
-        this.outputStream = new NettyServletOutputStream((HttpContent)response);
+        this.ctx = ctx;
+        this.outputStream = new NettyServletOutputStream((HttpContent)response, this);
         this.writer = new PrintWriter(this.outputStream);
     }
+    
+    /**
+     * Makes the response write its content to the channel as chunks once it outgrows
+     * the buffer size.
+     * 
+     * @param context the context used to write the chunks, null to always buffer the whole content
+     * @param beforeCommit run just before the status and the headers are written, may be null
+     */
+    public void setChannelContext(ChannelHandlerContext context, Runnable beforeCommit) {
+        this.ctx = context;
+        this.commitListener = beforeCommit;
+    }
+    
+    boolean isStreaming() {
+        return ctx != null;
+    }
+    
+    /**
+     * @return true if the status and the headers have been written to the channel
+     * and the content is being written as chunks
+     */
+    public boolean isChunked() {
+        return chunked;
+    }
+    
+    /**
+     * Called just before the status and the headers are written to the channel.
+     */
+    protected void prepareCommit() {
+        if (commitListener != null) {
+            commitListener.run();
+        }
+    }
+    
+    void writeChunk(ByteBuf content) throws IOException {
+        if (!chunked) {
+            prepareCommit();
+            HttpResponse head = new DefaultHttpResponse(originalResponse.getProtocolVersion(),
+                                                        originalResponse.getStatus());
+            head.headers().set(originalResponse.headers());
+            if (!HttpHeaders.isContentLengthSet(head)) {
+                HttpHeaders.setTransferEncodingChunked(head);
+            }
+            ctx.write(head);
+            chunked = true;
+            responseCommited = true;
+        }
+        // the promise completes on the event loop, so this thread can wait for it
+        ChannelPromise promise = ctx.channel().newPromise();
+        ctx.writeAndFlush(new DefaultHttpContent(content), promise);
+        if (!ctx.channel().isWritable()) {
+            // let the client catch up rather than queueing the whole content in memory
+            try {
+                promise.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        if (promise.cause() != null) {
+            throw new IOException(promise.cause());
+        }
+    }
+    
+    /**
+     * Writes the content left in the buffer as the last chunk.
+     * 
+     * @return the future of the write
+     */
+    public ChannelFuture writeLastChunk() {
+        writer.flush();
+        return ctx.writeAndFlush(new DefaultLastHttpContent(outputStream.getBuffer()));
+    }
 
     public HttpResponse getOriginalResponse() {
         return originalResponse;
@@ -173,12 +276,17 @@ public class NettyServletResponse implements HttpServletResponse {
 
     @Override
     public int getBufferSize() {
-        return this.outputStream.getBufferSize();
+        return isStreaming() ? bufferSize : this.outputStream.getBufferSize();
     }
 
     @Override
     public void setBufferSize(int size) {
-        // we using always dynamic buffer for now
+        if (isCommitted()) {
+            throw new IllegalStateException("Response already commited!");
+        }
+        if (size > 0) {
+            bufferSize = size;
+        }
     }
 
     public String encodeRedirectURL(String url) {
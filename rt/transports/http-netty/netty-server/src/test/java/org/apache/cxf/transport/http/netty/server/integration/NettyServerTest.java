@@ -21,6 +21,7 @@ package org.apache.cxf.transport.http.netty.server.integration;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import javax.xml.ws.Endpoint;
 import org.apache.cxf.Bus;
@@ -86,5 +87,25 @@ public class NettyServerTest extends AbstractBusClientServerTestBase {
         String result = bos.toString();
         assertTrue("Expect the SOAPService", result.indexOf("<service name=\"SOAPService\">") > 0);
     }
+    
+    @Test
+    public void testLargeResponseIsChunked() throws Exception {
+        URL url = new URL("http://localhost:" + PORT + "/SoapContext/SoapPort?wsdl");
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+        assertNull(connection.getHeaderField("Content-Length"));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        IOUtils.copyAndCloseInput(connection.getInputStream(), bos);
+        String result = bos.toString();
+        assertTrue("Expect the whole wsdl", result.trim().endsWith("definitions>"));
+        
+        updateAddressPort(g, PORT);
+        StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < 2000; x++) {
+            builder.append("NaNaNa ");
+        }
+        assertEquals("Hello " + builder, g.greetMe(builder.toString()));
+    }
 
 }
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http.netty.server.servlet;
+
+import java.io.OutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+
+public class NettyServletResponseTest extends Assert {
+    
+    @Test
+    public void testBodyEndingWithTheBufferIsNotChunked() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        NettyServletResponse servletResponse = createResponse(response, channel);
+        
+        OutputStream out = servletResponse.getOutputStream();
+        out.write(new byte[servletResponse.getBufferSize() * 2]);
+        out.flush();
+        assertFalse(servletResponse.isChunked());
+        assertNull(channel.readOutbound());
+        assertEquals(servletResponse.getBufferSize() * 2, response.content().readableBytes());
+    }
+    
+    @Test
+    public void testMoreContentAfterAFullBufferIsChunked() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        NettyServletResponse servletResponse = createResponse(response, channel);
+        
+        OutputStream out = servletResponse.getOutputStream();
+        int size = servletResponse.getBufferSize();
+        out.write(new byte[size]);
+        assertFalse(servletResponse.isChunked());
+        out.write(1);
+        assertTrue(servletResponse.isChunked());
+        servletResponse.writeLastChunk();
+        
+        assertTrue(channel.readOutbound() instanceof HttpResponse);
+        assertEquals(size, ((HttpContent)channel.readOutbound()).content().readableBytes());
+        LastHttpContent last = (LastHttpContent)channel.readOutbound();
+        assertEquals(1, last.content().readableBytes());
+    }
+    
+    private static NettyServletResponse createResponse(FullHttpResponse response, EmbeddedChannel channel) {
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        NettyServletResponse servletResponse = new NettyServletResponse(response);
+        servletResponse.setChannelContext(ctx, null);
+        return servletResponse;
+    }
+}
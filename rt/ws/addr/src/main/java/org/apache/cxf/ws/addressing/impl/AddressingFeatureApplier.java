@@ -19,9 +19,29 @@
 
 package org.apache.cxf.ws.addressing.impl;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.ClientLifeCycleListener;
+import org.apache.cxf.endpoint.ClientLifeCycleManager;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.endpoint.ServerLifeCycleListener;
+import org.apache.cxf.endpoint.ServerLifeCycleManager;
 import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.ws.addressing.MessageIdCache;
 import org.apache.cxf.ws.addressing.WSAddressingFeature;
 import org.apache.cxf.ws.addressing.soap.MAPCodec;
 
@@ -31,6 +51,7 @@ import org.apache.cxf.ws.addressing.soap.MAPCodec;
  */
 @NoJSR250Annotations
 public class AddressingFeatureApplier implements WSAddressingFeature.WSAddressingFeatureApplier {
+    private static final Logger LOG = LogUtils.getL7dLogger(AddressingFeatureApplier.class);
 
     public void initializeProvider(WSAddressingFeature feature, InterceptorProvider provider, Bus bus) {
         MAPCodec mapCodec = new MAPCodec();
@@ -43,6 +64,9 @@ public class AddressingFeatureApplier implements WSAddressingFeature.WSAddressin
             mapAggregator.setMessageIdCache(feature.getMessageIdCache());
         }
         mapAggregator.setAddressingResponses(feature.getResponses());
+        if (bus != null) {
+            manageMessageIdCache(mapAggregator.getMessageIdCache(), provider, bus);
+        }
         
         provider.getInInterceptors().add(mapAggregator);
         provider.getInInterceptors().add(mapCodec);
@@ -56,5 +80,124 @@ public class AddressingFeatureApplier implements WSAddressingFeature.WSAddressin
         provider.getOutFaultInterceptors().add(mapAggregator);
         provider.getOutFaultInterceptors().add(mapCodec);
     }
+    
+    private void manageMessageIdCache(MessageIdCache messageIdCache, InterceptorProvider provider, Bus bus) {
+        if (!(messageIdCache instanceof DefaultMessageIdCache)) {
+            return;
+        }
+        DefaultMessageIdCache cache = (DefaultMessageIdCache)messageIdCache;
+        CacheManagement management;
+        synchronized (cache) {
+            management = cache.management;
+            if (management == null) {
+                management = new CacheManagement(cache, bus);
+                cache.management = management;
+            }
+        }
+        management.addUser(provider);
+    }
+    
+    /**
+     * Registers the MBean and the listeners of a DefaultMessageIdCache once, however many
+     * endpoints and clients use the cache, and removes them when the last of them goes away.
+     */
+    static final class CacheManagement 
+        implements ServerLifeCycleListener, ClientLifeCycleListener, BusLifeCycleListener {
+        private final DefaultMessageIdCache cache;
+        private final Bus bus;
+        private final Set<Object> users = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        private ObjectName objectName;
+        
+        CacheManagement(DefaultMessageIdCache cache, Bus bus) {
+            this.cache = cache;
+            this.bus = bus;
+            InstrumentationManager im = bus.getExtension(InstrumentationManager.class);
+            if (im != null) {
+                try {
+                    objectName = im.register(new ManagedMessageIdCache(cache, bus));
+                } catch (JMException jmex) {
+                    LOG.log(Level.WARNING, "Registering ManagedMessageIdCache failed.", jmex);
+                }
+            }
+            ServerLifeCycleManager slcm = bus.getExtension(ServerLifeCycleManager.class);
+            if (slcm != null) {
+                slcm.registerListener(this);
+            }
+            ClientLifeCycleManager clcm = bus.getExtension(ClientLifeCycleManager.class);
+            if (clcm != null) {
+                clcm.registerListener(this);
+            }
+            BusLifeCycleManager blcm = bus.getExtension(BusLifeCycleManager.class);
+            if (blcm != null) {
+                blcm.registerLifeCycleListener(this);
+            }
+        }
+        
+        synchronized void addUser(Object provider) {
+            users.add(provider);
+        }
+        
+        void removeUser(Object provider) {
+            synchronized (this) {
+                if (!users.remove(provider) || !users.isEmpty()) {
+                    return;
+                }
+            }
+            synchronized (cache) {
+                if (cache.management == this) {
+                    cache.management = null;
+                }
+            }
+            cache.save();
+            unregister();
+        }
+        
+        private void unregister() {
+            InstrumentationManager im = bus.getExtension(InstrumentationManager.class);
+            if (im != null && objectName != null) {
+                try {
+                    im.unregister(objectName);
+                } catch (JMException jmex) {
+                    LOG.log(Level.FINE, "Unregistering ManagedMessageIdCache failed.", jmex);
+                }
+            }
+            ServerLifeCycleManager slcm = bus.getExtension(ServerLifeCycleManager.class);
+            if (slcm != null) {
+                slcm.unRegisterListener(this);
+            }
+            ClientLifeCycleManager clcm = bus.getExtension(ClientLifeCycleManager.class);
+            if (clcm != null) {
+                clcm.unRegisterListener(this);
+            }
+            BusLifeCycleManager blcm = bus.getExtension(BusLifeCycleManager.class);
+            if (blcm != null) {
+                blcm.unregisterLifeCycleListener(this);
+            }
+        }
+        
+        public void startServer(Server server) {
+            // nothing to do
+        }
+        public void stopServer(Server server) {
+            removeUser(server.getEndpoint());
+        }
+        
+        public void clientCreated(Client client) {
+            // nothing to do
+        }
+        public void clientDestroyed(Client client) {
+            removeUser(client);
+        }
+        
+        public void initComplete() {
+            // nothing to do
+        }
+        public void preShutdown() {
+            cache.save();
+        }
+        public void postShutdown() {
+            // nothing to do
+        }
+    }
 
 }
@@ -16,32 +16,324 @@
  * specific language governing permissions and limitations
  * under the License.
  */
+
 package org.apache.cxf.ws.addressing.impl;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.ws.addressing.MessageIdCache;
 
 /**
- * An implementation that uses a simple set to store received message IDs.
- * Note that this implementation does not make any attempt to flush older
- * message IDs or to persist the message IDs outside of this instance. 
+ * An implementation that keeps the received message IDs for a configurable 
+ * time window and up to a configurable number of IDs.
+ * <p>
+ * The IDs are stored in a ring of time buckets, each covering a slice of the
+ * time window. Once a bucket falls out of the window it is cleared and reused
+ * for the current slice, so expiring old IDs never requires scanning them.
+ * If the maximum size is reached before the window elapses, the oldest 
+ * bucket is evicted early. The bucket of the current slice is never evicted,
+ * so the maximum size can be exceeded by the IDs received in one slice.
+ * <p>
+ * Optionally the IDs can be saved to and restored from a local file so that 
+ * duplicates are still detected after a restart. 
  */
 public class DefaultMessageIdCache implements MessageIdCache {
     
     /**
-     * The set of message IDs.
+     * The default time window of one hour.
      */
-    private final Map<String, Boolean> messageIdSet = 
-        new ConcurrentHashMap<String, Boolean>();  
+    public static final long DEFAULT_TIME_WINDOW = 60L * 60L * 1000L;
+    
+    /**
+     * The default maximum number of message IDs.
+     */
+    public static final int DEFAULT_MAX_SIZE = 100000;
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(DefaultMessageIdCache.class);
+    private static final int BUCKET_COUNT = 16;
+    
+    /**
+     * The MBean and listener registration shared by the endpoints and clients using this cache.
+     */
+    AddressingFeatureApplier.CacheManagement management;
+    
+    /**
+     * The ring of message ID sets, and the time slice each of them belongs to.
+     */
+    private final Map<String, Boolean>[] buckets;
+    private final long[] bucketSlices;
+    private volatile long currentSlice = -1;
+    
+    private long timeWindow = DEFAULT_TIME_WINDOW;
+    private long sliceLength = DEFAULT_TIME_WINDOW / (BUCKET_COUNT - 1);
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private File persistenceFile;
+    private volatile boolean loaded;
+    
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    @SuppressWarnings("unchecked")
+    public DefaultMessageIdCache() {
+        buckets = new Map[BUCKET_COUNT];
+        bucketSlices = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new ConcurrentHashMap<String, Boolean>();
+        }
+    }
     
     public boolean checkUniquenessAndCacheId(String messageId) {
-        return this.messageIdSet.put(messageId, Boolean.TRUE) == null;
+        if (!loaded) {
+            load();
+        }
+        Map<String, Boolean> current = getCurrentBucket(System.currentTimeMillis());
+        for (Map<String, Boolean> bucket : buckets) {
+            if (bucket != current && bucket.containsKey(messageId)) {
+                duplicateCount.incrementAndGet();
+                return false;
+            }
+        }
+        if (current.put(messageId, Boolean.TRUE) != null) {
+            duplicateCount.incrementAndGet();
+            return false;
+        }
+        if (size.incrementAndGet() > maxSize) {
+            evictOldest();
+        }
+        return true;
+    }
+    
+    /**
+     * Sets the time in milliseconds a message ID is remembered for.
+     * @param timeWindow the time window in milliseconds
+     */
+    public synchronized void setTimeWindow(long timeWindow) {
+        if (timeWindow <= 0) {
+            throw new IllegalArgumentException("Time window must be positive");
+        }
+        this.timeWindow = timeWindow;
+        this.sliceLength = Math.max(1, timeWindow / (BUCKET_COUNT - 1));
+        clear();
+    }
+    
+    public long getTimeWindow() {
+        return timeWindow;
+    }
+    
+    /**
+     * Sets the maximum number of message IDs remembered. 
+     * @param maxSize the maximum number of message IDs
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Sets the file the message IDs are restored from on first use and 
+     * saved to by {@link #save()}.
+     * @param persistenceFile the file
+     */
+    public void setPersistenceFile(File persistenceFile) {
+        this.persistenceFile = persistenceFile;
+        this.loaded = false;
+    }
+    
+    public File getPersistenceFile() {
+        return persistenceFile;
+    }
+    
+    /**
+     * @return the number of message IDs currently remembered
+     */
+    public int getSize() {
+        return size.get();
+    }
+    
+    /**
+     * @return the number of duplicate message IDs detected
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+    
+    /**
+     * @return the number of message IDs evicted because they fell out of the 
+     *         time window or the maximum size was reached
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+    
+    /**
+     * Removes all the message IDs.
+     */
+    public synchronized void clear() {
+        for (Map<String, Boolean> bucket : buckets) {
+            bucket.clear();
+        }
+        size.set(0);
+        currentSlice = -1;
+    }
+    
+    /**
+     * Saves the message IDs still in the time window to the persistence file, 
+     * if one is configured.
+     */
+    public synchronized void save() {
+        if (persistenceFile == null) {
+            return;
+        }
+        getCurrentBucket(System.currentTimeMillis());
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(persistenceFile), "UTF-8"));
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                String time = Long.toString(bucketSlices[i] * sliceLength);
+                for (String messageId : buckets[i].keySet()) {
+                    writer.write(time);
+                    writer.write(' ');
+                    writer.write(messageId);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Message IDs could not be saved to " + persistenceFile, ex);
+        } finally {
+            close(writer);
+        }
     }
     
     protected Set<String> getMessageIdSet() {
-        return this.messageIdSet.keySet();
+        Set<String> ids = new HashSet<String>();
+        for (Map<String, Boolean> bucket : buckets) {
+            ids.addAll(bucket.keySet());
+        }
+        return ids;
+    }
+    
+    private Map<String, Boolean> getCurrentBucket(long time) {
+        long slice = time / sliceLength;
+        if (slice != currentSlice) {
+            rotate(slice);
+        }
+        return buckets[(int)(currentSlice % BUCKET_COUNT)];
+    }
+    
+    private synchronized void rotate(long slice) {
+        if (slice <= currentSlice) {
+            // another thread has already rotated, or the clock went back
+            return;
+        }
+        int remaining = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (bucketSlices[i] <= slice - BUCKET_COUNT || currentSlice == -1) {
+                evict(i);
+            } else {
+                remaining += buckets[i].size();
+            }
+        }
+        bucketSlices[(int)(slice % BUCKET_COUNT)] = slice;
+        size.set(remaining);
+        currentSlice = slice;
+    }
+    
+    private synchronized void evictOldest() {
+        // never evict the bucket being filled, or the IDs just seen could be replayed
+        int current = (int)(currentSlice % BUCKET_COUNT);
+        int oldest = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (i != current && !buckets[i].isEmpty() 
+                && (oldest == -1 || bucketSlices[i] < bucketSlices[oldest])) {
+                oldest = i;
+            }
+        }
+        if (oldest != -1) {
+            evict(oldest);
+        }
+        int remaining = 0;
+        for (Map<String, Boolean> bucket : buckets) {
+            remaining += bucket.size();
+        }
+        size.set(remaining);
+    }
+    
+    private void evict(int index) {
+        Map<String, Boolean> bucket = buckets[index];
+        if (!bucket.isEmpty()) {
+            evictionCount.addAndGet(bucket.size());
+            bucket.clear();
+        }
+    }
+    
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (persistenceFile == null || !persistenceFile.exists()) {
+            return;
+        }
+        getCurrentBucket(System.currentTimeMillis());
+        long current = currentSlice;
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(persistenceFile), "UTF-8"));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int sep = line.indexOf(' ');
+                if (sep <= 0) {
+                    continue;
+                }
+                long slice = Long.parseLong(line.substring(0, sep)) / sliceLength;
+                if (slice > current - BUCKET_COUNT && slice <= current) {
+                    int index = (int)(slice % BUCKET_COUNT);
+                    bucketSlices[index] = slice;
+                    if (buckets[index].put(line.substring(sep + 1), Boolean.TRUE) == null) {
+                        size.incrementAndGet();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Message IDs could not be restored from " + persistenceFile, ex);
+        } catch (NumberFormatException ex) {
+            LOG.log(Level.WARNING, "Message IDs could not be restored from " + persistenceFile, ex);
+        } finally {
+            close(reader);
+        }
+    }
+    
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
     }
 }
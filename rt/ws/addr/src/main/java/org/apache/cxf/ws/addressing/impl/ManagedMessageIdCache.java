@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.impl;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+/**
+ * The ManagedMessageIdCache is a JMX managed bean for DefaultMessageIdCache.
+ */
+@ManagedResource(componentName = "MessageIdCache", 
+                 description = "Remembers the received WS-Addressing message IDs.")
+public class ManagedMessageIdCache implements ManagedComponent {
+
+    private final DefaultMessageIdCache cache;
+    private final Bus bus;
+    
+    public ManagedMessageIdCache(DefaultMessageIdCache cache, Bus bus) {
+        this.cache = cache;
+        this.bus = bus;
+    }
+    
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(bus.getId()).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append("=WSA.MessageIdCache,");
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(cache.hashCode());
+        return new ObjectName(buffer.toString());
+    }
+    
+    @ManagedAttribute(description = "Number of Message IDs", currencyTimeLimit = 10)
+    public int getSize() {
+        return cache.getSize();
+    }
+    
+    @ManagedAttribute(description = "Maximum Number of Message IDs")
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+    
+    @ManagedAttribute(description = "Time Window in Milliseconds")
+    public long getTimeWindow() {
+        return cache.getTimeWindow();
+    }
+    
+    @ManagedAttribute(description = "Number of Duplicate Message IDs Detected", currencyTimeLimit = 10)
+    public long getDuplicateCount() {
+        return cache.getDuplicateCount();
+    }
+    
+    @ManagedAttribute(description = "Number of Evicted Message IDs", currencyTimeLimit = 10)
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+    
+    @ManagedOperation(description = "Remove all the Message IDs")
+    public void clear() {
+        cache.clear();
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cxf.ws.addressing.soap;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -34,6 +35,8 @@ import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
@@ -46,6 +49,7 @@ import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.SoapVersion;
 import org.apache.cxf.binding.soap.interceptor.AbstractSoapInterceptor;
 import org.apache.cxf.binding.soap.interceptor.SoapActionInInterceptor;
+import org.apache.cxf.binding.soap.interceptor.StreamingHeaderConsumer;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.headers.Header;
@@ -74,13 +78,21 @@ import org.apache.cxf.ws.addressing.VersionTransformer.Names200408;
  * SOAP interceptor responsible for {en|de}coding the Message Addressing 
  * Properties for {outgo|incom}ing messages.
  */
-public class MAPCodec extends AbstractSoapInterceptor {
+public class MAPCodec extends AbstractSoapInterceptor implements StreamingHeaderConsumer {
 
     private static final Logger LOG = LogUtils.getL7dLogger(MAPCodec.class);
     private static final String IS_REFERENCE_PARAM_ATTR_NAME = "IsReferenceParameter";
     private static final ResourceBundle BUNDLE = LOG.getResourceBundle();
     private static final String DECOUPLED_FAULT_SUPPORT = 
         "org.apache.cxf.ws.addressing.decoupled_fault_support";
+    private static final String STREAM_UNMARSHALLER = 
+        MAPCodec.class.getName() + ".StreamUnmarshaller";
+    private static final Set<QName> STREAMED_HEADERS;
+    static {
+        Set<QName> headers = new HashSet<QName>(Names.HEADERS);
+        headers.add(Names.WSA_RELATESTO_QNAME);
+        STREAMED_HEADERS = Collections.unmodifiableSet(headers);
+    }
     
     /**
      * REVISIT: map usage that the *same* interceptor instance 
@@ -88,6 +100,9 @@ public class MAPCodec extends AbstractSoapInterceptor {
      */
     protected final Map<String, Exchange> uncorrelatedExchanges 
         = new ConcurrentHashMap<String, Exchange>();
+    
+    private final Map<JAXBContext, JAXBDataBinding> dataBindings
+        = new ConcurrentHashMap<JAXBContext, JAXBDataBinding>();
 
     private VersionTransformer transformer;
     private HeaderFactory headerFactory;
@@ -111,6 +126,42 @@ public class MAPCodec extends AbstractSoapInterceptor {
         return VersionTransformer.HEADERS;
     }
     
+    /**
+     * @return the native version MAP headers that are unmarshalled straight
+     * from the stream when the SOAP headers are streamed
+     */
+    public Set<QName> getStreamedHeaders(SoapMessage message) {
+        return STREAMED_HEADERS;
+    }
+    
+    /**
+     * Unmarshals a native version MAP header from the stream.  The headers of
+     * a message share one Unmarshaller, which is released by 
+     * {@link #unmarshalMAPs(SoapMessage)}.
+     *
+     * @param message the SOAP message
+     * @param reader the reader positioned on the header element
+     * @return the SOAP header holding the JAXBElement of the MAP
+     */
+    public SoapHeader readHeader(SoapMessage message, XMLStreamReader reader) throws XMLStreamException {
+        QName name = reader.getName();
+        try {
+            JAXBContext ctx = ContextUtils.getJAXBContext();
+            Unmarshaller unmarshaller = (Unmarshaller)message.get(STREAM_UNMARSHALLER);
+            if (unmarshaller == null) {
+                unmarshaller = ctx.createUnmarshaller();
+                message.put(STREAM_UNMARSHALLER, unmarshaller);
+            }
+            JAXBElement<?> el = unmarshaller.unmarshal(reader, getMAPType(name.getLocalPart()));
+            LOG.log(Level.FINE,
+                    "{0} : {1}",
+                    new Object[] {name.getLocalPart(), getLogText(el.getValue())});
+            return new SoapHeader(name, el, getDataBinding(ctx));
+        } catch (JAXBException je) {
+            throw new XMLStreamException(je);
+        }
+    }
+    
     /**
      * Invoked for normal processing of inbound and outbound messages.
      *
@@ -467,6 +518,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
         // REVISIT generate MessageAddressingHeaderRequired fault if an
         // expected header is missing 
         AddressingProperties maps = null;
+        message.remove(STREAM_UNMARSHALLER);
         try {
             List<Header> header = message.getHeaders();
             if (header != null) {
@@ -477,7 +529,17 @@ public class MAPCodec extends AbstractSoapInterceptor {
                 Iterator<Header> iter = header.iterator();
                 while (iter.hasNext()) {
                     Header hdr = iter.next();
-                    if (hdr.getObject() instanceof Element) {
+                    if (hdr.getObject() instanceof JAXBElement
+                        && Names.WSA_NAMESPACE_NAME.equals(hdr.getName().getNamespaceURI())) {
+                        // already unmarshalled by readHeader
+                        if (maps == null) {
+                            maps = new AddressingProperties();
+                            maps.exposeAs(Names.WSA_NAMESPACE_NAME);
+                        }
+                        invalidCardinalityQName = setMAP(maps, hdr.getName().getLocalPart(),
+                                                         ((JAXBElement<?>)hdr.getObject()).getValue(),
+                                                         invalidCardinalityQName);
+                    } else if (hdr.getObject() instanceof Element) {
                         Element headerElement = (Element)hdr.getObject();
                         String headerURI = headerElement.getNamespaceURI();
                         // Need to check the uri before getting unmarshaller else
@@ -495,62 +557,12 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                 maps.exposeAs(headerURI);
                             }
                             String localName = headerElement.getLocalName();
-                            if (Names.WSA_MESSAGEID_NAME.equals(localName)) {
-                                invalidCardinalityQName = maps.getMessageID() != null
-                                    ? Names.WSA_MESSAGEID_QNAME : null;
-                                maps.setMessageID(decodeAsNative(
-                                                       headerURI,
-                                                       AttributedURIType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
-                            } else if (Names.WSA_TO_NAME.equals(localName)) {
-                                invalidCardinalityQName = maps.getTo() != null ? Names.WSA_TO_QNAME : null;
-                                AttributedURIType addr = decodeAsNative(
-                                                       headerURI,
-                                                       AttributedURIType.class,
-                                                       headerElement, 
-                                                       unmarshaller);
-                                maps.setTo(EndpointReferenceUtils.getEndpointReference(addr));
-                            } else if (Names.WSA_FROM_NAME.equals(localName)) {
-                                invalidCardinalityQName = maps.getFrom() != null
-                                    ? Names.WSA_FROM_QNAME : null;
-                                maps.setFrom(decodeAsNative(
-                                                       headerURI,
-                                                       EndpointReferenceType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
-                            } else if (Names.WSA_REPLYTO_NAME.equals(localName)) {
-                                invalidCardinalityQName = maps.getReplyTo() != null
-                                                                   ? Names.WSA_REPLYTO_QNAME : null;
-
-                                maps.setReplyTo(decodeAsNative(
-                                                       headerURI,
-                                                       EndpointReferenceType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
-                            } else if (Names.WSA_FAULTTO_NAME.equals(localName)) {
-                                invalidCardinalityQName = maps.getFaultTo() != null
-                                    ? Names.WSA_FAULTTO_QNAME : null;
-
-                                maps.setFaultTo(decodeAsNative(
-                                                       headerURI,
-                                                       EndpointReferenceType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
-                            } else if (Names.WSA_RELATESTO_NAME.equals(localName)) {
-                                maps.setRelatesTo(decodeAsNative(
-                                                       headerURI,
-                                                       RelatesToType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
-                            } else if (Names.WSA_ACTION_NAME.equals(localName)) {
-                                invalidCardinalityQName = maps.getAction() != null
-                                    ? Names.WSA_ACTION_QNAME : null;
-                                maps.setAction(decodeAsNative(
-                                                       headerURI,
-                                                       AttributedURIType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                            Class<?> type = getMAPType(localName);
+                            if (type != null) {
+                                Object value = decodeAsNative(headerURI, type,
+                                                              headerElement, unmarshaller);
+                                invalidCardinalityQName = setMAP(maps, localName, value,
+                                                                 invalidCardinalityQName);
                             }
                         } else if (null != headerElement.getAttribute(IS_REFERENCE_PARAM_ATTR_NAME)) {
                             if (null == referenceParameterHeaders) {
@@ -589,6 +601,61 @@ public class MAPCodec extends AbstractSoapInterceptor {
         return maps;
     }
         
+    /**
+     * @param localName the MAP header local name
+     * @return the native type of the MAP, or null if the header is not a MAP
+     */
+    private static Class<?> getMAPType(String localName) {
+        if (Names.WSA_MESSAGEID_NAME.equals(localName)
+            || Names.WSA_TO_NAME.equals(localName)
+            || Names.WSA_ACTION_NAME.equals(localName)) {
+            return AttributedURIType.class;
+        } else if (Names.WSA_FROM_NAME.equals(localName)
+            || Names.WSA_REPLYTO_NAME.equals(localName)
+            || Names.WSA_FAULTTO_NAME.equals(localName)) {
+            return EndpointReferenceType.class;
+        } else if (Names.WSA_RELATESTO_NAME.equals(localName)) {
+            return RelatesToType.class;
+        }
+        return null;
+    }
+    
+    /**
+     * Sets a decoded MAP on the addressing properties.
+     *
+     * @param maps the addressing properties
+     * @param localName the MAP header local name
+     * @param value the decoded native value
+     * @param invalidCardinalityQName the current invalid cardinality header name
+     * @return the invalid cardinality header name after setting the MAP
+     */
+    private static QName setMAP(AddressingProperties maps, String localName, Object value,
+                                QName invalidCardinalityQName) {
+        QName invalid = invalidCardinalityQName;
+        if (Names.WSA_MESSAGEID_NAME.equals(localName)) {
+            invalid = maps.getMessageID() != null ? Names.WSA_MESSAGEID_QNAME : null;
+            maps.setMessageID((AttributedURIType)value);
+        } else if (Names.WSA_TO_NAME.equals(localName)) {
+            invalid = maps.getTo() != null ? Names.WSA_TO_QNAME : null;
+            maps.setTo(EndpointReferenceUtils.getEndpointReference((AttributedURIType)value));
+        } else if (Names.WSA_FROM_NAME.equals(localName)) {
+            invalid = maps.getFrom() != null ? Names.WSA_FROM_QNAME : null;
+            maps.setFrom((EndpointReferenceType)value);
+        } else if (Names.WSA_REPLYTO_NAME.equals(localName)) {
+            invalid = maps.getReplyTo() != null ? Names.WSA_REPLYTO_QNAME : null;
+            maps.setReplyTo((EndpointReferenceType)value);
+        } else if (Names.WSA_FAULTTO_NAME.equals(localName)) {
+            invalid = maps.getFaultTo() != null ? Names.WSA_FAULTTO_QNAME : null;
+            maps.setFaultTo((EndpointReferenceType)value);
+        } else if (Names.WSA_RELATESTO_NAME.equals(localName)) {
+            maps.setRelatesTo((RelatesToType)value);
+        } else if (Names.WSA_ACTION_NAME.equals(localName)) {
+            invalid = maps.getAction() != null ? Names.WSA_ACTION_QNAME : null;
+            maps.setAction((AttributedURIType)value);
+        }
+        return invalid;
+    }
+    
     private void storeInvalidCardinalityFault(SoapMessage message, QName wsaHeaderName) {
         LOG.log(Level.WARNING, "INVALID_CARDINALITY_MESSAGE", wsaHeaderName);
         String reason = BUNDLE.getString("INVALID_ADDRESSING_PROPERTY_MESSAGE");
@@ -691,11 +758,20 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                  JAXBContext ctx,
                                  boolean mustUnderstand) throws JAXBException {
         SoapHeader h = new SoapHeader(qname, new JAXBElement<T>(qname, clz, value),
-                                      new JAXBDataBinding(ctx));
+                                      getDataBinding(ctx));
         h.setMustUnderstand(mustUnderstand);
         message.getHeaders().add(h);
     }
 
+    private JAXBDataBinding getDataBinding(JAXBContext ctx) {
+        JAXBDataBinding binding = dataBindings.get(ctx);
+        if (binding == null) {
+            binding = new JAXBDataBinding(ctx);
+            dataBindings.put(ctx, binding);
+        }
+        return binding;
+    }
+
     /**
      * Decodes a MAP from a SOAP header.
      *
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.ClientLifeCycleManager;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.ws.addressing.WSAddressingFeature;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AddressingFeatureApplierTest extends Assert {
+    
+    private IMocksControl control;
+    private Bus bus;
+    
+    @Before
+    public void setUp() {
+        control = EasyMock.createNiceControl();
+        bus = new ExtensionManagerBus();
+    }
+    
+    @After
+    public void tearDown() {
+        bus.shutdown(true);
+    }
+
+    @Test
+    public void testSharedCacheRegisteredOnce() throws Exception {
+        ObjectName name = new ObjectName("org.apache.cxf:type=WSA.MessageIdCache");
+        InstrumentationManager im = EasyMock.createMock(InstrumentationManager.class);
+        EasyMock.expect(im.register(EasyMock.isA(ManagedComponent.class))).andReturn(name).once();
+        im.unregister(name);
+        EasyMock.expectLastCall().once();
+        EasyMock.replay(im);
+        bus.setExtension(im, InstrumentationManager.class);
+        
+        DefaultMessageIdCache cache = new DefaultMessageIdCache();
+        WSAddressingFeature feature = new WSAddressingFeature();
+        feature.setMessageIdCache(cache);
+        Client client1 = createClient();
+        Client client2 = createClient();
+        control.replay();
+        
+        AddressingFeatureApplier applier = new AddressingFeatureApplier();
+        applier.initializeProvider(feature, client1, bus);
+        applier.initializeProvider(feature, client2, bus);
+        assertNotNull(cache.management);
+        
+        ClientLifeCycleManager clcm = bus.getExtension(ClientLifeCycleManager.class);
+        clcm.clientDestroyed(client1);
+        assertNotNull(cache.management);
+        clcm.clientDestroyed(client2);
+        assertNull(cache.management);
+        
+        EasyMock.verify(im);
+    }
+    
+    private Client createClient() {
+        Client client = control.createMock(Client.class);
+        EasyMock.expect(client.getInInterceptors()).andReturn(newList()).anyTimes();
+        EasyMock.expect(client.getOutInterceptors()).andReturn(newList()).anyTimes();
+        EasyMock.expect(client.getInFaultInterceptors()).andReturn(newList()).anyTimes();
+        EasyMock.expect(client.getOutFaultInterceptors()).andReturn(newList()).anyTimes();
+        return client;
+    }
+    
+    private static List<Interceptor<? extends Message>> newList() {
+        return new ArrayList<Interceptor<? extends Message>>();
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.impl;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DefaultMessageIdCacheTest extends Assert {
+
+    @Test
+    public void testDuplicates() {
+        DefaultMessageIdCache cache = new DefaultMessageIdCache();
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getDuplicateCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+    
+    @Test
+    public void testMaxSize() throws Exception {
+        DefaultMessageIdCache cache = new DefaultMessageIdCache();
+        cache.setTimeWindow(30000);
+        cache.setMaxSize(10);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+        }
+        // move on to the next time slice
+        Thread.sleep(2100);
+        for (int i = 8; i < 16; i++) {
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+        }
+        assertEquals(8, cache.getEvictionCount());
+        assertEquals(8, cache.getSize());
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:0"));
+    }
+    
+    @Test
+    public void testCurrentSliceNeverEvicted() {
+        DefaultMessageIdCache cache = new DefaultMessageIdCache();
+        cache.setMaxSize(10);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+        }
+        assertEquals(0, cache.getEvictionCount());
+    }
+    
+    @Test
+    public void testTimeWindow() throws Exception {
+        DefaultMessageIdCache cache = new DefaultMessageIdCache();
+        cache.setTimeWindow(150);
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        Thread.sleep(200);
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+    }
+    
+    @Test
+    public void testPersistence() throws Exception {
+        File file = File.createTempFile("msgids", ".txt");
+        try {
+            DefaultMessageIdCache cache = new DefaultMessageIdCache();
+            cache.setPersistenceFile(file);
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+            cache.save();
+            
+            DefaultMessageIdCache restored = new DefaultMessageIdCache();
+            restored.setPersistenceFile(file);
+            assertFalse(restored.checkUniquenessAndCacheId("urn:uuid:2"));
+            assertTrue(restored.checkUniquenessAndCacheId("urn:uuid:3"));
+            assertEquals(3, restored.getSize());
+        } finally {
+            file.delete();
+        }
+    }
+}
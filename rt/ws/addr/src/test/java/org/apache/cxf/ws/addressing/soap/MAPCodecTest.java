@@ -19,6 +19,7 @@
 
 package org.apache.cxf.ws.addressing.soap;
 
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,6 +30,8 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 
 import org.w3c.dom.Element;
 
@@ -41,6 +44,7 @@ import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.ws.addressing.AddressingProperties;
 import org.apache.cxf.ws.addressing.AttributedURIType;
 import org.apache.cxf.ws.addressing.ContextUtils;
@@ -104,6 +108,36 @@ public class MAPCodecTest extends Assert {
         assertTrue("expected MessageID header", headers.contains(Names.WSA_MESSAGEID_QNAME));
     }
 
+    @Test
+    public void testReadStreamedHeaders() throws Exception {
+        String xml = "<h xmlns:wsa=\"" + Names.WSA_NAMESPACE_NAME + "\">"
+            + "<wsa:MessageID>urn:uuid:12345</wsa:MessageID>"
+            + "<wsa:ReplyTo><wsa:Address>http://localhost:9000/reply</wsa:Address></wsa:ReplyTo>"
+            + "</h>";
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(xml));
+        reader.nextTag();
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        assertTrue(codec.getStreamedHeaders(message).contains(Names.WSA_MESSAGEID_QNAME));
+        assertTrue(codec.getStreamedHeaders(message).contains(Names.WSA_RELATESTO_QNAME));
+        reader.nextTag();
+        while (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+            message.getHeaders().add(codec.readHeader(message, reader));
+            // the reader is left on the end of the header or the event after it
+            if (reader.getEventType() == XMLStreamConstants.END_ELEMENT
+                && !"h".equals(reader.getLocalName())) {
+                reader.nextTag();
+            }
+        }
+        assertEquals(2, message.getHeaders().size());
+        assertSame(message.getHeaders().get(0).getDataBinding(),
+                   message.getHeaders().get(1).getDataBinding());
+
+        AddressingProperties maps = codec.unmarshalMAPs(message);
+        assertEquals(Names.WSA_NAMESPACE_NAME, maps.getNamespaceURI());
+        assertEquals("urn:uuid:12345", maps.getMessageID().getValue());
+        assertEquals("http://localhost:9000/reply", maps.getReplyTo().getAddress().getValue());
+    }
+
     @Test
     public void testRequestorInboundNonNative200403() throws Exception {
         String uri = VersionTransformer.Names200403.WSA_NAMESPACE_NAME;
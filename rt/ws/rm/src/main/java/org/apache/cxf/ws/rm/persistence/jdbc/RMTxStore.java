@@ -39,6 +39,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -221,10 +222,22 @@ public class RMTxStore implements RMStore {
     private String tableExistsState = DERBY_TABLE_EXISTS_STATE;
     private int tableExistsCode = ORACLE_TABLE_EXISTS_CODE;
     
+    private long groupCommitInterval;
+    private int groupCommitSize = 100;
+    private GroupCommitter groupCommitter;
+    private boolean destroyed;
+    
     public RMTxStore() {
     }
     
     public void destroy() {
+        synchronized (this) {
+            destroyed = true;
+            if (groupCommitter != null) {
+                groupCommitter.shutdown();
+                groupCommitter = null;
+            }
+        }
         if (connection != null && createdConnection) {
             try {
                 connection.close();
@@ -330,6 +343,37 @@ public class RMTxStore implements RMStore {
         this.maxReconnectAttempts = maxReconnectAttempts;
     }
 
+    public long getGroupCommitInterval() {
+        return groupCommitInterval;
+    }
+
+    /**
+     * Enables group commit when set to a positive value. The message and sequence updates of
+     * concurrent persistIncoming, persistOutgoing and removeMessages calls are then queued and 
+     * written as JDBC batches in a single transaction at most every <code>groupCommitInterval</code>
+     * milliseconds, or as soon as <code>groupCommitSize</code> calls are pending. Each caller blocks 
+     * until the transaction containing its changes has been committed.
+     * 
+     * The batches are written using a connection of their own, which is kept open if 
+     * keepConnection is true and otherwise obtained from the data source (or url) for each batch,
+     * so that a pooling data source can be used. Group commit is therefore only used if the
+     * store has a data source or url; a store using an injected connection commits each call
+     * on that connection.
+     * 
+     * @param groupCommitInterval the maximum delay in milliseconds, 0 disables group commit
+     */
+    public void setGroupCommitInterval(long groupCommitInterval) {
+        this.groupCommitInterval = groupCommitInterval;
+    }
+
+    public int getGroupCommitSize() {
+        return groupCommitSize;
+    }
+
+    public void setGroupCommitSize(int groupCommitSize) {
+        this.groupCommitSize = groupCommitSize;
+    }
+
     public void setConnection(Connection c) {
         connection = c;
         createdConnection = false;
@@ -657,6 +701,19 @@ public class RMTxStore implements RMStore {
     }
     
     public void persistIncoming(DestinationSequence seq, RMMessage msg) {        
+        if (isGroupCommitEnabled()) {
+            List<BatchedStatement> stmts = new ArrayList<BatchedStatement>();
+            try {
+                addUpdateDestinationSequence(stmts, seq);
+                if (msg != null && msg.getContent() != null) {
+                    addStoreMessage(stmts, seq.getIdentifier(), msg, false);
+                }
+            } catch (IOException ex) {
+                throw new RMStoreException(ex);
+            }
+            getGroupCommitter().execute(stmts);
+            return;
+        }
         Connection con = verifyConnection();
         SQLException conex = null;
         try {
@@ -682,6 +739,19 @@ public class RMTxStore implements RMStore {
         }
     }
     public void persistOutgoing(SourceSequence seq, RMMessage msg) {
+        if (isGroupCommitEnabled()) {
+            List<BatchedStatement> stmts = new ArrayList<BatchedStatement>();
+            try {
+                addUpdateSourceSequence(stmts, seq);
+                if (msg != null && msg.getContent() != null) {
+                    addStoreMessage(stmts, seq.getIdentifier(), msg, true);
+                }
+            } catch (IOException ex) {
+                throw new RMStoreException(ex);
+            }
+            getGroupCommitter().execute(stmts);
+            return;
+        }
         Connection con = verifyConnection();
         SQLException conex = null;
         try {
@@ -708,6 +778,22 @@ public class RMTxStore implements RMStore {
     }
     
     public void removeMessages(Identifier sid, Collection<Long> messageNrs, boolean outbound) {
+        if (isGroupCommitEnabled()) {
+            List<BatchedStatement> stmts = new ArrayList<BatchedStatement>();
+            // queue all uses of a statement together so that each one is executed as a single batch
+            for (Long messageNr : messageNrs) {
+                stmts.add(new BatchedStatement(outbound 
+                    ? DELETE_OUTBOUND_ATTACHMENTS_STMT_STR : DELETE_INBOUND_ATTACHMENTS_STMT_STR,
+                    sid.getValue(), messageNr));
+            }
+            for (Long messageNr : messageNrs) {
+                stmts.add(new BatchedStatement(outbound 
+                    ? DELETE_OUTBOUND_MESSAGE_STMT_STR : DELETE_INBOUND_MESSAGE_STMT_STR,
+                    sid.getValue(), messageNr));
+            }
+            getGroupCommitter().execute(stmts);
+            return;
+        }
         Connection con = verifyConnection();
         PreparedStatement stmt1 = null;
         PreparedStatement stmt2 = null;
@@ -879,6 +965,58 @@ public class RMTxStore implements RMStore {
         updateDestinationSequence(connection, seq);
     }
     
+    // group commit
+    
+    private void addStoreMessage(List<BatchedStatement> stmts, Identifier sid, RMMessage msg, 
+                                 boolean outbound) throws IOException {
+        String id = sid.getValue();
+        long nr = msg.getMessageNumber();
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "Queueing {0} message number {1} for sequence {2}, to = {3}",
+                    new Object[] {outbound ? "outbound" : "inbound", nr, id, msg.getTo()});
+        }
+        stmts.add(new BatchedStatement(outbound 
+            ? CREATE_OUTBOUND_MESSAGE_STMT_STR : CREATE_INBOUND_MESSAGE_STMT_STR,
+            id, nr, msg.getTo(), new StreamParameter(msg.getContent(), -1)));
+        List<InputStream> attachments = msg.getAttachments();
+        for (int i = 0; i < attachments.size(); i++) {
+            stmts.add(new BatchedStatement(outbound 
+                ? CREATE_OUTBOUND_ATTACHMENT_STMT_STR : CREATE_INBOUND_ATTACHMENT_STMT_STR,
+                id, nr, Long.valueOf(i), new StreamParameter(attachments.get(i), -1)));
+        }
+    }
+    
+    private void addUpdateSourceSequence(List<BatchedStatement> stmts, SourceSequence seq) {
+        stmts.add(new BatchedStatement(UPDATE_SRC_SEQUENCE_STMT_STR, seq.getCurrentMessageNr(),
+                                       seq.isLastMessage() ? "1" : "0", seq.getIdentifier().getValue()));
+    }
+    
+    private void addUpdateDestinationSequence(List<BatchedStatement> stmts, DestinationSequence seq) 
+        throws IOException {
+        // the acknowledgment is serialised now as the sequence may change before the batch is written
+        InputStream is = PersistenceUtils.getInstance().serialiseAcknowledgment(seq.getAcknowledgment());
+        stmts.add(new BatchedStatement(UPDATE_DEST_SEQUENCE_STMT_STR, seq.getLastMessageNumber(),
+                                       new StreamParameter(is, is.available()), seq.getIdentifier().getValue()));
+    }
+    
+    boolean isGroupCommitEnabled() {
+        // the committer needs connections of its own, an injected one is used by the callers
+        return groupCommitInterval > 0 && (dataSource != null || url != null);
+    }
+    
+    private synchronized GroupCommitter getGroupCommitter() {
+        if (destroyed) {
+            throw new RMStoreException(new Message("STORE_DESTROYED_EXC", LOG));
+        }
+        if (groupCommitter == null) {
+            groupCommitter = new GroupCommitter();
+            Thread t = new Thread(groupCommitter, "RMTxStore group commit");
+            t.setDaemon(true);
+            t.start();
+        }
+        return groupCommitter;
+    }
+    
     protected void createTables() throws SQLException {
         Connection con = verifyConnection();
         Statement stmt = null;
@@ -1018,11 +1156,22 @@ public class RMTxStore implements RMStore {
      * @throws SQLException
      */
     protected void setCurrentSchema() throws SQLException {
-        if (schemaName == null || connection == null) {
+        if (connection != null) {
+            setCurrentSchema(connection);
+        }
+    }
+    
+    /**
+     * Sets the current schema associated with the specified connection
+     * @param con
+     * @throws SQLException
+     */
+    protected void setCurrentSchema(Connection con) throws SQLException {
+        if (schemaName == null) {
             return;
         }
         
-        Statement stmt = connection.createStatement();
+        Statement stmt = con.createStatement();
         // schemaName has been verified at setSchemaName(String)
         try {
             stmt.executeUpdate(MessageFormat.format(CREATE_SCHEMA_STMT_STR, 
@@ -1032,7 +1181,7 @@ public class RMTxStore implements RMStore {
         } finally {
             stmt.close();
         }
-        stmt = connection.createStatement();
+        stmt = con.createStatement();
         SQLException ex0 = null;
         for (int i = 0; i < SET_SCHEMA_STMT_STRS.length; i++) {
             try {
@@ -1145,6 +1294,7 @@ public class RMTxStore implements RMStore {
     }
 
     public synchronized void init() {
+        destroyed = false;
         if (keepConnection && connection == null) {
             connection = createConnection();
         }
@@ -1356,4 +1506,250 @@ public class RMTxStore implements RMStore {
         // check for a transient or non-transient connection exception
         return ex.getSQLState() != null && ex.getSQLState().startsWith("08");
     }
+    
+    /**
+     * An input stream bound to a statement parameter, with its length if known in advance. 
+     */
+    private static class StreamParameter {
+        private final InputStream in;
+        private final int length;
+        
+        StreamParameter(InputStream in, int length) {
+            this.in = in;
+            this.length = length;
+        }
+    }
+    
+    /**
+     * A parameterized statement queued for group commit. The parameter values are captured 
+     * when the statement is queued.
+     */
+    private static class BatchedStatement {
+        private final String sql;
+        private final Object[] params;
+        
+        BatchedStatement(String sql, Object... params) {
+            this.sql = sql;
+            this.params = params;
+        }
+        
+        void bind(PreparedStatement stmt) throws SQLException {
+            for (int i = 0; i < params.length; i++) {
+                Object p = params[i];
+                if (p instanceof Long) {
+                    stmt.setLong(i + 1, (Long)p);
+                } else if (p instanceof StreamParameter) {
+                    StreamParameter sp = (StreamParameter)p;
+                    if (sp.length < 0) {
+                        stmt.setBinaryStream(i + 1, sp.in);
+                    } else {
+                        stmt.setBinaryStream(i + 1, sp.in, sp.length);
+                    }
+                } else {
+                    stmt.setString(i + 1, (String)p);
+                }
+            }
+        }
+    }
+    
+    /**
+     * The statements of a single store operation and the state of their commit.
+     */
+    private static class GroupCommitRequest {
+        final List<BatchedStatement> statements;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable failure;
+        
+        GroupCommitRequest(List<BatchedStatement> statements) {
+            this.statements = statements;
+        }
+        
+        void complete(Throwable t) {
+            failure = t;
+            done.countDown();
+        }
+    }
+    
+    /**
+     * Collects the requests of concurrent callers and writes them in a single transaction, 
+     * executing consecutive uses of the same statement as one JDBC batch. 
+     */
+    private class GroupCommitter implements Runnable {
+        private final List<GroupCommitRequest> queue = new ArrayList<GroupCommitRequest>();
+        private final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+        private Connection commitConnection;
+        private long firstQueued;
+        private boolean stopped;
+        
+        void execute(List<BatchedStatement> stmts) {
+            if (stmts.isEmpty()) {
+                return;
+            }
+            GroupCommitRequest request = new GroupCommitRequest(stmts);
+            synchronized (this) {
+                if (stopped) {
+                    request = null;
+                } else {
+                    if (queue.isEmpty()) {
+                        firstQueued = System.currentTimeMillis();
+                    }
+                    queue.add(request);
+                    if (queue.size() == 1 || queue.size() >= groupCommitSize) {
+                        // wake up the committer to start the interval or to flush the full batch
+                        notifyAll();
+                    }
+                }
+            }
+            if (request == null) {
+                // the store has been destroyed or reconnected in the meantime
+                getGroupCommitter().execute(stmts);
+                return;
+            }
+            try {
+                request.done.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RMStoreException(ex);
+            }
+            if (request.failure != null) {
+                throw new RMStoreException(request.failure);
+            }
+        }
+        
+        synchronized void shutdown() {
+            stopped = true;
+            notifyAll();
+        }
+        
+        public void run() {
+            try {
+                List<GroupCommitRequest> batch = nextBatch();
+                while (batch != null) {
+                    flush(batch);
+                    batch = nextBatch();
+                }
+            } finally {
+                closeConnection();
+            }
+        }
+        
+        private synchronized List<GroupCommitRequest> nextBatch() {
+            try {
+                while (queue.isEmpty() && !stopped) {
+                    wait();
+                }
+                long delay = firstQueued + groupCommitInterval - System.currentTimeMillis();
+                while (!stopped && queue.size() < groupCommitSize && delay > 0) {
+                    wait(delay);
+                    delay = firstQueued + groupCommitInterval - System.currentTimeMillis();
+                }
+            } catch (InterruptedException ex) {
+                // write what has been collected so far and stop
+                stopped = true;
+            }
+            if (queue.isEmpty()) {
+                return null;
+            }
+            List<GroupCommitRequest> batch = new ArrayList<GroupCommitRequest>(queue);
+            queue.clear();
+            return batch;
+        }
+        
+        private void flush(List<GroupCommitRequest> batch) {
+            Throwable failure = null;
+            SQLException conex = null;
+            Connection con = getCommitConnection();
+            if (con == null) {
+                failure = new RMStoreException(new Message("CONNECT_EXC", LOG));
+            } else {
+                try {
+                    executeBatches(con, batch);
+                    con.commit();
+                    if (LOG.isLoggable(Level.FINE)) {
+                        LOG.log(Level.FINE, "Committed {0} store operations in one transaction", batch.size());
+                    }
+                } catch (SQLException ex) {
+                    conex = ex;
+                    failure = ex;
+                    abort(con);
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                    abort(con);
+                } finally {
+                    releaseCommitConnection(conex);
+                }
+            }
+            for (GroupCommitRequest request : batch) {
+                request.complete(failure);
+            }
+        }
+        
+        private void executeBatches(Connection con, List<GroupCommitRequest> batch) throws SQLException {
+            PreparedStatement stmt = null;
+            String sql = null;
+            for (GroupCommitRequest request : batch) {
+                for (BatchedStatement bs : request.statements) {
+                    if (!bs.sql.equals(sql)) {
+                        if (stmt != null) {
+                            stmt.executeBatch();
+                        }
+                        sql = bs.sql;
+                        stmt = statements.get(sql);
+                        if (stmt == null) {
+                            stmt = con.prepareStatement(sql);
+                            statements.put(sql, stmt);
+                        }
+                    }
+                    bs.bind(stmt);
+                    stmt.addBatch();
+                }
+            }
+            if (stmt != null) {
+                stmt.executeBatch();
+            }
+        }
+        
+        private Connection getCommitConnection() {
+            if (commitConnection == null) {
+                commitConnection = createConnection();
+                if (commitConnection != null) {
+                    try {
+                        commitConnection.setAutoCommit(false);
+                        if (keepConnection) {
+                            setCurrentSchema(commitConnection);
+                        }
+                    } catch (SQLException ex) {
+                        LogUtils.log(LOG, Level.SEVERE, "CONNECT_EXC", ex);
+                        closeConnection();
+                    }
+                }
+            }
+            return commitConnection;
+        }
+        
+        private void releaseCommitConnection(SQLException e) {
+            if (!keepConnection || (e != null && isRecoverableError(e))) {
+                closeConnection();
+            }
+        }
+        
+        private void closeConnection() {
+            for (PreparedStatement stmt : statements.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            statements.clear();
+            if (commitConnection != null) {
+                try {
+                    commitConnection.close();
+                } catch (SQLException ex) {
+                    LogUtils.log(LOG, Level.WARNING, "CLOSE_FAILED_MSG", ex);
+                }
+            }
+            commitConnection = null;
+        }
+    }
 }
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.rm.persistence.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.cxf.ws.rm.ProtocolVariation;
+import org.apache.cxf.ws.rm.SourceSequence;
+import org.apache.cxf.ws.rm.persistence.RMMessage;
+import org.apache.cxf.ws.rm.persistence.RMStoreException;
+import org.apache.cxf.ws.rm.v200702.Identifier;
+import org.easymock.EasyMock;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs the store tests with group commit enabled.
+ */
+public class RMTxStoreGroupCommitTest extends RMTxStoreTestBase {
+    @BeforeClass 
+    public static void setUpOnce() {
+        RMTxStoreTestBase.setUpOnce();
+        
+        RMTxStore.deleteDatabaseFiles("rmdbgc", true);
+
+        store = new RMTxStore();
+        store.setUrl("jdbc:derby:rmdbgc;create=true");
+        store.setGroupCommitInterval(20);
+        store.setGroupCommitSize(8);
+        store.init();
+    }
+    
+    @AfterClass
+    public static void tearDownOnce() {
+        store.destroy();
+        RMTxStore.deleteDatabaseFiles("rmdbgc", false);
+    }
+    
+    @Test
+    public void testConcurrentPersistOutgoing() throws Exception {
+        final Identifier sid = new Identifier();
+        sid.setValue("groupCommitSequence");
+        final SourceSequence seq = EasyMock.createNiceMock(SourceSequence.class);
+        EasyMock.expect(seq.getIdentifier()).andReturn(sid).anyTimes();
+        EasyMock.expect(seq.getEndpointIdentifier()).andReturn(CLIENT_ENDPOINT_ID).anyTimes();
+        EasyMock.expect(seq.getProtocol()).andReturn(ProtocolVariation.RM10WSA200408).anyTimes();
+        EasyMock.expect(seq.getCurrentMessageNr()).andReturn(20L).anyTimes();
+        EasyMock.replay(seq);
+        
+        store.createSourceSequence(seq);
+        try {
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            List<Thread> threads = new ArrayList<Thread>();
+            for (int i = 1; i <= 20; i++) {
+                final RMMessage msg = new RMMessage();
+                msg.setMessageNumber(i);
+                msg.setTo("http://localhost:9000/greeter");
+                msg.setContent(new ByteArrayInputStream(("Message " + i).getBytes()));
+                threads.add(new Thread() {
+                    public void run() {
+                        try {
+                            store.persistOutgoing(seq, msg);
+                        } catch (Throwable t) {
+                            synchronized (errors) {
+                                errors.add(t);
+                            }
+                        }
+                    }
+                });
+            }
+            for (Thread t : threads) {
+                t.start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertTrue(errors.toString(), errors.isEmpty());
+            
+            // every caller returns only after its message has been committed
+            Collection<RMMessage> msgs = store.getMessages(sid, true);
+            assertEquals(20, msgs.size());
+            assertEquals(20L, store.getSourceSequence(sid).getCurrentMessageNr());
+            
+            Collection<Long> msgNrs = new ArrayList<Long>();
+            for (RMMessage msg : msgs) {
+                msgNrs.add(msg.getMessageNumber());
+            }
+            store.removeMessages(sid, msgNrs, true);
+            assertEquals(0, store.getMessages(sid, true).size());
+        } finally {
+            store.removeSourceSequence(sid);
+        }
+    }
+
+    @Test
+    public void testInjectedConnection() throws Exception {
+        Connection con = DriverManager.getConnection("jdbc:derby:rmdbgc");
+        RMTxStore injected = new RMTxStore();
+        injected.setUrl(null);
+        injected.setConnection(con);
+        injected.setGroupCommitInterval(20);
+        injected.init();
+        // the injected connection is not shared with a committer thread
+        assertFalse(injected.isGroupCommitEnabled());
+        
+        Identifier sid = new Identifier();
+        sid.setValue("injectedConnectionSequence");
+        SourceSequence seq = EasyMock.createNiceMock(SourceSequence.class);
+        EasyMock.expect(seq.getIdentifier()).andReturn(sid).anyTimes();
+        EasyMock.expect(seq.getEndpointIdentifier()).andReturn(CLIENT_ENDPOINT_ID).anyTimes();
+        EasyMock.expect(seq.getProtocol()).andReturn(ProtocolVariation.RM10WSA200408).anyTimes();
+        EasyMock.expect(seq.getCurrentMessageNr()).andReturn(1L).anyTimes();
+        EasyMock.replay(seq);
+        
+        injected.createSourceSequence(seq);
+        try {
+            RMMessage msg = new RMMessage();
+            msg.setMessageNumber(1);
+            msg.setTo("http://localhost:9000/greeter");
+            msg.setContent(new ByteArrayInputStream("Message 1".getBytes()));
+            injected.persistOutgoing(seq, msg);
+            assertEquals(1, injected.getMessages(sid, true).size());
+            
+            Collection<Long> msgNrs = new ArrayList<Long>();
+            msgNrs.add(1L);
+            injected.removeMessages(sid, msgNrs, true);
+            assertEquals(0, injected.getMessages(sid, true).size());
+            // the connection belongs to the caller and keeps its transaction mode
+            assertTrue(con.getAutoCommit());
+        } finally {
+            injected.removeSourceSequence(sid);
+            injected.destroy();
+            con.close();
+        }
+    }
+    
+    @Test
+    public void testExecuteAfterDestroy() throws Exception {
+        RMTxStore destroyed = new RMTxStore();
+        destroyed.setUrl("jdbc:derby:rmdbgc");
+        destroyed.setGroupCommitInterval(20);
+        destroyed.init();
+        destroyed.destroy();
+        
+        Identifier sid = new Identifier();
+        sid.setValue("destroyedStoreSequence");
+        Collection<Long> msgNrs = new ArrayList<Long>();
+        msgNrs.add(1L);
+        try {
+            destroyed.removeMessages(sid, msgNrs, true);
+            fail("Expected RMStoreException");
+        } catch (RMStoreException ex) {
+            // expected
+        }
+    }
+
+    @Override
+    protected Connection getConnection() {
+        return store.getConnection();
+    }
+
+    @Override
+    protected void releaseConnection(Connection con) {
+        // the connection is kept open by the store
+    }
+}
@@ -202,6 +202,20 @@ public final class SecurityConstants {
     public static final String ENABLE_STREAMING_SECURITY = 
         "ws-security.enable.streaming";
     
+    /**
+     * The size in bytes above which an incoming request is processed with the streaming (StAX)
+     * implementation rather than the DOM implementation, when security policies are in use and
+     * ENABLE_STREAMING_SECURITY is not explicitly configured. The size is taken from the
+     * Content-Length of the request. Requests with no Content-Length are processed with the DOM
+     * implementation. The response of the exchange is secured with the same implementation as
+     * the request. Requests whose policy uses a feature the streaming implementation does not
+     * support (for example an endorsing UsernameToken, a UsernameToken protecting a symmetric
+     * binding, or XPath expressions other than plain element paths) are always processed with
+     * the DOM implementation. The default is -1, meaning that no automatic selection takes place.
+     */
+    public static final String STREAMING_SECURITY_THRESHOLD = 
+        "ws-security.enable.streaming.threshold";
+    
     /**
      * Whether to return the security error message to the client, and not one of the default error
      * QNames. The default is false.
@@ -568,7 +582,7 @@ public final class SecurityConstants {
             TOKEN, TOKEN_ID, SUBJECT_ROLE_CLASSIFIER, SUBJECT_ROLE_CLASSIFIER_TYPE, MUST_UNDERSTAND,
             ASYMMETRIC_SIGNATURE_ALGORITHM, PASSWORD_ENCRYPTOR_INSTANCE, ENABLE_SAML_ONE_TIME_USE_CACHE,
             SAML_ONE_TIME_USE_CACHE_INSTANCE, ENABLE_STREAMING_SECURITY, RETURN_SECURITY_ERROR,
-            CACHE_IDENTIFIER, CACHE_ISSUED_TOKEN_IN_ENDPOINT
+            CACHE_IDENTIFIER, CACHE_ISSUED_TOKEN_IN_ENDPOINT, STREAMING_SECURITY_THRESHOLD
         }));
         ALL_PROPERTIES = Collections.unmodifiableSet(s);
     }
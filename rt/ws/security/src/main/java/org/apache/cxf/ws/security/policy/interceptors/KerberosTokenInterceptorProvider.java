@@ -34,7 +34,6 @@ import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Message;
-import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.ws.policy.AbstractPolicyInterceptorProvider;
@@ -169,8 +168,7 @@ public class KerberosTokenInterceptorProvider extends AbstractPolicyInterceptorP
             AssertionInfoMap aim = message.get(AssertionInfoMap.class);
             // extract Assertion information
             
-            boolean enableStax = 
-                MessageUtils.isTrue(message.getContextualProperty(SecurityConstants.ENABLE_STREAMING_SECURITY));
+            boolean enableStax = WSS4JUtils.isStreamingSecurity(message);
             if (aim != null && !enableStax) {
                 Collection<AssertionInfo> ais = 
                     NegotiationUtils.getAllAssertionsByLocalname(aim, SPConstants.KERBEROS_TOKEN);
@@ -250,8 +248,7 @@ public class KerberosTokenInterceptorProvider extends AbstractPolicyInterceptorP
             AssertionInfoMap aim = message.get(AssertionInfoMap.class);
             // extract Assertion information
             
-            boolean enableStax = 
-                MessageUtils.isTrue(message.getContextualProperty(SecurityConstants.ENABLE_STREAMING_SECURITY));
+            boolean enableStax = WSS4JUtils.isStreamingSecurity(message);
             if (aim != null && enableStax) {
                 Collection<AssertionInfo> ais = 
                     NegotiationUtils.getAllAssertionsByLocalname(aim, SPConstants.KERBEROS_TOKEN);
@@ -19,37 +19,74 @@
 
 package org.apache.cxf.ws.security.tokenstore;
 
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cxf.common.util.StringUtils;
 
 /**
- * A simple HashMap-based TokenStore. The default TTL is 5 minutes and the max TTL is 1 hour.
+ * A simple in-memory TokenStore. The default TTL is 5 minutes and the max TTL is 1 hour.
+ * 
+ * The entries are indexed by their expiry time, so expired tokens are removed in
+ * small batches as tokens are added and periodically by a shared background thread,
+ * without scanning the whole store. The number of entries is bounded. When the maximum
+ * size is reached, the least recently used of a few sampled tokens is evicted, so looking
+ * up a token never takes a lock.
  */
-public class MemoryTokenStore implements TokenStore {
+public class MemoryTokenStore implements TokenStore, Closeable {
     public static final long DEFAULT_TTL = 60L * 5L;
     public static final long MAX_TTL = DEFAULT_TTL * 12L;
+    public static final int DEFAULT_MAX_SIZE = 100000;
+    public static final long DEFAULT_EVICTION_INTERVAL = 60L;
     
-    private Map<String, CacheEntry> tokens = new ConcurrentHashMap<String, CacheEntry>();
+    // the number of expired entries removed at most by a single add or get call
+    private static final int EXPIRED_ENTRIES_PER_CALL = 16;
+    // the number of entries compared to pick the one evicted when the store is full
+    private static final int EVICTION_SAMPLES = 8;
+    private static ScheduledExecutorService evictionExecutor;
+    
+    private final ConcurrentMap<String, CacheEntry> tokens = new ConcurrentHashMap<String, CacheEntry>();
+    // guards the expiry queue, the eviction cursor and the eviction task
+    private final PriorityQueue<CacheEntry> expiryQueue = new PriorityQueue<CacheEntry>();
+    private Iterator<CacheEntry> evictionCursor;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
     private long ttl = DEFAULT_TTL;
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private long evictionInterval = DEFAULT_EVICTION_INTERVAL;
+    private ScheduledFuture<?> evictionTask;
     
     public void add(SecurityToken token) {
         if (token != null && !StringUtils.isEmpty(token.getId())) {
-            CacheEntry cacheEntry = createCacheEntry(token);
-            if (cacheEntry != null) {
-                tokens.put(token.getId(), cacheEntry);
-            }
+            add(token.getId(), token);
         }
     }
     
     public void add(String identifier, SecurityToken token) {
         if (token != null && !StringUtils.isEmpty(identifier)) {
-            CacheEntry cacheEntry = createCacheEntry(token);
-            if (cacheEntry != null) {
-                tokens.put(identifier, cacheEntry);
+            long now = System.currentTimeMillis();
+            CacheEntry cacheEntry = new CacheEntry(identifier, token, now + ttl * 1000L);
+            tokens.put(identifier, cacheEntry);
+            synchronized (expiryQueue) {
+                expiryQueue.add(cacheEntry);
+                removeExpired(now, EXPIRED_ENTRIES_PER_CALL);
+                evictToMaxSize();
+                if (evictionTask == null && evictionInterval > 0) {
+                    scheduleEviction();
+                }
             }
         }
     }
@@ -62,56 +99,226 @@ public class MemoryTokenStore implements TokenStore {
         ttl = newTtl;
     }
     
+    /**
+     * Set the maximum number of tokens kept in the store
+     * @param newMaxSize the maximum number of tokens
+     */
+    public void setMaxSize(int newMaxSize) {
+        if (newMaxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        synchronized (expiryQueue) {
+            maxSize = newMaxSize;
+            evictToMaxSize();
+        }
+    }
+    
+    /**
+     * Set the interval in seconds between the background removals of the expired tokens,
+     * 0 disables the background removal
+     * @param interval the interval in seconds
+     */
+    public void setEvictionInterval(long interval) {
+        synchronized (expiryQueue) {
+            evictionInterval = interval;
+            cancelEviction();
+        }
+    }
+    
     public void remove(String identifier) {
-        if (!StringUtils.isEmpty(identifier) && tokens.containsKey(identifier)) {
+        if (!StringUtils.isEmpty(identifier)) {
             tokens.remove(identifier);
         }
     }
 
     public Collection<String> getTokenIdentifiers() {
         processTokenExpiry();
-        return tokens.keySet();
+        return new ArrayList<String>(tokens.keySet());
     }
     
     public SecurityToken getToken(String id) {
-        processTokenExpiry();
-        
-        CacheEntry cacheEntry = tokens.get(id);
+        SecurityToken token = null;
+        CacheEntry cacheEntry = id == null ? null : tokens.get(id);
         if (cacheEntry != null) {
-            return cacheEntry.getSecurityToken();
+            if (cacheEntry.getExpiry() < System.currentTimeMillis()) {
+                if (tokens.remove(id, cacheEntry)) {
+                    evictions.incrementAndGet();
+                }
+            } else {
+                cacheEntry.touch();
+                token = cacheEntry.getSecurityToken();
+            }
         }
-        return null;
+        if (token != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return token;
     }
     
+    /**
+     * Remove all the expired tokens
+     */
     protected void processTokenExpiry() {
-        Date current = new Date();
-        synchronized (tokens) {
-            for (String id : tokens.keySet()) {
-                CacheEntry cacheEntry = tokens.get(id);
-                if (cacheEntry.getExpiry().before(current)) {
-                    tokens.remove(id);
+        synchronized (expiryQueue) {
+            removeExpired(System.currentTimeMillis(), Integer.MAX_VALUE);
+        }
+    }
+    
+    public int size() {
+        return tokens.size();
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    /**
+     * @return the number of tokens removed because they expired or 
+     *         because the maximum size was reached
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    public void close() {
+        synchronized (expiryQueue) {
+            cancelEviction();
+            tokens.clear();
+            expiryQueue.clear();
+            evictionCursor = null;
+        }
+    }
+    
+    private void removeExpired(long now, int max) {
+        int removed = 0;
+        while (removed < max && !expiryQueue.isEmpty() && expiryQueue.peek().getExpiry() < now) {
+            CacheEntry cacheEntry = expiryQueue.poll();
+            // the queue may still hold the entries which were replaced or removed
+            if (tokens.remove(cacheEntry.getIdentifier(), cacheEntry)) {
+                evictions.incrementAndGet();
+            }
+            removed++;
+        }
+        if (expiryQueue.size() > 2 * tokens.size() + 64) {
+            expiryQueue.clear();
+            expiryQueue.addAll(tokens.values());
+        }
+    }
+    
+    /**
+     * Evicts entries until the store is within its maximum size. Each time the least
+     * recently used of the next few entries is picked. The sampling continues where the
+     * previous call stopped, so every entry gets compared over time.
+     */
+    private void evictToMaxSize() {
+        while (tokens.size() > maxSize) {
+            CacheEntry oldest = null;
+            for (int i = 0; i < EVICTION_SAMPLES; i++) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    evictionCursor = tokens.values().iterator();
+                    if (!evictionCursor.hasNext()) {
+                        break;
+                    }
+                }
+                CacheEntry cacheEntry = evictionCursor.next();
+                if (oldest == null || cacheEntry.getLastAccess() - oldest.getLastAccess() < 0) {
+                    oldest = cacheEntry;
                 }
             }
+            if (oldest == null) {
+                break;
+            }
+            if (tokens.remove(oldest.getIdentifier(), oldest)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    private void scheduleEviction() {
+        EvictionTask task = new EvictionTask(this);
+        evictionTask = getEvictionExecutor().scheduleWithFixedDelay(task, evictionInterval, 
+                                                                  evictionInterval, TimeUnit.SECONDS);
+        task.setFuture(evictionTask);
+    }
+    
+    private void cancelEviction() {
+        if (evictionTask != null) {
+            evictionTask.cancel(false);
+            evictionTask = null;
+        }
+    }
+    
+    private static synchronized ScheduledExecutorService getEvictionExecutor() {
+        if (evictionExecutor == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "cxf-token-store-eviction");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            evictionExecutor = executor;
         }
+        return evictionExecutor;
     }
     
-    private CacheEntry createCacheEntry(SecurityToken token) {
-        Date expires = new Date();
-        long currentTime = expires.getTime();
-        expires.setTime(currentTime + (ttl * 1000L));
-        return new CacheEntry(token, expires);
+    /**
+     * Only weakly refers to the store so that the stores which are not closed 
+     * can still be garbage collected, the task cancels itself afterwards.
+     */
+    private static class EvictionTask implements Runnable {
+        private final WeakReference<MemoryTokenStore> storeRef;
+        private volatile ScheduledFuture<?> future;
+        
+        EvictionTask(MemoryTokenStore store) {
+            storeRef = new WeakReference<MemoryTokenStore>(store);
+        }
+        
+        void setFuture(ScheduledFuture<?> f) {
+            future = f;
+        }
+        
+        public void run() {
+            MemoryTokenStore store = storeRef.get();
+            if (store != null) {
+                store.processTokenExpiry();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
     }
     
-    private static class CacheEntry {
+    private static class CacheEntry implements Comparable<CacheEntry> {
         
+        private final String identifier;
         private final SecurityToken securityToken;
-        private final Date expires;
+        private final long expires;
+        private volatile long lastAccess = System.nanoTime();
         
-        public CacheEntry(SecurityToken securityToken, Date expires) {
+        public CacheEntry(String identifier, SecurityToken securityToken, long expires) {
+            this.identifier = identifier;
             this.securityToken = securityToken;
             this.expires = expires;
         }
         
+        void touch() {
+            lastAccess = System.nanoTime();
+        }
+        
+        long getLastAccess() {
+            return lastAccess;
+        }
+        
+        public String getIdentifier() {
+            return identifier;
+        }
+        
         /**
          * Get the SecurityToken
          * @return the SecurityToken
@@ -124,10 +331,13 @@ public class MemoryTokenStore implements TokenStore {
          * Get when this CacheEntry is to be removed from the cache
          * @return when this CacheEntry is to be removed from the cache
          */
-        public Date getExpiry() {
+        public long getExpiry() {
             return expires;
         }
         
+        public int compareTo(CacheEntry other) {
+            return expires < other.expires ? -1 : expires == other.expires ? 0 : 1;
+        }
     }
  
 }
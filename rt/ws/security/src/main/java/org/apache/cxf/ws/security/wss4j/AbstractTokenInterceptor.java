@@ -82,8 +82,7 @@ public abstract class AbstractTokenInterceptor extends AbstractSoapInterceptor {
 
     public void handleMessage(SoapMessage message) throws Fault {
 
-        boolean enableStax = 
-            MessageUtils.isTrue(message.getContextualProperty(SecurityConstants.ENABLE_STREAMING_SECURITY));
+        boolean enableStax = WSS4JUtils.isStreamingSecurity(message);
         if (enableStax) {
             return;
         }
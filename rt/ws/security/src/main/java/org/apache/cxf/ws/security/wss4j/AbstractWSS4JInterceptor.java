@@ -233,9 +233,10 @@ public abstract class AbstractWSS4JInterceptor extends WSHandler implements Soap
                     InputStream in = url.openStream(); 
                     props.load(in);
                     in.close();
-                    return CryptoFactory.getInstance(props,
-                                                     this.getClassLoader(reqData.getMsgContext()),
-                                                     getPasswordEncryptor(reqData));
+                    return WSS4JUtils.getCrypto(((Message)reqData.getMsgContext()).getExchange().getBus(),
+                                                props,
+                                                this.getClassLoader(reqData.getMsgContext()),
+                                                getPasswordEncryptor(reqData));
                 }
             } catch (Exception e) {
                 //ignore
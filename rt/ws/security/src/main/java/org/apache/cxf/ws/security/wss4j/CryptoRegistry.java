@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.wss4j;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.wss4j.common.crypto.Crypto;
+import org.apache.wss4j.common.crypto.PasswordEncryptor;
+import org.apache.wss4j.common.ext.WSSecurityException;
+
+/**
+ * A Bus level registry of the Crypto instances created from crypto properties. Each set of 
+ * properties is loaded once and the resulting {@link ReloadableCrypto} is shared by all the 
+ * endpoints of the Bus. The keystore files are checked for changes every reloadInterval 
+ * milliseconds in the background and the Crypto instances are reloaded if required.
+ */
+public class CryptoRegistry implements BusLifeCycleListener, Closeable {
+    public static final long DEFAULT_RELOAD_INTERVAL = 60000L;
+    
+    private static ScheduledExecutorService reloadExecutor;
+    
+    private final Map<List<Object>, ReloadableCrypto> cryptos = 
+        new ConcurrentHashMap<List<Object>, ReloadableCrypto>();
+    private long reloadInterval = DEFAULT_RELOAD_INTERVAL;
+    private ScheduledFuture<?> reloadTask;
+    
+    public CryptoRegistry() {
+    }
+    
+    /**
+     * Returns the registry of the Bus, creating it if it does not exist yet
+     */
+    public static CryptoRegistry getInstance(Bus bus) {
+        synchronized (bus) {
+            CryptoRegistry registry = bus.getExtension(CryptoRegistry.class);
+            if (registry == null) {
+                registry = new CryptoRegistry();
+                bus.setExtension(registry, CryptoRegistry.class);
+                BusLifeCycleManager manager = bus.getExtension(BusLifeCycleManager.class);
+                if (manager != null) {
+                    manager.registerLifeCycleListener(registry);
+                }
+            }
+            return registry;
+        }
+    }
+    
+    /**
+     * Returns the Crypto for the given properties, loading it if no Crypto has been loaded 
+     * for equal properties and class loader yet. If the properties contain encrypted passwords
+     * the Crypto is only shared by the callers using the same PasswordEncryptor.
+     */
+    public Crypto getCrypto(Properties properties,
+                            ClassLoader classLoader,
+                            PasswordEncryptor passwordEncryptor) throws WSSecurityException {
+        List<Object> key = Arrays.<Object>asList(new HashMap<Object, Object>(properties), classLoader,
+            hasEncryptedValues(properties) ? passwordEncryptor : null);
+        ReloadableCrypto crypto = cryptos.get(key);
+        if (crypto == null) {
+            synchronized (cryptos) {
+                crypto = cryptos.get(key);
+                if (crypto == null) {
+                    crypto = new ReloadableCrypto(properties, classLoader, passwordEncryptor);
+                    cryptos.put(key, crypto);
+                    if (crypto.isReloadable()) {
+                        startReloader();
+                    }
+                }
+            }
+        }
+        return crypto;
+    }
+    
+    private static boolean hasEncryptedValues(Properties properties) {
+        for (Object value : properties.values()) {
+            if (value instanceof String 
+                && ((String)value).trim().startsWith("ENC(") && ((String)value).trim().endsWith(")")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public long getReloadInterval() {
+        return reloadInterval;
+    }
+
+    /**
+     * Sets the interval in milliseconds the crypto files are checked for changes at,
+     * 0 disables the reloading. The interval must be set before any Crypto is loaded. 
+     */
+    public void setReloadInterval(long reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+    
+    /**
+     * Reloads the Crypto instances whose files have changed
+     * @return the number of reloaded Crypto instances
+     */
+    public int reloadModified() {
+        int reloaded = 0;
+        for (ReloadableCrypto crypto : cryptos.values()) {
+            if (crypto.isReloadable() && crypto.reloadIfModified()) {
+                reloaded++;
+            }
+        }
+        return reloaded;
+    }
+    
+    public int size() {
+        return cryptos.size();
+    }
+    
+    public void clear() {
+        cryptos.clear();
+    }
+    
+    public synchronized void close() {
+        if (reloadTask != null) {
+            reloadTask.cancel(false);
+            reloadTask = null;
+        }
+        cryptos.clear();
+    }
+    
+    private synchronized void startReloader() {
+        if (reloadTask != null || reloadInterval <= 0) {
+            return;
+        }
+        ReloadTask task = new ReloadTask(this);
+        reloadTask = getReloadExecutor().scheduleWithFixedDelay(task, reloadInterval, reloadInterval, 
+                                                                TimeUnit.MILLISECONDS);
+        task.setFuture(reloadTask);
+    }
+    
+    private static synchronized ScheduledExecutorService getReloadExecutor() {
+        if (reloadExecutor == null) {
+            reloadExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "cxf-crypto-reload");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return reloadExecutor;
+    }
+
+    public void initComplete() {
+    }
+
+    public void preShutdown() {
+    }
+
+    public void postShutdown() {
+        close();
+    }
+    
+    /**
+     * Only weakly refers to the registry so that the registries of the buses which are not 
+     * shut down can still be garbage collected, the task cancels itself afterwards.
+     */
+    private static class ReloadTask implements Runnable {
+        private final WeakReference<CryptoRegistry> registryRef;
+        private volatile ScheduledFuture<?> future;
+        
+        ReloadTask(CryptoRegistry registry) {
+            registryRef = new WeakReference<CryptoRegistry>(registry);
+        }
+        
+        void setFuture(ScheduledFuture<?> f) {
+            future = f;
+        }
+        
+        public void run() {
+            CryptoRegistry registry = registryRef.get();
+            if (registry != null) {
+                registry.reloadModified();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
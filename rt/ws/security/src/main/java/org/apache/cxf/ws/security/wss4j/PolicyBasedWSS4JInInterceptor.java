@@ -53,7 +53,6 @@ import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.helpers.MapNamespaceContext;
 import org.apache.cxf.interceptor.Fault;
-import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.resource.ResourceManager;
 import org.apache.cxf.security.transport.TLSSessionInfo;
 import org.apache.cxf.service.model.EndpointInfo;
@@ -127,8 +126,7 @@ public class PolicyBasedWSS4JInInterceptor extends WSS4JInInterceptor {
     
     public void handleMessage(SoapMessage msg) throws Fault {
         AssertionInfoMap aim = msg.get(AssertionInfoMap.class);
-        boolean enableStax = 
-            MessageUtils.isTrue(msg.getContextualProperty(SecurityConstants.ENABLE_STREAMING_SECURITY));
+        boolean enableStax = WSS4JUtils.isStreamingSecurity(msg);
         if (aim != null && !enableStax) {
             super.handleMessage(msg);
         }
@@ -480,8 +478,9 @@ public class PolicyBasedWSS4JInInterceptor extends WSS4JInInterceptor {
             }
             
             PasswordEncryptor passwordEncryptor = getPasswordEncryptor(message, requestData);
-            encrCrypto = CryptoFactory.getInstance(props, Loader.getClassLoader(CryptoFactory.class),
-                                                   passwordEncryptor);
+            encrCrypto = WSS4JUtils.getCrypto(message.getExchange().getBus(), props, 
+                                            Loader.getClassLoader(CryptoFactory.class),
+                                            passwordEncryptor);
 
             EndpointInfo info = message.getExchange().get(Endpoint.class).getEndpointInfo();
             synchronized (info) {
@@ -527,8 +526,9 @@ public class PolicyBasedWSS4JInInterceptor extends WSS4JInInterceptor {
             }
             
             PasswordEncryptor passwordEncryptor = getPasswordEncryptor(message, requestData);
-            signCrypto = CryptoFactory.getInstance(props, Loader.getClassLoader(CryptoFactory.class),
-                                                   passwordEncryptor);
+            signCrypto = WSS4JUtils.getCrypto(message.getExchange().getBus(), props, 
+                                            Loader.getClassLoader(CryptoFactory.class),
+                                            passwordEncryptor);
 
             EndpointInfo info = message.getExchange().get(Endpoint.class).getEndpointInfo();
             synchronized (info) {
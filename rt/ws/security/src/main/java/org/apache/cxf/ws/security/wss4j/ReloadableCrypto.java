@@ -0,0 +1,331 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.wss4j;
+
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.security.auth.callback.CallbackHandler;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.wss4j.common.crypto.Crypto;
+import org.apache.wss4j.common.crypto.CryptoFactory;
+import org.apache.wss4j.common.crypto.CryptoType;
+import org.apache.wss4j.common.crypto.Merlin;
+import org.apache.wss4j.common.crypto.PasswordEncryptor;
+import org.apache.wss4j.common.ext.WSSecurityException;
+
+/**
+ * A Crypto shared by the endpoints using the same crypto properties. It delegates to the Crypto
+ * created by the CryptoFactory and replaces it with a newly loaded one when the keystore,
+ * truststore or CRL files have changed. The certificates found by getX509Certificates and 
+ * the certificate chains verified without revocation checks are cached until the next reload, 
+ * a cached chain is trusted only as long as all of its certificates are valid. The least recently
+ * used entries are dropped once a cache is full.
+ * 
+ * As the instance is shared, its settings can not be changed by the individual endpoints, 
+ * the crypto provider, default alias and certificate provider are taken from the crypto 
+ * properties, which are applied again on each reload.
+ */
+public class ReloadableCrypto implements Crypto {
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(ReloadableCrypto.class);
+    private static final int MAX_CACHE_SIZE = 1000;
+    private static final String[] FILE_PROPERTIES = {
+        Merlin.PREFIX + Merlin.KEYSTORE_FILE,
+        Merlin.PREFIX + Merlin.TRUSTSTORE_FILE,
+        Merlin.PREFIX + Merlin.X509_CRL_FILE,
+        Merlin.OLD_PREFIX + Merlin.OLD_KEYSTORE_FILE,
+        Merlin.OLD_PREFIX + Merlin.KEYSTORE_FILE,
+        Merlin.OLD_PREFIX + Merlin.TRUSTSTORE_FILE,
+        Merlin.OLD_PREFIX + Merlin.X509_CRL_FILE
+    };
+    
+    private final Properties properties;
+    private final ClassLoader classLoader;
+    private final PasswordEncryptor passwordEncryptor;
+    private final List<File> files = new ArrayList<File>();
+    private volatile Snapshot snapshot;
+    
+    public ReloadableCrypto(Properties properties, 
+                            ClassLoader classLoader,
+                            PasswordEncryptor passwordEncryptor) throws WSSecurityException {
+        this.properties = properties;
+        this.classLoader = classLoader;
+        this.passwordEncryptor = passwordEncryptor;
+        for (String fileProperty : FILE_PROPERTIES) {
+            File file = findFile(properties.getProperty(fileProperty));
+            if (file != null) {
+                files.add(file);
+            }
+        }
+        long[] lastModified = getLastModified();
+        snapshot = new Snapshot(CryptoFactory.getInstance(properties, classLoader, passwordEncryptor),
+                                lastModified);
+    }
+    
+    /**
+     * Returns true if the keystore, truststore or CRL of this Crypto are files which can be reloaded
+     */
+    public boolean isReloadable() {
+        return !files.isEmpty();
+    }
+    
+    /**
+     * Reloads the Crypto if any of its files has changed since it was last loaded. 
+     * The current Crypto is kept if the files can not be loaded.
+     * @return true if the Crypto has been reloaded
+     */
+    public synchronized boolean reloadIfModified() {
+        long[] lastModified = getLastModified();
+        if (Arrays.equals(lastModified, snapshot.lastModified)) {
+            return false;
+        }
+        try {
+            Crypto crypto = CryptoFactory.getInstance(properties, classLoader, passwordEncryptor);
+            snapshot = new Snapshot(crypto, lastModified);
+            LOG.fine("Reloaded the crypto files " + files);
+            return true;
+        } catch (WSSecurityException ex) {
+            LOG.log(Level.WARNING, "Failed to reload the crypto files " + files, ex);
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the Crypto currently used
+     */
+    public Crypto getDelegate() {
+        return snapshot.crypto;
+    }
+    
+    private long[] getLastModified() {
+        long[] lastModified = new long[files.size() * 2];
+        for (int i = 0; i < files.size(); i++) {
+            lastModified[2 * i] = files.get(i).lastModified();
+            lastModified[2 * i + 1] = files.get(i).length();
+        }
+        return lastModified;
+    }
+    
+    private File findFile(String location) {
+        if (location == null) {
+            return null;
+        }
+        File file = new File(location.trim());
+        if (file.isFile()) {
+            return file;
+        }
+        try {
+            URL url = classLoader != null ? classLoader.getResource(location.trim()) : null;
+            if (url == null) {
+                url = ReloadableCrypto.class.getClassLoader().getResource(location.trim());
+            }
+            if (url != null && "file".equals(url.getProtocol())) {
+                file = new File(url.toURI());
+                return file.isFile() ? file : null;
+            }
+        } catch (Exception ex) {
+            // not a file which can be watched
+        }
+        return null;
+    }
+
+    public String getCryptoProvider() {
+        return snapshot.crypto.getCryptoProvider();
+    }
+
+    public void setCryptoProvider(String provider) {
+        throw new UnsupportedOperationException("The crypto provider of a shared Crypto can not be changed");
+    }
+
+    public String getDefaultX509Identifier() throws WSSecurityException {
+        return snapshot.crypto.getDefaultX509Identifier();
+    }
+
+    public void setDefaultX509Identifier(String identifier) {
+        throw new UnsupportedOperationException("The default alias of a shared Crypto can not be changed");
+    }
+
+    public void setCertificateFactory(String provider, CertificateFactory certFactory) {
+        throw new UnsupportedOperationException(
+            "The certificate factory of a shared Crypto can not be changed");
+    }
+
+    public CertificateFactory getCertificateFactory() throws WSSecurityException {
+        return snapshot.crypto.getCertificateFactory();
+    }
+
+    public X509Certificate loadCertificate(InputStream in) throws WSSecurityException {
+        return snapshot.crypto.loadCertificate(in);
+    }
+
+    public byte[] getSKIBytesFromCert(X509Certificate cert) throws WSSecurityException {
+        return snapshot.crypto.getSKIBytesFromCert(cert);
+    }
+
+    public byte[] getBytesFromCertificates(X509Certificate[] certs) throws WSSecurityException {
+        return snapshot.crypto.getBytesFromCertificates(certs);
+    }
+
+    public X509Certificate[] getCertificatesFromBytes(byte[] data) throws WSSecurityException {
+        return snapshot.crypto.getCertificatesFromBytes(data);
+    }
+
+    public X509Certificate[] getX509Certificates(CryptoType cryptoType) throws WSSecurityException {
+        Snapshot current = snapshot;
+        if (cryptoType == null) {
+            return current.crypto.getX509Certificates(cryptoType);
+        }
+        List<Object> key = getCacheKey(cryptoType);
+        X509Certificate[] certs = null;
+        synchronized (current.certificates) {
+            certs = current.certificates.get(key);
+        }
+        if (certs == null) {
+            certs = current.crypto.getX509Certificates(cryptoType);
+            if (certs != null) {
+                X509Certificate[] cached = certs.clone();
+                synchronized (current.certificates) {
+                    current.certificates.put(key, cached);
+                }
+            }
+        } else {
+            certs = certs.clone();
+        }
+        return certs;
+    }
+
+    public String getX509Identifier(X509Certificate cert) throws WSSecurityException {
+        return snapshot.crypto.getX509Identifier(cert);
+    }
+
+    public PrivateKey getPrivateKey(X509Certificate certificate, CallbackHandler callbackHandler) 
+        throws WSSecurityException {
+        return snapshot.crypto.getPrivateKey(certificate, callbackHandler);
+    }
+
+    public PrivateKey getPrivateKey(String identifier, String password) throws WSSecurityException {
+        return snapshot.crypto.getPrivateKey(identifier, password);
+    }
+
+    public void verifyTrust(X509Certificate[] certs, boolean enableRevocation,
+                            Collection<Pattern> subjectCertConstraints) throws WSSecurityException {
+        Snapshot current = snapshot;
+        if (enableRevocation || certs == null) {
+            // revocation status may change at any time, so it is always checked
+            current.crypto.verifyTrust(certs, enableRevocation, subjectCertConstraints);
+            return;
+        }
+        List<Object> key = new ArrayList<Object>(certs.length + 1);
+        key.addAll(Arrays.asList(certs));
+        if (subjectCertConstraints != null) {
+            for (Pattern p : subjectCertConstraints) {
+                key.add(p.pattern());
+            }
+        }
+        Long notAfter = null;
+        synchronized (current.trustedChains) {
+            notAfter = current.trustedChains.get(key);
+        }
+        if (notAfter == null || notAfter.longValue() < System.currentTimeMillis()) {
+            // not verified yet, or a certificate of the chain has expired since
+            synchronized (current.trustedChains) {
+                current.trustedChains.remove(key);
+            }
+            current.crypto.verifyTrust(certs, enableRevocation, subjectCertConstraints);
+            Long chainNotAfter = getNotAfter(certs);
+            synchronized (current.trustedChains) {
+                current.trustedChains.put(key, chainNotAfter);
+            }
+        }
+    }
+    
+    private static Long getNotAfter(X509Certificate[] certs) {
+        long notAfter = Long.MAX_VALUE;
+        for (X509Certificate cert : certs) {
+            notAfter = Math.min(notAfter, cert.getNotAfter().getTime());
+        }
+        return notAfter;
+    }
+
+    public void verifyDirectTrust(X509Certificate[] certs) throws WSSecurityException {
+        snapshot.crypto.verifyDirectTrust(certs);
+    }
+
+    public void verifyTrust(PublicKey publicKey) throws WSSecurityException {
+        snapshot.crypto.verifyTrust(publicKey);
+    }
+    
+    private static List<Object> getCacheKey(CryptoType cryptoType) {
+        String issuer = cryptoType.getIssuer();
+        BigInteger serial = cryptoType.getSerial();
+        byte[] bytes = cryptoType.getBytes();
+        return Arrays.<Object>asList(cryptoType.getType(), issuer, serial, 
+                                     bytes == null ? null : ByteBuffer.wrap(bytes.clone()),
+                                     cryptoType.getSubjectDN(), cryptoType.getAlias(), 
+                                     cryptoType.getEndpoint());
+    }
+    
+    /**
+     * Creates a map keeping the MAX_CACHE_SIZE most recently used entries, 
+     * it has to be synchronized on as get changes the order of the entries.
+     */
+    private static <V> Map<List<Object>, V> createCache() {
+        return new LinkedHashMap<List<Object>, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 6129046517458630235L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, V> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        };
+    }
+    
+    private static class Snapshot {
+        private final Crypto crypto;
+        private final long[] lastModified;
+        private final Map<List<Object>, X509Certificate[]> certificates = createCache();
+        // the time the first certificate of each trusted chain expires
+        private final Map<List<Object>, Long> trustedChains = createCache();
+        
+        Snapshot(Crypto crypto, long[] lastModified) {
+            this.crypto = crypto;
+            this.lastModified = lastModified;
+        }
+    }
+}
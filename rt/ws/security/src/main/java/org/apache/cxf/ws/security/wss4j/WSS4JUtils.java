@@ -21,7 +21,12 @@ package org.apache.cxf.ws.security.wss4j;
 import java.io.IOException;
 import java.net.URL;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
 
 import javax.crypto.SecretKey;
 
@@ -33,6 +38,8 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.resource.ResourceManager;
 import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.ws.policy.AssertionInfo;
+import org.apache.cxf.ws.policy.AssertionInfoMap;
 import org.apache.cxf.ws.security.SecurityConstants;
 import org.apache.cxf.ws.security.cache.CXFEHCacheReplayCache;
 import org.apache.cxf.ws.security.tokenstore.SecurityToken;
@@ -40,6 +47,21 @@ import org.apache.cxf.ws.security.tokenstore.TokenStore;
 import org.apache.cxf.ws.security.tokenstore.TokenStoreFactory;
 import org.apache.wss4j.common.cache.ReplayCache;
 import org.apache.wss4j.common.cache.ReplayCacheFactory;
+import org.apache.wss4j.common.crypto.Crypto;
+import org.apache.wss4j.common.crypto.CryptoFactory;
+import org.apache.wss4j.common.crypto.PasswordEncryptor;
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.apache.wss4j.policy.model.AbstractToken;
+import org.apache.wss4j.policy.model.AbstractTokenWrapper;
+import org.apache.wss4j.policy.model.IssuedToken;
+import org.apache.wss4j.policy.model.KerberosToken;
+import org.apache.wss4j.policy.model.RequiredElements;
+import org.apache.wss4j.policy.model.SamlToken;
+import org.apache.wss4j.policy.model.SupportingTokens;
+import org.apache.wss4j.policy.model.SymmetricBinding;
+import org.apache.wss4j.policy.model.TransportBinding;
+import org.apache.wss4j.policy.model.UsernameToken;
+import org.apache.wss4j.policy.model.XPath;
 import org.apache.wss4j.stax.ext.WSSConstants;
 import org.apache.wss4j.stax.securityToken.WSSecurityTokenConstants;
 import org.apache.xml.security.exceptions.XMLSecurityException;
@@ -50,6 +72,10 @@ import org.apache.xml.security.exceptions.XMLSecurityException;
  */
 public final class WSS4JUtils {
     
+    // the streaming code only resolves XPath expressions which are a plain path of element names
+    private static final Pattern STREAMING_XPATH = 
+        Pattern.compile("(/[\\w.\\-]+(:[\\w.\\-]+)?)+");
+    
     private WSS4JUtils() {
         // complete
     }
@@ -144,6 +170,144 @@ public final class WSS4JUtils {
         return null;
     }
     
+    /**
+     * Returns the Crypto for the given properties from the CryptoRegistry of the Bus,
+     * so that the keystores are only loaded once per Bus.
+     */
+    public static Crypto getCrypto(
+        Bus bus, Properties properties, ClassLoader classLoader, PasswordEncryptor passwordEncryptor
+    ) throws WSSecurityException {
+        if (bus == null) {
+            return CryptoFactory.getInstance(properties, classLoader, passwordEncryptor);
+        }
+        return CryptoRegistry.getInstance(bus).getCrypto(properties, classLoader, passwordEncryptor);
+    }
+    
+    /**
+     * Returns whether the streaming (StAX) WS-Security implementation should be used for
+     * the given message. If ENABLE_STREAMING_SECURITY is configured then it decides. Otherwise,
+     * if STREAMING_SECURITY_THRESHOLD is configured, the implementation is selected for an
+     * incoming request according to its Content-Length, provided that the streaming code 
+     * supports all the policy assertions of the message. The selection is stored on the
+     * Exchange, so that every interceptor, and the response, use the same implementation.
+     */
+    public static boolean isStreamingSecurity(Message message) {
+        Object enableStax = message.getContextualProperty(SecurityConstants.ENABLE_STREAMING_SECURITY);
+        if (enableStax != null || MessageUtils.isRequestor(message) || MessageUtils.isOutbound(message)) {
+            return MessageUtils.isTrue(enableStax);
+        }
+        long threshold = getLong(message.getContextualProperty(SecurityConstants.STREAMING_SECURITY_THRESHOLD));
+        if (threshold < 0) {
+            return false;
+        }
+        long length = getContentLength(message);
+        boolean streaming = length >= 0 && length > threshold 
+            && isStreamingSupported(message.get(AssertionInfoMap.class));
+        if (message.getExchange() != null) {
+            message.getExchange().put(SecurityConstants.ENABLE_STREAMING_SECURITY, streaming);
+        } else {
+            message.put(SecurityConstants.ENABLE_STREAMING_SECURITY, streaming);
+        }
+        return streaming;
+    }
+    
+    /**
+     * Returns whether the streaming code can enforce all the given policy assertions. Symmetric 
+     * bindings protected by a UsernameToken, endorsing UsernameTokens, supporting tokens of the 
+     * transport binding other than UsernameTokens, IssuedTokens, KerberosTokens and SamlTokens, 
+     * and XPath expressions other than plain element paths are only supported by the DOM code.
+     */
+    static boolean isStreamingSupported(AssertionInfoMap aim) {
+        if (aim == null) {
+            return false;
+        }
+        boolean transportBinding = false;
+        for (Collection<AssertionInfo> ais : aim.values()) {
+            for (AssertionInfo ai : ais) {
+                if (ai.getAssertion() instanceof TransportBinding) {
+                    transportBinding = true;
+                }
+            }
+        }
+        for (Collection<AssertionInfo> ais : aim.values()) {
+            for (AssertionInfo ai : ais) {
+                if (!isStreamingSupported(ai.getAssertion(), transportBinding)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isStreamingSupported(Object assertion, boolean transportBinding) {
+        if (assertion instanceof SymmetricBinding) {
+            SymmetricBinding binding = (SymmetricBinding)assertion;
+            return !isUsernameToken(binding.getProtectionToken())
+                && !isUsernameToken(binding.getEncryptionToken())
+                && !isUsernameToken(binding.getSignatureToken());
+        } else if (assertion instanceof SupportingTokens) {
+            SupportingTokens supportingTokens = (SupportingTokens)assertion;
+            for (AbstractToken token : supportingTokens.getTokens()) {
+                if (supportingTokens.isEndorsing() && token instanceof UsernameToken) {
+                    return false;
+                }
+                if (transportBinding && !supportingTokens.isEndorsing()
+                    && !(token instanceof UsernameToken || token instanceof IssuedToken
+                        || token instanceof KerberosToken || token instanceof SamlToken)) {
+                    return false;
+                }
+            }
+            return isStreamingSupported(supportingTokens.getSignedElements(), transportBinding)
+                && isStreamingSupported(supportingTokens.getEncryptedElements(), transportBinding);
+        } else if (assertion instanceof RequiredElements) {
+            List<XPath> xpaths = ((RequiredElements)assertion).getXPaths();
+            if (xpaths != null) {
+                for (XPath xpath : xpaths) {
+                    if (xpath.getXPath() == null 
+                        || !STREAMING_XPATH.matcher(xpath.getXPath().trim()).matches()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isUsernameToken(AbstractTokenWrapper wrapper) {
+        return wrapper != null && wrapper.getToken() instanceof UsernameToken;
+    }
+    
+    private static long getContentLength(Message message) {
+        Map<?, ?> headers = (Map<?, ?>)message.get(Message.PROTOCOL_HEADERS);
+        if (headers == null) {
+            return -1;
+        }
+        for (Map.Entry<?, ?> entry : headers.entrySet()) {
+            if ("Content-Length".equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+                Object value = entry.getValue();
+                if (value instanceof List && !((List<?>)value).isEmpty()) {
+                    value = ((List<?>)value).get(0);
+                }
+                return getLong(value);
+            }
+        }
+        return -1;
+    }
+    
+    private static long getLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number)value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong(((String)value).trim());
+            } catch (NumberFormatException ex) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+    
     public static TokenStore getTokenStore(Message message) {
         return getTokenStore(message, true);
     }
@@ -1469,9 +1469,9 @@ public abstract class AbstractBindingBuilder extends AbstractCommonBindingHandle
         }
         
         if (properties != null) {
-            crypto = CryptoFactory.getInstance(properties, 
-                                               Loader.getClassLoader(CryptoFactory.class),
-                                               getPasswordEncryptor());
+            crypto = WSS4JUtils.getCrypto(message.getExchange().getBus(), properties, 
+                                          Loader.getClassLoader(CryptoFactory.class),
+                                          getPasswordEncryptor());
             getCryptoCache().put(o, crypto);
         }
         return crypto;
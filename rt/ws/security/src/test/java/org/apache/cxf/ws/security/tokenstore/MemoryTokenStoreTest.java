@@ -68,4 +68,53 @@ public class MemoryTokenStoreTest extends org.junit.Assert {
         store.remove(token2.getId());
         assertTrue(store.getTokenIdentifiers().size() == 0);
     }
+    
+    @org.junit.Test
+    public void testTokenExpiry() throws Exception {
+        MemoryTokenStore memoryStore = new MemoryTokenStore();
+        memoryStore.setTTL(0L);
+        memoryStore.add(new SecurityToken("expired1"));
+        memoryStore.add(new SecurityToken("expired2"));
+        Thread.sleep(10L);
+        memoryStore.setTTL(MemoryTokenStore.DEFAULT_TTL);
+        memoryStore.add(new SecurityToken("valid"));
+        assertNull(memoryStore.getToken("expired1"));
+        assertNotNull(memoryStore.getToken("valid"));
+        assertEquals(1, memoryStore.getTokenIdentifiers().size());
+        assertEquals(2, memoryStore.getEvictions());
+        assertEquals(1, memoryStore.getHits());
+        assertEquals(1, memoryStore.getMisses());
+        memoryStore.close();
+    }
+    
+    @org.junit.Test
+    public void testMaxSizeEvictsLeastRecentlyUsed() throws Exception {
+        MemoryTokenStore memoryStore = new MemoryTokenStore();
+        memoryStore.setMaxSize(2);
+        memoryStore.add(new SecurityToken("token1"));
+        memoryStore.add(new SecurityToken("token2"));
+        assertNotNull(memoryStore.getToken("token1"));
+        memoryStore.add(new SecurityToken("token3"));
+        assertEquals(2, memoryStore.size());
+        assertNull(memoryStore.getToken("token2"));
+        assertNotNull(memoryStore.getToken("token1"));
+        assertNotNull(memoryStore.getToken("token3"));
+        assertEquals(1, memoryStore.getEvictions());
+        memoryStore.close();
+        assertEquals(0, memoryStore.size());
+    }
+    
+    @org.junit.Test
+    public void testReplacedTokenIsNotExpiredEarly() throws Exception {
+        MemoryTokenStore memoryStore = new MemoryTokenStore();
+        memoryStore.setTTL(0L);
+        memoryStore.add(new SecurityToken("token"));
+        Thread.sleep(10L);
+        memoryStore.setTTL(MemoryTokenStore.DEFAULT_TTL);
+        SecurityToken token = new SecurityToken("token");
+        memoryStore.add(token);
+        assertSame(token, memoryStore.getToken("token"));
+        assertEquals(0, memoryStore.getEvictions());
+        memoryStore.close();
+    }
 }
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.wss4j;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.wss4j.common.crypto.Crypto;
+import org.apache.wss4j.common.crypto.CryptoType;
+import org.apache.wss4j.common.crypto.JasyptPasswordEncryptor;
+import org.apache.wss4j.common.crypto.Merlin;
+import org.apache.wss4j.common.crypto.PasswordEncryptor;
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.easymock.EasyMock;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CryptoRegistryTest extends Assert {
+    
+    private static final List<Pattern> NO_CONSTRAINTS = Collections.emptyList();
+    
+    @Test
+    public void testCryptoIsShared() throws Exception {
+        Bus bus = new ExtensionManagerBus();
+        try {
+            CryptoRegistry registry = CryptoRegistry.getInstance(bus);
+            assertSame(registry, CryptoRegistry.getInstance(bus));
+            
+            ClassLoader loader = getClass().getClassLoader();
+            Crypto alice = WSS4JUtils.getCrypto(bus, loadProperties("alice.properties"), loader, null);
+            assertSame(alice, WSS4JUtils.getCrypto(bus, loadProperties("alice.properties"), loader, null));
+            Crypto cxfca = WSS4JUtils.getCrypto(bus, loadProperties("cxfca.properties"), loader, null);
+            assertNotSame(alice, cxfca);
+            assertEquals(2, registry.size());
+            
+            CryptoType cryptoType = new CryptoType(CryptoType.TYPE.ALIAS);
+            cryptoType.setAlias("alice");
+            X509Certificate[] certs = alice.getX509Certificates(cryptoType);
+            assertTrue(certs.length > 0);
+            // cached certificates are returned from now on
+            assertSame(certs[0], alice.getX509Certificates(cryptoType)[0]);
+            
+            // the trusted chains are cached, chains which failed to verify are not
+            cxfca.verifyTrust(certs, false, NO_CONSTRAINTS);
+            cxfca.verifyTrust(certs, false, NO_CONSTRAINTS);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    alice.verifyTrust(certs, false, NO_CONSTRAINTS);
+                    fail("WSSecurityException expected");
+                } catch (WSSecurityException ex) {
+                    // expected
+                }
+            }
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+    
+    @Test
+    public void testCryptoKeyedByPasswordEncryptor() throws Exception {
+        CryptoRegistry registry = new CryptoRegistry();
+        ClassLoader loader = getClass().getClassLoader();
+        PasswordEncryptor encryptor = new JasyptPasswordEncryptor("secret");
+        
+        // plain passwords do not depend on the encryptor
+        Crypto crypto = registry.getCrypto(loadProperties("alice.properties"), loader, null);
+        assertSame(crypto, registry.getCrypto(loadProperties("alice.properties"), loader, encryptor));
+        
+        Properties props = loadProperties("alice.properties");
+        props.put("org.apache.ws.security.crypto.merlin.keystore.password", 
+                  "ENC(" + encryptor.encrypt("password") + ")");
+        Crypto encrypted = registry.getCrypto(props, loader, encryptor);
+        assertNotSame(crypto, encrypted);
+        assertSame(encrypted, registry.getCrypto(props, loader, encryptor));
+        assertNotSame(encrypted, registry.getCrypto(props, loader, new JasyptPasswordEncryptor("secret")));
+        assertEquals(3, registry.size());
+        registry.close();
+    }
+    
+    @Test
+    public void testExpiredChainIsNotTrusted() throws Exception {
+        Properties props = new Properties();
+        props.put("org.apache.ws.security.crypto.provider", CountingCrypto.class.getName());
+        CryptoRegistry registry = new CryptoRegistry();
+        ReloadableCrypto crypto = 
+            (ReloadableCrypto)registry.getCrypto(props, getClass().getClassLoader(), null);
+        CountingCrypto delegate = (CountingCrypto)crypto.getDelegate();
+        
+        Date notAfter = new Date(System.currentTimeMillis() + 1000L);
+        X509Certificate cert = EasyMock.createMock(X509Certificate.class);
+        EasyMock.expect(cert.getNotAfter()).andReturn(notAfter).anyTimes();
+        EasyMock.replay(cert);
+        X509Certificate[] certs = {cert};
+        
+        crypto.verifyTrust(certs, false, NO_CONSTRAINTS);
+        crypto.verifyTrust(certs, false, NO_CONSTRAINTS);
+        assertEquals(1, delegate.trustVerifications);
+        
+        // the cached chain must be verified again once a certificate has expired
+        Thread.sleep(Math.max(notAfter.getTime() - System.currentTimeMillis() + 100L, 0L));
+        crypto.verifyTrust(certs, false, NO_CONSTRAINTS);
+        assertEquals(2, delegate.trustVerifications);
+        registry.close();
+    }
+    
+    @Test
+    public void testLeastRecentlyUsedChainIsDropped() throws Exception {
+        Properties props = new Properties();
+        props.put("org.apache.ws.security.crypto.provider", CountingCrypto.class.getName());
+        CryptoRegistry registry = new CryptoRegistry();
+        ReloadableCrypto crypto = 
+            (ReloadableCrypto)registry.getCrypto(props, getClass().getClassLoader(), null);
+        CountingCrypto delegate = (CountingCrypto)crypto.getDelegate();
+        
+        X509Certificate cert = EasyMock.createMock(X509Certificate.class);
+        EasyMock.expect(cert.getNotAfter()).andReturn(new Date(Long.MAX_VALUE)).anyTimes();
+        EasyMock.replay(cert);
+        X509Certificate[] certs = {cert};
+        
+        // each set of subject constraints is cached as a chain of its own
+        crypto.verifyTrust(certs, false, NO_CONSTRAINTS);
+        for (int i = 0; i < 1000; i++) {
+            crypto.verifyTrust(certs, false, Collections.singletonList(Pattern.compile("CN=" + i)));
+            crypto.verifyTrust(certs, false, NO_CONSTRAINTS);
+        }
+        // the chain in use stays cached while the least recently used one has been dropped
+        assertEquals(1001, delegate.trustVerifications);
+        crypto.verifyTrust(certs, false, Collections.singletonList(Pattern.compile("CN=999")));
+        assertEquals(1001, delegate.trustVerifications);
+        crypto.verifyTrust(certs, false, Collections.singletonList(Pattern.compile("CN=0")));
+        assertEquals(1002, delegate.trustVerifications);
+        registry.close();
+    }
+    
+    @Test
+    public void testSharedCryptoCanNotBeChanged() throws Exception {
+        CryptoRegistry registry = new CryptoRegistry();
+        Crypto crypto = 
+            registry.getCrypto(loadProperties("alice.properties"), getClass().getClassLoader(), null);
+        try {
+            crypto.setDefaultX509Identifier("bob");
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        try {
+            crypto.setCryptoProvider("BC");
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        try {
+            crypto.setCertificateFactory(null, null);
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        registry.close();
+    }
+    
+    @Test
+    public void testCryptoIsReloaded() throws Exception {
+        File keystore = File.createTempFile("cryptoRegistry", ".jks");
+        try {
+            copy("alice.jks", keystore);
+            Properties props = loadProperties("alice.properties");
+            props.put("org.apache.ws.security.crypto.merlin.keystore.file", keystore.getAbsolutePath());
+            
+            CryptoRegistry registry = new CryptoRegistry();
+            registry.setReloadInterval(0);
+            Crypto crypto = registry.getCrypto(props, getClass().getClassLoader(), null);
+            assertNotNull(getCertificates(crypto, "alice"));
+            assertNull(getCertificates(crypto, "cxfca"));
+            assertEquals(0, registry.reloadModified());
+            
+            // cxfca.jks is protected by the same password
+            copy("cxfca.jks", keystore);
+            keystore.setLastModified(keystore.lastModified() + 2000);
+            assertEquals(1, registry.reloadModified());
+            assertNull(getCertificates(crypto, "alice"));
+            assertNotNull(getCertificates(crypto, "cxfca"));
+            registry.close();
+        } finally {
+            keystore.delete();
+        }
+    }
+    
+    public static class CountingCrypto extends Merlin {
+        private int trustVerifications;
+        
+        public CountingCrypto(Properties properties, ClassLoader loader) 
+            throws WSSecurityException, IOException {
+            super(properties, loader, null);
+        }
+        
+        @Override
+        public void verifyTrust(X509Certificate[] certs, boolean enableRevocation,
+                                Collection<Pattern> subjectCertConstraints) throws WSSecurityException {
+            trustVerifications++;
+        }
+    }
+    
+    private static X509Certificate[] getCertificates(Crypto crypto, String alias) throws Exception {
+        CryptoType cryptoType = new CryptoType(CryptoType.TYPE.ALIAS);
+        cryptoType.setAlias(alias);
+        return crypto.getX509Certificates(cryptoType);
+    }
+    
+    private Properties loadProperties(String name) throws Exception {
+        Properties props = new Properties();
+        InputStream in = getClass().getClassLoader().getResourceAsStream(name);
+        try {
+            props.load(in);
+        } finally {
+            in.close();
+        }
+        return props;
+    }
+    
+    private void copy(String resource, File file) throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(resource);
+        OutputStream out = new FileOutputStream(file);
+        try {
+            IOUtils.copyAndCloseInput(in, out);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ws.security.wss4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.ws.policy.AssertionInfoMap;
+import org.apache.cxf.ws.security.SecurityConstants;
+import org.apache.neethi.Assertion;
+import org.apache.neethi.Policy;
+import org.apache.wss4j.policy.SP12Constants;
+import org.apache.wss4j.policy.SPConstants;
+import org.apache.wss4j.policy.model.SignedElements;
+import org.apache.wss4j.policy.model.SupportingTokens;
+import org.apache.wss4j.policy.model.UsernameToken;
+import org.apache.wss4j.policy.model.XPath;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingSecuritySelectionTest extends Assert {
+
+    @Test
+    public void testNoThreshold() throws Exception {
+        SoapMessage msg = createRequest("100000");
+        assertFalse(WSS4JUtils.isStreamingSecurity(msg));
+        assertNull(msg.getExchange().get(SecurityConstants.ENABLE_STREAMING_SECURITY));
+    }
+
+    @Test
+    public void testExplicitSettingWins() throws Exception {
+        SoapMessage msg = createRequest("10");
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 100);
+        msg.put(SecurityConstants.ENABLE_STREAMING_SECURITY, "true");
+        assertTrue(WSS4JUtils.isStreamingSecurity(msg));
+
+        msg = createRequest("100000");
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 100);
+        msg.put(SecurityConstants.ENABLE_STREAMING_SECURITY, "false");
+        assertFalse(WSS4JUtils.isStreamingSecurity(msg));
+    }
+
+    @Test
+    public void testSelectionBySize() throws Exception {
+        SoapMessage small = createRequest("100");
+        small.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, "1000");
+        assertFalse(WSS4JUtils.isStreamingSecurity(small));
+        assertEquals(Boolean.FALSE, small.getExchange().get(SecurityConstants.ENABLE_STREAMING_SECURITY));
+
+        SoapMessage large = createRequest("5000");
+        large.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, "1000");
+        assertTrue(WSS4JUtils.isStreamingSecurity(large));
+        
+        // the response of the exchange follows the request
+        SoapMessage response = new SoapMessage(new MessageImpl());
+        response.setExchange(large.getExchange());
+        large.getExchange().setOutMessage(response);
+        assertTrue(WSS4JUtils.isStreamingSecurity(response));
+    }
+
+    @Test
+    public void testUnknownLength() throws Exception {
+        SoapMessage msg = createRequest(null);
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 0);
+        assertFalse(WSS4JUtils.isStreamingSecurity(msg));
+    }
+
+    @Test
+    public void testUnsupportedPolicyNotSelected() throws Exception {
+        SupportingTokens endorsing = 
+            new SupportingTokens(SPConstants.SPVersion.SP12, 
+                                 SP12Constants.SupportingTokenTypes.EndorsingSupportingTokens, new Policy());
+        endorsing.addToken(new UsernameToken(SPConstants.SPVersion.SP12, 
+                                             SPConstants.IncludeTokenType.INCLUDE_TOKEN_ALWAYS_TO_RECIPIENT,
+                                             null, null, null, new Policy()));
+        SoapMessage msg = createRequest("5000", endorsing);
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 1000);
+        assertFalse(WSS4JUtils.isStreamingSecurity(msg));
+        
+        msg = createRequest("5000", createSignedElements("/soap:Envelope/soap:Body"));
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 1000);
+        assertTrue(WSS4JUtils.isStreamingSecurity(msg));
+        
+        msg = createRequest("5000", createSignedElements("//soap:Body[@Id='body']"));
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 1000);
+        assertFalse(WSS4JUtils.isStreamingSecurity(msg));
+    }
+
+    @Test
+    public void testClientResponseNotSelected() throws Exception {
+        SoapMessage msg = createRequest("5000");
+        msg.put(Message.REQUESTOR_ROLE, Boolean.TRUE);
+        msg.put(SecurityConstants.STREAMING_SECURITY_THRESHOLD, 1000);
+        assertFalse(WSS4JUtils.isStreamingSecurity(msg));
+    }
+
+    private static SignedElements createSignedElements(String xpath) {
+        Map<String, String> namespaces = 
+            Collections.singletonMap("soap", "http://schemas.xmlsoap.org/soap/envelope/");
+        return new SignedElements(SPConstants.SPVersion.SP12, null, 
+            Collections.singletonList(new XPath(xpath, XPath.Version.V1, null, namespaces)));
+    }
+
+    private static SoapMessage createRequest(String contentLength, Assertion... assertions) {
+        SoapMessage msg = new SoapMessage(new MessageImpl());
+        msg.put(AssertionInfoMap.class, new AssertionInfoMap(Arrays.asList(assertions)));
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(msg);
+        msg.setExchange(exchange);
+        Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        if (contentLength != null) {
+            headers.put("content-length", Collections.singletonList(contentLength));
+        }
+        msg.put(Message.PROTOCOL_HEADERS, headers);
+        return msg;
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.sts.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.rt.security.claims.Claim;
+import org.apache.cxf.rt.security.claims.ClaimCollection;
+import org.apache.cxf.sts.claims.ClaimsParameters;
+import org.apache.cxf.sts.claims.ProcessedClaimCollection;
+
+/**
+ * A simple in-memory cache of claim values, keyed by the principal, realm, AppliesTo address,
+ * requested token type and requested claims. The entries expire after cacheTime seconds,
+ * the claim values of the least recently used users are removed first once more than 
+ * maxCacheItems users are cached.
+ */
+public class MemoryClaimsCache implements ClaimsCache {
+    
+    private final Map<String, Map<List<Object>, CacheEntry>> cache = 
+        new LinkedHashMap<String, Map<List<Object>, CacheEntry>>(16, 0.75f, true) {
+            private static final long serialVersionUID = -4913215623571936436L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<List<Object>, CacheEntry>> eldest) {
+                return size() > maxCacheItems;
+            }
+        };
+    
+    private volatile long maxCacheItems = 10000L;
+    private volatile long cacheTime = 60L;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public long getMaxCacheItems() {
+        return maxCacheItems;
+    }
+
+    /**
+     * Sets the maximum number of users whose claim values are cached
+     */
+    public void setMaxCacheItems(long maxCacheItems) {
+        this.maxCacheItems = maxCacheItems;
+    }
+    
+    public long getCacheTime() {
+        return cacheTime;
+    }
+
+    /**
+     * Sets the time in seconds the claim values are cached for, 60 seconds by default
+     */
+    public void setCacheTime(long cacheTime) {
+        this.cacheTime = cacheTime;
+    }
+    
+    @Override
+    public void add(ClaimsParameters parameters, ClaimCollection claims, ProcessedClaimCollection claimValues) {
+        ProcessedClaimCollection cachedValues = new ProcessedClaimCollection();
+        cachedValues.addAll(claimValues);
+        CacheEntry entry = 
+            new CacheEntry(cachedValues, System.currentTimeMillis() + cacheTime * 1000L);
+        synchronized (cache) {
+            String userKey = getUserKey(parameters);
+            Map<List<Object>, CacheEntry> userEntries = cache.get(userKey);
+            if (userEntries == null) {
+                userEntries = new HashMap<List<Object>, CacheEntry>();
+                cache.put(userKey, userEntries);
+            }
+            userEntries.put(getClaimsKey(parameters, claims), entry);
+        }
+    }
+
+    @Override
+    public ProcessedClaimCollection get(ClaimsParameters parameters, ClaimCollection claims) {
+        CacheEntry entry = null;
+        synchronized (cache) {
+            String userKey = getUserKey(parameters);
+            Map<List<Object>, CacheEntry> userEntries = cache.get(userKey);
+            if (userEntries != null) {
+                List<Object> claimsKey = getClaimsKey(parameters, claims);
+                entry = userEntries.get(claimsKey);
+                if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+                    userEntries.remove(claimsKey);
+                    if (userEntries.isEmpty()) {
+                        cache.remove(userKey);
+                    }
+                    entry = null;
+                }
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        // callers may add to the returned collection
+        ProcessedClaimCollection claimValues = new ProcessedClaimCollection();
+        claimValues.addAll(entry.claimValues);
+        return claimValues;
+    }
+
+    @Override
+    public void remove(String user, String realm) {
+        synchronized (cache) {
+            cache.remove(user + "@" + realm);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (cache) {
+            int size = 0;
+            for (Map<List<Object>, CacheEntry> userEntries : cache.values()) {
+                size += userEntries.size();
+            }
+            return size;
+        }
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    private static String getUserKey(ClaimsParameters parameters) {
+        return parameters.getPrincipal().getName() + "@" + parameters.getRealm();
+    }
+    
+    private static List<Object> getClaimsKey(ClaimsParameters parameters, ClaimCollection claims) {
+        List<Object> key = new ArrayList<Object>(claims.size() + 3);
+        key.add(parameters.getAppliesToAddress());
+        key.add(parameters.getTokenRequirements() != null 
+            ? parameters.getTokenRequirements().getTokenType() : null);
+        key.add(claims.getDialect());
+        for (Claim claim : claims) {
+            key.add(Arrays.asList(claim.getClaimType(), claim.isOptional(), 
+                                 new ArrayList<Object>(claim.getValues())));
+        }
+        return key;
+    }
+    
+    private static class CacheEntry {
+        private final ProcessedClaimCollection claimValues;
+        private final long expiresAt;
+        
+        CacheEntry(ProcessedClaimCollection claimValues, long expiresAt) {
+            this.claimValues = claimValues;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -25,6 +25,13 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,6 +40,7 @@ import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.rt.security.claims.Claim;
 import org.apache.cxf.rt.security.claims.ClaimCollection;
 import org.apache.cxf.sts.IdentityMapper;
+import org.apache.cxf.sts.cache.ClaimsCache;
 import org.apache.cxf.sts.token.realm.RealmSupport;
 import org.apache.cxf.sts.token.realm.Relationship;
 import org.apache.cxf.ws.security.sts.provider.STSException;
@@ -53,6 +61,9 @@ public class ClaimsManager {
     private List<URI> supportedClaimTypes = new ArrayList<URI>();
     private boolean stopProcessingOnException = true;
     private IdentityMapper identityMapper;
+    private Executor executor;
+    private long handlerTimeout;
+    private ClaimsCache claimsCache;
     
 
     public IdentityMapper getIdentityMapper() {
@@ -71,6 +82,43 @@ public class ClaimsManager {
         this.stopProcessingOnException = stopProcessingOnException;
     }
 
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor used to call the ClaimsHandlers concurrently. The handlers are called
+     * one after the other in the current thread if no executor is set. A bounded executor 
+     * should be used, the claims are retrieved in the current thread if it rejects a handler.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public long getHandlerTimeout() {
+        return handlerTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait for a ClaimsHandler called by the executor.
+     * A handler which times out is treated as a handler which failed. 0 means no timeout.
+     */
+    public void setHandlerTimeout(long handlerTimeout) {
+        this.handlerTimeout = handlerTimeout;
+    }
+
+    public ClaimsCache getClaimsCache() {
+        return claimsCache;
+    }
+
+    /**
+     * Sets the cache used to return the claim values previously retrieved for the 
+     * same principal, realm and requested claims without calling the ClaimsHandlers.
+     */
+    public void setClaimsCache(ClaimsCache claimsCache) {
+        this.claimsCache = claimsCache;
+    }
+
     public List<URI> getSupportedClaimTypes() {
         return supportedClaimTypes;
     }
@@ -149,90 +197,25 @@ public class ClaimsManager {
                 return null;
             }
             Principal originalPrincipal = parameters.getPrincipal();
-            ProcessedClaimCollection returnCollection = new ProcessedClaimCollection();
-            for (ClaimsHandler handler : claimHandlers) {
-                
-                ClaimCollection supportedClaims = 
-                    filterHandlerClaims(claims, handler.getSupportedClaimTypes());
-                if (supportedClaims.isEmpty()) {
-                    continue;
-                }
-                
-                if (handler instanceof RealmSupport) {
-                    RealmSupport handlerRealmSupport = (RealmSupport)handler;
-                    // Check whether the handler supports the current realm
-                    if (handlerRealmSupport.getSupportedRealms() != null
-                            && handlerRealmSupport.getSupportedRealms().size() > 0
-                            && handlerRealmSupport.getSupportedRealms().indexOf(parameters.getRealm()) == -1) {
-                        if (LOG.isLoggable(Level.FINER)) {
-                            LOG.finer("Handler '" + handler.getClass().getName() + "' doesn't support"
-                                    + " realm '" + parameters.getRealm()  + "'");
-                        }
-                        continue;
-                    }
-                    
-                    // If handler realm is configured and different from current realm
-                    // do an identity mapping
-                    if (handlerRealmSupport.getHandlerRealm() != null
-                            && !handlerRealmSupport.getHandlerRealm().equalsIgnoreCase(parameters.getRealm())) {
-                        Principal targetPrincipal = null;
-                        try {
-                            if (LOG.isLoggable(Level.FINE)) {
-                                LOG.fine("Mapping user '" + parameters.getPrincipal().getName()
-                                        + "' [" + parameters.getRealm() + "] to realm '"
-                                        + handlerRealmSupport.getHandlerRealm() + "'");
-                            }
-                            targetPrincipal = doMapping(parameters.getRealm(), parameters.getPrincipal(),
-                                    handlerRealmSupport.getHandlerRealm());
-                        } catch (Exception ex) {
-                            LOG.log(Level.WARNING, "Failed to map user '" + parameters.getPrincipal().getName()
-                                    + "' [" + parameters.getRealm() + "] to realm '"
-                                    + handlerRealmSupport.getHandlerRealm() + "'", ex);
-                            throw new STSException("Failed to map user for claims handler",
-                                    STSException.REQUEST_FAILED);
-                        }
-                        
-                        if (targetPrincipal == null) {
-                            LOG.log(Level.WARNING, "Null. Failed to map user '" + parameters.getPrincipal().getName()
-                                    + "' [" + parameters.getRealm() + "] to realm '"
-                                    + handlerRealmSupport.getHandlerRealm() + "'");
-                            throw new STSException("Failed to map user for claims handler",
-                                    STSException.REQUEST_FAILED);
-                        }
-                        if (LOG.isLoggable(Level.INFO)) {
-                            LOG.info("Principal '" + targetPrincipal.getName()
-                                    + "' passed to handler '" + handler.getClass().getName() + "'");
-                        }
-                        parameters.setPrincipal(targetPrincipal);
-                    } else {
-                        if (LOG.isLoggable(Level.FINER)) {
-                            LOG.finer("Handler '" + handler.getClass().getName() + "' doesn't require"
-                                    + " identity mapping '" + parameters.getRealm()  + "'");
-                        }
-                        
-                    }
-                }
-                
-                ProcessedClaimCollection claimCollection = null;
-                try {
-                    claimCollection = handler.retrieveClaimValues(supportedClaims, parameters);
-                } catch (RuntimeException ex) {
-                    LOG.log(Level.INFO, "Failed retrieving claims from ClaimsHandler "
-                            + handler.getClass().getName(), ex);
-                    if (this.isStopProcessingOnException()) {
-                        throw ex;
-                    }
-                } finally {
-                    // set original principal again, otherwise wrong principal passed to next claim handler in the list
-                    // if no mapping required or wrong source principal used for next identity mapping
-                    parameters.setPrincipal(originalPrincipal);
-                }
-                
-                if (claimCollection != null && claimCollection.size() != 0) {
-                    returnCollection.addAll(claimCollection);
+            if (claimsCache != null && originalPrincipal != null) {
+                ProcessedClaimCollection cachedClaims = claimsCache.get(parameters, claims);
+                if (cachedClaims != null) {
+                    return cachedClaims;
                 }
             }
+            
+            List<HandlerCall> handlerCalls = getHandlerCalls(claims, parameters);
+            ProcessedClaimCollection returnCollection = null;
+            if (executor == null || handlerCalls.size() < 2) {
+                returnCollection = retrieveHandlerClaims(handlerCalls, parameters);
+            } else {
+                returnCollection = retrieveHandlerClaimsInParallel(handlerCalls, parameters);
+            }
             validateClaimValues(claims, returnCollection);
+            if (claimsCache != null && originalPrincipal != null && !hasFailedHandler(handlerCalls)) {
+                // a partial result of an ignored failure must not hide the claims of the handler later on
+                claimsCache.add(parameters, claims, returnCollection);
+            }
             return returnCollection;
             
         } else {
@@ -265,6 +248,213 @@ public class ClaimsManager {
 
     }
 
+    /**
+     * Selects the handlers supporting the requested claims and the current realm, 
+     * and maps the principal to the realm of each handler if required.
+     */
+    private List<HandlerCall> getHandlerCalls(ClaimCollection claims, ClaimsParameters parameters) {
+        List<HandlerCall> handlerCalls = new ArrayList<HandlerCall>(claimHandlers.size());
+        for (ClaimsHandler handler : claimHandlers) {
+            
+            ClaimCollection supportedClaims = 
+                filterHandlerClaims(claims, handler.getSupportedClaimTypes());
+            if (supportedClaims.isEmpty()) {
+                continue;
+            }
+            
+            Principal principal = parameters.getPrincipal();
+            if (handler instanceof RealmSupport) {
+                RealmSupport handlerRealmSupport = (RealmSupport)handler;
+                // Check whether the handler supports the current realm
+                if (handlerRealmSupport.getSupportedRealms() != null
+                        && handlerRealmSupport.getSupportedRealms().size() > 0
+                        && handlerRealmSupport.getSupportedRealms().indexOf(parameters.getRealm()) == -1) {
+                    if (LOG.isLoggable(Level.FINER)) {
+                        LOG.finer("Handler '" + handler.getClass().getName() + "' doesn't support"
+                                + " realm '" + parameters.getRealm()  + "'");
+                    }
+                    continue;
+                }
+                
+                // If handler realm is configured and different from current realm
+                // do an identity mapping
+                if (handlerRealmSupport.getHandlerRealm() != null
+                        && !handlerRealmSupport.getHandlerRealm().equalsIgnoreCase(parameters.getRealm())) {
+                    Principal targetPrincipal = null;
+                    try {
+                        if (LOG.isLoggable(Level.FINE)) {
+                            LOG.fine("Mapping user '" + parameters.getPrincipal().getName()
+                                    + "' [" + parameters.getRealm() + "] to realm '"
+                                    + handlerRealmSupport.getHandlerRealm() + "'");
+                        }
+                        targetPrincipal = doMapping(parameters.getRealm(), parameters.getPrincipal(),
+                                handlerRealmSupport.getHandlerRealm());
+                    } catch (Exception ex) {
+                        LOG.log(Level.WARNING, "Failed to map user '" + parameters.getPrincipal().getName()
+                                + "' [" + parameters.getRealm() + "] to realm '"
+                                + handlerRealmSupport.getHandlerRealm() + "'", ex);
+                        throw new STSException("Failed to map user for claims handler",
+                                STSException.REQUEST_FAILED);
+                    }
+                    
+                    if (targetPrincipal == null) {
+                        LOG.log(Level.WARNING, "Null. Failed to map user '" + parameters.getPrincipal().getName()
+                                + "' [" + parameters.getRealm() + "] to realm '"
+                                + handlerRealmSupport.getHandlerRealm() + "'");
+                        throw new STSException("Failed to map user for claims handler",
+                                STSException.REQUEST_FAILED);
+                    }
+                    if (LOG.isLoggable(Level.INFO)) {
+                        LOG.info("Principal '" + targetPrincipal.getName()
+                                + "' passed to handler '" + handler.getClass().getName() + "'");
+                    }
+                    principal = targetPrincipal;
+                } else {
+                    if (LOG.isLoggable(Level.FINER)) {
+                        LOG.finer("Handler '" + handler.getClass().getName() + "' doesn't require"
+                                + " identity mapping '" + parameters.getRealm()  + "'");
+                    }
+                    
+                }
+            }
+            handlerCalls.add(new HandlerCall(handler, supportedClaims, principal));
+        }
+        return handlerCalls;
+    }
+    
+    private ProcessedClaimCollection retrieveHandlerClaims(List<HandlerCall> handlerCalls,
+                                                           ClaimsParameters parameters) {
+        Principal originalPrincipal = parameters.getPrincipal();
+        ProcessedClaimCollection returnCollection = new ProcessedClaimCollection();
+        for (HandlerCall call : handlerCalls) {
+            ProcessedClaimCollection claimCollection = null;
+            try {
+                parameters.setPrincipal(call.principal);
+                claimCollection = call.handler.retrieveClaimValues(call.claims, parameters);
+            } catch (RuntimeException ex) {
+                LOG.log(Level.INFO, "Failed retrieving claims from ClaimsHandler "
+                        + call.handler.getClass().getName(), ex);
+                call.failed = true;
+                if (this.isStopProcessingOnException()) {
+                    throw ex;
+                }
+            } finally {
+                // set original principal again, otherwise wrong principal passed to next claim handler in the list
+                // if no mapping required or wrong source principal used for next identity mapping
+                parameters.setPrincipal(originalPrincipal);
+            }
+            
+            if (claimCollection != null && claimCollection.size() != 0) {
+                returnCollection.addAll(claimCollection);
+            }
+        }
+        return returnCollection;
+    }
+    
+    /**
+     * Calls the handlers concurrently using the configured executor. The results are 
+     * merged in the order of the handlers.
+     */
+    private ProcessedClaimCollection retrieveHandlerClaimsInParallel(List<HandlerCall> handlerCalls,
+                                                                     final ClaimsParameters parameters) {
+        List<FutureTask<ProcessedClaimCollection>> tasks = 
+            new ArrayList<FutureTask<ProcessedClaimCollection>>(handlerCalls.size());
+        for (final HandlerCall call : handlerCalls) {
+            // every handler gets its own parameters as the principal may differ
+            final ClaimsParameters handlerParameters = copyParameters(parameters, call.principal);
+            FutureTask<ProcessedClaimCollection> task = 
+                new FutureTask<ProcessedClaimCollection>(new Callable<ProcessedClaimCollection>() {
+                    public ProcessedClaimCollection call() {
+                        return call.handler.retrieveClaimValues(call.claims, handlerParameters);
+                    }
+                });
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ex) {
+                // the executor is saturated, retrieve the claims in the current thread
+                task.run();
+            }
+        }
+        
+        long deadline = handlerTimeout > 0 ? System.currentTimeMillis() + handlerTimeout : 0;
+        ProcessedClaimCollection returnCollection = new ProcessedClaimCollection();
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                HandlerCall call = handlerCalls.get(i);
+                ProcessedClaimCollection claimCollection = null;
+                try {
+                    claimCollection = getHandlerClaims(call.handler, tasks.get(i), deadline);
+                } catch (RuntimeException ex) {
+                    LOG.log(Level.INFO, "Failed retrieving claims from ClaimsHandler "
+                            + call.handler.getClass().getName(), ex);
+                    call.failed = true;
+                    if (this.isStopProcessingOnException()) {
+                        throw ex;
+                    }
+                }
+                if (claimCollection != null && claimCollection.size() != 0) {
+                    returnCollection.addAll(claimCollection);
+                }
+            }
+        } finally {
+            for (FutureTask<ProcessedClaimCollection> task : tasks) {
+                task.cancel(true);
+            }
+        }
+        return returnCollection;
+    }
+    
+    private static ProcessedClaimCollection getHandlerClaims(ClaimsHandler handler,
+                                                             FutureTask<ProcessedClaimCollection> task,
+                                                             long deadline) {
+        try {
+            if (deadline > 0) {
+                return task.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+            }
+            return task.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error)ex.getCause();
+            }
+            throw new STSException("Failed retrieving claims from ClaimsHandler", ex.getCause(), 
+                                   STSException.REQUEST_FAILED);
+        } catch (TimeoutException ex) {
+            throw new STSException("Timeout retrieving claims from ClaimsHandler " 
+                                   + handler.getClass().getName(), ex, STSException.REQUEST_FAILED);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new STSException("Interrupted retrieving claims from ClaimsHandler", ex, 
+                                   STSException.REQUEST_FAILED);
+        }
+    }
+    
+    private static boolean hasFailedHandler(List<HandlerCall> handlerCalls) {
+        for (HandlerCall call : handlerCalls) {
+            if (call.failed) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static ClaimsParameters copyParameters(ClaimsParameters parameters, Principal principal) {
+        ClaimsParameters copy = new ClaimsParameters();
+        copy.setStsProperties(parameters.getStsProperties());
+        copy.setEncryptionProperties(parameters.getEncryptionProperties());
+        copy.setPrincipal(principal);
+        copy.setWebServiceContext(parameters.getWebServiceContext());
+        copy.setKeyRequirements(parameters.getKeyRequirements());
+        copy.setTokenRequirements(parameters.getTokenRequirements());
+        copy.setAppliesToAddress(parameters.getAppliesToAddress());
+        copy.setAdditionalProperties(parameters.getAdditionalProperties());
+        copy.setTokenStore(parameters.getTokenStore());
+        copy.setRealm(parameters.getRealm());
+        return copy;
+    }
+
     private ClaimCollection filterHandlerClaims(ClaimCollection claims,
                                                          List<URI> handlerClaimTypes) {
         ClaimCollection supportedClaims = new ClaimCollection(); 
@@ -443,4 +633,17 @@ public class ClaimsManager {
         
     }
 
+    
+    private static class HandlerCall {
+        private final ClaimsHandler handler;
+        private final ClaimCollection claims;
+        private final Principal principal;
+        private boolean failed;
+        
+        HandlerCall(ClaimsHandler handler, ClaimCollection claims, Principal principal) {
+            this.handler = handler;
+            this.claims = claims;
+            this.principal = principal;
+        }
+    }
 }
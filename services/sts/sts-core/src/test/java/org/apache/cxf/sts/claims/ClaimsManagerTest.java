@@ -0,0 +1,271 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.sts.claims;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.rt.security.claims.Claim;
+import org.apache.cxf.rt.security.claims.ClaimCollection;
+import org.apache.cxf.sts.cache.MemoryClaimsCache;
+import org.apache.cxf.sts.request.TokenRequirements;
+import org.apache.cxf.ws.security.sts.provider.STSException;
+import org.apache.wss4j.common.principal.CustomTokenPrincipal;
+import org.apache.wss4j.dom.WSConstants;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClaimsManagerTest extends Assert {
+    
+    private ExecutorService executor;
+    
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testParallelRetrievalKeepsHandlerOrder() {
+        ClaimsManager claimsManager = createClaimsManager(new DelayedClaimsHandler("Claim-A", 200),
+                                                          new DelayedClaimsHandler("Claim-B", 0),
+                                                          new DelayedClaimsHandler("Claim-C", 100));
+        claimsManager.setExecutor(executor);
+        
+        long start = System.currentTimeMillis();
+        ProcessedClaimCollection claims = 
+            claimsManager.retrieveClaimValues(createClaimCollection(), createParameters());
+        long duration = System.currentTimeMillis() - start;
+        
+        assertEquals(3, claims.size());
+        assertEquals(URI.create("Claim-A"), claims.get(0).getClaimType());
+        assertEquals(URI.create("Claim-B"), claims.get(1).getClaimType());
+        assertEquals(URI.create("Claim-C"), claims.get(2).getClaimType());
+        assertEquals("alice", claims.get(0).getValues().get(0));
+        assertTrue("Handlers were not called concurrently", duration < 300);
+    }
+    
+    @Test
+    public void testParallelRetrievalTimeout() {
+        ClaimsManager claimsManager = createClaimsManager(new DelayedClaimsHandler("Claim-A", 0),
+                                                          new DelayedClaimsHandler("Claim-B", 5000),
+                                                          new DelayedClaimsHandler("Claim-C", 0));
+        claimsManager.setExecutor(executor);
+        claimsManager.setHandlerTimeout(100);
+        
+        try {
+            claimsManager.retrieveClaimValues(createClaimCollection(), createParameters());
+            fail("STSException expected");
+        } catch (STSException ex) {
+            // expected
+        }
+        
+        claimsManager.setStopProcessingOnException(false);
+        ClaimCollection requestedClaims = createClaimCollection();
+        requestedClaims.get(1).setOptional(true);
+        ProcessedClaimCollection claims = 
+            claimsManager.retrieveClaimValues(requestedClaims, createParameters());
+        assertEquals(2, claims.size());
+        assertEquals(URI.create("Claim-A"), claims.get(0).getClaimType());
+        assertEquals(URI.create("Claim-C"), claims.get(1).getClaimType());
+    }
+    
+    @Test
+    public void testClaimsCache() {
+        DelayedClaimsHandler handler = new DelayedClaimsHandler("Claim-A", 0);
+        ClaimsManager claimsManager = createClaimsManager(handler);
+        MemoryClaimsCache cache = new MemoryClaimsCache();
+        claimsManager.setClaimsCache(cache);
+        
+        ClaimCollection requestedClaims = new ClaimCollection();
+        requestedClaims.add(createClaim("Claim-A"));
+        
+        ProcessedClaimCollection claims = claimsManager.retrieveClaimValues(requestedClaims, createParameters());
+        assertEquals(1, claims.size());
+        claims = claimsManager.retrieveClaimValues(requestedClaims, createParameters());
+        assertEquals(1, claims.size());
+        assertEquals(1, handler.calls.get());
+        assertEquals(1, cache.getHits());
+        
+        ClaimsParameters parameters = createParameters();
+        parameters.setPrincipal(new CustomTokenPrincipal("bob"));
+        claims = claimsManager.retrieveClaimValues(requestedClaims, parameters);
+        assertEquals("bob", claims.get(0).getValues().get(0));
+        assertEquals(2, handler.calls.get());
+        
+        cache.remove("alice", "A");
+        claimsManager.retrieveClaimValues(requestedClaims, createParameters());
+        assertEquals(3, handler.calls.get());
+    }
+    
+    @Test
+    public void testClaimsCacheSkipsFailedRetrieval() {
+        DelayedClaimsHandler handler = new DelayedClaimsHandler("Claim-A", 0);
+        FailingClaimsHandler failingHandler = new FailingClaimsHandler("Claim-B");
+        ClaimsManager claimsManager = createClaimsManager(handler, failingHandler);
+        claimsManager.setStopProcessingOnException(false);
+        MemoryClaimsCache cache = new MemoryClaimsCache();
+        claimsManager.setClaimsCache(cache);
+        
+        ClaimCollection requestedClaims = new ClaimCollection();
+        requestedClaims.add(createClaim("Claim-A"));
+        Claim optionalClaim = createClaim("Claim-B");
+        optionalClaim.setOptional(true);
+        requestedClaims.add(optionalClaim);
+        
+        ProcessedClaimCollection claims = claimsManager.retrieveClaimValues(requestedClaims, createParameters());
+        assertEquals(1, claims.size());
+        assertEquals(0, cache.size());
+        
+        failingHandler.fail = false;
+        claims = claimsManager.retrieveClaimValues(requestedClaims, createParameters());
+        assertEquals(2, claims.size());
+        assertEquals(2, handler.calls.get());
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    public void testClaimsCacheKeyedByParameters() {
+        DelayedClaimsHandler handler = new DelayedClaimsHandler("Claim-A", 0);
+        ClaimsManager claimsManager = createClaimsManager(handler);
+        claimsManager.setClaimsCache(new MemoryClaimsCache());
+        
+        ClaimCollection requestedClaims = new ClaimCollection();
+        requestedClaims.add(createClaim("Claim-A"));
+        
+        ClaimsParameters parameters = createParameters();
+        parameters.setAppliesToAddress("https://localhost:8081/service1");
+        claimsManager.retrieveClaimValues(requestedClaims, parameters);
+        parameters = createParameters();
+        parameters.setAppliesToAddress("https://localhost:8081/service2");
+        claimsManager.retrieveClaimValues(requestedClaims, parameters);
+        assertEquals(2, handler.calls.get());
+        
+        TokenRequirements tokenRequirements = new TokenRequirements();
+        tokenRequirements.setTokenType(WSConstants.WSS_SAML2_TOKEN_TYPE);
+        parameters.setTokenRequirements(tokenRequirements);
+        claimsManager.retrieveClaimValues(requestedClaims, parameters);
+        assertEquals(3, handler.calls.get());
+        
+        parameters = createParameters();
+        parameters.setAppliesToAddress("https://localhost:8081/service1");
+        claimsManager.retrieveClaimValues(requestedClaims, parameters);
+        assertEquals(3, handler.calls.get());
+    }
+    
+    private static ClaimsManager createClaimsManager(ClaimsHandler... handlers) {
+        ClaimsManager claimsManager = new ClaimsManager();
+        List<ClaimsHandler> claimHandlers = new ArrayList<ClaimsHandler>();
+        Collections.addAll(claimHandlers, handlers);
+        claimsManager.setClaimHandlers(claimHandlers);
+        return claimsManager;
+    }
+    
+    private static ClaimsParameters createParameters() {
+        ClaimsParameters parameters = new ClaimsParameters();
+        parameters.setRealm("A");
+        parameters.setPrincipal(new CustomTokenPrincipal("alice"));
+        return parameters;
+    }
+    
+    private static ClaimCollection createClaimCollection() {
+        ClaimCollection requestedClaims = new ClaimCollection();
+        requestedClaims.add(createClaim("Claim-A"));
+        requestedClaims.add(createClaim("Claim-B"));
+        requestedClaims.add(createClaim("Claim-C"));
+        return requestedClaims;
+    }
+    
+    private static Claim createClaim(String claimType) {
+        Claim claim = new Claim();
+        claim.setClaimType(URI.create(claimType));
+        return claim;
+    }
+    
+    private static class FailingClaimsHandler implements ClaimsHandler {
+        private final URI claimType;
+        private volatile boolean fail = true;
+        
+        FailingClaimsHandler(String claimType) {
+            this.claimType = URI.create(claimType);
+        }
+
+        public List<URI> getSupportedClaimTypes() {
+            return Collections.singletonList(claimType);
+        }
+
+        public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims, 
+                                                            ClaimsParameters parameters) {
+            if (fail) {
+                throw new STSException("Claims source unavailable");
+            }
+            ProcessedClaim claim = new ProcessedClaim();
+            claim.setClaimType(claimType);
+            claim.addValue(parameters.getPrincipal().getName());
+            ProcessedClaimCollection result = new ProcessedClaimCollection();
+            result.add(claim);
+            return result;
+        }
+    }
+    
+    private static class DelayedClaimsHandler implements ClaimsHandler {
+        private final URI claimType;
+        private final long delay;
+        private final AtomicInteger calls = new AtomicInteger();
+        
+        DelayedClaimsHandler(String claimType, long delay) {
+            this.claimType = URI.create(claimType);
+            this.delay = delay;
+        }
+
+        public List<URI> getSupportedClaimTypes() {
+            return Collections.singletonList(claimType);
+        }
+
+        public ProcessedClaimCollection retrieveClaimValues(ClaimCollection claims, 
+                                                            ClaimsParameters parameters) {
+            calls.incrementAndGet();
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    throw new STSException("Interrupted", ex);
+                }
+            }
+            ProcessedClaim claim = new ProcessedClaim();
+            claim.setClaimType(claimType);
+            claim.addValue(parameters.getPrincipal().getName());
+            ProcessedClaimCollection result = new ProcessedClaimCollection();
+            result.add(claim);
+            return result;
+        }
+    }
+}